@@ -13,13 +13,32 @@ CREATE TABLE IF NOT EXISTS users (
     name VARCHAR(100) NOT NULL,
     email VARCHAR(255) NOT NULL UNIQUE,
     age INTEGER CHECK (age >= 0 AND age <= 150),
-    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP
 );
 
+-- The id sequence is consumed in blocks of 50 by Hibernate (pooled optimizer),
+-- which lets inserts be grouped into JDBC batches
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+
 -- Create indexes for better performance
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_name ON users(name);
 CREATE INDEX IF NOT EXISTS idx_users_created_at ON users(created_at);
+CREATE INDEX IF NOT EXISTS idx_users_updated_at_id ON users(updated_at, id);
+
+-- Rows written before updated_at was maintained get their creation time as the change time,
+-- otherwise the changes feed would never return them
+ALTER TABLE users ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;
+UPDATE users SET updated_at = created_at WHERE updated_at IS NULL;
+
+-- Tombstones of deleted users for the changes feed (GET /api/users/changes)
+CREATE TABLE IF NOT EXISTS user_tombstones (
+    user_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_tombstones_deleted_at_user_id ON user_tombstones(deleted_at, user_id);
 
 -- Insert sample data (optional)
 INSERT INTO users (name, email, age) VALUES 
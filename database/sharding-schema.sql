@@ -0,0 +1,24 @@
+-- SQL script for the hash-sharded users layout
+-- Run the users part on every shard and the directory part on the directory database
+-- (by default the first shard, see app.sharding.directory-url)
+
+-- Users table on each shard. IDs are generated by the application (ShardedIdGenerator),
+-- so there is no per-shard sequence.
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    age INTEGER CHECK (age >= 0 AND age <= 150),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_users_name ON users(name);
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users(created_at);
+
+-- Global email -> shard directory (directory database only)
+CREATE TABLE IF NOT EXISTS user_email_directory (
+    email VARCHAR(255) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    shard INTEGER NOT NULL
+);
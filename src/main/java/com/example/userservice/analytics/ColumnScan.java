@@ -0,0 +1,208 @@
+package com.example.userservice.analytics;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Параллельное сканирование колонок с фильтром и группировкой.
+ *
+ * <p>Диапазон строк делится пополам до порций не меньше {@link #MIN_LEAF_ROWS}; порции
+ * сканируются задачами fork-join, каждая в свои массивы агрегатов, которые затем складываются.
+ * Внутренний цикл читает только примитивные массивы: фильтры по домену и имени заранее
+ * вычислены по словарям в таблицы совпадений по коду. Ссылки на массивы берутся при создании,
+ * поэтому во время сканирования колонки не должны изменяться.
+ */
+final class ColumnScan {
+
+    static final int MAX_AGE = 150;
+    static final int MAX_DAY_GROUPS = 100_000;
+
+    private static final int MIN_LEAF_ROWS = 16_384;
+
+    private final UserColumns columns;
+    private final long[] ids;
+    private final int[] ages;
+    private final long[] createdAt;
+    private final int[] domainCodes;
+    private final int[] nameCodes;
+    private final int rows;
+
+    private final int ageLow;
+    private final int ageHigh;
+    private final long createdLow;
+    private final long createdHigh;
+    private final boolean[] domainMatch;
+    private final boolean[] nameMatch;
+
+    private final UserColumnGroupBy groupBy;
+    private final long firstDay;
+    private final int groups;
+    private final int leafRows;
+
+    ColumnScan(UserColumns columns, UserColumnFilter filter, UserColumnGroupBy groupBy, int parallelism) {
+        this.columns = columns;
+        this.ids = columns.ids;
+        this.ages = columns.ages;
+        this.createdAt = columns.createdAt;
+        this.domainCodes = columns.domainCodes;
+        this.nameCodes = columns.nameCodes;
+        this.rows = columns.rows;
+        this.groupBy = groupBy;
+
+        // Значение NULL - минимальное, поэтому любой заданный фильтр его исключает
+        boolean byAge = filter.minAge() != null || filter.maxAge() != null;
+        this.ageLow = filter.minAge() != null ? filter.minAge() : (byAge ? UserColumns.NULL_AGE + 1 : UserColumns.NULL_AGE);
+        this.ageHigh = filter.maxAge() != null ? filter.maxAge() : Integer.MAX_VALUE;
+        boolean byCreated = filter.createdFrom() != null || filter.createdTo() != null;
+        this.createdLow = filter.createdFrom() != null ? UserColumns.toMillis(filter.createdFrom())
+                : (byCreated ? UserColumns.NULL_TIME + 1 : UserColumns.NULL_TIME);
+        this.createdHigh = filter.createdTo() != null ? UserColumns.toMillis(filter.createdTo()) - 1 : Long.MAX_VALUE;
+
+        if (filter.domains() != null) {
+            domainMatch = new boolean[columns.domains.size()];
+            for (String domain : filter.domains()) {
+                int code = columns.domains.find(domain);
+                if (code >= 0) {
+                    domainMatch[code] = true;
+                }
+            }
+        } else {
+            domainMatch = null;
+        }
+        if (filter.nameContains() != null) {
+            String needle = filter.nameContains().toLowerCase(Locale.ROOT);
+            nameMatch = columns.names.matching(name -> name.toLowerCase(Locale.ROOT).contains(needle));
+        } else {
+            nameMatch = null;
+        }
+
+        long first = 0;
+        int groupCount;
+        switch (groupBy) {
+            case DOMAIN -> groupCount = Math.max(1, columns.domains.size());
+            case AGE -> groupCount = MAX_AGE + 2;
+            case CREATED_DAY -> {
+                // Дни вне окна фильтра не пройдут его, поэтому группы ограничены пересечением
+                first = Math.max(columns.minCreatedDay, Math.floorDiv(createdLow, UserColumns.DAY_MILLIS));
+                long last = Math.min(columns.maxCreatedDay, Math.floorDiv(createdHigh, UserColumns.DAY_MILLIS));
+                long span = columns.minCreatedDay <= columns.maxCreatedDay ? Math.max(0, last - first + 1) : 0;
+                if (span > MAX_DAY_GROUPS) {
+                    throw new IllegalArgumentException("Created window spans more than " + MAX_DAY_GROUPS + " days");
+                }
+                groupCount = (int) span + 1;
+            }
+            default -> groupCount = 1;
+        }
+        this.firstDay = first;
+        this.groups = groupCount;
+        this.leafRows = Math.max(MIN_LEAF_ROWS, (int) Math.ceil((double) rows / (Math.max(1, parallelism) * 4)));
+    }
+
+    Partial run(ForkJoinPool pool) {
+        return pool.invoke(new Task(0, rows));
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Ключ группы для ответа; null для пользователей без значения группируемого поля.
+     */
+    String groupKey(int group) {
+        return switch (groupBy) {
+            case NONE -> "all";
+            case DOMAIN -> columns.domains.decode(group);
+            case AGE -> group <= MAX_AGE ? Integer.toString(group) : null;
+            case CREATED_DAY -> group < groups - 1 ? LocalDate.ofEpochDay(firstDay + group).toString() : null;
+        };
+    }
+
+    private Partial scanRange(int from, int to) {
+        Partial partial = new Partial(groups);
+        long[] counts = partial.counts;
+        long[] ageSums = partial.ageSums;
+        long[] ageCounts = partial.ageCounts;
+        for (int row = from; row < to; row++) {
+            if (ids[row] == 0) {
+                continue;
+            }
+            int age = ages[row];
+            if (age < ageLow || age > ageHigh) {
+                continue;
+            }
+            long created = createdAt[row];
+            if (created < createdLow || created > createdHigh) {
+                continue;
+            }
+            if (domainMatch != null && !domainMatch[domainCodes[row]]) {
+                continue;
+            }
+            if (nameMatch != null && !nameMatch[nameCodes[row]]) {
+                continue;
+            }
+            int group = switch (groupBy) {
+                case NONE -> 0;
+                case DOMAIN -> domainCodes[row];
+                case AGE -> age == UserColumns.NULL_AGE ? MAX_AGE + 1 : Math.min(Math.max(age, 0), MAX_AGE);
+                case CREATED_DAY -> created == UserColumns.NULL_TIME
+                        ? groups - 1 : (int) (Math.floorDiv(created, UserColumns.DAY_MILLIS) - firstDay);
+            };
+            counts[group]++;
+            if (age != UserColumns.NULL_AGE) {
+                ageSums[group] += age;
+                ageCounts[group]++;
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * Агрегаты по группам: число строк, сумма и число известных возрастов.
+     */
+    static final class Partial {
+        final long[] counts;
+        final long[] ageSums;
+        final long[] ageCounts;
+
+        private Partial(int groups) {
+            this.counts = new long[groups];
+            this.ageSums = new long[groups];
+            this.ageCounts = new long[groups];
+        }
+
+        private Partial merge(Partial other) {
+            for (int group = 0; group < counts.length; group++) {
+                counts[group] += other.counts[group];
+                ageSums[group] += other.ageSums[group];
+                ageCounts[group] += other.ageCounts[group];
+            }
+            return this;
+        }
+    }
+
+    private final class Task extends RecursiveTask<Partial> {
+
+        private final int from;
+        private final int to;
+
+        private Task(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= leafRows) {
+                return scanRange(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Task left = new Task(from, middle);
+            left.fork();
+            Partial right = new Task(middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+}
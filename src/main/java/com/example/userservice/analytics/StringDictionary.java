@@ -0,0 +1,59 @@
+package com.example.userservice.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Словарь строк для колонок со словарным кодированием: значение хранится один раз,
+ * строки таблицы хранят его код (int). Коды назначаются по порядку и не меняются.
+ * Предикат по колонке вычисляется один раз на значение словаря, а не на строку.
+ * Не потокобезопасен.
+ */
+final class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Возвращает код значения, добавляя его в словарь при необходимости.
+     */
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Возвращает код значения или -1, если его нет в словаре.
+     */
+    int find(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    /**
+     * Таблица совпадений по кодам: matches[code] - удовлетворяет ли значение предикату.
+     */
+    boolean[] matching(Predicate<String> predicate) {
+        boolean[] matches = new boolean[values.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = predicate.test(values.get(code));
+        }
+        return matches;
+    }
+}
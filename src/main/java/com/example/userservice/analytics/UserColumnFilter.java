@@ -0,0 +1,57 @@
+package com.example.userservice.analytics;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Фильтр аналитического запроса к колоночному снимку. Null поля не ограничивают выборку;
+ * как и в SQL, пользователь без возраста или даты создания не проходит фильтр по ним.
+ *
+ * @param minAge минимальный возраст, включительно
+ * @param maxAge максимальный возраст, включительно
+ * @param domains домены email, без учета регистра и с необязательным '@' в начале
+ * @param nameContains подстрока имени без учета регистра
+ * @param createdFrom начало окна создания, включительно
+ * @param createdTo конец окна создания, исключительно
+ */
+public record UserColumnFilter(Integer minAge,
+                               Integer maxAge,
+                               Set<String> domains,
+                               String nameContains,
+                               LocalDateTime createdFrom,
+                               LocalDateTime createdTo) {
+
+    private static final UserColumnFilter ALL = new UserColumnFilter(null, null, null, null, null, null);
+
+    public UserColumnFilter {
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new IllegalArgumentException("Minimum age cannot be greater than maximum age");
+        }
+        if (createdFrom != null && createdTo != null && !createdFrom.isBefore(createdTo)) {
+            throw new IllegalArgumentException("createdFrom must be before createdTo");
+        }
+        domains = domains != null && !domains.isEmpty() ? normalizeDomains(domains) : null;
+        nameContains = nameContains != null && !nameContains.isBlank() ? nameContains.trim() : null;
+    }
+
+    public static UserColumnFilter all() {
+        return ALL;
+    }
+
+    private static Set<String> normalizeDomains(Set<String> domains) {
+        Set<String> normalized = new HashSet<>();
+        for (String domain : domains) {
+            String value = domain != null ? domain.trim().toLowerCase(Locale.ROOT) : "";
+            if (value.startsWith("@")) {
+                value = value.substring(1);
+            }
+            if (value.isEmpty() || value.indexOf('@') >= 0) {
+                throw new IllegalArgumentException("Invalid email domain: " + domain);
+            }
+            normalized.add(value);
+        }
+        return Set.copyOf(normalized);
+    }
+}
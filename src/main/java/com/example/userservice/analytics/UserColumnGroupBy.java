@@ -0,0 +1,15 @@
+package com.example.userservice.analytics;
+
+/**
+ * Группировка аналитического запроса к колоночному снимку.
+ */
+public enum UserColumnGroupBy {
+    /** Одна группа со всеми подходящими пользователями. */
+    NONE,
+    /** По домену email. */
+    DOMAIN,
+    /** По возрасту. */
+    AGE,
+    /** По дню создания. */
+    CREATED_DAY
+}
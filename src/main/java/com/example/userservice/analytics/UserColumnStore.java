@@ -0,0 +1,282 @@
+package com.example.userservice.analytics;
+
+import com.example.userservice.dto.ChangesPageDto;
+import com.example.userservice.dto.UserAnalyticsDto;
+import com.example.userservice.dto.UserChangeDto;
+import com.example.userservice.exception.ChangesTokenExpiredException;
+import com.example.userservice.repository.UserScanRepository;
+import com.example.userservice.service.UserChangesService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Колоночный снимок таблицы users в памяти для аналитических запросов
+ * (фильтры по возрасту, домену, имени и окну создания, группировки), чтобы они не нагружали primary.
+ *
+ * <p>Снимок загружается одним потоковым чтением таблицы и затем обновляется инкрементально
+ * по ленте изменений ({@link UserChangesService}) с токена, взятого до начала чтения: изменения
+ * с других узлов и мимо сервиса тоже попадают в снимок, с задержкой на safety lag ленты.
+ * Если токен устарел, снимок загружается заново.
+ *
+ * <p>Запросы сканируют колонки параллельно в собственном {@link ForkJoinPool}, чтобы не занимать
+ * общий пул. Сканирование выполняется под блокировкой чтения, применение порции изменений -
+ * под блокировкой записи, поэтому запрос видит снимок целиком до или после порции.
+ */
+@Slf4j
+@Component
+public class UserColumnStore implements InitializingBean, DisposableBean {
+
+    private static final int MAX_GROUPS = 10_000;
+
+    private final UserScanRepository userScanRepository;
+    private final UserChangesService userChangesService;
+    private final boolean enabled;
+    private final long refreshIntervalMs;
+    private final int changesPageSize;
+    private final int parallelism;
+    private final ForkJoinPool scanPool;
+    private final ScheduledThreadPoolExecutor refresher;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object refreshMonitor = new Object();
+    // Запись под lock.writeLock(), чтение под lock.readLock()
+    private UserColumns columns;
+    private Instant refreshedAt;
+    // Доступ только под refreshMonitor
+    private String changesToken;
+
+    private final LongAdder fullLoads = new LongAdder();
+    private final LongAdder appliedChanges = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder scannedRows = new LongAdder();
+
+    public UserColumnStore(UserScanRepository userScanRepository,
+                           UserChangesService userChangesService,
+                           @Value("${app.columnar.enabled:false}") boolean enabled,
+                           @Value("${app.columnar.refresh-interval-ms:2000}") long refreshIntervalMs,
+                           @Value("${app.columnar.changes-page-size:1000}") int changesPageSize,
+                           @Value("${app.columnar.parallelism:0}") int parallelism,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.userScanRepository = userScanRepository;
+        this.userChangesService = userChangesService;
+        this.enabled = enabled;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.changesPageSize = changesPageSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.scanPool = new ForkJoinPool(this.parallelism);
+        this.refresher = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "user-columnar-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Выполняет аналитический запрос.
+     *
+     * @param filter фильтр
+     * @param groupBy группировка
+     * @param limit максимальное число групп в ответе
+     * @return результат или пустой Optional, если снимок отключен или еще не загружен
+     * @throws IllegalArgumentException если лимит вне допустимых границ или окно создания слишком широкое
+     */
+    public Optional<UserAnalyticsDto> query(UserColumnFilter filter, UserColumnGroupBy groupBy, int limit) {
+        if (limit < 1 || limit > MAX_GROUPS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_GROUPS);
+        }
+        lock.readLock().lock();
+        try {
+            if (columns == null) {
+                return Optional.empty();
+            }
+            long started = System.nanoTime();
+            ColumnScan scan = new ColumnScan(columns, filter, groupBy, parallelism);
+            ColumnScan.Partial result = scan.run(scanPool);
+            long elapsedMicros = (System.nanoTime() - started) / 1_000;
+            queries.increment();
+            scannedRows.add(scan.rows());
+            return Optional.of(toDto(scan, result, groupBy, limit, elapsedMicros));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Приводит снимок к текущему состоянию ленты изменений; при первом вызове загружает его целиком.
+     */
+    public void refresh() {
+        synchronized (refreshMonitor) {
+            if (changesToken == null) {
+                fullLoad();
+                return;
+            }
+            try {
+                applyChanges();
+            } catch (ChangesTokenExpiredException e) {
+                log.warn("Columnar snapshot fell behind the changes feed retention, reloading");
+                fullLoad();
+            }
+        }
+    }
+
+    /**
+     * Загружает снимок заново полным чтением таблицы, например после изменений мимо сервиса,
+     * не оставивших отметок об удалении.
+     */
+    public void reload() {
+        synchronized (refreshMonitor) {
+            fullLoad();
+        }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return columns != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getFullLoads() {
+        return fullLoads.sum();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+        scanPool.shutdownNow();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh the columnar user snapshot", e);
+        }
+    }
+
+    private void fullLoad() {
+        long started = System.nanoTime();
+        // Токен берется до чтения: изменения во время чтения будут применены повторно, но не потеряны
+        String token = userChangesService.currentToken();
+        UserColumns fresh = new UserColumns(1_024);
+        long rows = userScanRepository.scan(fresh::upsert);
+        lock.writeLock().lock();
+        try {
+            columns = fresh;
+            refreshedAt = Instant.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changesToken = token;
+        fullLoads.increment();
+        log.info("Columnar user snapshot loaded: {} rows, {} domains, {} names in {} ms", rows,
+                fresh.domains.size(), fresh.names.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void applyChanges() {
+        ChangesPageDto page;
+        do {
+            page = userChangesService.getChanges(changesToken, changesPageSize);
+            List<UserChangeDto> changes = page.getChanges();
+            lock.writeLock().lock();
+            try {
+                for (UserChangeDto change : changes) {
+                    if (change.getKind() == UserChangeDto.Kind.DELETE) {
+                        columns.delete(change.getId());
+                    } else {
+                        columns.upsert(change.getUser());
+                    }
+                }
+                if (columns.needsCompaction()) {
+                    columns = columns.compact();
+                    compactions.increment();
+                }
+                refreshedAt = Instant.now();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            appliedChanges.add(changes.size());
+            changesToken = page.getNextToken();
+        } while (page.isHasMore());
+    }
+
+    private UserAnalyticsDto toDto(ColumnScan scan, ColumnScan.Partial result, UserColumnGroupBy groupBy,
+                                   int limit, long elapsedMicros) {
+        List<UserAnalyticsDto.Group> groups = new ArrayList<>();
+        long matched = 0;
+        for (int group = 0; group < result.counts.length; group++) {
+            long count = result.counts[group];
+            if (count == 0) {
+                continue;
+            }
+            matched += count;
+            Double averageAge = result.ageCounts[group] > 0
+                    ? (double) result.ageSums[group] / result.ageCounts[group] : null;
+            groups.add(new UserAnalyticsDto.Group(scan.groupKey(group), count, averageAge));
+        }
+        if (groupBy == UserColumnGroupBy.DOMAIN) {
+            groups.sort(Comparator.comparingLong(UserAnalyticsDto.Group::getCount).reversed()
+                    .thenComparing(UserAnalyticsDto.Group::getKey));
+        }
+        boolean truncated = groups.size() > limit;
+        return UserAnalyticsDto.builder()
+                .matched(matched)
+                .scannedRows(scan.rows())
+                .groups(truncated ? new ArrayList<>(groups.subList(0, limit)) : groups)
+                .truncated(truncated)
+                .refreshedAt(refreshedAt)
+                .elapsedMicros(elapsedMicros)
+                .build();
+    }
+
+    private long liveRows() {
+        lock.readLock().lock();
+        try {
+            return columns != null ? columns.liveRows() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("user.columnar.rows", this, UserColumnStore::liveRows).register(registry);
+        registry.more().counter("user.columnar.full.loads", Tags.empty(), fullLoads);
+        registry.more().counter("user.columnar.changes.applied", Tags.empty(), appliedChanges);
+        registry.more().counter("user.columnar.compactions", Tags.empty(), compactions);
+        registry.more().counter("user.columnar.queries", Tags.empty(), queries);
+        registry.more().counter("user.columnar.rows.scanned", Tags.empty(), scannedRows);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.userservice.analytics;
+
+import com.example.userservice.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Колонки снимка таблицы users: примитивные массивы для ID, возраста и времени (epoch millis),
+ * коды словарей для доменов email и имен. Строка i - это значения i-х элементов всех массивов.
+ *
+ * <p>Изменения применяются на месте: новый пользователь дописывается в конец, измененный
+ * перезаписывает свою строку, удаленный помечается нулевым ID. Когда удаленных строк становится
+ * много, {@link #compact()} строит плотную копию с новыми словарями. Не потокобезопасны.
+ */
+final class UserColumns {
+
+    static final int NULL_AGE = Integer.MIN_VALUE;
+    static final long NULL_TIME = Long.MIN_VALUE;
+    static final long DAY_MILLIS = 86_400_000L;
+
+    private static final int MIN_COMPACTION_ROWS = 1_024;
+
+    long[] ids;
+    int[] ages;
+    long[] createdAt;
+    long[] updatedAt;
+    int[] domainCodes;
+    int[] nameCodes;
+    // Физические строки, включая удаленные
+    int rows;
+    int deleted;
+    long minCreatedDay = Long.MAX_VALUE;
+    long maxCreatedDay = Long.MIN_VALUE;
+
+    final StringDictionary domains = new StringDictionary();
+    final StringDictionary names = new StringDictionary();
+    private final LongIntMap positions;
+
+    UserColumns(int capacity) {
+        int initial = Math.max(16, capacity);
+        ids = new long[initial];
+        ages = new int[initial];
+        createdAt = new long[initial];
+        updatedAt = new long[initial];
+        domainCodes = new int[initial];
+        nameCodes = new int[initial];
+        positions = new LongIntMap(initial);
+    }
+
+    /**
+     * Добавляет пользователя или перезаписывает его строку.
+     */
+    void upsert(UserDto user) {
+        long id = user.getId();
+        int row = positions.get(id);
+        if (row == LongIntMap.MISSING) {
+            ensureCapacity(rows + 1);
+            row = rows++;
+            positions.put(id, row);
+        } else if (ids[row] == 0) {
+            // Повторно созданный ID занимает свою прежнюю строку
+            deleted--;
+        }
+        ids[row] = id;
+        ages[row] = user.getAge() != null ? user.getAge() : NULL_AGE;
+        createdAt[row] = toMillis(user.getCreatedAt());
+        updatedAt[row] = toMillis(user.getUpdatedAt());
+        domainCodes[row] = domains.encode(domainOf(user.getEmail()));
+        nameCodes[row] = names.encode(user.getName() != null ? user.getName() : "");
+        if (createdAt[row] != NULL_TIME) {
+            long day = Math.floorDiv(createdAt[row], DAY_MILLIS);
+            minCreatedDay = Math.min(minCreatedDay, day);
+            maxCreatedDay = Math.max(maxCreatedDay, day);
+        }
+    }
+
+    /**
+     * Помечает строку пользователя удаленной.
+     */
+    void delete(long id) {
+        int row = positions.get(id);
+        if (row != LongIntMap.MISSING && ids[row] != 0) {
+            ids[row] = 0;
+            deleted++;
+        }
+    }
+
+    int liveRows() {
+        return rows - deleted;
+    }
+
+    boolean needsCompaction() {
+        return deleted >= MIN_COMPACTION_ROWS && deleted * 4 > rows;
+    }
+
+    /**
+     * Плотная копия без удаленных строк; словари содержат только используемые значения.
+     */
+    UserColumns compact() {
+        UserColumns compacted = new UserColumns(liveRows());
+        for (int row = 0; row < rows; row++) {
+            long id = ids[row];
+            if (id == 0) {
+                continue;
+            }
+            int target = compacted.rows++;
+            compacted.ids[target] = id;
+            compacted.ages[target] = ages[row];
+            compacted.createdAt[target] = createdAt[row];
+            compacted.updatedAt[target] = updatedAt[row];
+            compacted.domainCodes[target] = compacted.domains.encode(domains.decode(domainCodes[row]));
+            compacted.nameCodes[target] = compacted.names.encode(names.decode(nameCodes[row]));
+            compacted.positions.put(id, target);
+            if (createdAt[row] != NULL_TIME) {
+                long day = Math.floorDiv(createdAt[row], DAY_MILLIS);
+                compacted.minCreatedDay = Math.min(compacted.minCreatedDay, day);
+                compacted.maxCreatedDay = Math.max(compacted.maxCreatedDay, day);
+            }
+        }
+        return compacted;
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : NULL_TIME;
+    }
+
+    static String domainOf(String email) {
+        if (email == null) {
+            return "";
+        }
+        return email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        domainCodes = Arrays.copyOf(domainCodes, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+    }
+}
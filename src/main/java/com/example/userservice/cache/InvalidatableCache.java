@@ -0,0 +1,31 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.event.UserChangedEvent;
+
+/**
+ * Локальный кэш данных пользователей, который инвалидируется по изменениям на любом узле.
+ * Реализации регистрируются как бины и получают инвалидации от {@link UserInvalidationBus}.
+ */
+public interface InvalidatableCache {
+
+    /**
+     * Удаляет данные пользователя.
+     */
+    void invalidate(long userId);
+
+    /**
+     * Удаляет данные всех пользователей.
+     */
+    void invalidateAll();
+
+    /**
+     * Применяет событие изменения пользователей.
+     */
+    default void onUserChanged(UserChangedEvent event) {
+        if (event.isAllUsers()) {
+            invalidateAll();
+        } else {
+            event.getUserIds().forEach(this::invalidate);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.UserInvalidationBatchDto;
+
+import java.util.function.Consumer;
+
+/**
+ * Транспорт рассылки пакетов инвалидаций между узлами.
+ * Каждый узел должен получать все пакеты, включая собственные.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Отправляет пакет всем узлам.
+     */
+    void send(UserInvalidationBatchDto batch);
+
+    /**
+     * Регистрирует получателя пакетов.
+     */
+    void subscribe(Consumer<UserInvalidationBatchDto> receiver);
+}
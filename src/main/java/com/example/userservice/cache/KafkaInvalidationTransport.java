@@ -0,0 +1,98 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.UserInvalidationBatchDto;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Транспорт через отдельный топик Kafka.
+ *
+ * <p>Каждый узел читает топик в собственной consumer group с постоянным ID узла, поэтому получает
+ * все пакеты, а перезапуск узла продолжает ту же группу, не оставляя брошенных групп.
+ * Для новой группы чтение начинается с конца топика: при старте локальные кэши пусты и старые
+ * инвалидации не нужны. Ключ сообщения - ID узла, так что пакеты одного узла попадают в одну
+ * партицию и приходят по порядку.
+ *
+ * <p>Настройки потребителя берутся из spring.kafka.consumer.*; group id, сброс смещения и
+ * десериализаторы задаются транспортом. Контейнер слушателя запускается и останавливается
+ * жизненным циклом контекста.
+ */
+@Slf4j
+public class KafkaInvalidationTransport implements InvalidationTransport, SmartLifecycle {
+
+    private final KafkaTemplate<String, UserInvalidationBatchDto> kafkaTemplate;
+    private final Map<String, Object> consumerProperties;
+    private final String topic;
+    private final String nodeId;
+    private ConcurrentMessageListenerContainer<String, UserInvalidationBatchDto> container;
+
+    public KafkaInvalidationTransport(KafkaTemplate<String, UserInvalidationBatchDto> kafkaTemplate,
+                                      Map<String, Object> consumerProperties, String topic, String nodeId) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.consumerProperties = consumerProperties;
+        this.topic = topic;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void send(UserInvalidationBatchDto batch) {
+        kafkaTemplate.send(topic, batch.getNodeId(), batch).whenComplete((result, error) -> {
+            if (error != null) {
+                log.error("Failed to publish cache invalidation batch of {} users", batch.getUserIds().length, error);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<UserInvalidationBatchDto> receiver) {
+        if (container != null) {
+            throw new IllegalStateException("Kafka invalidation transport supports a single receiver");
+        }
+        Map<String, Object> props = new HashMap<>(consumerProperties);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "user-service-invalidation-" + nodeId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
+        JsonDeserializer<UserInvalidationBatchDto> valueDeserializer =
+                new JsonDeserializer<>(UserInvalidationBatchDto.class, false);
+        DefaultKafkaConsumerFactory<String, UserInvalidationBatchDto> consumerFactory =
+                new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), valueDeserializer);
+
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setMessageListener(
+                (MessageListener<String, UserInvalidationBatchDto>) record -> receiver.accept(record.value()));
+        container = new ConcurrentMessageListenerContainer<>(consumerFactory, containerProperties);
+        container.setBeanName("userInvalidationContainer");
+    }
+
+    @Override
+    public synchronized void start() {
+        if (container != null && !container.isRunning()) {
+            container.start();
+            log.info("Listening for cache invalidations on topic {} as node {}", topic, nodeId);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return container != null && container.isRunning();
+    }
+}
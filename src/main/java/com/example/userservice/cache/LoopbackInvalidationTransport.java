@@ -0,0 +1,27 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.UserInvalidationBatchDto;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Транспорт в памяти процесса: пакет синхронно доставляется всем получателям.
+ * Используется в тестах и при запуске одного узла; несколько шин с общим транспортом
+ * имитируют несколько узлов.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<UserInvalidationBatchDto>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(UserInvalidationBatchDto batch) {
+        receivers.forEach(receiver -> receiver.accept(batch));
+    }
+
+    @Override
+    public void subscribe(Consumer<UserInvalidationBatchDto> receiver) {
+        receivers.add(receiver);
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.UserInvalidationBatchDto;
+import com.example.userservice.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Шина инвалидации локальных кэшей между узлами сервиса.
+ *
+ * <p>После коммита записи ({@link UserChangedEvent}) локальные {@link InvalidatableCache} очищаются сразу,
+ * а пары (id, версия) накапливаются и отправляются через {@link InvalidationTransport} пакетами:
+ * по достижении размера пакета или по таймеру. Остальные узлы применяют пакет к своим кэшам.
+ *
+ * <p>Версии монотонны в пределах узла-отправителя. Получатель помнит последнюю примененную версию
+ * пользователя от каждого узла и пропускает более старые и повторные доставки. Повторное применение
+ * всегда безопасно (инвалидация идемпотентна), поэтому память о версиях хранится ограниченное время.
+ *
+ * <p>Отправка по таймеру выполняется собственным потоком: частый flush не должен занимать
+ * общий поток {@code @Scheduled} остальных фоновых задач.
+ */
+@Slf4j
+public class UserInvalidationBus implements InitializingBean, DisposableBean {
+
+    private final InvalidationTransport transport;
+    private final ObjectProvider<InvalidatableCache> caches;
+    private final String nodeId;
+    private final int maxBatchSize;
+    private final long appliedRetentionMillis;
+    private final long flushIntervalMillis;
+    private final long pruneIntervalMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    // Начинается с текущего времени, чтобы версии узла с тем же ID оставались монотонными после перезапуска
+    private final AtomicLong versionClock = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private LinkedHashMap<Long, Long> pending = new LinkedHashMap<>();
+    private long pendingAllUsersVersion;
+
+    private final ConcurrentHashMap<Long, AppliedVersion> appliedVersions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> appliedAllUsersVersions = new ConcurrentHashMap<>();
+
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder batchesReceived = new LongAdder();
+    private final LongAdder invalidationsApplied = new LongAdder();
+    private final LongAdder invalidationsSkipped = new LongAdder();
+
+    public UserInvalidationBus(InvalidationTransport transport,
+                               ObjectProvider<InvalidatableCache> caches,
+                               String nodeId,
+                               int maxBatchSize,
+                               Duration appliedRetention,
+                               Duration flushInterval,
+                               Duration pruneInterval,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Invalidation batch size must be positive");
+        }
+        this.transport = transport;
+        this.caches = caches;
+        this.nodeId = nodeId;
+        this.maxBatchSize = maxBatchSize;
+        this.appliedRetentionMillis = appliedRetention.toMillis();
+        this.flushIntervalMillis = flushInterval.toMillis();
+        this.pruneIntervalMillis = pruneInterval.toMillis();
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "user-cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.ifAvailable(this::registerMetrics);
+        transport.subscribe(this::receive);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::pruneAppliedVersions, pruneIntervalMillis, pruneIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Очищает локальные кэши и ставит инвалидации в очередь рассылки после коммита транзакции записи.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        caches.orderedStream().forEach(cache -> cache.onUserChanged(event));
+
+        UserInvalidationBatchDto full = null;
+        pendingLock.lock();
+        try {
+            if (event.isAllUsers()) {
+                // Полная инвалидация покрывает все накопленные ранее
+                pendingAllUsersVersion = versionClock.incrementAndGet();
+                pending.clear();
+            } else {
+                for (Long userId : event.getUserIds()) {
+                    pending.remove(userId);
+                    pending.put(userId, versionClock.incrementAndGet());
+                }
+            }
+            if (pending.size() >= maxBatchSize) {
+                full = drainPending();
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    /**
+     * Отправляет накопленные инвалидации.
+     */
+    public void flush() {
+        UserInvalidationBatchDto batch;
+        pendingLock.lock();
+        try {
+            batch = pending.isEmpty() && pendingAllUsersVersion == 0 ? null : drainPending();
+        } finally {
+            pendingLock.unlock();
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Забывает версии, примененные раньше срока хранения.
+     */
+    public void pruneAppliedVersions() {
+        long cutoff = System.currentTimeMillis() - appliedRetentionMillis;
+        appliedVersions.values().removeIf(applied -> applied.appliedAtMillis() < cutoff);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    public long getBatchesSent() {
+        return batchesSent.sum();
+    }
+
+    public long getBatchesReceived() {
+        return batchesReceived.sum();
+    }
+
+    public long getInvalidationsApplied() {
+        return invalidationsApplied.sum();
+    }
+
+    public long getInvalidationsSkipped() {
+        return invalidationsSkipped.sum();
+    }
+
+    /**
+     * Применяет пакет другого узла к локальным кэшам.
+     */
+    void receive(UserInvalidationBatchDto batch) {
+        if (nodeId.equals(batch.getNodeId())) {
+            return;
+        }
+        batchesReceived.increment();
+        String sender = batch.getNodeId();
+        long allUsersVersion = batch.getAllUsersVersion();
+        if (allUsersVersion > 0) {
+            Long previous = appliedAllUsersVersions.get(sender);
+            if (previous == null || previous < allUsersVersion) {
+                appliedAllUsersVersions.merge(sender, allUsersVersion, Math::max);
+                caches.orderedStream().forEach(InvalidatableCache::invalidateAll);
+                invalidationsApplied.increment();
+            } else {
+                invalidationsSkipped.increment();
+            }
+        }
+
+        long coveredByAllUsers = appliedAllUsersVersions.getOrDefault(sender, 0L);
+        long now = System.currentTimeMillis();
+        long[] userIds = batch.getUserIds();
+        long[] versions = batch.getVersions();
+        for (int i = 0; i < userIds.length; i++) {
+            if (versions[i] <= coveredByAllUsers || !markApplied(userIds[i], sender, versions[i], now)) {
+                invalidationsSkipped.increment();
+                continue;
+            }
+            long userId = userIds[i];
+            caches.orderedStream().forEach(cache -> cache.invalidate(userId));
+            invalidationsApplied.increment();
+        }
+        log.debug("Applied invalidation batch from node {}: {} users, allUsersVersion={}",
+                sender, userIds.length, allUsersVersion);
+    }
+
+    /**
+     * Запоминает версию, если она новее уже примененной от того же узла.
+     */
+    private boolean markApplied(long userId, String sender, long version, long now) {
+        boolean[] newer = new boolean[1];
+        appliedVersions.compute(userId, (id, current) -> {
+            if (current != null && current.nodeId().equals(sender) && current.version() >= version) {
+                return current;
+            }
+            newer[0] = true;
+            return new AppliedVersion(sender, version, now);
+        });
+        return newer[0];
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush cache invalidations", e);
+        }
+    }
+
+    private UserInvalidationBatchDto drainPending() {
+        long[] userIds = new long[pending.size()];
+        long[] versions = new long[pending.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> entry : pending.entrySet()) {
+            userIds[i] = entry.getKey();
+            versions[i++] = entry.getValue();
+        }
+        UserInvalidationBatchDto batch = UserInvalidationBatchDto.builder()
+                .nodeId(nodeId)
+                .userIds(userIds)
+                .versions(versions)
+                .allUsersVersion(pendingAllUsersVersion)
+                .build();
+        pending = new LinkedHashMap<>();
+        pendingAllUsersVersion = 0;
+        return batch;
+    }
+
+    private void send(UserInvalidationBatchDto batch) {
+        try {
+            transport.send(batch);
+            batchesSent.increment();
+        } catch (Exception e) {
+            log.error("Failed to send cache invalidation batch of {} users", batch.getUserIds().length, e);
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        registry.more().counter("user.cache.invalidation.batches.sent", Tags.empty(), batchesSent);
+        registry.more().counter("user.cache.invalidation.batches.received", Tags.empty(), batchesReceived);
+        registry.more().counter("user.cache.invalidation.applied", Tags.empty(), invalidationsApplied);
+        registry.more().counter("user.cache.invalidation.skipped", Tags.empty(), invalidationsSkipped);
+    }
+
+    /**
+     * Последняя примененная инвалидация пользователя: узел-отправитель и версия.
+     */
+    private record AppliedVersion(String nodeId, long version, long appliedAtMillis) {
+    }
+}
@@ -0,0 +1,381 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.UserDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш точечных чтений пользователя по ID и email с обновлением заранее (refresh-ahead)
+ * и отдачей устаревших данных во время обновления (stale-while-revalidate).
+ *
+ * <p>Возраст записи определяет поведение:
+ * <ul>
+ *   <li>до {@code ttl * refresh-ahead-ratio} - обычное попадание;</li>
+ *   <li>до {@code ttl} - попадание и фоновое обновление, чтобы горячая запись не истекла;</li>
+ *   <li>до {@code ttl + max-stale} - в режиме stale-while-revalidate отдается устаревшее значение
+ *       с фоновым обновлением, иначе загрузка синхронная, а при ошибке БД отдается устаревшее значение;</li>
+ *   <li>старше - только синхронная загрузка.</li>
+ * </ul>
+ * Фоновые обновления выполняет ограниченный пул; одна запись обновляется не более чем одной задачей,
+ * при переполнении очереди обновление пропускается.
+ *
+ * <p>Инвалидация после записи ({@link InvalidatableCache}) удаляет запись и, как в
+ * {@link UserResponseCache}, увеличивает версию, чтобы загрузка, начатая до записи, не сохранила старые данные.
+ */
+@Slf4j
+@Component
+public class UserLookupCache implements InvalidatableCache, DisposableBean {
+
+    private static final int VERSION_STRIPES = 4096;
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long maxStaleNanos;
+    private final boolean staleWhileRevalidate;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final ConcurrentHashMap<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry> byEmail = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> emailById = new ConcurrentHashMap<>();
+    private final AtomicLongArray stripeVersions = new AtomicLongArray(VERSION_STRIPES);
+    // Для чтений по email ID заранее неизвестен, поэтому они сверяются с общей эпохой записей
+    private final AtomicLong writeEpoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder staleOnError = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder refreshRejected = new LongAdder();
+    private volatile DistributionSummary staleness;
+
+    @Autowired
+    public UserLookupCache(@Value("${app.lookup-cache.enabled:false}") boolean enabled,
+                           @Value("${app.lookup-cache.ttl-ms:60000}") long ttlMs,
+                           @Value("${app.lookup-cache.refresh-ahead-ratio:0.8}") double refreshAheadRatio,
+                           @Value("${app.lookup-cache.max-stale-ms:300000}") long maxStaleMs,
+                           @Value("${app.lookup-cache.stale-while-revalidate:true}") boolean staleWhileRevalidate,
+                           @Value("${app.lookup-cache.max-entries:100000}") int maxEntries,
+                           @Value("${app.lookup-cache.refresh-threads:2}") int refreshThreads,
+                           @Value("${app.lookup-cache.refresh-queue:1000}") int refreshQueue,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this(enabled, Duration.ofMillis(ttlMs), refreshAheadRatio, Duration.ofMillis(maxStaleMs), staleWhileRevalidate,
+                maxEntries, refreshThreads, refreshQueue, System::nanoTime, meterRegistry);
+    }
+
+    UserLookupCache(boolean enabled, Duration ttl, double refreshAheadRatio, Duration maxStale,
+                    boolean staleWhileRevalidate, int maxEntries, int refreshThreads, int refreshQueue,
+                    LongSupplier nanoClock, ObjectProvider<MeterRegistry> meterRegistry) {
+        if (ttl.isNegative() || ttl.isZero() || maxStale.isNegative()) {
+            throw new IllegalArgumentException("Lookup cache TTL must be positive and max staleness non-negative");
+        }
+        if (refreshAheadRatio <= 0 || refreshAheadRatio > 1) {
+            throw new IllegalArgumentException("Refresh-ahead ratio must be in (0, 1]");
+        }
+        if (maxEntries <= 0 || refreshThreads <= 0 || refreshQueue <= 0) {
+            throw new IllegalArgumentException("Lookup cache sizes must be positive");
+        }
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAheadNanos = (long) (ttlNanos * refreshAheadRatio);
+        this.maxStaleNanos = maxStale.toNanos();
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(refreshQueue), runnable -> {
+                    Thread thread = new Thread(runnable, "user-lookup-refresh-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Возвращает пользователя по ID из кэша или через загрузчик.
+     *
+     * @param id ID пользователя
+     * @param loader загрузка из БД
+     * @return пользователь, если найден
+     */
+    public Optional<UserDto> getById(long id, Function<Long, Optional<UserDto>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        // Проверка версии внутри compute: invalidate() удаляет запись под той же блокировкой,
+        // поэтому между проверкой и вставкой устаревшая запись проскочить не может
+        return get(byId, id, loader, () -> stripeVersions.get(stripe(id)), (loaded, version) ->
+                byId.compute(id, (key, current) -> stripeVersions.get(stripe(key)) == version ? loaded : current));
+    }
+
+    /**
+     * Возвращает пользователя по email из кэша или через загрузчик.
+     *
+     * @param email email пользователя
+     * @param loader загрузка из БД
+     * @return пользователь, если найден
+     */
+    public Optional<UserDto> getByEmail(String email, Function<String, Optional<UserDto>> loader) {
+        if (!enabled) {
+            return loader.apply(email);
+        }
+        // Обратная ссылка ID -> email записывается до проверки эпохи и под блокировкой записи byEmail:
+        // если invalidate() увеличит эпоху после проверки, он найдет ссылку и удалит запись
+        return get(byEmail, email, loader, writeEpoch::get, (loaded, epoch) ->
+                byEmail.compute(email, (key, current) -> {
+                    emailById.put(loaded.value.getId(), key);
+                    return writeEpoch.get() == epoch ? loaded : current;
+                }));
+    }
+
+    @Override
+    public void invalidate(long userId) {
+        stripeVersions.incrementAndGet(stripe(userId));
+        writeEpoch.incrementAndGet();
+        byId.remove(userId);
+        String email = emailById.remove(userId);
+        if (email != null) {
+            byEmail.remove(email);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            stripeVersions.incrementAndGet(i);
+        }
+        writeEpoch.incrementAndGet();
+        byId.clear();
+        byEmail.clear();
+        emailById.clear();
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public int size() {
+        return byId.size() + byEmail.size();
+    }
+
+    int emailLinks() {
+        return emailById.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    public long getStaleOnError() {
+        return staleOnError.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    public long getRefreshRejected() {
+        return refreshRejected.sum();
+    }
+
+    private <K> Optional<UserDto> get(Map<K, Entry> entries, K key, Function<K, Optional<UserDto>> loader,
+                                      LongSupplier version, Store store) {
+        Entry entry = entries.get(key);
+        long now = nanoClock.getAsLong();
+        long age = entry != null ? now - entry.loadedAt : Long.MAX_VALUE;
+        if (age < ttlNanos) {
+            hits.increment();
+            if (age >= refreshAheadNanos) {
+                refreshAsync(entries, key, entry, loader, version, store);
+            }
+            return Optional.of(entry.value);
+        }
+        boolean withinStaleBound = entry != null && age - ttlNanos < maxStaleNanos;
+        if (withinStaleBound && staleWhileRevalidate) {
+            recordStale(age);
+            staleHits.increment();
+            refreshAsync(entries, key, entry, loader, version, store);
+            return Optional.of(entry.value);
+        }
+
+        misses.increment();
+        long expectedVersion = version.getAsLong();
+        Optional<UserDto> loaded;
+        try {
+            loaded = loader.apply(key);
+        } catch (RuntimeException e) {
+            if (!withinStaleBound) {
+                throw e;
+            }
+            log.warn("User lookup failed, serving value {} ms stale: {}", (age - ttlNanos) / 1_000_000, e.getMessage());
+            recordStale(age);
+            staleOnError.increment();
+            return Optional.of(entry.value);
+        }
+        apply(entries, key, entry, loaded, expectedVersion, store);
+        return loaded;
+    }
+
+    private <K> void refreshAsync(Map<K, Entry> entries, K key, Entry entry, Function<K, Optional<UserDto>> loader,
+                                  LongSupplier version, Store store) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    long expectedVersion = version.getAsLong();
+                    apply(entries, key, entry, loader.apply(key), expectedVersion, store);
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    refreshFailures.increment();
+                    log.debug("Background refresh of user {} failed: {}", key, e.getMessage());
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+            refreshRejected.increment();
+        }
+    }
+
+    private <K> void apply(Map<K, Entry> entries, K key, Entry previous, Optional<UserDto> loaded,
+                           long expectedVersion, Store store) {
+        if (loaded.isEmpty()) {
+            if (previous != null) {
+                entries.remove(key, previous);
+            }
+            return;
+        }
+        store.put(new Entry(loaded.get(), nanoClock.getAsLong()), expectedVersion);
+        if (byId.size() + byEmail.size() > maxEntries || emailById.size() > maxEntries) {
+            trim();
+        }
+    }
+
+    private void trim() {
+        // Сначала удаляются записи за пределом устаревания, затем произвольные до возврата в лимит
+        long now = nanoClock.getAsLong();
+        byId.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos + maxStaleNanos);
+        byEmail.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos + maxStaleNanos);
+        trim(byId.entrySet().iterator(), maxEntries / 2);
+        trim(byEmail.entrySet().iterator(), maxEntries - byId.size());
+        // Обратные ссылки без записи в byEmail удаляются под ее блокировкой, чтобы не потерять
+        // ссылку, которую параллельно сохраняет getByEmail()
+        emailById.forEach((userId, email) -> byEmail.compute(email, (key, current) -> {
+            if (current == null || !userId.equals(current.value.getId())) {
+                emailById.remove(userId, key);
+            }
+            return current;
+        }));
+    }
+
+    private static <K> void trim(Iterator<Map.Entry<K, Entry>> iterator, int limit) {
+        int seen = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            if (++seen > limit) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void recordStale(long age) {
+        DistributionSummary summary = staleness;
+        if (summary != null) {
+            summary.record((age - ttlNanos) / 1_000_000.0);
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("user.lookup.cache.entries", this, UserLookupCache::size).register(registry);
+        Gauge.builder("user.lookup.cache.refresh.queue", refreshExecutor, executor -> executor.getQueue().size())
+                .register(registry);
+        registry.more().counter("user.lookup.cache.hits", Tags.empty(), hits);
+        registry.more().counter("user.lookup.cache.misses", Tags.empty(), misses);
+        registry.more().counter("user.lookup.cache.stale.hits", Tags.empty(), staleHits);
+        registry.more().counter("user.lookup.cache.stale.on.error", Tags.empty(), staleOnError);
+        registry.more().counter("user.lookup.cache.refreshes", Tags.empty(), refreshes);
+        registry.more().counter("user.lookup.cache.refresh.failures", Tags.empty(), refreshFailures);
+        registry.more().counter("user.lookup.cache.refresh.rejected", Tags.empty(), refreshRejected);
+        staleness = DistributionSummary.builder("user.lookup.cache.staleness")
+                .baseUnit("milliseconds")
+                .description("How far past the TTL served stale values were")
+                .register(registry);
+    }
+
+    private static int stripe(long userId) {
+        return (int) ((userId ^ (userId >>> 32)) & (VERSION_STRIPES - 1));
+    }
+
+    /**
+     * Сохранение загруженной записи с проверкой версии, полученной до загрузки.
+     */
+    @FunctionalInterface
+    private interface Store {
+        void put(Entry entry, long expectedVersion);
+    }
+
+    /**
+     * Загруженный пользователь и время загрузки.
+     */
+    private static final class Entry {
+        private final UserDto value;
+        private final long loadedAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(UserDto value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.datasource.ReplicaRoutingDataSource;
+import com.example.userservice.dto.UserDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов списковых запросов (все пользователи, поиск), ключ - нормализованные параметры запроса.
+ *
+ * <p>Любая запись может изменить любую страницу, поэтому результаты привязаны к общей версии записей:
+ * инвалидация ({@link InvalidatableCache}) увеличивает ее, и все ранее сохраненные страницы
+ * перестают совпадать. Версия берется до выполнения запроса, поэтому результат, прочитанный
+ * до записи, не сохраняется после нее.
+ *
+ * <p>Объем ограничен оценкой занимаемой памяти. Вытесняются записи с наименьшим приоритетом
+ * GreedyDual-Size-Frequency: {@code L + попадания * стоимость / размер}, где стоимость - время выполнения
+ * запроса, а L - приоритет последней вытесненной записи (старение). Большие и дешевые результаты
+ * уходят первыми, маленькие, дорогие и часто читаемые остаются.
+ */
+@Slf4j
+@Component
+public class UserQueryCache implements InvalidatableCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int USER_OVERHEAD_BYTES = 120;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong writeVersion = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private volatile double inflation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleMisses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder rejectedTooLarge = new LongAdder();
+    private final LongAdder rejectedStale = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserQueryCache(@Value("${app.query-cache.enabled:false}") boolean enabled,
+                          @Value("${app.query-cache.max-bytes:33554432}") long maxBytes,
+                          @Value("${app.query-cache.max-entry-bytes:1048576}") long maxEntryBytes,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        if (maxBytes <= 0 || maxEntryBytes <= 0) {
+            throw new IllegalArgumentException("Query cache budget must be positive");
+        }
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    /**
+     * Ключ запроса всех пользователей.
+     */
+    public static String allUsersKey() {
+        return "all";
+    }
+
+    /**
+     * Ключ поискового запроса; поиск по имени регистронезависимый, поэтому имя приводится к нижнему регистру.
+     */
+    public static String searchKey(String name, Integer minAge, Integer maxAge, Long afterId, int size) {
+        String normalizedName = name == null || name.isBlank() ? "" : name.trim().toLowerCase(Locale.ROOT);
+        return "search|" + normalizedName.length() + ":" + normalizedName
+                + "|" + (minAge != null ? minAge : "")
+                + "|" + (maxAge != null ? maxAge : "")
+                + "|" + (afterId != null && afterId > 0 ? afterId : 0)
+                + "|" + size;
+    }
+
+    /**
+     * Возвращает результат запроса из кэша или выполняет его.
+     *
+     * @param key нормализованный ключ запроса
+     * @param loader выполнение запроса
+     * @return неизменяемый список пользователей
+     */
+    public List<UserDto> get(String key, Supplier<List<UserDto>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long version = writeVersion.get();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.version == version) {
+                entry.hits++;
+                entry.priority = inflation + entry.hits * entry.cost / entry.weight;
+                hits.increment();
+                return entry.users;
+            }
+            staleMisses.increment();
+            if (entries.remove(key, entry)) {
+                usedBytes.addAndGet(-entry.weight);
+            }
+        } else {
+            misses.increment();
+        }
+
+        long started = System.nanoTime();
+        // Запись сбрасывается только следующей записью, поэтому результат читается с primary
+        List<UserDto> users = List.copyOf(ReplicaRoutingDataSource.onPrimary(loader));
+        long cost = Math.max(1, System.nanoTime() - started);
+        store(key, version, users, cost);
+        return users;
+    }
+
+    @Override
+    public void invalidate(long userId) {
+        invalidateAll();
+    }
+
+    @Override
+    public void invalidateAll() {
+        writeVersion.incrementAndGet();
+        // Устаревшие записи больше не совпадут по версии; память освобождается сразу
+        entries.forEach((key, entry) -> {
+            if (entries.remove(key, entry)) {
+                usedBytes.addAndGet(-entry.weight);
+            }
+        });
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum() + staleMisses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getRejectedTooLarge() {
+        return rejectedTooLarge.sum();
+    }
+
+    /**
+     * Оценка памяти результата: заголовки объектов и строки (2 байта на символ).
+     */
+    static long weigh(List<UserDto> users) {
+        long weight = ENTRY_OVERHEAD_BYTES;
+        for (UserDto user : users) {
+            weight += USER_OVERHEAD_BYTES
+                    + 2L * (user.getName() != null ? user.getName().length() : 0)
+                    + 2L * (user.getEmail() != null ? user.getEmail().length() : 0);
+        }
+        return weight;
+    }
+
+    private void store(String key, long version, List<UserDto> users, long cost) {
+        long weight = weigh(users) + 2L * key.length();
+        if (weight > maxEntryBytes) {
+            rejectedTooLarge.increment();
+            return;
+        }
+        Entry entry = new Entry(users, version, weight, cost);
+        entry.priority = inflation + (double) cost / weight;
+        boolean[] stored = new boolean[1];
+        entries.compute(key, (k, current) -> {
+            if (writeVersion.get() != version) {
+                return current;
+            }
+            if (current != null) {
+                usedBytes.addAndGet(-current.weight);
+            }
+            usedBytes.addAndGet(weight);
+            stored[0] = true;
+            return entry;
+        });
+        if (!stored[0]) {
+            rejectedStale.increment();
+            return;
+        }
+        stores.increment();
+        if (usedBytes.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, Entry>> candidates = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingDouble(candidate -> candidate.getValue().priority));
+            for (Map.Entry<String, Entry> candidate : candidates) {
+                if (usedBytes.get() <= maxBytes) {
+                    break;
+                }
+                Entry victim = candidate.getValue();
+                if (entries.remove(candidate.getKey(), victim)) {
+                    usedBytes.addAndGet(-victim.weight);
+                    evictions.increment();
+                    inflation = Math.max(inflation, victim.priority);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("user.query.cache.bytes", usedBytes, AtomicLong::get).register(registry);
+        Gauge.builder("user.query.cache.entries", entries, Map::size).register(registry);
+        registry.more().counter("user.query.cache.hits", Tags.empty(), hits);
+        registry.more().counter("user.query.cache.misses", Tags.of("reason", "absent"), misses);
+        registry.more().counter("user.query.cache.misses", Tags.of("reason", "stale"), staleMisses);
+        registry.more().counter("user.query.cache.stores", Tags.empty(), stores);
+        registry.more().counter("user.query.cache.rejected", Tags.of("reason", "too_large"), rejectedTooLarge);
+        registry.more().counter("user.query.cache.rejected", Tags.of("reason", "stale"), rejectedStale);
+        registry.more().counter("user.query.cache.evictions", Tags.empty(), evictions);
+    }
+
+    /**
+     * Результат запроса с версией записей, оценкой памяти и приоритетом вытеснения.
+     */
+    private static final class Entry {
+        private final List<UserDto> users;
+        private final long version;
+        private final long weight;
+        private final double cost;
+        // Обновляются без синхронизации: неточность влияет только на порядок вытеснения
+        private volatile long hits = 1;
+        private volatile double priority;
+
+        private Entry(List<UserDto> users, long version, long weight, long cost) {
+            this.users = users;
+            this.version = version;
+            this.weight = weight;
+            this.cost = cost;
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.event.UserChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Кэш полностью закодированных ответов по пользователю: ключ (id, версия, вариант),
+ * где вариант - медиа тип ответа (и базовый URI для HAL ссылок).
+ *
+ * <p>Версия пользователя увеличивается при каждой инвалидации. Читатель берет версию
+ * до загрузки данных и передает ее в {@link #put}; если за это время пользователь был изменен,
+ * устаревший ответ не сохраняется. Инвалидацию после коммита транзакции записи
+ * по {@link UserChangedEvent} на этом и других узлах выполняет {@link UserInvalidationBus}.
+ *
+ * <p>Объем ограничен бюджетом в байтах; при превышении записи вытесняются по алгоритму CLOCK
+ * (запись, к которой обращались после прошлого прохода, получает второй шанс).
+ * Тела ответов могут храниться вне кучи (direct buffers).
+ *
+ * <p>Вместе с ответами хранится версия данных пользователя (updated_at). Записи, восстановленные
+ * из снимка ({@link UserResponseCacheSnapshot}), до первого обращения не считаются проверенными:
+ * {@link #get(long, String, DataVersionSource)} сверяет версию данных с БД и удаляет устаревшие.
+ */
+@Slf4j
+@Component
+public class UserResponseCache implements InvalidatableCache {
+
+    private static final int VERSION_STRIPES = 4096;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final boolean offHeap;
+
+    private final ConcurrentHashMap<Long, UserEntries> users = new ConcurrentHashMap<>();
+    // Версии хранятся в полосах по id: память не растет с числом пользователей,
+    // а лишняя инвалидация соседа по полосе только вызывает промах
+    private final AtomicLongArray stripeVersions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder validations = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+
+    public UserResponseCache(@Value("${app.response-cache.enabled:false}") boolean enabled,
+                             @Value("${app.response-cache.max-bytes:67108864}") long maxBytes,
+                             @Value("${app.response-cache.max-entry-bytes:65536}") int maxEntryBytes,
+                             @Value("${app.response-cache.off-heap:false}") boolean offHeap,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        if (maxBytes <= 0 || maxEntryBytes <= 0) {
+            throw new IllegalArgumentException("Response cache budget must be positive");
+        }
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.offHeap = offHeap;
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Текущая версия пользователя; ее нужно получить до загрузки данных из БД.
+     */
+    public long version(long userId) {
+        return globalVersion.get() + stripeVersions.get(stripe(userId));
+    }
+
+    /**
+     * Версия данных пользователя для кэша: время изменения с точностью до микросекунд.
+     */
+    public static long dataVersion(LocalDateTime updatedAt) {
+        return updatedAt == null ? 0 : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+    }
+
+    /**
+     * Возвращает закодированный ответ, если он есть для текущей версии пользователя.
+     * Непроверенные записи, восстановленные из снимка, не возвращаются.
+     *
+     * @param userId ID пользователя
+     * @param variant вариант представления
+     * @return ответ или null
+     */
+    public CachedResponse get(long userId, String variant) {
+        return get(userId, variant, null);
+    }
+
+    /**
+     * Возвращает закодированный ответ; непроверенную запись сначала сверяет с текущей версией данных.
+     *
+     * @param userId ID пользователя
+     * @param variant вариант представления
+     * @param source источник текущей версии данных или null, если проверка недоступна
+     * @return ответ или null
+     */
+    public CachedResponse get(long userId, String variant, DataVersionSource source) {
+        if (!enabled) {
+            return null;
+        }
+        UserEntries entries = users.get(userId);
+        CachedResponse response = entries != null && entries.version == version(userId)
+                ? entries.variants.get(variant)
+                : null;
+        if (response != null && !entries.verified && !verify(userId, entries, source)) {
+            response = null;
+        }
+        if (response == null) {
+            misses.increment();
+            return null;
+        }
+        if (!entries.referenced) {
+            entries.referenced = true;
+        }
+        hits.increment();
+        return response;
+    }
+
+    /**
+     * Сохраняет закодированный ответ, если версия пользователя не изменилась с момента чтения.
+     *
+     * @param userId ID пользователя
+     * @param variant вариант представления
+     * @param version версия, полученная через {@link #version} до загрузки данных
+     * @param contentType значение заголовка Content-Type
+     * @param body тело ответа (не копируется при хранении в куче и не должно изменяться)
+     */
+    public void put(long userId, String variant, long version, String contentType, byte[] body) {
+        put(userId, variant, version, 0, contentType, body);
+    }
+
+    /**
+     * Сохраняет закодированный ответ вместе с версией данных, по которой он построен.
+     *
+     * @param dataVersion версия данных ({@link #dataVersion(LocalDateTime)}) или 0, если неизвестна;
+     *                    ответы без версии данных не попадают в снимок
+     */
+    public void put(long userId, String variant, long version, long dataVersion, String contentType, byte[] body) {
+        if (!enabled || body.length > maxEntryBytes) {
+            return;
+        }
+        CachedResponse response = new CachedResponse(contentType, offHeap ? toDirect(body) : null, offHeap ? null : body);
+        users.compute(userId, (id, current) -> {
+            if (version(id) != version) {
+                return current;
+            }
+            UserEntries target = current;
+            if (current == null || current.version != version || current.dataVersion != dataVersion) {
+                if (current != null) {
+                    usedBytes.addAndGet(-current.bytes());
+                }
+                target = new UserEntries(version, dataVersion, true);
+            }
+            CachedResponse previous = target.variants.put(variant, response);
+            usedBytes.addAndGet(response.size() - (previous != null ? previous.size() : 0));
+            return target;
+        });
+        if (usedBytes.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    @Override
+    public void invalidate(long userId) {
+        // Сначала версия, затем удаление: put между ними уже не пройдет проверку версии
+        stripeVersions.incrementAndGet(stripe(userId));
+        remove(userId);
+    }
+
+    @Override
+    public void invalidateAll() {
+        globalVersion.incrementAndGet();
+        for (Long userId : users.keySet()) {
+            remove(userId);
+        }
+        log.debug("Response cache invalidated for all users");
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getValidations() {
+        return validations.sum();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    /**
+     * Проверенные записи с известной версией данных для сохранения в снимок.
+     */
+    List<SnapshotEntry> snapshotEntries() {
+        List<SnapshotEntry> entries = new ArrayList<>(users.size());
+        users.forEach((userId, userEntries) -> {
+            if (userEntries.verified && userEntries.dataVersion != 0 && userEntries.version == version(userId)) {
+                entries.add(new SnapshotEntry(userId, userEntries.dataVersion, Map.copyOf(userEntries.variants)));
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Восстанавливает ответы пользователя из снимка как непроверенные.
+     *
+     * @return false, если бюджет кэша исчерпан
+     */
+    boolean restore(long userId, long dataVersion, Map<String, CachedResponse> variants) {
+        long size = 0;
+        for (CachedResponse response : variants.values()) {
+            size += response.size();
+        }
+        if (!enabled || usedBytes.get() + size > maxBytes) {
+            return false;
+        }
+        long version = version(userId);
+        users.computeIfAbsent(userId, id -> {
+            UserEntries entries = new UserEntries(version, dataVersion, false);
+            entries.variants.putAll(variants);
+            usedBytes.addAndGet(entries.bytes());
+            return entries;
+        });
+        return true;
+    }
+
+    private boolean verify(long userId, UserEntries entries, DataVersionSource source) {
+        if (source == null) {
+            return false;
+        }
+        validations.increment();
+        if (source.currentDataVersion(userId) == entries.dataVersion) {
+            entries.verified = true;
+            return true;
+        }
+        validationFailures.increment();
+        if (users.remove(userId, entries)) {
+            usedBytes.addAndGet(-entries.bytes());
+        }
+        return false;
+    }
+
+    private void remove(long userId) {
+        UserEntries removed = users.remove(userId);
+        if (removed != null) {
+            usedBytes.addAndGet(-removed.bytes());
+        }
+    }
+
+    private void evict() {
+        // Вытесняет один поток; остальные не ждут и продолжают работу с временным превышением бюджета
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            for (int pass = 0; pass < 2 && usedBytes.get() > maxBytes; pass++) {
+                Iterator<Map.Entry<Long, UserEntries>> iterator = users.entrySet().iterator();
+                while (iterator.hasNext() && usedBytes.get() > maxBytes) {
+                    Map.Entry<Long, UserEntries> entry = iterator.next();
+                    UserEntries entries = entry.getValue();
+                    if (entries.referenced) {
+                        entries.referenced = false;
+                    } else if (users.remove(entry.getKey(), entries)) {
+                        usedBytes.addAndGet(-entries.bytes());
+                        evictions.increment();
+                    }
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("user.response.cache.bytes", usedBytes, AtomicLong::get).register(registry);
+        Gauge.builder("user.response.cache.users", users, Map::size).register(registry);
+        registry.more().counter("user.response.cache.hits", Tags.empty(), hits);
+        registry.more().counter("user.response.cache.misses", Tags.empty(), misses);
+        registry.more().counter("user.response.cache.evictions", Tags.empty(), evictions);
+        registry.more().counter("user.response.cache.validations", Tags.empty(), validations);
+        registry.more().counter("user.response.cache.validation.failures", Tags.empty(), validationFailures);
+    }
+
+    private static int stripe(long userId) {
+        return (int) ((userId ^ (userId >>> 32)) & (VERSION_STRIPES - 1));
+    }
+
+    private static ByteBuffer toDirect(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(body.length);
+        buffer.put(body).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Источник текущей версии данных пользователя для проверки восстановленных записей.
+     */
+    @FunctionalInterface
+    public interface DataVersionSource {
+
+        /**
+         * @return версия данных ({@link #dataVersion(LocalDateTime)}) или 0, если пользователь не найден
+         */
+        long currentDataVersion(long userId);
+    }
+
+    /**
+     * Ответы пользователя, сохраняемые в снимок.
+     */
+    record SnapshotEntry(long userId, long dataVersion, Map<String, CachedResponse> variants) {
+    }
+
+    /**
+     * Закодированные ответы одного пользователя для одной версии.
+     */
+    private static final class UserEntries {
+        private final long version;
+        private final long dataVersion;
+        private final Map<String, CachedResponse> variants = new ConcurrentHashMap<>(4);
+        private volatile boolean referenced;
+        private volatile boolean verified;
+
+        private UserEntries(long version, long dataVersion, boolean verified) {
+            this.version = version;
+            this.dataVersion = dataVersion;
+            this.verified = verified;
+        }
+
+        private long bytes() {
+            long total = 0;
+            for (CachedResponse response : variants.values()) {
+                total += response.size();
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Закодированный ответ: значение Content-Type и тело в куче или вне ее.
+     */
+    public static final class CachedResponse {
+        private final String contentType;
+        private final ByteBuffer direct;
+        private final byte[] heap;
+
+        private CachedResponse(String contentType, ByteBuffer direct, byte[] heap) {
+            this.contentType = contentType;
+            this.direct = direct;
+            this.heap = heap;
+        }
+
+        /**
+         * Ответ, тело которого читается напрямую из буфера (например, отображенного в память файла).
+         */
+        static CachedResponse ofBuffer(String contentType, ByteBuffer body) {
+            return new CachedResponse(contentType, body.asReadOnlyBuffer(), null);
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public int size() {
+            return heap != null ? heap.length : direct.capacity();
+        }
+
+        /**
+         * Тело ответа. Для кучи возвращается сам сохраненный массив без копирования,
+         * для direct buffer - одна копия.
+         */
+        public byte[] body() {
+            if (heap != null) {
+                return heap;
+            }
+            byte[] copy = new byte[direct.capacity()];
+            direct.duplicate().get(copy);
+            return copy;
+        }
+
+        /**
+         * Тело ответа как буфер только для чтения без копирования.
+         */
+        ByteBuffer bodyBuffer() {
+            return heap != null ? ByteBuffer.wrap(heap).asReadOnlyBuffer() : direct.duplicate();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.cache.UserResponseCache.CachedResponse;
+import com.example.userservice.cache.UserResponseCache.SnapshotEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Снимок {@link UserResponseCache} в локальном файле для быстрого прогрева после перезапуска.
+ *
+ * <p>При корректной остановке проверенные записи записываются во временный файл через отображение
+ * в память и атомарно переименовываются. При старте файл отображается в память только для чтения,
+ * и тела ответов ссылаются прямо на отображенные страницы: они подгружаются ОС при первом чтении,
+ * а не копируются в кучу. Восстановленные записи проверяются лениво по версии данных (updated_at)
+ * при первом обращении, поэтому изменения, сделанные пока узел был остановлен, не отдаются.
+ *
+ * <p>Формат: заголовок (магическое число, версия формата, время создания, число пользователей),
+ * затем для каждого пользователя ID, версия данных и варианты (вариант, Content-Type, тело).
+ */
+@Slf4j
+@Component
+public class UserResponseCacheSnapshot implements InitializingBean, DisposableBean {
+
+    private static final int MAGIC = 0x55524331; // "URC1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES;
+
+    private final UserResponseCache cache;
+    private final boolean enabled;
+    private final Path path;
+    private final Duration maxAge;
+
+    public UserResponseCacheSnapshot(UserResponseCache cache,
+                                     @Value("${app.response-cache.snapshot.enabled:false}") boolean enabled,
+                                     @Value("${app.response-cache.snapshot.path:${java.io.tmpdir}/user-response-cache.snapshot}") String path,
+                                     @Value("${app.response-cache.snapshot.max-age-ms:86400000}") long maxAgeMs) {
+        this.cache = cache;
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.maxAge = Duration.ofMillis(maxAgeMs);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled && cache.isEnabled() && Files.exists(path)) {
+            load(path);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (enabled && cache.isEnabled()) {
+            save(path);
+        }
+    }
+
+    /**
+     * Записывает проверенные записи кэша в файл.
+     *
+     * @return число сохраненных пользователей или -1, если снимок не записан
+     */
+    public int save(Path target) {
+        long started = System.nanoTime();
+        List<SnapshotEntry> entries = cache.snapshotEntries();
+        Map<String, byte[]> strings = new HashMap<>();
+        long size = HEADER_BYTES;
+        for (SnapshotEntry entry : entries) {
+            size += Long.BYTES * 2 + Integer.BYTES;
+            for (Map.Entry<String, CachedResponse> variant : entry.variants().entrySet()) {
+                size += Integer.BYTES * 3
+                        + strings.computeIfAbsent(variant.getKey(), UserResponseCacheSnapshot::utf8).length
+                        + strings.computeIfAbsent(variant.getValue().getContentType(), UserResponseCacheSnapshot::utf8).length
+                        + variant.getValue().size();
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            log.warn("Response cache snapshot of {} bytes exceeds the single mapping limit, skipping", size);
+            return -1;
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(System.currentTimeMillis()).putInt(entries.size());
+                for (SnapshotEntry entry : entries) {
+                    buffer.putLong(entry.userId()).putLong(entry.dataVersion()).putInt(entry.variants().size());
+                    for (Map.Entry<String, CachedResponse> variant : entry.variants().entrySet()) {
+                        putBytes(buffer, strings.get(variant.getKey()));
+                        putBytes(buffer, strings.get(variant.getValue().getContentType()));
+                        buffer.putInt(variant.getValue().size()).put(variant.getValue().bodyBuffer());
+                    }
+                }
+                buffer.force();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write response cache snapshot to {}", target, e);
+            return -1;
+        }
+        log.info("Saved response cache snapshot: {} users, {} bytes in {} ms",
+                entries.size(), size, (System.nanoTime() - started) / 1_000_000);
+        return entries.size();
+    }
+
+    /**
+     * Восстанавливает кэш из файла; поврежденный или устаревший снимок игнорируется.
+     *
+     * @return число восстановленных пользователей
+     */
+    public int load(Path source) {
+        long started = System.nanoTime();
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            // Отображение остается действительным после закрытия канала
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            log.warn("Failed to open response cache snapshot {}", source, e);
+            return 0;
+        }
+
+        int restored = 0;
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring response cache snapshot {} with unknown format", source);
+                return 0;
+            }
+            long createdAt = buffer.getLong();
+            if (System.currentTimeMillis() - createdAt > maxAge.toMillis()) {
+                log.info("Ignoring response cache snapshot {} older than {}", source, maxAge);
+                return 0;
+            }
+            int users = buffer.getInt();
+            for (int i = 0; i < users; i++) {
+                long userId = buffer.getLong();
+                long dataVersion = buffer.getLong();
+                int count = buffer.getInt();
+                Map<String, CachedResponse> variants = new HashMap<>(count * 2);
+                for (int v = 0; v < count; v++) {
+                    String variant = getString(buffer);
+                    String contentType = getString(buffer);
+                    int length = buffer.getInt();
+                    variants.put(variant, CachedResponse.ofBuffer(contentType, buffer.slice(buffer.position(), length)));
+                    buffer.position(buffer.position() + length);
+                }
+                if (!cache.restore(userId, dataVersion, variants)) {
+                    break;
+                }
+                restored++;
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                 | NegativeArraySizeException e) {
+            log.warn("Response cache snapshot {} is truncated or corrupt, restored {} users", source, restored);
+            return restored;
+        }
+        log.info("Loaded response cache snapshot: {} users in {} ms", restored,
+                (System.nanoTime() - started) / 1_000_000);
+        return restored;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.userservice.config;
+
+import com.example.userservice.util.BulkProfile;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Применяет настройки профиля "bulk" к Hibernate в Spring JPA пути.
+ * Настройки пула для профиля задаются в application-bulk.properties.
+ */
+@Configuration
+@Profile(BulkProfile.NAME)
+public class BulkProfileConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer bulkHibernatePropertiesCustomizer() {
+        return hibernateProperties -> hibernateProperties.putAll(BulkProfile.hibernateSettings());
+    }
+}
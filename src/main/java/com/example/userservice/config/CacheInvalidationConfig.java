@@ -0,0 +1,85 @@
+package com.example.userservice.config;
+
+import com.example.userservice.cache.InvalidatableCache;
+import com.example.userservice.cache.InvalidationTransport;
+import com.example.userservice.cache.KafkaInvalidationTransport;
+import com.example.userservice.cache.LoopbackInvalidationTransport;
+import com.example.userservice.cache.UserInvalidationBus;
+import com.example.userservice.dto.UserInvalidationBatchDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Конфигурация шины инвалидации локальных кэшей между узлами.
+ * Транспорт выбирается свойством app.cache.invalidation.transport: kafka (отдельный топик)
+ * или loopback (в памяти процесса, для тестов и одного узла).
+ * Для kafka app.cache.invalidation.node-id обязателен: из него строится постоянная consumer group узла.
+ * Для loopback без заданного ID узел получает случайный ID при старте.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Value("${app.cache.invalidation.topic:user-cache-invalidations}")
+    private String topic;
+
+    @Value("${app.cache.invalidation.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${app.cache.invalidation.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${app.cache.invalidation.applied-retention-ms:600000}")
+    private long appliedRetentionMs;
+
+    @Value("${app.cache.invalidation.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    @Value("${app.cache.invalidation.prune-interval-ms:60000}")
+    private long pruneIntervalMs;
+
+    private String nodeId;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "kafka")
+    public InvalidationTransport kafkaInvalidationTransport(
+            KafkaTemplate<String, UserInvalidationBatchDto> invalidationKafkaTemplate,
+            KafkaProperties kafkaProperties) {
+        if (configuredNodeId.isBlank()) {
+            throw new IllegalStateException(
+                    "app.cache.invalidation.node-id must be set when app.cache.invalidation.transport=kafka");
+        }
+        return new KafkaInvalidationTransport(invalidationKafkaTemplate,
+                kafkaProperties.buildConsumerProperties(null), topic, nodeId());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+    public InvalidationTransport loopbackInvalidationTransport() {
+        return new LoopbackInvalidationTransport();
+    }
+
+    @Bean
+    public UserInvalidationBus userInvalidationBus(InvalidationTransport invalidationTransport,
+                                                   ObjectProvider<InvalidatableCache> caches,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new UserInvalidationBus(invalidationTransport, caches, nodeId(), maxBatchSize,
+                Duration.ofMillis(appliedRetentionMs), Duration.ofMillis(flushIntervalMs),
+                Duration.ofMillis(pruneIntervalMs), meterRegistry);
+    }
+
+    private synchronized String nodeId() {
+        if (nodeId == null) {
+            nodeId = configuredNodeId.isBlank() ? UUID.randomUUID().toString() : configuredNodeId;
+        }
+        return nodeId;
+    }
+}
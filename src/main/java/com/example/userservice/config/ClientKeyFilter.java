@@ -0,0 +1,34 @@
+package com.example.userservice.config;
+
+import com.example.userservice.datasource.ReadYourWritesTracker;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Привязывает ключ клиента к потоку обработки запроса.
+ * Ключ берется из заголовка X-Client-Id, а при его отсутствии - из адреса клиента.
+ */
+public class ClientKeyFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String clientKey = request.getHeader(CLIENT_ID_HEADER);
+        if (clientKey == null || clientKey.isBlank()) {
+            clientKey = request.getRemoteAddr();
+        }
+        ReadYourWritesTracker.bindClient(clientKey);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWritesTracker.clearClient();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.userservice.config;
+
+import com.example.userservice.datasource.AdaptivePoolSizer;
+import com.example.userservice.datasource.HikariPoolFactory;
+import com.example.userservice.datasource.PoolSettings;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Конфигурация пула соединений HikariCP для Spring JPA.
+ * Параметры пула задаются свойствами app.datasource.pool.*; метрики пула
+ * (hikaricp.*) регистрируются Spring Boot Actuator автоматически.
+ * В режиме реплик пул primary создается в ReplicaDataSourceConfig с теми же настройками.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${app.datasource.pool.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${app.datasource.pool.minimum-idle:2}")
+    private int minimumIdle;
+
+    @Value("${app.datasource.pool.connection-timeout-ms:30000}")
+    private long connectionTimeoutMs;
+
+    @Value("${app.datasource.pool.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${app.datasource.pool.max-lifetime-ms:1800000}")
+    private long maxLifetimeMs;
+
+    @Value("${app.datasource.pool.leak-detection-threshold-ms:0}")
+    private long leakDetectionThresholdMs;
+
+    @Value("${app.datasource.pool.prepare-threshold:5}")
+    private int prepareThreshold;
+
+    @Value("${app.datasource.pool.prepared-statement-cache-queries:256}")
+    private int preparedStatementCacheQueries;
+
+    @Value("${app.datasource.pool.prepared-statement-cache-size-mib:5}")
+    private int preparedStatementCacheSizeMiB;
+
+    @Value("${app.datasource.pool.rewrite-batched-inserts:false}")
+    private boolean rewriteBatchedInserts;
+
+    @Value("${app.datasource.pool.adaptive.min-size:4}")
+    private int adaptiveMinSize;
+
+    @Value("${app.datasource.pool.adaptive.max-size:40}")
+    private int adaptiveMaxSize;
+
+    @Value("${app.datasource.pool.adaptive.interval-ms:5000}")
+    private long adaptiveIntervalMs;
+
+    @Value("${app.datasource.pool.adaptive.wait-threshold-ms:10}")
+    private long adaptiveWaitThresholdMs;
+
+    @Value("${app.datasource.pool.adaptive.latency-tolerance-percent:20}")
+    private int adaptiveLatencyTolerancePercent;
+
+    @Bean
+    public PoolSettings poolSettings() {
+        return PoolSettings.builder()
+                .maximumPoolSize(maximumPoolSize)
+                .minimumIdle(minimumIdle)
+                .connectionTimeoutMs(connectionTimeoutMs)
+                .idleTimeoutMs(idleTimeoutMs)
+                .maxLifetimeMs(maxLifetimeMs)
+                .leakDetectionThresholdMs(leakDetectionThresholdMs)
+                .prepareThreshold(prepareThreshold)
+                .preparedStatementCacheQueries(preparedStatementCacheQueries)
+                .preparedStatementCacheSizeMiB(preparedStatementCacheSizeMiB)
+                .rewriteBatchedInserts(rewriteBatchedInserts)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "false", matchIfMissing = true)
+    public HikariDataSource dataSource(DataSourceProperties properties, PoolSettings poolSettings) {
+        return HikariPoolFactory.create(
+                properties.determineUrl(),
+                properties.determineUsername(),
+                properties.determinePassword(),
+                properties.determineDriverClassName(),
+                poolSettings,
+                null);
+    }
+
+    /**
+     * Адаптивный размер пула доступен только при единственном пуле Hikari;
+     * в режиме реплик бина HikariDataSource нет и контроллер не создается.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnBean(HikariDataSource.class)
+    @ConditionalOnProperty(name = "app.datasource.pool.adaptive.enabled", havingValue = "true")
+    public AdaptivePoolSizer adaptivePoolSizer(HikariDataSource dataSource,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(dataSource, meterRegistry.getIfAvailable(),
+                adaptiveMinSize, adaptiveMaxSize, adaptiveWaitThresholdMs, adaptiveLatencyTolerancePercent);
+        sizer.start(Duration.ofMillis(adaptiveIntervalMs));
+        return sizer;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.userservice.config;
 
+import com.example.userservice.exception.ChangesTokenExpiredException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -71,6 +73,45 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    /**
+     * Обрабатывает нарушения ограничений целостности, например уникальности email
+     * при гонке параллельных запросов.
+     * 
+     * @param ex исключение
+     * @return ответ с кодом 409
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, Object>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        log.warn("Data integrity violation: {}", ex.getMostSpecificCause().getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.CONFLICT.value());
+        response.put("error", "Conflict");
+        response.put("message", "The request conflicts with a concurrent change, please retry");
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    /**
+     * Обрабатывает устаревший токен ленты изменений.
+     * 
+     * @param ex исключение
+     * @return ответ с кодом 410: клиент должен выполнить полную синхронизацию
+     */
+    @ExceptionHandler(ChangesTokenExpiredException.class)
+    public ResponseEntity<Map<String, Object>> handleChangesTokenExpired(ChangesTokenExpiredException ex) {
+        log.warn("Expired changes token: {}", ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.GONE.value());
+        response.put("error", "Gone");
+        response.put("message", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.GONE).body(response);
+    }
+
     /**
      * Обрабатывает все остальные исключения.
      * 
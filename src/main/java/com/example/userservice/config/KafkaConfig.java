@@ -1,6 +1,8 @@
 package com.example.userservice.config;
 
+import com.example.userservice.dto.UserBatchEventDto;
 import com.example.userservice.dto.UserEventDto;
+import com.example.userservice.dto.UserInvalidationBatchDto;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,16 +24,39 @@ public class KafkaConfig {
     
     @Bean
     public ProducerFactory<String, UserEventDto> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return new DefaultKafkaProducerFactory<>(producerConfigs());
     }
     
     @Bean
     public KafkaTemplate<String, UserEventDto> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+    
+    @Bean
+    public ProducerFactory<String, UserBatchEventDto> batchEventProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfigs());
+    }
+    
+    @Bean
+    public KafkaTemplate<String, UserBatchEventDto> batchEventKafkaTemplate() {
+        return new KafkaTemplate<>(batchEventProducerFactory());
+    }
+    
+    @Bean
+    public ProducerFactory<String, UserInvalidationBatchDto> invalidationProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfigs());
+    }
+    
+    @Bean
+    public KafkaTemplate<String, UserInvalidationBatchDto> invalidationKafkaTemplate() {
+        return new KafkaTemplate<>(invalidationProducerFactory());
+    }
+    
+    private Map<String, Object> producerConfigs() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        return configProps;
+    }
 }
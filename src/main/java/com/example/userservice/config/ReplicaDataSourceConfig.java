@@ -0,0 +1,99 @@
+package com.example.userservice.config;
+
+import com.example.userservice.datasource.HikariPoolFactory;
+import com.example.userservice.datasource.PoolSettings;
+import com.example.userservice.datasource.ReadYourWritesTracker;
+import com.example.userservice.datasource.ReplicaRoutingDataSource;
+import com.example.userservice.datasource.ReplicaSelectionStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Конфигурация маршрутизации read-only транзакций на реплики PostgreSQL.
+ * Включается свойством app.datasource.replicas.enabled=true.
+ * Primary настраивается через spring.datasource.*, реплики - через app.datasource.replicas.*.
+ * Все пулы используют общие настройки app.datasource.pool.* и регистрируют метрики сами,
+ * так как не являются отдельными бинами.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Value("${app.datasource.replicas.urls}")
+    private String[] replicaUrls;
+
+    @Value("${app.datasource.replicas.username:}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replicas.password:}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replicas.strategy:ROUND_ROBIN}")
+    private ReplicaSelectionStrategy strategy;
+
+    @Value("${app.datasource.replicas.health-check-interval-ms:5000}")
+    private long healthCheckIntervalMs;
+
+    @Value("${app.datasource.replicas.read-your-writes-window-ms:2000}")
+    private long readYourWritesWindowMs;
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(Duration.ofMillis(readYourWritesWindowMs));
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                             PoolSettings poolSettings,
+                                                             ReadYourWritesTracker readYourWritesTracker,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        DataSource primary = HikariPoolFactory.create(
+                properties.determineUrl(),
+                properties.determineUsername(),
+                properties.determinePassword(),
+                properties.determineDriverClassName(),
+                poolSettings.toBuilder().poolName("user-service-primary").build(),
+                registry);
+
+        String username = replicaUsername.isEmpty() ? properties.determineUsername() : replicaUsername;
+        String password = replicaPassword.isEmpty() ? properties.determinePassword() : replicaPassword;
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            String name = "replica-" + i;
+            replicas.put(name, HikariPoolFactory.create(
+                    replicaUrls[i].trim(),
+                    username,
+                    password,
+                    properties.determineDriverClassName(),
+                    poolSettings.toBuilder().poolName("user-service-" + name).build(),
+                    registry));
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, strategy, readYourWritesTracker,
+                Duration.ofMillis(healthCheckIntervalMs));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ClientKeyFilter clientKeyFilter() {
+        return new ClientKeyFilter();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.userservice.config;
+
+import com.example.userservice.datasource.HikariPoolFactory;
+import com.example.userservice.datasource.PoolSettings;
+import com.example.userservice.service.EventPublisherService;
+import com.example.userservice.sharding.ShardedIdGenerator;
+import com.example.userservice.sharding.ShardedUserRepository;
+import com.example.userservice.sharding.ShardedUserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Конфигурация шардированного хранилища пользователей.
+ * Включается свойством app.sharding.enabled=true; шарды перечисляются в app.sharding.urls,
+ * справочник email -> шард хранится в app.sharding.directory-url (по умолчанию первый шард).
+ * Схема шардов и справочника описана в database/sharding-schema.sql.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Value("${app.sharding.urls}")
+    private String[] shardUrls;
+
+    @Value("${app.sharding.directory-url:}")
+    private String directoryUrl;
+
+    @Value("${app.sharding.username:postgres}")
+    private String username;
+
+    @Value("${app.sharding.password:}")
+    private String password;
+
+    @Value("${app.sharding.node-id:0}")
+    private int nodeId;
+
+    @Bean(destroyMethod = "close")
+    public ShardedUserRepository shardedUserRepository(PoolSettings poolSettings,
+                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < shardUrls.length; i++) {
+            shards.add(createDataSource(shardUrls[i].trim(), poolSettings, "user-service-shard-" + i, registry));
+        }
+        DataSource directory = directoryUrl.isEmpty()
+                ? shards.get(0)
+                : createDataSource(directoryUrl, poolSettings, "user-service-shard-directory", registry);
+        return new ShardedUserRepository(shards, directory, new ShardedIdGenerator(nodeId));
+    }
+
+    @Bean
+    public ShardedUserService shardedUserService(ShardedUserRepository shardedUserRepository,
+                                                 EventPublisherService eventPublisherService) {
+        return new ShardedUserService(shardedUserRepository, eventPublisherService);
+    }
+
+    private DataSource createDataSource(String url, PoolSettings poolSettings, String poolName,
+                                        MeterRegistry registry) {
+        return HikariPoolFactory.create(url, username, password, null,
+                poolSettings.toBuilder().poolName(poolName).build(), registry);
+    }
+}
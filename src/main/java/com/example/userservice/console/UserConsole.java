@@ -1,10 +1,18 @@
 package com.example.userservice.console;
 
+import com.example.userservice.dto.ImportReportDto;
 import com.example.userservice.entity.User;
+import com.example.userservice.service.UserImportService;
 import com.example.userservice.service.UserService;
+import com.example.userservice.util.HibernateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
@@ -62,6 +70,9 @@ public class UserConsole {
                     case 7:
                         searchUsers();
                         break;
+                    case 8:
+                        importUsers();
+                        break;
                     case 0:
                         running = false;
                         System.out.println("Thank you for using User Service! Goodbye!");
@@ -98,6 +109,7 @@ public class UserConsole {
         System.out.println("5. Update User");
         System.out.println("6. Delete User");
         System.out.println("7. Search Users");
+        System.out.println("8. Import Users from File");
         System.out.println("0. Exit");
         System.out.print("Please enter your choice: ");
     }
@@ -116,8 +128,8 @@ public class UserConsole {
                     continue;
                 }
                 int choice = Integer.parseInt(input);
-                if (choice < 0 || choice > 7) {
-                    System.out.print("Please enter a number between 0 and 7: ");
+                if (choice < 0 || choice > 8) {
+                    System.out.print("Please enter a number between 0 and 8: ");
                     continue;
                 }
                 return choice;
@@ -313,6 +325,44 @@ public class UserConsole {
         }
     }
     
+    /**
+     * Импортирует пользователей из CSV или NDJSON файла через PostgreSQL COPY.
+     */
+    private void importUsers() {
+        System.out.println("\n=== Import Users from File ===");
+
+        System.out.print("Enter file path (.csv or .ndjson): ");
+        Path path = Paths.get(scanner.nextLine().trim());
+        if (!Files.isRegularFile(path)) {
+            System.out.println("Error: File not found: " + path);
+            return;
+        }
+        UserImportService.ImportFormat format = path.toString().toLowerCase().endsWith(".csv")
+                ? UserImportService.ImportFormat.CSV : UserImportService.ImportFormat.NDJSON;
+
+        System.out.print("Update existing users with the same email? (y/N): ");
+        String answer = scanner.nextLine().trim().toLowerCase();
+        UserImportService.ConflictPolicy policy = answer.equals("y") || answer.equals("yes")
+                ? UserImportService.ConflictPolicy.UPDATE : UserImportService.ConflictPolicy.SKIP;
+
+        UserImportService importService = new UserImportService(
+                HibernateUtil.getDataSource(), null, UserImportService.DEFAULT_CHUNK_SIZE);
+        try (InputStream input = Files.newInputStream(path)) {
+            ImportReportDto report = importService.importUsers(input, format, policy,
+                    progress -> System.out.println("Processed " + progress.getTotalRows() + " rows ("
+                            + progress.getRowsPerSecond() + " rows/s)"));
+            System.out.println("Import finished!");
+            System.out.println("Inserted: " + report.getInserted() + ", updated: " + report.getUpdated()
+                    + ", skipped: " + report.getSkipped() + ", rejected: " + report.getRejected()
+                    + ", time: " + report.getElapsedMs() + " ms");
+        } catch (IOException e) {
+            System.out.println("Error: Cannot read file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Import failed", e);
+            System.out.println("Error: Import failed: " + e.getMessage());
+        }
+    }
+
     /**
      * Поиск пользователей (простая реализация).
      */
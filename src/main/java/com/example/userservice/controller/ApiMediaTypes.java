@@ -0,0 +1,67 @@
+package com.example.userservice.controller;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Медиа типы, которые API поддерживает помимо стандартных.
+ */
+public final class ApiMediaTypes {
+
+    /**
+     * Плоское JSON представление пользователя без HATEOAS ссылок для межсервисных клиентов.
+     */
+    public static final String LEAN_JSON_VALUE = "application/vnd.userservice.lean+json";
+
+    public static final MediaType LEAN_JSON = MediaType.parseMediaType(LEAN_JSON_VALUE);
+
+    /**
+     * Бинарный JSON (Jackson Smile) с тем же плоским представлением.
+     */
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType SMILE = MediaType.parseMediaType(SMILE_VALUE);
+
+    /**
+     * CBOR (RFC 8949) с тем же плоским представлением.
+     */
+    public static final String CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
+    /**
+     * Типы плоского представления в порядке предпочтения при равном качестве.
+     */
+    public static final List<MediaType> LEAN_TYPES = List.of(MediaType.APPLICATION_JSON, LEAN_JSON, SMILE, CBOR);
+
+    private ApiMediaTypes() {
+    }
+
+    /**
+     * Выбирает тип плоского представления по заголовку Accept с учетом параметра качества q.
+     *
+     * @param accept значение заголовка Accept (может быть null)
+     * @return выбранный тип, application/json если ни один не подходит
+     */
+    public static MediaType selectLean(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType selected = MediaType.APPLICATION_JSON;
+        double selectedQuality = 0;
+        for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+            if (accepted.getQualityValue() <= selectedQuality) {
+                continue;
+            }
+            for (MediaType lean : LEAN_TYPES) {
+                if (accepted.includes(lean)) {
+                    selected = lean;
+                    selectedQuality = accepted.getQualityValue();
+                    break;
+                }
+            }
+        }
+        return selected;
+    }
+}
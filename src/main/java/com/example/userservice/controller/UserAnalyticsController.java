@@ -0,0 +1,92 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.analytics.UserColumnFilter;
+import com.example.userservice.analytics.UserColumnGroupBy;
+import com.example.userservice.analytics.UserColumnStore;
+import com.example.userservice.dto.UserAnalyticsDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * REST Controller для аналитических запросов к колоночному снимку пользователей в памяти.
+ */
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+@Tag(name = "User Analytics", description = "Ad-hoc analytics over an in-memory columnar snapshot")
+public class UserAnalyticsController {
+
+    private final UserColumnStore userColumnStore;
+
+    /**
+     * Выполняет аналитический запрос с фильтром и группировкой.
+     *
+     * @return агрегаты по группам или 503, если снимок отключен или еще не загружен
+     */
+    @Operation(
+        summary = "Analyze users",
+        description = "Filters by age range, email domains, name substring and creation window and aggregates "
+                + "count and average age, optionally grouped by domain, age or creation day. Runs as a parallel "
+                + "scan of the in-memory columnar snapshot, which follows the changes feed, so the database is not queried"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Aggregates",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = UserAnalyticsDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid filter or limit",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Snapshot is disabled or still loading",
+            content = @Content
+        )
+    })
+    @GetMapping(value = "/analytics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserAnalyticsDto> analyze(
+            @Parameter(description = "Grouping: NONE, DOMAIN, AGE or CREATED_DAY")
+            @RequestParam(defaultValue = "NONE") UserColumnGroupBy groupBy,
+            @Parameter(description = "Minimum age, inclusive")
+            @RequestParam(required = false) Integer minAge,
+            @Parameter(description = "Maximum age, inclusive")
+            @RequestParam(required = false) Integer maxAge,
+            @Parameter(description = "Email domains")
+            @RequestParam(required = false) Set<String> domain,
+            @Parameter(description = "Name substring (case-insensitive)")
+            @RequestParam(required = false) String name,
+            @Parameter(description = "Creation window start, inclusive (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Creation window end, exclusive (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @Parameter(description = "Maximum number of groups to return")
+            @RequestParam(defaultValue = "100") int limit) {
+        UserColumnFilter filter = new UserColumnFilter(minAge, maxAge, domain, name, createdFrom, createdTo);
+        return userColumnStore.query(filter, groupBy, limit)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
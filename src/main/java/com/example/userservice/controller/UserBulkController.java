@@ -0,0 +1,250 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.BatchOperationDto;
+import com.example.userservice.dto.BatchResponseDto;
+import com.example.userservice.dto.BulkOperationResultDto;
+import com.example.userservice.dto.BulkUpdateItemDto;
+import com.example.userservice.dto.ImportReportDto;
+import com.example.userservice.dto.IngestChunkResultDto;
+import com.example.userservice.service.UserBatchService;
+import com.example.userservice.service.UserBulkService;
+import com.example.userservice.service.UserImportService;
+import com.example.userservice.service.UserIngestService;
+import com.example.userservice.service.UserImportService.ConflictPolicy;
+import com.example.userservice.service.UserImportService.ImportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * REST Controller для массовых операций над пользователями.
+ * Тело запроса обрабатывается потоково и не загружается в память целиком.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+@Tag(name = "User Bulk Operations", description = "API for high-volume user operations")
+public class UserBulkController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    private final UserImportService userImportService;
+    private final UserIngestService userIngestService;
+    private final UserBulkService userBulkService;
+    private final UserBatchService userBatchService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Импортирует пользователей из CSV или NDJSON через PostgreSQL COPY.
+     *
+     * @param contentType тип тела запроса
+     * @param onConflict поведение при совпадении email
+     * @param request HTTP запрос с телом для потокового чтения
+     * @return итоговый отчет импорта
+     */
+    @Operation(
+        summary = "Bulk import users",
+        description = "Streams CSV (name,email,age) or NDJSON rows into PostgreSQL using COPY in chunks"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Import finished",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ImportReportDto.class)
+            )
+        )
+    })
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON})
+    public ResponseEntity<ImportReportDto> importUsers(
+            @RequestHeader("Content-Type") String contentType,
+            @Parameter(description = "Conflict policy on duplicate email: SKIP or UPDATE")
+            @RequestParam(defaultValue = "SKIP") ConflictPolicy onConflict,
+            HttpServletRequest request) throws IOException {
+        ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(NDJSON))
+                ? ImportFormat.NDJSON : ImportFormat.CSV;
+        log.info("Importing users: format={}, onConflict={}", format, onConflict);
+        ImportReportDto report = userImportService.importUsers(request.getInputStream(), format, onConflict,
+                progress -> log.debug("Import progress: {}", progress));
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Потоково принимает JSON массив пользователей.
+     * Тело запроса не буферизуется: элементы разбираются по одному, а результат каждой
+     * записанной порции сразу отправляется клиенту строкой NDJSON.
+     *
+     * @param request HTTP запрос с JSON массивом {@link com.example.userservice.dto.CreateUserDto}
+     * @param response HTTP ответ, в который пишутся результаты порций
+     */
+    @Operation(
+        summary = "Streaming bulk create",
+        description = "Parses a JSON array of users incrementally, validates each item and writes chunks in JDBC batches. "
+                + "Per-chunk results are streamed back as NDJSON"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Stream of per-chunk results",
+            content = @Content(
+                mediaType = NDJSON,
+                schema = @Schema(implementation = IngestChunkResultDto.class)
+            )
+        )
+    })
+    @PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_JSON_VALUE, produces = NDJSON)
+    public void ingestUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Starting streaming user ingest");
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(NDJSON);
+        ServletOutputStream output = response.getOutputStream();
+        ImportReportDto report = userIngestService.ingest(request.getInputStream(), result -> {
+            try {
+                output.write(objectMapper.writeValueAsBytes(result));
+                output.write('\n');
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Streaming user ingest finished: {}", report);
+    }
+
+    /**
+     * Массово обновляет пользователей set-based запросами по порциям.
+     *
+     * @param items ID и новые значения полей (null поля не изменяются)
+     * @return исход по каждому элементу
+     */
+    @Operation(
+        summary = "Bulk update users",
+        description = "Applies partial updates to many users with one UPDATE ... FROM UNNEST statement per chunk"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Per-item outcomes",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = BulkOperationResultDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty or oversized request",
+            content = @Content
+        )
+    })
+    @PutMapping("/bulk")
+    public ResponseEntity<BulkOperationResultDto> bulkUpdateUsers(
+            @Parameter(description = "Items to update", required = true)
+            @RequestBody List<BulkUpdateItemDto> items) {
+        return ResponseEntity.ok(userBulkService.updateUsers(items));
+    }
+
+    /**
+     * Массово удаляет пользователей запросами DELETE ... WHERE id = ANY(?) по порциям.
+     *
+     * @param ids ID пользователей
+     * @return исход по каждому ID
+     */
+    @Operation(
+        summary = "Bulk delete users",
+        description = "Deletes many users with one DELETE ... WHERE id = ANY(?) RETURNING statement per chunk"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Per-item outcomes",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = BulkOperationResultDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty or oversized request",
+            content = @Content
+        )
+    })
+    @DeleteMapping("/bulk")
+    public ResponseEntity<BulkOperationResultDto> bulkDeleteUsers(
+            @Parameter(description = "IDs of users to delete", required = true)
+            @RequestBody List<Long> ids) {
+        return ResponseEntity.ok(userBulkService.deleteUsers(ids));
+    }
+
+    /**
+     * Выполняет упорядоченный пакет разнотипных операций за один HTTP запрос.
+     *
+     * @param operations операции CREATE/GET/UPDATE/DELETE в порядке выполнения
+     * @param atomic true - все операции одной транзакцией, false - каждая отдельно
+     * @return 200 если все операции успешны, иначе 207 со статусом каждой операции
+     */
+    @Operation(
+        summary = "Execute a batch of user operations",
+        description = "Runs an ordered list of CREATE/GET/UPDATE/DELETE operations in one session, "
+                + "either atomically in a single transaction or independently per operation"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "All operations succeeded",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = BatchResponseDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "207",
+            description = "Some operations failed, see per-operation statuses",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = BatchResponseDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty or oversized batch",
+            content = @Content
+        )
+    })
+    @PostMapping("/_batch")
+    public ResponseEntity<BatchResponseDto> executeBatch(
+            @Parameter(description = "Operations in execution order", required = true)
+            @RequestBody List<BatchOperationDto> operations,
+            @Parameter(description = "Run all operations in one transaction (all or nothing)")
+            @RequestParam(defaultValue = "true") boolean atomic) {
+        BatchResponseDto response = userBatchService.execute(operations, atomic);
+        boolean allSucceeded = response.getResults().stream().allMatch(result -> result.getStatus() < 300);
+        return ResponseEntity.status(allSucceeded ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(response);
+    }
+}
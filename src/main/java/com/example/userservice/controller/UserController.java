@@ -1,10 +1,16 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.ChangesPageDto;
 import com.example.userservice.dto.CreateUserDto;
+import com.example.userservice.dto.SparseUserDto;
 import com.example.userservice.dto.UpdateUserDto;
+import com.example.userservice.dto.UpsertUserDto;
 import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserField;
 import com.example.userservice.dto.UserResourceDto;
+import com.example.userservice.repository.UpsertResult;
 import com.example.userservice.service.HateoasService;
+import com.example.userservice.service.UserChangesService;
 import com.example.userservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,16 +25,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * REST Controller для управления пользователями.
  * Предоставляет CRUD операции через HTTP API с поддержкой HATEOAS.
+ * Чтение по Accept: application/json, {@link ApiMediaTypes#LEAN_JSON_VALUE}, Smile или CBOR
+ * возвращает плоское представление без ссылок, для application/hal+json и любого типа — HAL.
  */
 @Slf4j
 @RestController
@@ -39,6 +50,8 @@ public class UserController {
     
     private final UserService userService;
     private final HateoasService hateoasService;
+    private final UserResponseRenderer userResponseRenderer;
+    private final UserChangesService userChangesService;
     
     /**
      * Создает нового пользователя.
@@ -77,6 +90,7 @@ public class UserController {
     
     /**
      * Получает пользователя по ID.
+     * Закодированный ответ берется из {@link com.example.userservice.cache.UserResponseCache}, если он включен.
      * 
      * @param id ID пользователя
      * @return пользователь с HATEOAS ссылками или 404 если не найден
@@ -101,16 +115,11 @@ public class UserController {
         )
     })
     @GetMapping("/{id}")
-    public ResponseEntity<UserResourceDto> getUserById(
+    public ResponseEntity<byte[]> getUserById(
             @Parameter(description = "User ID", required = true, example = "1")
             @PathVariable Long id) {
         log.info("Getting user by ID: {}", id);
-        return userService.getUserById(id)
-                .map(user -> {
-                    UserResourceDto userResource = hateoasService.toUserResource(user);
-                    return ResponseEntity.ok(userResource);
-                })
-                .orElse(ResponseEntity.notFound().build());
+        return userResponseRenderer.renderHal(id);
     }
     
     /**
@@ -191,6 +200,97 @@ public class UserController {
         return ResponseEntity.ok(collection);
     }
     
+    /**
+     * Ищет пользователей по части имени и диапазону возраста.
+     * 
+     * @param name часть имени
+     * @param minAge минимальный возраст
+     * @param maxAge максимальный возраст
+     * @param afterId ID последнего пользователя предыдущей страницы
+     * @param size размер страницы
+     * @return страница пользователей с HATEOAS ссылками
+     */
+    @Operation(
+        summary = "Search users",
+        description = "Searches users by name fragment and age range with keyset pagination by ID"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Page of matching users",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = CollectionModel.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid page size or age range",
+            content = @Content
+        )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<CollectionModel<UserResourceDto>> searchUsers(
+            @Parameter(description = "Case-insensitive name fragment", example = "john")
+            @RequestParam(required = false) String name,
+            @Parameter(description = "Minimum age", example = "18")
+            @RequestParam(required = false) Integer minAge,
+            @Parameter(description = "Maximum age", example = "65")
+            @RequestParam(required = false) Integer maxAge,
+            @Parameter(description = "ID of the last user of the previous page")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Page size", example = "20")
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Searching users: name={}, minAge={}, maxAge={}, afterId={}, size={}",
+                name, minAge, maxAge, afterId, size);
+        List<UserResourceDto> userResources = userService.searchUsers(name, minAge, maxAge, afterId, size).stream()
+                .map(hateoasService::toUserResource)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(CollectionModel.of(userResources));
+    }
+    
+    /**
+     * Возвращает изменения пользователей после токена для инкрементальной синхронизации.
+     * 
+     * @param since токен из предыдущего ответа; без него возвращается полная выборка с начала
+     * @param size максимальное количество изменений на странице
+     * @return изменения и токен продолжения
+     */
+    @Operation(
+        summary = "Get user changes",
+        description = "Returns users created, updated or deleted after the 'since' token, "
+                + "ordered by change time and id, with a continuation token"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Page of changes",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ChangesPageDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid token or page size",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "410",
+            description = "Token expired, a full resync is required",
+            content = @Content
+        )
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<ChangesPageDto> getChanges(
+            @Parameter(description = "Continuation token from the previous response")
+            @RequestParam(required = false) String since,
+            @Parameter(description = "Page size", example = "500")
+            @RequestParam(defaultValue = "500") int size) {
+        log.info("Getting user changes since {}, size={}", since, size);
+        return ResponseEntity.ok(userChangesService.getChanges(since, size));
+    }
+    
     /**
      * Обновляет пользователя.
      * 
@@ -239,6 +339,53 @@ public class UserController {
         }
     }
     
+    /**
+     * Создает или обновляет пользователя по email одним атомарным запросом.
+     * 
+     * @param email email пользователя
+     * @param upsertUserDto имя и возраст
+     * @return 201 с пользователем если он создан, 200 если обновлен
+     */
+    @Operation(
+        summary = "Create or update user by email",
+        description = "Atomically creates a user with the given email or updates the existing one "
+                + "and sends a CREATE or UPDATE notification via Kafka"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "User created",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = UserResourceDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "200",
+            description = "User updated",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = UserResourceDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid input data",
+            content = @Content
+        )
+    })
+    @PutMapping("/by-email/{email}")
+    public ResponseEntity<UserResourceDto> upsertUserByEmail(
+            @Parameter(description = "User email", required = true, example = "john.doe@example.com")
+            @PathVariable String email,
+            @Parameter(description = "User data", required = true)
+            @Valid @RequestBody UpsertUserDto upsertUserDto) {
+        log.info("Upserting user with email: {}, data: {}", email, upsertUserDto);
+        UpsertResult result = userService.upsertUserByEmail(email, upsertUserDto);
+        UserResourceDto userResource = hateoasService.toUserResource(result.getUser());
+        return ResponseEntity.status(result.isCreated() ? HttpStatus.CREATED : HttpStatus.OK).body(userResource);
+    }
+    
     /**
      * Удаляет пользователя.
      * 
@@ -268,4 +415,170 @@ public class UserController {
         boolean deleted = userService.deleteUser(id);
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
+    
+    // Sparse fieldsets: при наличии параметра fields из БД выбираются только запрошенные колонки,
+    // а ответ содержит только эти поля и не содержит HATEOAS ссылок
+    
+    /**
+     * Получает пользователя по ID с частичным набором полей.
+     * 
+     * @param id ID пользователя
+     * @param fields поля через запятую, например id,email
+     * @return пользователь только с запрошенными полями или 404 если не найден
+     */
+    @Operation(
+        summary = "Get user by ID (sparse fieldset)",
+        description = "Retrieves only the requested fields of a user, without HATEOAS links"
+    )
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<SparseUserDto> getUserFieldsById(
+            @Parameter(description = "User ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Comma-separated fields: id, name, email, age, createdAt, updatedAt",
+                    example = "id,email")
+            @RequestParam String fields) {
+        return userService.getUserById(id, UserField.parse(fields))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Получает пользователя по email с частичным набором полей.
+     * 
+     * @param email email пользователя
+     * @param fields поля через запятую
+     * @return пользователь только с запрошенными полями или 404 если не найден
+     */
+    @Operation(
+        summary = "Get user by email (sparse fieldset)",
+        description = "Retrieves only the requested fields of a user, without HATEOAS links"
+    )
+    @GetMapping(value = "/email/{email}", params = "fields")
+    public ResponseEntity<SparseUserDto> getUserFieldsByEmail(
+            @Parameter(description = "User email", required = true, example = "john.doe@example.com")
+            @PathVariable String email,
+            @Parameter(description = "Comma-separated fields", example = "id,name")
+            @RequestParam String fields) {
+        return userService.getUserByEmail(email, UserField.parse(fields))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Получает всех пользователей с частичным набором полей.
+     * 
+     * @param fields поля через запятую
+     * @return список пользователей только с запрошенными полями
+     */
+    @Operation(
+        summary = "Get all users (sparse fieldset)",
+        description = "Retrieves only the requested fields of all users as a plain array"
+    )
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<SparseUserDto>> getAllUsersFields(
+            @Parameter(description = "Comma-separated fields", example = "id,email")
+            @RequestParam String fields) {
+        return ResponseEntity.ok(userService.getAllUsers(UserField.parse(fields)));
+    }
+    
+    /**
+     * Ищет пользователей с частичным набором полей.
+     * 
+     * @return страница пользователей только с запрошенными полями
+     */
+    @Operation(
+        summary = "Search users (sparse fieldset)",
+        description = "Searches users and returns only the requested fields as a plain array"
+    )
+    @GetMapping(value = "/search", params = "fields")
+    public ResponseEntity<List<SparseUserDto>> searchUsersFields(
+            @Parameter(description = "Comma-separated fields", example = "id,email")
+            @RequestParam String fields,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        Set<UserField> fieldSet = UserField.parse(fields);
+        return ResponseEntity.ok(userService.searchUsers(fieldSet, name, minAge, maxAge, afterId, size));
+    }
+    
+    // Lean представление: обработчики с produces выбираются только когда клиент явно запросил
+    // application/json, vendor тип или бинарный формат (Smile, CBOR);
+    // для application/hal+json и */* остаются HAL обработчики выше
+    
+    /**
+     * Получает пользователя по ID без HATEOAS ссылок в формате, выбранном по Accept.
+     * 
+     * @param id ID пользователя
+     * @param accept заголовок Accept
+     * @return пользователь или 404 если не найден
+     */
+    @Operation(
+        summary = "Get user by ID (lean)",
+        description = "Retrieves a user as plain JSON without HATEOAS links"
+    )
+    @GetMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.LEAN_JSON_VALUE,
+            ApiMediaTypes.SMILE_VALUE, ApiMediaTypes.CBOR_VALUE})
+    public ResponseEntity<byte[]> getLeanUserById(
+            @Parameter(description = "User ID", required = true, example = "1")
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return userResponseRenderer.renderLean(id, ApiMediaTypes.selectLean(accept));
+    }
+    
+    /**
+     * Получает пользователя по email без HATEOAS ссылок.
+     * 
+     * @param email email пользователя
+     * @return пользователь или 404 если не найден
+     */
+    @Operation(
+        summary = "Get user by email (lean)",
+        description = "Retrieves a user as plain JSON without HATEOAS links"
+    )
+    @GetMapping(value = "/email/{email}", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.LEAN_JSON_VALUE,
+            ApiMediaTypes.SMILE_VALUE, ApiMediaTypes.CBOR_VALUE})
+    public ResponseEntity<UserDto> getLeanUserByEmail(
+            @Parameter(description = "User email address", required = true, example = "john.doe@example.com")
+            @PathVariable String email) {
+        return userService.getUserByEmail(email)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Получает всех пользователей плоским массивом без HATEOAS ссылок.
+     * 
+     * @return список всех пользователей
+     */
+    @Operation(
+        summary = "Get all users (lean)",
+        description = "Retrieves all users as a plain JSON array without HATEOAS links"
+    )
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.LEAN_JSON_VALUE,
+            ApiMediaTypes.SMILE_VALUE, ApiMediaTypes.CBOR_VALUE})
+    public ResponseEntity<List<UserDto>> getAllLeanUsers() {
+        return ResponseEntity.ok(userService.getAllUsers());
+    }
+    
+    /**
+     * Ищет пользователей и возвращает плоский массив без HATEOAS ссылок.
+     * 
+     * @return страница пользователей
+     */
+    @Operation(
+        summary = "Search users (lean)",
+        description = "Searches users and returns a plain JSON array without HATEOAS links"
+    )
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.LEAN_JSON_VALUE,
+            ApiMediaTypes.SMILE_VALUE, ApiMediaTypes.CBOR_VALUE})
+    public ResponseEntity<List<UserDto>> searchLeanUsers(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(userService.searchUsers(name, minAge, maxAge, afterId, size));
+    }
 }
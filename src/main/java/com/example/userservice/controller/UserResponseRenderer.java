@@ -0,0 +1,118 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.cache.UserResponseCache;
+import com.example.userservice.cache.UserResponseCache.CachedResponse;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.service.HateoasService;
+import com.example.userservice.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * Формирует закодированный ответ с пользователем по ID через {@link UserResponseCache}.
+ * При попадании в кэш тело отдается готовым массивом байт без обращения к БД,
+ * построения ссылок и сериализации; при промахе ответ кодируется теми же
+ * HttpMessageConverter, что использует Spring MVC, и сохраняется в кэш.
+ * Кэш сбрасывается только записью, поэтому при промахе пользователь читается с primary.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserResponseRenderer {
+
+    private final UserService userService;
+    private final HateoasService hateoasService;
+    private final UserResponseCache userResponseCache;
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+
+    /**
+     * Возвращает пользователя в HAL представлении со ссылками.
+     */
+    public ResponseEntity<byte[]> renderHal(Long id) {
+        // Ссылки абсолютные, поэтому базовый URI запроса входит в вариант
+        String variant = MediaTypes.HAL_JSON_VALUE + " " + ServletUriComponentsBuilder.fromCurrentServletMapping().toUriString();
+        return render(id, MediaTypes.HAL_JSON, variant, true);
+    }
+
+    /**
+     * Возвращает пользователя в плоском представлении выбранного формата.
+     */
+    public ResponseEntity<byte[]> renderLean(Long id, MediaType mediaType) {
+        return render(id, mediaType, mediaType.toString(), false);
+    }
+
+    private ResponseEntity<byte[]> render(Long id, MediaType mediaType, String variant, boolean hal) {
+        if (id == null || id <= 0) {
+            throw new IllegalArgumentException("Invalid user ID: " + id);
+        }
+        CachedResponse cached = userResponseCache.get(id, variant, this::currentDataVersion);
+        if (cached != null) {
+            return ok(cached.getContentType(), cached.body());
+        }
+
+        long version = userResponseCache.version(id);
+        Optional<UserDto> user = userService.getUserByIdFromPrimary(id);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Object body = hal ? hateoasService.toUserResource(user.get()) : user.get();
+        HttpHeaders headers = new HttpHeaders();
+        byte[] bytes = write(body, mediaType, headers);
+        String contentType = headers.getContentType() != null ? headers.getContentType().toString() : mediaType.toString();
+        userResponseCache.put(id, variant, version, UserResponseCache.dataVersion(user.get().getUpdatedAt()),
+                contentType, bytes);
+        return ok(contentType, bytes);
+    }
+
+    private long currentDataVersion(long id) {
+        return userService.getUserUpdatedAt(id).map(UserResponseCache::dataVersion).orElse(0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] write(Object body, MediaType mediaType, HttpHeaders headers) {
+        HttpMessageConverter<Object> converter = (HttpMessageConverter<Object>) handlerAdapter.getObject()
+                .getMessageConverters().stream()
+                .filter(candidate -> candidate.canWrite(body.getClass(), mediaType))
+                .findFirst()
+                .orElseThrow(() -> new HttpMessageNotWritableException(
+                        "No converter for " + body.getClass().getSimpleName() + " as " + mediaType));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try {
+            converter.write(body, mediaType, new HttpOutputMessage() {
+                @Override
+                public OutputStream getBody() {
+                    return buffer;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+            });
+        } catch (IOException e) {
+            throw new HttpMessageNotWritableException("Could not encode user " + body, e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static ResponseEntity<byte[]> ok(String contentType, byte[] body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, contentType)
+                .contentLength(body.length)
+                .body(body);
+    }
+}
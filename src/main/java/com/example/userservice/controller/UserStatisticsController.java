@@ -0,0 +1,129 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserCountDto;
+import com.example.userservice.dto.UserStatisticsDto;
+import com.example.userservice.service.UserCountService;
+import com.example.userservice.service.UserStatisticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller для статистики и подсчета пользователей без полного чтения таблицы.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+@Tag(name = "User Statistics", description = "Aggregated user statistics without table scans")
+public class UserStatisticsController {
+
+    private final UserStatisticsService userStatisticsService;
+    private final UserCountService userCountService;
+
+    /**
+     * Возвращает статистику пользователей.
+     *
+     * @param topDomains число самых частых доменов email
+     * @param days число последних дней регистраций
+     * @return статистика или 503, пока агрегаты не построены
+     */
+    @Operation(
+        summary = "Get user statistics",
+        description = "Returns counts per email domain, an age histogram and signups per day. "
+                + "Served from in-memory aggregates that are updated on every write and periodically "
+                + "reconciled with the database"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Statistics",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = UserStatisticsDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid parameters",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Statistics are still being built or are disabled",
+            content = @Content
+        )
+    })
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserStatisticsDto> getStatistics(
+            @Parameter(description = "Number of most frequent email domains to return")
+            @RequestParam(defaultValue = "20") int topDomains,
+            @Parameter(description = "Number of recent days of signups to return, including today")
+            @RequestParam(defaultValue = "30") int days) {
+        return userStatisticsService.getStatistics(topDomains, days)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    log.info("User statistics requested before they were built");
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                });
+    }
+
+    /**
+     * Возвращает число пользователей, точное или оценку.
+     *
+     * @param mode EXACT или ESTIMATE
+     * @param name подстрока имени
+     * @param domain домен email
+     * @param minAge минимальный возраст
+     * @param maxAge максимальный возраст
+     * @return число пользователей и использованный режим
+     */
+    @Operation(
+        summary = "Count users",
+        description = "EXACT runs COUNT(*). ESTIMATE answers from in-memory counters, HyperLogLog sketches "
+                + "(domain combined with an age range) or planner statistics without reading the table; "
+                + "a name filter cannot be estimated and is counted exactly. The response states the mode used"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Count",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = UserCountDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid filters",
+            content = @Content
+        )
+    })
+    @GetMapping(value = "/count", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserCountDto> countUsers(
+            @Parameter(description = "Counting mode: EXACT or ESTIMATE")
+            @RequestParam(defaultValue = "ESTIMATE") UserCountDto.Mode mode,
+            @Parameter(description = "Name substring (case-insensitive)")
+            @RequestParam(required = false) String name,
+            @Parameter(description = "Email domain, e.g. example.com")
+            @RequestParam(required = false) String domain,
+            @Parameter(description = "Minimum age")
+            @RequestParam(required = false) Integer minAge,
+            @Parameter(description = "Maximum age")
+            @RequestParam(required = false) Integer maxAge) {
+        return ResponseEntity.ok(userCountService.count(mode, name, domain, minAge, maxAge));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserStreamEventDto;
+import com.example.userservice.stream.SlowConsumerPolicy;
+import com.example.userservice.stream.StreamSink;
+import com.example.userservice.stream.UserEventStream;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * REST Controller для подписки на изменения пользователей через Server-Sent Events.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/users")
+@Tag(name = "User Change Stream", description = "Live stream of user changes")
+public class UserStreamController {
+
+    private final UserEventStream userEventStream;
+    private final long timeoutMs;
+
+    public UserStreamController(UserEventStream userEventStream,
+                                @Value("${app.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.userEventStream = userEventStream;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Открывает поток событий изменений пользователей.
+     *
+     * @param lastEventId offset последнего полученного события при переподключении
+     * @param fromOffset первый offset для повторной доставки, если Last-Event-ID не передан
+     * @param policy поведение при отставании клиента
+     * @return SSE поток или 503, если достигнут лимит подписчиков
+     */
+    @Operation(
+        summary = "Stream user changes",
+        description = "Pushes user change events as Server-Sent Events. Each event id is its offset; "
+                + "reconnecting with Last-Event-ID resumes after it while the offset is still retained, "
+                + "otherwise a RESYNC event is sent first"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Event stream",
+            content = @Content(
+                mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                schema = @Schema(implementation = UserStreamEventDto.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid offset or policy",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Subscriber limit reached",
+            content = @Content
+        )
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUserChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @Parameter(description = "First offset to deliver (ignored when Last-Event-ID is present)")
+            @RequestParam(required = false) Long fromOffset,
+            @Parameter(description = "Slow consumer policy: DROP, COALESCE or DISCONNECT")
+            @RequestParam(required = false) SlowConsumerPolicy policy) {
+        Long from = lastEventId != null ? Long.valueOf(lastEventId + 1) : fromOffset;
+        if (from != null && from < 1) {
+            throw new IllegalArgumentException("Offset must be positive: " + from);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        UserEventStream.Subscription subscription = userEventStream.subscribe(from, policy, new SseSink(emitter));
+        if (subscription == null) {
+            log.warn("User stream subscriber limit reached, rejecting subscription");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        log.info("User stream subscription opened, fromOffset={}, policy={}", from, subscription.getPolicy());
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Доставка событий в SSE соединение.
+     */
+    private static final class SseSink implements StreamSink {
+
+        private final SseEmitter emitter;
+
+        private SseSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(UserStreamEventDto event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(event.getOffset()))
+                    .name(event.getKind().name())
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("keepalive"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -78,9 +78,8 @@ public class UserDao {
      */
     public Optional<User> findByEmail(String email) {
         try (Session session = sessionFactory.openSession()) {
-            Query<User> query = session.createQuery("FROM User WHERE email = :email", User.class);
-            query.setParameter("email", email);
-            User user = query.uniqueResult();
+            // Natural id разрешается через кэш natural id, минуя HQL запрос
+            User user = session.bySimpleNaturalId(User.class).load(email);
             if (user != null) {
                 logger.info("User found by email {}: {}", email, user);
             } else {
@@ -187,10 +186,8 @@ public class UserDao {
      */
     public boolean existsByEmail(String email) {
         try (Session session = sessionFactory.openSession()) {
-            Query<Long> query = session.createQuery("SELECT COUNT(*) FROM User WHERE email = :email", Long.class);
-            query.setParameter("email", email);
-            Long count = query.uniqueResult();
-            boolean exists = count > 0;
+            // Разрешаем только natural id -> id, без загрузки сущности
+            boolean exists = session.bySimpleNaturalId(User.class).getReference(email) != null;
             logger.info("User exists with email {}: {}", email, exists);
             return exists;
         } catch (Exception e) {
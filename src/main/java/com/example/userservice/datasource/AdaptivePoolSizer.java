@@ -0,0 +1,173 @@
+package com.example.userservice.datasource;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Адаптивно меняет максимальный размер пула HikariCP.
+ * Решения принимаются по метрикам, которые пул уже публикует, без пробных запросов,
+ * чтобы не занимать соединение у пула, который и так может быть исчерпан:
+ * hikaricp.connections.acquire дает время ожидания соединения,
+ * hikaricp.connections.usage - время работы с БД на одно соединение.
+ * Пока потоки ждут соединений, пул растет; если при этом растет время использования
+ * соединения, узким местом считается БД: рост останавливается, а последнее
+ * увеличение откатывается, так как дополнительные соединения только увеличат
+ * конкуренцию на сервере; простаивающий пул постепенно уменьшается.
+ */
+@Slf4j
+public class AdaptivePoolSizer implements AutoCloseable {
+
+    static final String ACQUIRE_TIMER = "hikaricp.connections.acquire";
+    static final String USAGE_TIMER = "hikaricp.connections.usage";
+    private static final double BASELINE_WEIGHT = 0.3;
+
+    private final HikariDataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final int minPoolSize;
+    private final int maxPoolSize;
+    private final double waitThresholdMs;
+    private final double latencyTolerance;
+    private final ScheduledExecutorService executor;
+
+    private final TimerWindow acquireWindow = new TimerWindow();
+    private final TimerWindow usageWindow = new TimerWindow();
+    private double baselineUsageMs = Double.NaN;
+    private boolean grewLastTime;
+
+    /**
+     * @param meterRegistry реестр с метриками пула или null; без него решения принимаются только по очереди ожидающих
+     * @param waitThresholdMs среднее время ожидания соединения, начиная с которого пул растет
+     * @param latencyTolerancePercent допустимый рост среднего времени использования соединения между замерами
+     */
+    public AdaptivePoolSizer(HikariDataSource dataSource, MeterRegistry meterRegistry, int minPoolSize, int maxPoolSize,
+                             long waitThresholdMs, int latencyTolerancePercent) {
+        if (minPoolSize <= 0 || maxPoolSize < minPoolSize) {
+            throw new IllegalArgumentException("Invalid adaptive pool bounds: " + minPoolSize + ".." + maxPoolSize);
+        }
+        if (waitThresholdMs < 0 || latencyTolerancePercent < 0) {
+            throw new IllegalArgumentException("Adaptive pool thresholds must not be negative");
+        }
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.minPoolSize = minPoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.waitThresholdMs = waitThresholdMs;
+        this.latencyTolerance = latencyTolerancePercent / 100.0;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "adaptive-pool-sizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает периодическую подстройку размера пула.
+     *
+     * @param interval интервал между замерами
+     */
+    public void start(Duration interval) {
+        executor.scheduleWithFixedDelay(this::adjust, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Adaptive pool sizing started for pool {} within {}..{}", dataSource.getPoolName(),
+                minPoolSize, maxPoolSize);
+    }
+
+    /**
+     * Снимает метрики пула и при необходимости меняет его размер.
+     */
+    public synchronized void adjust() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        int waiting = pool.getThreadsAwaitingConnection();
+        int active = pool.getActiveConnections();
+        double acquireMs = acquireWindow.meanMs(findTimer(ACQUIRE_TIMER));
+        double usageMs = usageWindow.meanMs(findTimer(USAGE_TIMER));
+        int current = config.getMaximumPoolSize();
+        int target = computeTargetSize(current, waiting, active, acquireMs, usageMs, baselineUsageMs, grewLastTime);
+        if (!Double.isNaN(usageMs)) {
+            // Скользящее среднее сглаживает разброс отдельных интервалов
+            baselineUsageMs = Double.isNaN(baselineUsageMs) ? usageMs
+                    : baselineUsageMs * (1 - BASELINE_WEIGHT) + usageMs * BASELINE_WEIGHT;
+        }
+        grewLastTime = target > current;
+        if (target != current) {
+            config.setMaximumPoolSize(target);
+            log.info("Pool {} resized {} -> {} (waiting={}, active={}, acquireMs={}, usageMs={})",
+                    dataSource.getPoolName(), current, target, waiting, active,
+                    String.format("%.2f", acquireMs), String.format("%.2f", usageMs));
+        }
+    }
+
+    /**
+     * Вычисляет целевой размер пула по наблюдаемым показателям.
+     *
+     * @param current текущий максимальный размер пула
+     * @param waitingThreads число потоков, ожидающих соединение
+     * @param activeConnections число занятых соединений
+     * @param acquireMs среднее время ожидания соединения за интервал или NaN, если замеров не было
+     * @param usageMs среднее время использования соединения за интервал или NaN, если замеров не было
+     * @param baselineUsageMs сглаженное время использования соединения за прошлые интервалы или NaN
+     * @param grewLastTime увеличивался ли пул при предыдущем замере
+     * @return новый максимальный размер пула в пределах [minPoolSize, maxPoolSize]
+     */
+    int computeTargetSize(int current, int waitingThreads, int activeConnections, double acquireMs,
+                          double usageMs, double baselineUsageMs, boolean grewLastTime) {
+        boolean latencyRising = usageMs > baselineUsageMs * (1 + latencyTolerance);
+        boolean starving = waitingThreads > 0 || acquireMs > waitThresholdMs;
+        int target = current;
+        if (latencyRising && grewLastTime) {
+            target = current - 1;
+        } else if (starving && !latencyRising) {
+            target = current + Math.max(1, waitingThreads / 2);
+        } else if (!starving && activeConnections < current / 2) {
+            target = current - 1;
+        }
+        return Math.max(minPoolSize, Math.min(maxPoolSize, target));
+    }
+
+    private Timer findTimer(String name) {
+        return meterRegistry == null ? null
+                : meterRegistry.find(name).tag("pool", dataSource.getPoolName()).timer();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Разность накопленных значений таймера между соседними замерами.
+     */
+    private static final class TimerWindow {
+
+        private long count;
+        private double totalMs;
+
+        /**
+         * @return среднее время одного события за интервал или NaN, если событий не было
+         */
+        double meanMs(Timer timer) {
+            if (timer == null) {
+                return Double.NaN;
+            }
+            long newCount = timer.count();
+            double newTotalMs = timer.totalTime(TimeUnit.MILLISECONDS);
+            long events = newCount - count;
+            double mean = events > 0 ? (newTotalMs - totalMs) / events : Double.NaN;
+            count = newCount;
+            totalMs = newTotalMs;
+            return mean;
+        }
+    }
+}
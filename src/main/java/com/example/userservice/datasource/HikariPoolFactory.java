@@ -0,0 +1,60 @@
+package com.example.userservice.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Фабрика пулов соединений HikariCP с единообразной настройкой.
+ * Для PostgreSQL дополнительно настраивается кэш prepared statements драйвера.
+ */
+public final class HikariPoolFactory {
+
+    private static final String POSTGRESQL_URL_PREFIX = "jdbc:postgresql:";
+
+    private HikariPoolFactory() {
+        // Utility class
+    }
+
+    /**
+     * Создает пул соединений.
+     *
+     * @param url JDBC URL
+     * @param username имя пользователя
+     * @param password пароль
+     * @param driverClassName класс драйвера (может быть null - определяется по URL)
+     * @param settings настройки пула
+     * @param meterRegistry реестр метрик или null, если метрики пула регистрирует Spring Boot
+     * @return настроенный пул соединений
+     */
+    public static HikariDataSource create(String url, String username, String password, String driverClassName,
+                                          PoolSettings settings, MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        if (driverClassName != null && !driverClassName.isEmpty()) {
+            config.setDriverClassName(driverClassName);
+        }
+
+        config.setPoolName(settings.getPoolName());
+        config.setMaximumPoolSize(settings.getMaximumPoolSize());
+        config.setMinimumIdle(Math.min(settings.getMinimumIdle(), settings.getMaximumPoolSize()));
+        config.setConnectionTimeout(settings.getConnectionTimeoutMs());
+        config.setIdleTimeout(settings.getIdleTimeoutMs());
+        config.setMaxLifetime(settings.getMaxLifetimeMs());
+        config.setLeakDetectionThreshold(settings.getLeakDetectionThresholdMs());
+
+        if (url != null && url.startsWith(POSTGRESQL_URL_PREFIX)) {
+            config.addDataSourceProperty("prepareThreshold", settings.getPrepareThreshold());
+            config.addDataSourceProperty("preparedStatementCacheQueries", settings.getPreparedStatementCacheQueries());
+            config.addDataSourceProperty("preparedStatementCacheSizeMiB", settings.getPreparedStatementCacheSizeMiB());
+            config.addDataSourceProperty("reWriteBatchedInserts", settings.isRewriteBatchedInserts());
+        }
+
+        if (meterRegistry != null) {
+            config.setMetricRegistry(meterRegistry);
+        }
+        return new HikariDataSource(config);
+    }
+}
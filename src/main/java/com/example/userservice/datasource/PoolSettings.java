@@ -0,0 +1,65 @@
+package com.example.userservice.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Настройки пула соединений HikariCP.
+ * Общие для Spring JPA пути, HibernateUtil, реплик и шардов.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class PoolSettings {
+
+    @Builder.Default
+    private String poolName = "user-service";
+
+    @Builder.Default
+    private int maximumPoolSize = 10;
+
+    @Builder.Default
+    private int minimumIdle = 2;
+
+    @Builder.Default
+    private long connectionTimeoutMs = 30_000;
+
+    @Builder.Default
+    private long idleTimeoutMs = 600_000;
+
+    @Builder.Default
+    private long maxLifetimeMs = 1_800_000;
+
+    /**
+     * Порог обнаружения утечек соединений, 0 - отключено.
+     */
+    @Builder.Default
+    private long leakDetectionThresholdMs = 0;
+
+    /**
+     * Число выполнений запроса, после которого PgJDBC переходит на серверный prepared statement.
+     */
+    @Builder.Default
+    private int prepareThreshold = 5;
+
+    /**
+     * Размер кэша prepared statements PgJDBC на соединение (в запросах).
+     */
+    @Builder.Default
+    private int preparedStatementCacheQueries = 256;
+
+    /**
+     * Размер кэша prepared statements PgJDBC на соединение (в мегабайтах).
+     */
+    @Builder.Default
+    private int preparedStatementCacheSizeMiB = 5;
+
+    /**
+     * Переписывать ли batch INSERT в многострочные INSERT (PgJDBC reWriteBatchedInserts).
+     */
+    @Builder.Default
+    private boolean rewriteBatchedInserts = false;
+}
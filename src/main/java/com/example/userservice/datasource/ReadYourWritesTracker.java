@@ -0,0 +1,80 @@
+package com.example.userservice.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Отслеживает недавние записи клиентов для гарантии read-your-writes.
+ * В течение окна после собственной записи чтения клиента направляются на primary,
+ * чтобы не получить устаревшие данные из отстающей реплики.
+ * Клиент определяется ключом, привязанным к потоку (например, из HTTP заголовка);
+ * если ключ не привязан, клиентом считается текущий поток.
+ */
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<String> CLIENT_KEY = new ThreadLocal<>();
+
+    private final long windowNanos;
+    private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Привязывает ключ клиента к текущему потоку.
+     *
+     * @param clientKey ключ клиента
+     */
+    public static void bindClient(String clientKey) {
+        CLIENT_KEY.set(clientKey);
+    }
+
+    /**
+     * Отвязывает ключ клиента от текущего потока.
+     */
+    public static void clearClient() {
+        CLIENT_KEY.remove();
+    }
+
+    /**
+     * Фиксирует запись, выполненную текущим клиентом.
+     */
+    public void recordWrite() {
+        if (windowNanos > 0) {
+            lastWrites.put(currentClientKey(), System.nanoTime());
+        }
+    }
+
+    /**
+     * Проверяет, находится ли текущий клиент в окне после собственной записи.
+     *
+     * @return true если чтения клиента должны идти на primary
+     */
+    public boolean isWithinWindow() {
+        String clientKey = currentClientKey();
+        Long lastWrite = lastWrites.get(clientKey);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.nanoTime() - lastWrite < windowNanos) {
+            return true;
+        }
+        lastWrites.remove(clientKey, lastWrite);
+        return false;
+    }
+
+    /**
+     * Удаляет записи клиентов, окно которых истекло.
+     */
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        lastWrites.entrySet().removeIf(entry -> now - entry.getValue() >= windowNanos);
+    }
+
+    private String currentClientKey() {
+        String clientKey = CLIENT_KEY.get();
+        return clientKey != null ? clientKey : "thread-" + Thread.currentThread().getId();
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.userservice.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSource, направляющий read-only транзакции на реплики, а остальные - на primary.
+ * Поддерживает проверку здоровья реплик, выбор round-robin или least-connections
+ * и окно read-your-writes после собственной записи клиента.
+ * Должен оборачиваться в LazyConnectionDataSourceProxy, чтобы соединение
+ * запрашивалось после того, как транзакция помечена как read-only.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY_KEY = "primary";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReplicaSelectionStrategy strategy;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final Duration healthCheckInterval;
+    private final AtomicInteger roundRobinCounter = new AtomicInteger();
+    private ScheduledExecutorService healthCheckExecutor;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    Map<String, DataSource> replicaDataSources,
+                                    ReplicaSelectionStrategy strategy,
+                                    ReadYourWritesTracker readYourWritesTracker,
+                                    Duration healthCheckInterval) {
+        this.primary = primary;
+        this.strategy = strategy;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.healthCheckInterval = healthCheckInterval;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY_KEY, primary);
+        replicaDataSources.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            replicas.add(replica);
+            targets.put(name, replica.countingDataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (!replicas.isEmpty() && !healthCheckInterval.isZero()) {
+            healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthCheckExecutor.scheduleWithFixedDelay(this::checkReplicas,
+                    healthCheckInterval.toMillis(), healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWritesTracker.recordWrite();
+            }
+            return PRIMARY_KEY;
+        }
+        if (PRIMARY_ONLY.get() != null || readYourWritesTracker.isWithinWindow()) {
+            return PRIMARY_KEY;
+        }
+        Replica replica = selectReplica();
+        return replica != null ? replica.name : PRIMARY_KEY;
+    }
+
+    /**
+     * Выполняет действие, направляя все его чтения на primary.
+     * Нужно для заполнения кэшей, которые сбрасываются только записью: окно read-your-writes
+     * действует лишь для клиента, выполнившего запись, и чтение другого клиента с отстающей
+     * реплики сохранило бы в кэш данные до записи. Без маршрутизации по репликам действие
+     * просто выполняется. Соединение должно запрашиваться внутри действия.
+     *
+     * @param action действие с чтениями из БД
+     * @return результат действия
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (PRIMARY_ONLY.get() != null) {
+            return action.get();
+        }
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    /**
+     * Проверяет доступность каждой реплики и обновляет ее статус.
+     * Недоступные реплики исключаются из выбора до следующей успешной проверки.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (replica.healthy != healthy) {
+                log.warn("Replica {} is now {}", replica.name, healthy ? "UP" : "DOWN");
+            }
+            replica.healthy = healthy;
+        }
+        readYourWritesTracker.purgeExpired();
+    }
+
+    /**
+     * Возвращает статус здоровья реплик по именам.
+     *
+     * @return карта имя реплики -> доступна ли она
+     */
+    public Map<String, Boolean> getReplicaHealth() {
+        Map<String, Boolean> health = new HashMap<>();
+        replicas.forEach(replica -> health.put(replica.name, replica.healthy));
+        return health;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (healthCheckExecutor != null) {
+            healthCheckExecutor.shutdownNow();
+        }
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    private Replica selectReplica() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (strategy == ReplicaSelectionStrategy.LEAST_CONNECTIONS) {
+            Replica least = healthy.get(0);
+            for (Replica replica : healthy) {
+                if (replica.activeConnections.get() < least.activeConnections.get()) {
+                    least = replica;
+                }
+            }
+            return least;
+        }
+        return healthy.get(Math.floorMod(roundRobinCounter.getAndIncrement(), healthy.size()));
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close data source", e);
+            }
+        }
+    }
+
+    /**
+     * Реплика с флагом здоровья и счетчиком открытых соединений.
+     */
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final DataSource countingDataSource;
+        private final AtomicInteger activeConnections = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.countingDataSource = new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return track(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return track(super.getConnection(username, password));
+                }
+            };
+        }
+
+        private Connection track(Connection target) {
+            activeConnections.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && !target.isClosed()) {
+                            activeConnections.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
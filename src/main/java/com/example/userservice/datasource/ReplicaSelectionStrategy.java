@@ -0,0 +1,17 @@
+package com.example.userservice.datasource;
+
+/**
+ * Стратегия выбора реплики для read-only транзакций.
+ */
+public enum ReplicaSelectionStrategy {
+
+    /**
+     * Реплики выбираются по очереди.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Выбирается реплика с наименьшим числом открытых соединений.
+     */
+    LEAST_CONNECTIONS
+}
@@ -0,0 +1,45 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Одна операция пакетного запроса над пользователями.
+ * Набор обязательных полей зависит от типа: CREATE - name, email, age; GET и DELETE - id;
+ * UPDATE - id и любые изменяемые поля.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Single operation of a batch request")
+public class BatchOperationDto {
+
+    /**
+     * Тип операции.
+     */
+    public enum Type {
+        CREATE,
+        GET,
+        UPDATE,
+        DELETE
+    }
+
+    @Schema(description = "Operation type", example = "CREATE", required = true)
+    private Type op;
+
+    @Schema(description = "User ID for GET, UPDATE and DELETE", example = "1")
+    private Long id;
+
+    @Schema(description = "Full name of the user", example = "John Doe")
+    private String name;
+
+    @Schema(description = "Email address of the user", example = "john.doe@example.com")
+    private String email;
+
+    @Schema(description = "Age of the user", example = "25")
+    private Integer age;
+}
@@ -0,0 +1,34 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат одной операции пакетного запроса.
+ * Статус использует коды HTTP, как элементы multi-status ответа.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of a single batch operation")
+public class BatchOperationResultDto {
+
+    @Schema(description = "Position of the operation in the request", example = "0")
+    private int index;
+
+    @Schema(description = "Operation type", example = "CREATE")
+    private BatchOperationDto.Type op;
+
+    @Schema(description = "HTTP status code of the operation", example = "201")
+    private int status;
+
+    @Schema(description = "Resulting user for CREATE, GET and UPDATE")
+    private UserDto user;
+
+    @Schema(description = "Error description for unsuccessful operations", example = "User not found")
+    private String message;
+}
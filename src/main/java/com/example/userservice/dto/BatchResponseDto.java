@@ -0,0 +1,29 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ответ пакетного запроса: признак фиксации изменений и результаты операций в порядке запроса.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Batch response with per-operation statuses")
+public class BatchResponseDto {
+
+    @Schema(description = "Whether all operations ran in a single transaction", example = "true")
+    private boolean atomic;
+
+    @Schema(description = "Whether at least one change was committed", example = "true")
+    private boolean committed;
+
+    @Schema(description = "Per-operation results in request order")
+    private List<BatchOperationResultDto> results;
+}
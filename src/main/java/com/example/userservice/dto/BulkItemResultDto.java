@@ -0,0 +1,43 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат массовой операции для одного пользователя.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk operation for a single user")
+public class BulkItemResultDto {
+
+    /**
+     * Исход операции над элементом.
+     */
+    public enum Status {
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        CONFLICT,
+        INVALID,
+        FAILED
+    }
+
+    @Schema(description = "User ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Outcome", example = "UPDATED")
+    private Status status;
+
+    @Schema(description = "Reason for an unsuccessful outcome", example = "Email is already used by another user")
+    private String message;
+
+    public static BulkItemResultDto of(Long id, Status status) {
+        return new BulkItemResultDto(id, status, null);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Итог массового обновления или удаления пользователей с исходом по каждому элементу.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of a bulk update or delete with per-item outcomes")
+public class BulkOperationResultDto {
+
+    @Schema(description = "Number of items in the request", example = "500")
+    private int requested;
+
+    @Schema(description = "Number of users updated or deleted", example = "497")
+    private int succeeded;
+
+    @Schema(description = "Number of items that were not applied", example = "3")
+    private int failed;
+
+    @Schema(description = "Elapsed time in milliseconds", example = "42")
+    private long elapsedMs;
+
+    @Schema(description = "Outcome per item, in request order")
+    private List<BulkItemResultDto> items;
+}
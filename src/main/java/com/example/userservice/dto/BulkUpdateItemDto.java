@@ -0,0 +1,41 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Элемент массового обновления пользователей.
+ * Поля кроме id опциональны: null означает "оставить текущее значение".
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Single item of a bulk update (null fields are left unchanged)")
+public class BulkUpdateItemDto {
+
+    @Schema(description = "User ID", example = "1", required = true)
+    @NotNull(message = "Id is required")
+    private Long id;
+
+    @Schema(description = "Full name of the user", example = "John Doe", minLength = 1, maxLength = 100)
+    @Size(min = 1, max = 100, message = "Name must be between 1 and 100 characters")
+    private String name;
+
+    @Schema(description = "Email address of the user", example = "john.doe@example.com")
+    @Email(message = "Invalid email format")
+    private String email;
+
+    @Schema(description = "Age of the user", example = "26", minimum = "0", maximum = "150")
+    @Min(value = 0, message = "Age must be at least 0")
+    @Max(value = 150, message = "Age must be at most 150")
+    private Integer age;
+}
@@ -0,0 +1,29 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница ленты изменений пользователей.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of the user changes feed")
+public class ChangesPageDto {
+
+    @Schema(description = "Changes in (changedAt, id) order")
+    private List<UserChangeDto> changes;
+
+    @Schema(description = "Token to pass as 'since' in the next request; always present")
+    private String nextToken;
+
+    @Schema(description = "True if more changes are available right away", example = "false")
+    private boolean hasMore;
+}
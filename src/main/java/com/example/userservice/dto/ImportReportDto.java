@@ -0,0 +1,63 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Отчет о массовом импорте пользователей.
+ * Используется и как промежуточный прогресс после каждой порции, и как итоговый результат.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress or final report of a bulk user import")
+public class ImportReportDto {
+
+    @Schema(description = "Number of chunks processed", example = "4")
+    private int chunks;
+
+    @Schema(description = "Number of input rows read", example = "200000")
+    private long totalRows;
+
+    @Schema(description = "Number of users inserted", example = "199000")
+    private long inserted;
+
+    @Schema(description = "Number of existing users updated (onConflict=UPDATE)", example = "0")
+    private long updated;
+
+    @Schema(description = "Number of rows skipped because the email already exists (onConflict=SKIP)", example = "900")
+    private long skipped;
+
+    @Schema(description = "Number of invalid or in-file duplicate rows", example = "100")
+    private long rejected;
+
+    @Schema(description = "Elapsed time in milliseconds", example = "1250")
+    private long elapsedMs;
+
+    @Schema(description = "Average throughput in rows per second", example = "160000")
+    private long rowsPerSecond;
+
+    /**
+     * Добавляет результат обработанной порции к отчету.
+     */
+    public void addChunk(long rows, long chunkInserted, long chunkUpdated, long chunkSkipped, long chunkRejected) {
+        chunks++;
+        totalRows += rows;
+        inserted += chunkInserted;
+        updated += chunkUpdated;
+        skipped += chunkSkipped;
+        rejected += chunkRejected;
+    }
+
+    /**
+     * Обновляет время выполнения и пропускную способность.
+     */
+    public void updateTiming(long elapsedNanos) {
+        elapsedMs = elapsedNanos / 1_000_000;
+        rowsPerSecond = elapsedNanos > 0 ? totalRows * 1_000_000_000L / elapsedNanos : 0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Результат обработки одной порции потокового приема пользователей.
+ * Возвращается клиенту отдельной строкой NDJSON сразу после записи порции.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of one ingested chunk, streamed as a single NDJSON line")
+public class IngestChunkResultDto {
+
+    @Schema(description = "Sequential chunk number starting from 1; 0 for a stream-level error", example = "1")
+    private int chunk;
+
+    @Schema(description = "Number of items received in the chunk", example = "1000")
+    private int received;
+
+    @Schema(description = "Number of users inserted", example = "998")
+    private int inserted;
+
+    @Schema(description = "Number of rejected items", example = "2")
+    private int rejected;
+
+    @Schema(description = "Time spent writing the chunk in milliseconds", example = "35")
+    private long elapsedMs;
+
+    @Schema(description = "Rejected items with reasons")
+    private List<IngestErrorDto> errors;
+
+    @Schema(description = "Stream-level error that stopped parsing, if any")
+    private String error;
+}
@@ -0,0 +1,27 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Описание отклоненного элемента при потоковом приеме пользователей.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Rejected item of a streaming ingest")
+public class IngestErrorDto {
+
+    @Schema(description = "Zero-based position of the item in the request array", example = "42")
+    private long index;
+
+    @Schema(description = "Email of the rejected item", example = "john.doe@example.com")
+    private String email;
+
+    @Schema(description = "Reason of rejection", example = "User with this email already exists")
+    private String message;
+}
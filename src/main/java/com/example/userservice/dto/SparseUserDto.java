@@ -0,0 +1,75 @@
+package com.example.userservice.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Пользователь с частичным набором полей (sparse fieldset).
+ * Сериализуется только выбранными полями, без HATEOAS ссылок; даты в формате UserDto.
+ */
+@JsonSerialize(using = SparseUserDto.Serializer.class)
+public class SparseUserDto {
+
+    private final Set<UserField> fields;
+    private final Map<UserField, Object> values = new EnumMap<>(UserField.class);
+
+    public SparseUserDto(Set<UserField> fields) {
+        this.fields = fields;
+    }
+
+    public Set<UserField> getFields() {
+        return fields;
+    }
+
+    public Object get(UserField field) {
+        return values.get(field);
+    }
+
+    public SparseUserDto set(UserField field, Object value) {
+        values.put(field, value);
+        return this;
+    }
+
+    /**
+     * Пишет выбранные поля напрямую в JsonGenerator, не строя промежуточный Map.
+     */
+    static class Serializer extends StdSerializer<SparseUserDto> {
+
+        private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+        Serializer() {
+            super(SparseUserDto.class);
+        }
+
+        @Override
+        public void serialize(SparseUserDto user, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject();
+            for (UserField field : user.fields) {
+                Object value = user.values.get(field);
+                generator.writeFieldName(field.getJsonName());
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long longValue) {
+                    generator.writeNumber(longValue);
+                } else if (value instanceof Integer intValue) {
+                    generator.writeNumber(intValue);
+                } else if (value instanceof LocalDateTime dateTime) {
+                    generator.writeString(DATE_TIME_FORMAT.format(dateTime));
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+}
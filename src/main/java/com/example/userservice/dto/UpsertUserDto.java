@@ -0,0 +1,35 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO для создания или обновления пользователя по email.
+ * Email передается в пути запроса и не входит в тело.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Data for creating or replacing a user identified by email")
+public class UpsertUserDto {
+
+    @Schema(description = "Full name of the user", example = "John Doe", required = true)
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must be at most 100 characters")
+    private String name;
+
+    @Schema(description = "Age of the user", example = "25", minimum = "0", maximum = "150", required = true)
+    @NotNull(message = "Age is required")
+    @Min(value = 0, message = "Age must be at least 0")
+    @Max(value = 150, message = "Age must be at most 150")
+    private Integer age;
+}
@@ -0,0 +1,58 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Результат аналитического запроса к колоночному снимку пользователей.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of an analytical query over the in-memory columnar snapshot")
+public class UserAnalyticsDto {
+
+    @Schema(description = "Users matching the filter", example = "1200")
+    private long matched;
+
+    @Schema(description = "Rows scanned, including rows of deleted users not yet compacted", example = "50000")
+    private long scannedRows;
+
+    @Schema(description = "Groups with at least one user; by count descending for DOMAIN, by key otherwise")
+    private List<Group> groups;
+
+    @Schema(description = "True if groups were cut to the requested limit", example = "false")
+    private boolean truncated;
+
+    @Schema(description = "Time the snapshot was last brought up to date with the changes feed")
+    private Instant refreshedAt;
+
+    @Schema(description = "Scan time in microseconds", example = "850")
+    private long elapsedMicros;
+
+    /**
+     * Агрегаты одной группы.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+
+        @Schema(description = "Group key: domain, age or day; absent for users without the grouped value",
+                example = "example.com")
+        private String key;
+
+        @Schema(description = "Number of users", example = "300")
+        private long count;
+
+        @Schema(description = "Average age of users with a known age", example = "34.5")
+        private Double averageAge;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Сводное событие о массовой операции над пользователями.
+ * Публикуется одно событие на порцию (chunk) вместо события на каждого пользователя.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchEventDto {
+
+    private String operation;
+    private int chunk;
+    private long processed;
+    private long inserted;
+    private long updated;
+    private long deleted;
+    private long skipped;
+    private long rejected;
+    /** ID затронутых пользователей; заполняется массовыми update/delete, у импорта не передается. */
+    private List<Long> userIds;
+}
@@ -0,0 +1,46 @@
+package com.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Одно изменение в ленте: созданный или измененный пользователь либо отметка об удалении.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Single entry of the user changes feed")
+public class UserChangeDto {
+
+    /**
+     * Вид изменения.
+     */
+    public enum Kind {
+        /** Пользователь создан или изменен; поле user содержит текущее состояние. */
+        UPSERT,
+        /** Пользователь удален. */
+        DELETE
+    }
+
+    @Schema(description = "Change kind", example = "UPSERT")
+    private Kind kind;
+
+    @Schema(description = "User ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Time of the change")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS")
+    private LocalDateTime changedAt;
+
+    @Schema(description = "Current state of the user for UPSERT entries")
+    private UserDto user;
+}
@@ -0,0 +1,55 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Число пользователей с указанием способа подсчета.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Number of users and how it was obtained")
+public class UserCountDto {
+
+    @Schema(description = "Number of users matching the filters", example = "1500")
+    private long count;
+
+    @Schema(description = "Mode used: EXACT or ESTIMATE; an estimate request falls back to EXACT "
+            + "when the filters cannot be estimated", example = "ESTIMATE")
+    private Mode mode;
+
+    @Schema(description = "Source of the number", example = "COUNTER")
+    private Source source;
+
+    @Schema(description = "Approximate absolute error bound of an estimate; absent for exact counts", example = "25")
+    private Long errorBound;
+
+    /**
+     * Режим подсчета.
+     */
+    public enum Mode {
+        /** COUNT(*) по таблице. */
+        EXACT,
+        /** Оценка без чтения таблицы. */
+        ESTIMATE
+    }
+
+    /**
+     * Источник числа.
+     */
+    public enum Source {
+        /** Запрос COUNT(*) к БД. */
+        QUERY,
+        /** Счетчики статистики в памяти, обновляемые при каждой записи. */
+        COUNTER,
+        /** Статистика планировщика PostgreSQL (pg_class.reltuples). */
+        PLANNER,
+        /** Пересечение скетчей HyperLogLog. */
+        SKETCH
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.userservice.dto;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Поле пользователя, доступное для выборки через параметр {@code fields}.
+ * Связывает имя поля в JSON с колонкой таблицы users.
+ */
+public enum UserField {
+    ID("id", "id"),
+    NAME("name", "name"),
+    EMAIL("email", "email"),
+    AGE("age", "age"),
+    CREATED_AT("createdAt", "created_at"),
+    UPDATED_AT("updatedAt", "updated_at");
+
+    private final String jsonName;
+    private final String column;
+
+    UserField(String jsonName, String column) {
+        this.jsonName = jsonName;
+        this.column = column;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Разбирает список полей через запятую, например {@code id,email}.
+     * ID выбирается всегда, так как по нему упорядочиваются списки.
+     *
+     * @param fields значение параметра fields
+     * @return набор полей в порядке объявления
+     * @throws IllegalArgumentException если список пуст или содержит неизвестное поле
+     */
+    public static Set<UserField> parse(String fields) {
+        EnumSet<UserField> result = EnumSet.of(ID);
+        if (fields == null || fields.isBlank()) {
+            throw new IllegalArgumentException("Parameter 'fields' cannot be empty");
+        }
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            result.add(byJsonName(trimmed));
+        }
+        return result;
+    }
+
+    private static UserField byJsonName(String name) {
+        for (UserField field : values()) {
+            if (field.jsonName.equalsIgnoreCase(name) || field.column.equals(name.toLowerCase(Locale.ROOT))) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field '" + name + "', allowed: id, name, email, age, createdAt, updatedAt");
+    }
+}
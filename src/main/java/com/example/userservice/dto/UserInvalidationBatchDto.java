@@ -0,0 +1,27 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Пакет инвалидаций локальных кэшей, рассылаемый всем узлам сервиса.
+ * Пары (id, версия) передаются параллельными массивами, чтобы сообщение оставалось компактным.
+ * Версии монотонны в пределах узла-отправителя.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserInvalidationBatchDto {
+
+    /** Идентификатор узла-отправителя. */
+    private String nodeId;
+    /** ID пользователей. */
+    private long[] userIds;
+    /** Версия инвалидации для каждого ID. */
+    private long[] versions;
+    /** Версия инвалидации всех пользователей или 0, если пакет ее не содержит. */
+    private long allUsersVersion;
+}
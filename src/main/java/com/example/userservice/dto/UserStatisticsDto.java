@@ -0,0 +1,80 @@
+package com.example.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Статистика пользователей: распределение по доменам email, возрасту и дням регистрации.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "User statistics maintained in memory")
+public class UserStatisticsDto {
+
+    @Schema(description = "Total number of users", example = "1500")
+    private long total;
+
+    @Schema(description = "Number of distinct email domains", example = "42")
+    private int distinctDomains;
+
+    @Schema(description = "Most frequent email domains, by count descending")
+    private List<DomainCount> topDomains;
+
+    @Schema(description = "Age histogram in buckets of fixed width; the last bucket is open-ended")
+    private List<AgeBucket> ageHistogram;
+
+    @Schema(description = "Users without age", example = "3")
+    private long unknownAge;
+
+    @Schema(description = "Signups per day of created_at for the requested period; days without signups are omitted")
+    private Map<LocalDate, Long> signupsPerDay;
+
+    @Schema(description = "Time of the last full reconciliation with the database")
+    private Instant reconciledAt;
+
+    @Schema(description = "Counters that differed from the database at the last reconciliation", example = "0")
+    private long lastDrift;
+
+    /**
+     * Число пользователей домена.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DomainCount {
+
+        @Schema(description = "Email domain in lower case", example = "example.com")
+        private String domain;
+
+        @Schema(description = "Number of users", example = "120")
+        private long count;
+    }
+
+    /**
+     * Число пользователей в диапазоне возраста.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AgeBucket {
+
+        @Schema(description = "Lower bound, inclusive", example = "20")
+        private int fromAge;
+
+        @Schema(description = "Upper bound, inclusive; absent for the last bucket", example = "29")
+        private Integer toAge;
+
+        @Schema(description = "Number of users", example = "300")
+        private long count;
+    }
+}
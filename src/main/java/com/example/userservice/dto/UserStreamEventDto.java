@@ -0,0 +1,54 @@
+package com.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Событие потока изменений пользователей.
+ * Содержит то же событие, что отправляется в Kafka, и его порядковый номер (offset) в потоке.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Event of the live user changes stream")
+public class UserStreamEventDto {
+
+    /**
+     * Вид события.
+     */
+    public enum Kind {
+        /** Изменение одного пользователя (CREATE, UPDATE, DELETE). */
+        USER,
+        /** Сводка массовой операции. */
+        BATCH,
+        /** Запрошенный offset уже недоступен: клиент должен перечитать состояние и продолжить с живого потока. */
+        RESYNC
+    }
+
+    @Schema(description = "Position of the event in the stream; pass as Last-Event-ID to resume", example = "42")
+    private long offset;
+
+    @Schema(description = "Event kind", example = "USER")
+    private Kind kind;
+
+    @Schema(description = "User event for USER entries")
+    private UserEventDto user;
+
+    @Schema(description = "Batch summary for BATCH entries")
+    private UserBatchEventDto batch;
+
+    /**
+     * Ключ объединения событий одного пользователя или null, если событие не объединяется.
+     */
+    @JsonIgnore
+    public String coalesceKey() {
+        return kind == Kind.USER && user != null ? user.getEmail() : null;
+    }
+}
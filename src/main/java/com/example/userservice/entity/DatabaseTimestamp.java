@@ -0,0 +1,25 @@
+package com.example.userservice.entity;
+
+import org.hibernate.annotations.ValueGenerationType;
+import org.hibernate.generator.EventType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Заполняет поле временем по часам БД при вставке и (по умолчанию) обновлении сущности.
+ * В отличие от {@code @UpdateTimestamp(source = SourceType.DB)} значение вычисляется до выполнения
+ * SQL, поэтому вставки и обновления по-прежнему группируются в JDBC batch-и.
+ */
+@ValueGenerationType(generatedBy = DatabaseTimestampGeneration.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface DatabaseTimestamp {
+
+    /**
+     * События, при которых назначается время.
+     */
+    EventType[] event() default {EventType.INSERT, EventType.UPDATE};
+}
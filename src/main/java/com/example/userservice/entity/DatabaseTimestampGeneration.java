@@ -0,0 +1,76 @@
+package com.example.userservice.entity;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Генератор для {@link DatabaseTimestamp}.
+ * Время запрашивается у БД (SELECT LOCALTIMESTAMP) один раз за транзакцию сессии и назначается
+ * всем сущностям, записанным в ней, - так же, как CURRENT_TIMESTAMP в PostgreSQL фиксирует
+ * время начала транзакции. Время изменений не зависит от часов JVM конкретного узла,
+ * а лента изменений сравнивает его с верхней границей, взятой по тем же часам БД.
+ */
+public class DatabaseTimestampGeneration implements BeforeExecutionGenerator {
+
+    private static final String CURRENT_TIMESTAMP_SQL = "SELECT LOCALTIMESTAMP";
+
+    // Общий для всех полей, чтобы created_at и updated_at новой строки совпадали
+    private static final Map<SharedSessionContractImplementor, LocalDateTime> TRANSACTION_TIMESTAMPS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final EnumSet<EventType> eventTypes;
+
+    public DatabaseTimestampGeneration(DatabaseTimestamp annotation) {
+        this.eventTypes = EventTypeSets.fromArray(annotation.event());
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return eventTypes;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        LocalDateTime timestamp = TRANSACTION_TIMESTAMPS.get(session);
+        if (timestamp != null) {
+            return timestamp;
+        }
+        timestamp = currentTimestamp(session);
+        if (session instanceof SessionImplementor eventSource && session.isTransactionInProgress()) {
+            TRANSACTION_TIMESTAMPS.put(session, timestamp);
+            eventSource.getActionQueue().registerProcess(
+                    (success, completed) -> TRANSACTION_TIMESTAMPS.remove(completed));
+        }
+        return timestamp;
+    }
+
+    private static LocalDateTime currentTimestamp(SharedSessionContractImplementor session) {
+        JdbcCoordinator coordinator = session.getJdbcCoordinator();
+        PreparedStatement statement = coordinator.getStatementPreparer().prepareStatement(CURRENT_TIMESTAMP_SQL);
+        try {
+            ResultSet rs = coordinator.getResultSetReturn().extract(statement, CURRENT_TIMESTAMP_SQL);
+            rs.next();
+            return rs.getObject(1, LocalDateTime.class);
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "Could not read the database clock", CURRENT_TIMESTAMP_SQL);
+        } finally {
+            coordinator.getLogicalConnection().getResourceRegistry().release(statement);
+            coordinator.afterStatementExecution();
+        }
+    }
+}
@@ -5,43 +5,49 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.generator.EventType;
 
 import java.time.LocalDateTime;
 
 /**
  * JPA Entity для пользователя.
- * Использует Spring Data JPA аннотации для аудита.
+ * Время создания и изменения назначается по часам БД ({@link DatabaseTimestamp}),
+ * как и в нативных операциях записи, чтобы лента изменений не зависела от часов JVM.
+ * Email отображен как natural id: поиск по email разрешается через
+ * кэш natural id сессии (и L2 кэш, если он включен) без повторных SQL запросов.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
-@EntityListeners(AuditingEntityListener.class)
+@Table(name = "users", indexes = @Index(name = "idx_users_updated_at_id", columnList = "updated_at, id"))
+@NaturalIdCache
 public class User {
     
+    // Последовательность с шагом 50 позволяет Hibernate группировать INSERT в JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 100)
     private String name;
     
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true, length = 255)
     private String email;
     
     @Column
     private Integer age;
     
-    @CreatedDate
+    @DatabaseTimestamp(event = EventType.INSERT)
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
-    @LastModifiedDate
+    @DatabaseTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
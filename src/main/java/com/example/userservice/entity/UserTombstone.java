@@ -0,0 +1,52 @@
+package com.example.userservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отметка об удалении пользователя для ленты изменений.
+ * Хранится ограниченное время, после чего удаляется фоновой очисткой.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_tombstones", indexes = @Index(name = "idx_user_tombstones_deleted_at_user_id",
+        columnList = "deleted_at, user_id"))
+public class UserTombstone implements Persistable<Long> {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Время удаления назначает БД (DEFAULT), а не часы JVM узла, выполнившего удаление
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "deleted_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
+    public static UserTombstone of(Long userId) {
+        return new UserTombstone(userId, null);
+    }
+
+    @Override
+    public Long getId() {
+        return userId;
+    }
+
+    // ID пользователя не переиспользуются, поэтому отметка всегда новая:
+    // save() выполняет persist без предварительного SELECT
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
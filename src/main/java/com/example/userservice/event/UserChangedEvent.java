@@ -0,0 +1,42 @@
+package com.example.userservice.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Событие приложения о создании, изменении или удалении пользователей.
+ * Публикуется сервисами записи через ApplicationEventPublisher и используется
+ * для инвалидации локальных кэшей и поддержки статистики; в Kafka не отправляется.
+ */
+@Getter
+@ToString
+public final class UserChangedEvent {
+
+    private static final UserChangedEvent ALL_USERS = new UserChangedEvent(Set.of(), true);
+
+    /** ID созданных, измененных или удаленных пользователей; пуст, если изменены все пользователи. */
+    private final Set<Long> userIds;
+
+    /** Признак того, что затронуты неизвестные заранее пользователи (например, при импорте). */
+    private final boolean allUsers;
+
+    private UserChangedEvent(Set<Long> userIds, boolean allUsers) {
+        this.userIds = userIds;
+        this.allUsers = allUsers;
+    }
+
+    public static UserChangedEvent of(Long userId) {
+        return new UserChangedEvent(Set.of(userId), false);
+    }
+
+    public static UserChangedEvent of(Collection<Long> userIds) {
+        return new UserChangedEvent(Set.copyOf(userIds), false);
+    }
+
+    public static UserChangedEvent allUsers() {
+        return ALL_USERS;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.userservice.exception;
+
+/**
+ * Токен ленты изменений старше срока хранения отметок об удалении.
+ * Клиент должен выполнить полную синхронизацию и начать ленту заново.
+ */
+public class ChangesTokenExpiredException extends RuntimeException {
+
+    public ChangesTokenExpiredException(String message) {
+        super(message);
+    }
+}
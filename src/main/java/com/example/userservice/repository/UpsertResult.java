@@ -0,0 +1,17 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Результат upsert операции: итоговое состояние пользователя и признак создания новой записи.
+ */
+@Getter
+@AllArgsConstructor
+public class UpsertResult {
+
+    private final UserDto user;
+
+    private final boolean created;
+}
@@ -0,0 +1,35 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserDto;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Отображает строку таблицы users напрямую в UserDto, минуя сущность User.
+ * Ожидает колонки id, name, email, age, created_at, updated_at.
+ */
+public class UserDtoRowMapper implements RowMapper<UserDto> {
+
+    public static final UserDtoRowMapper INSTANCE = new UserDtoRowMapper();
+
+    public static final String COLUMNS = "id, name, email, age, created_at, updated_at";
+
+    @Override
+    public UserDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new UserDto(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getObject("age", Integer.class),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("updated_at")));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.SparseUserDto;
+import com.example.userservice.dto.UserField;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Чтение пользователей с проекцией только запрошенных колонок (sparse fieldsets).
+ * Список колонок строится из {@link UserField}, поэтому пользовательский ввод в SQL не попадает.
+ */
+@Repository
+public class UserFieldsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserFieldsRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public Optional<SparseUserDto> findById(long id, Set<UserField> fields) {
+        return first(jdbcTemplate.query(select(fields) + " WHERE id = ?", mapper(fields), id));
+    }
+
+    public Optional<SparseUserDto> findByEmail(String email, Set<UserField> fields) {
+        return first(jdbcTemplate.query(select(fields) + " WHERE email = ?", mapper(fields), email));
+    }
+
+    public List<SparseUserDto> findAll(Set<UserField> fields) {
+        return jdbcTemplate.query(select(fields) + " ORDER BY id", mapper(fields));
+    }
+
+    /**
+     * Ищет пользователей с теми же фильтрами и keyset пагинацией, что и {@link UserRepository#searchDtos}.
+     */
+    public List<SparseUserDto> search(Set<UserField> fields, String namePattern, Integer minAge, Integer maxAge,
+                                      long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(select(fields)).append(" WHERE id > ?");
+        List<Object> params = new ArrayList<>();
+        params.add(afterId);
+        if (namePattern != null) {
+            sql.append(" AND LOWER(name) LIKE ?");
+            params.add(namePattern);
+        }
+        if (minAge != null) {
+            sql.append(" AND age >= ?");
+            params.add(minAge);
+        }
+        if (maxAge != null) {
+            sql.append(" AND age <= ?");
+            params.add(maxAge);
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        params.add(limit);
+        return jdbcTemplate.query(sql.toString(), mapper(fields), params.toArray());
+    }
+
+    private static String select(Set<UserField> fields) {
+        return fields.stream().map(UserField::getColumn).collect(Collectors.joining(", ", "SELECT ", " FROM users"));
+    }
+
+    private static RowMapper<SparseUserDto> mapper(Set<UserField> fields) {
+        return (rs, rowNum) -> {
+            SparseUserDto user = new SparseUserDto(fields);
+            int column = 1;
+            for (UserField field : fields) {
+                Object value = switch (field) {
+                    case ID -> rs.getLong(column);
+                    case AGE -> rs.getObject(column, Integer.class);
+                    case CREATED_AT, UPDATED_AT -> {
+                        Timestamp timestamp = rs.getTimestamp(column);
+                        yield timestamp != null ? timestamp.toLocalDateTime() : null;
+                    }
+                    default -> rs.getString(column);
+                };
+                user.set(field, value);
+                column++;
+            }
+            return user;
+        };
+    }
+
+    private static Optional<SparseUserDto> first(List<SparseUserDto> rows) {
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+}
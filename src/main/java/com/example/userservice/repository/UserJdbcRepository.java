@@ -0,0 +1,76 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Быстрый путь на чистом JDBC для самых частых точечных запросов.
+ * Обходит Hibernate полностью: нет разбора JPQL, сущностей и контекста персистентности,
+ * строка ResultSet сразу отображается в {@link UserDto}.
+ * SQL тексты статические, поэтому подготовленные statement-ы переиспользуются из кэша
+ * драйвера PostgreSQL (prepareThreshold / preparedStatementCacheQueries в {@code PoolSettings}).
+ * Внутри Spring транзакции запросы выполняются на ее соединении.
+ */
+@Repository
+public class UserJdbcRepository {
+
+    private static final String FIND_BY_ID_SQL =
+            "SELECT " + UserDtoRowMapper.COLUMNS + " FROM users WHERE id = ?";
+
+    private static final String FIND_BY_EMAIL_SQL =
+            "SELECT " + UserDtoRowMapper.COLUMNS + " FROM users WHERE email = ?";
+
+    private static final String EXISTS_BY_EMAIL_SQL =
+            "SELECT 1 FROM users WHERE email = ? LIMIT 1";
+
+    private static final ResultSetExtractor<Boolean> HAS_ROW = ResultSet::next;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserJdbcRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1);
+        this.jdbcTemplate.setMaxRows(1);
+    }
+
+    /**
+     * Находит пользователя по ID.
+     *
+     * @param id ID пользователя
+     * @return Optional содержащий DTO если пользователь найден
+     */
+    public Optional<UserDto> findById(long id) {
+        return first(jdbcTemplate.query(FIND_BY_ID_SQL, UserDtoRowMapper.INSTANCE, id));
+    }
+
+    /**
+     * Находит пользователя по email.
+     *
+     * @param email email пользователя
+     * @return Optional содержащий DTO если пользователь найден
+     */
+    public Optional<UserDto> findByEmail(String email) {
+        return first(jdbcTemplate.query(FIND_BY_EMAIL_SQL, UserDtoRowMapper.INSTANCE, email));
+    }
+
+    /**
+     * Проверяет существование пользователя по email, читая только индекс.
+     *
+     * @param email email для проверки
+     * @return true если пользователь существует
+     */
+    public boolean existsByEmail(String email) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(EXISTS_BY_EMAIL_SQL, HAS_ROW, email));
+    }
+
+    private static Optional<UserDto> first(List<UserDto> rows) {
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+}
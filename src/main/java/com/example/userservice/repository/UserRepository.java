@@ -1,35 +1,146 @@
 package com.example.userservice.repository;
 
+import com.example.userservice.dto.UserDto;
 import com.example.userservice.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Spring Data JPA Repository для работы с пользователями.
  * Предоставляет CRUD операции и кастомные запросы.
+ * Поиск по email реализован в {@link UserRepositoryCustom} через natural id.
+ * Методы find*Dto* строят {@link UserDto} прямо из результата запроса (constructor expression):
+ * сущности не гидрируются и не попадают в контекст персистентности, снапшоты для dirty checking не создаются.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    
+    String USER_DTO_PROJECTION = "SELECT new com.example.userservice.dto.UserDto("
+            + "u.id, u.name, u.email, u.age, u.createdAt, u.updatedAt) FROM User u";
+    
+    /**
+     * Находит пользователя по ID в виде DTO без загрузки сущности.
+     * 
+     * @param id ID пользователя
+     * @return Optional содержащий DTO если пользователь найден
+     */
+    @Query(USER_DTO_PROJECTION + " WHERE u.id = :id")
+    Optional<UserDto> findDtoById(@Param("id") Long id);
     
     /**
-     * Находит пользователя по email.
+     * Возвращает время последнего изменения пользователя.
+     * 
+     * @param id ID пользователя
+     * @return Optional со временем изменения если пользователь найден
+     */
+    @Query("SELECT u.updatedAt FROM User u WHERE u.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+    
+    /**
+     * Находит пользователя по email в виде DTO без загрузки сущности.
      * 
      * @param email email пользователя
-     * @return Optional содержащий пользователя если найден
+     * @return Optional содержащий DTO если пользователь найден
      */
-    Optional<User> findByEmail(String email);
+    @Query(USER_DTO_PROJECTION + " WHERE u.email = :email")
+    Optional<UserDto> findDtoByEmail(@Param("email") String email);
     
     /**
-     * Проверяет существование пользователя по email.
+     * Возвращает всех пользователей в виде DTO, упорядоченных по ID.
      * 
-     * @param email email для проверки
-     * @return true если пользователь существует
+     * @return список DTO
+     */
+    @Query(USER_DTO_PROJECTION + " ORDER BY u.id")
+    List<UserDto> findAllDtos();
+    
+    /**
+     * Находит пользователей по набору ID в виде DTO; отсутствующие ID пропускаются.
+     * 
+     * @param ids ID пользователей
+     * @return список найденных DTO
+     */
+    @Query(USER_DTO_PROJECTION + " WHERE u.id IN :ids")
+    List<UserDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Ищет пользователей по шаблону имени и диапазону возраста с keyset пагинацией по ID.
+     * Null параметры фильтра не ограничивают выборку.
+     * 
+     * @param afterId ID последнего пользователя предыдущей страницы (0 для первой)
+     * @param namePattern шаблон LIKE для имени в нижнем регистре
+     * @param minAge минимальный возраст
+     * @param maxAge максимальный возраст
+     * @param limit размер страницы
+     * @return страница DTO в порядке ID
+     */
+    @Query(USER_DTO_PROJECTION + " WHERE u.id > :afterId"
+            + " AND (:namePattern IS NULL OR LOWER(u.name) LIKE :namePattern)"
+            + " AND (:minAge IS NULL OR u.age >= :minAge)"
+            + " AND (:maxAge IS NULL OR u.age <= :maxAge)"
+            + " ORDER BY u.id")
+    List<UserDto> searchDtos(@Param("afterId") long afterId,
+                             @Param("namePattern") String namePattern,
+                             @Param("minAge") Integer minAge,
+                             @Param("maxAge") Integer maxAge,
+                             Limit limit);
+    
+    /**
+     * Считает пользователей по шаблону имени, шаблону email и диапазону возраста.
+     * Null параметры фильтра не ограничивают выборку.
+     * 
+     * @param namePattern шаблон LIKE для имени в нижнем регистре
+     * @param emailPattern шаблон LIKE для email в нижнем регистре
+     * @param minAge минимальный возраст
+     * @param maxAge максимальный возраст
+     * @return число пользователей
+     */
+    @Query("SELECT COUNT(u) FROM User u"
+            + " WHERE (:namePattern IS NULL OR LOWER(u.name) LIKE :namePattern)"
+            + " AND (:emailPattern IS NULL OR LOWER(u.email) LIKE :emailPattern)"
+            + " AND (:minAge IS NULL OR u.age >= :minAge)"
+            + " AND (:maxAge IS NULL OR u.age <= :maxAge)")
+    long countFiltered(@Param("namePattern") String namePattern,
+                       @Param("emailPattern") String emailPattern,
+                       @Param("minAge") Integer minAge,
+                       @Param("maxAge") Integer maxAge);
+    
+    /**
+     * Возвращает пользователей, созданных или измененных после водяного знака (updatedAt, id)
+     * и не позже верхней границы, в порядке индекса (updated_at, id).
+     * 
+     * @param after время изменения водяного знака
+     * @param afterId ID пользователя водяного знака (разрешает совпадения по времени)
+     * @param upTo верхняя граница времени изменения
+     * @param limit размер страницы
+     * @return список DTO
      */
-    boolean existsByEmail(String email);
+    @Query(USER_DTO_PROJECTION
+            + " WHERE (u.updatedAt > :after OR (u.updatedAt = :after AND u.id > :afterId))"
+            + " AND u.updatedAt <= :upTo"
+            + " ORDER BY u.updatedAt, u.id")
+    List<UserDto> findChangedSince(@Param("after") LocalDateTime after,
+                                   @Param("afterId") long afterId,
+                                   @Param("upTo") LocalDateTime upTo,
+                                   Limit limit);
+    
+    /**
+     * Возвращает текущее время по часам БД.
+     * Верхняя граница ленты изменений берется по ним, так как и нативные операции (now()),
+     * и JPA ({@link com.example.userservice.entity.DatabaseTimestamp}) назначают время изменений
+     * по часам БД, и расхождение с часами JVM не должно приводить к пропуску строк.
+     * 
+     * @return текущее время БД без часового пояса
+     */
+    @Query(value = "SELECT LOCALTIMESTAMP", nativeQuery = true)
+    LocalDateTime currentTimestamp();
     
     /**
      * Проверяет существование пользователя по email, исключая пользователя с указанным ID.
@@ -41,5 +152,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.email = :email AND u.id != :id")
     boolean existsByEmailAndIdNot(@Param("email") String email, @Param("id") Long id);
+    
+    /**
+     * Возвращает те email из переданного набора, которые уже заняты.
+     * Используется массовыми операциями для проверки уникальности одной выборкой на порцию.
+     * 
+     * @param emails проверяемые email
+     * @return занятые email
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    /**
+     * Находит пользователей по набору email.
+     * 
+     * @param emails email для поиска
+     * @return найденные пользователи
+     */
+    List<User> findAllByEmailIn(Collection<String> emails);
 }
 
@@ -0,0 +1,73 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.BulkUpdateItemDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Кастомные операции UserRepository, реализованные вручную.
+ * Методы этого фрагмента имеют приоритет над derived-запросами Spring Data.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Находит пользователя по email через natural id.
+     * Повторный поиск в рамках одной сессии разрешается без SQL запроса.
+     *
+     * @param email email пользователя
+     * @return Optional содержащий пользователя если найден
+     */
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Проверяет существование пользователя по email через natural id.
+     * Загружает только идентификатор, без гидрации сущности.
+     *
+     * @param email email для проверки
+     * @return true если пользователь существует
+     */
+    boolean existsByEmail(String email);
+
+    /**
+     * Создает пользователя с указанным email или обновляет имя и возраст существующего.
+     * На PostgreSQL выполняется одним атомарным INSERT ... ON CONFLICT (email) DO UPDATE ... RETURNING;
+     * на остальных базах используется поиск по natural id с блокировкой и persist/update.
+     *
+     * @param email email пользователя
+     * @param name имя
+     * @param age возраст
+     * @return итоговое состояние пользователя и признак создания
+     */
+    UpsertResult upsertByEmail(String email, String name, Integer age);
+
+    /**
+     * Обновляет пользователей одним set-based запросом.
+     * На PostgreSQL выполняется UPDATE ... FROM UNNEST(массивы) ... RETURNING; null поля элемента не изменяются.
+     * Проверка уникальности email и уникальности ID в наборе - ответственность вызывающего кода.
+     *
+     * @param items элементы обновления
+     * @return обновленные пользователи (отсутствующие ID в результат не попадают)
+     */
+    List<UserDto> updateAllById(List<BulkUpdateItemDto> items);
+
+    /**
+     * Удаляет пользователей одним запросом DELETE ... WHERE id = ANY(?) RETURNING.
+     *
+     * @param ids ID пользователей
+     * @return удаленные пользователи
+     */
+    List<UserDto> deleteAllByIdReturning(Collection<Long> ids);
+
+    /**
+     * Возвращает оценку числа строк таблицы users из статистики планировщика без ее чтения.
+     * Доступна только на PostgreSQL после ANALYZE (в том числе autovacuum).
+     *
+     * @return оценка или пустой OptionalLong, если статистики нет
+     */
+    OptionalLong estimateRowCount();
+}
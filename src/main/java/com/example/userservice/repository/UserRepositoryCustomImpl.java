@@ -0,0 +1,282 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.BulkUpdateItemDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.util.SqlDialect;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.LockMode;
+import org.hibernate.LockOptions;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация кастомных операций UserRepository на базе Hibernate Session.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String POSTGRES_UPSERT_SQL =
+            "INSERT INTO users (id, name, email, age, created_at, updated_at) "
+                    + "VALUES (nextval('users_id_seq'), ?, ?, ?, now(), now()) "
+                    + "ON CONFLICT (email) DO UPDATE SET name = EXCLUDED.name, age = EXCLUDED.age, updated_at = now() "
+                    + "RETURNING " + UserDtoRowMapper.COLUMNS + ", (xmax = 0) AS inserted";
+
+    private static final String POSTGRES_BULK_UPDATE_SQL =
+            "UPDATE users u SET name = COALESCE(v.name, u.name), email = COALESCE(v.email, u.email), "
+                    + "age = COALESCE(v.age, u.age), updated_at = now() "
+                    + "FROM UNNEST(?::bigint[], ?::text[], ?::text[], ?::int[]) AS v(id, name, email, age) "
+                    + "WHERE u.id = v.id "
+                    + "RETURNING u.id, u.name, u.email, u.age, u.created_at, u.updated_at";
+
+    private static final String POSTGRES_BULK_DELETE_SQL =
+            "DELETE FROM users WHERE id = ANY(?) RETURNING " + UserDtoRowMapper.COLUMNS;
+
+    // reltuples = -1, пока таблица ни разу не анализировалась
+    private static final String POSTGRES_ESTIMATE_ROWS_SQL =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = 'users'::regclass";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile SqlDialect dialect;
+
+    // Session из общего EntityManager доступна только внутри транзакции, поэтому
+    // поиск по natural id открывает read-only транзакцию, если вызывающий код ее не начал
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        return session().bySimpleNaturalId(User.class).loadOptional(email);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsByEmail(String email) {
+        // getReference разрешает natural id -> id без загрузки остальных колонок
+        return session().bySimpleNaturalId(User.class).getReference(email) != null;
+    }
+
+    @Override
+    public UpsertResult upsertByEmail(String email, String name, Integer age) {
+        if (dialect() == SqlDialect.POSTGRESQL) {
+            return upsertOnConflict(email, name, age);
+        }
+        return upsertByNaturalId(email, name, age);
+    }
+
+    private UpsertResult upsertOnConflict(String email, String name, Integer age) {
+        // Нативный upsert обходит контекст персистентности: сбрасываем ожидающие изменения
+        // до запроса и вытесняем возможную устаревшую копию после него
+        Session session = session();
+        session.flush();
+        UpsertResult result = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(POSTGRES_UPSERT_SQL)) {
+                statement.setString(1, name);
+                statement.setString(2, email);
+                if (age != null) {
+                    statement.setInt(3, age);
+                } else {
+                    statement.setNull(3, Types.INTEGER);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return new UpsertResult(UserDtoRowMapper.INSTANCE.mapRow(rs, 0), rs.getBoolean("inserted"));
+                }
+            }
+        });
+        session.detach(session.getReference(User.class, result.getUser().getId()));
+        return result;
+    }
+
+    private UpsertResult upsertByNaturalId(String email, String name, Integer age) {
+        Session session = session();
+        Optional<User> existing = session.bySimpleNaturalId(User.class)
+                .with(new LockOptions(LockMode.PESSIMISTIC_WRITE))
+                .loadOptional(email);
+        User user = existing.orElseGet(() -> User.builder().email(email).build());
+        user.setName(name);
+        user.setAge(age);
+        if (existing.isEmpty()) {
+            session.persist(user);
+        }
+        session.flush();
+        return new UpsertResult(toDto(user), existing.isEmpty());
+    }
+
+    @Override
+    public List<UserDto> updateAllById(List<BulkUpdateItemDto> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        if (dialect() != SqlDialect.POSTGRESQL) {
+            return updateAllByIdPortable(items);
+        }
+        Long[] ids = new Long[items.size()];
+        String[] names = new String[items.size()];
+        String[] emails = new String[items.size()];
+        Integer[] ages = new Integer[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            BulkUpdateItemDto item = items.get(i);
+            ids[i] = item.getId();
+            names[i] = item.getName();
+            emails[i] = item.getEmail();
+            ages[i] = item.getAge();
+        }
+        return executeReturning(POSTGRES_BULK_UPDATE_SQL, connection -> new Array[] {
+                connection.createArrayOf("bigint", ids),
+                connection.createArrayOf("text", names),
+                connection.createArrayOf("text", emails),
+                connection.createArrayOf("integer", ages)});
+    }
+
+    @Override
+    public List<UserDto> deleteAllByIdReturning(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        if (dialect() != SqlDialect.POSTGRESQL) {
+            return deleteAllByIdPortable(ids);
+        }
+        Long[] idArray = ids.toArray(new Long[0]);
+        return executeReturning(POSTGRES_BULK_DELETE_SQL,
+                connection -> new Array[] {connection.createArrayOf("bigint", idArray)});
+    }
+
+    /**
+     * Выполняет нативный запрос с RETURNING, передавая массивы параметрами.
+     * Контекст персистентности сбрасывается до запроса и очищается после него,
+     * чтобы загруженные ранее сущности не расходились с базой.
+     */
+    private List<UserDto> executeReturning(String sql, ArrayParameters parameters) {
+        Session session = session();
+        session.flush();
+        List<UserDto> rows = session.doReturningWork(connection -> {
+            Array[] arrays = parameters.create(connection);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < arrays.length; i++) {
+                    statement.setArray(i + 1, arrays[i]);
+                }
+                List<UserDto> result = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(UserDtoRowMapper.INSTANCE.mapRow(rs, result.size()));
+                    }
+                }
+                return result;
+            } finally {
+                for (Array array : arrays) {
+                    array.free();
+                }
+            }
+        });
+        session.clear();
+        // Нативный SQL обходит Hibernate: L2 кэш сущностей и кэш natural id (email изменяемый)
+        // иначе продолжат отдавать старые версии измененных строк
+        Cache cache = session.getSessionFactory().getCache();
+        for (UserDto row : rows) {
+            cache.evictEntityData(User.class, row.getId());
+        }
+        if (!rows.isEmpty()) {
+            cache.evictNaturalIdData(User.class);
+        }
+        return rows;
+    }
+
+    private List<UserDto> updateAllByIdPortable(List<BulkUpdateItemDto> items) {
+        Map<Long, User> users = loadAllById(items.stream().map(BulkUpdateItemDto::getId).toList());
+        List<User> updated = new ArrayList<>();
+        for (BulkUpdateItemDto item : items) {
+            User user = users.get(item.getId());
+            if (user == null) {
+                continue;
+            }
+            if (item.getName() != null) {
+                user.setName(item.getName());
+            }
+            if (item.getEmail() != null) {
+                user.setEmail(item.getEmail());
+            }
+            if (item.getAge() != null) {
+                user.setAge(item.getAge());
+            }
+            updated.add(user);
+        }
+        session().flush();
+        return updated.stream().map(UserRepositoryCustomImpl::toDto).toList();
+    }
+
+    private List<UserDto> deleteAllByIdPortable(Collection<Long> ids) {
+        List<UserDto> deleted = loadAllById(ids).values().stream().map(UserRepositoryCustomImpl::toDto).toList();
+        entityManager.createQuery("DELETE FROM User u WHERE u.id IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        session().clear();
+        return deleted;
+    }
+
+    @Override
+    public OptionalLong estimateRowCount() {
+        if (dialect() != SqlDialect.POSTGRESQL) {
+            return OptionalLong.empty();
+        }
+        return session().doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(POSTGRES_ESTIMATE_ROWS_SQL);
+                 ResultSet rs = statement.executeQuery()) {
+                if (!rs.next() || rs.getLong(1) < 0) {
+                    return OptionalLong.empty();
+                }
+                return OptionalLong.of(rs.getLong(1));
+            }
+        });
+    }
+
+    private Map<Long, User> loadAllById(Collection<Long> ids) {
+        return entityManager.createQuery("SELECT u FROM User u WHERE u.id IN :ids", User.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private SqlDialect dialect() {
+        if (dialect == null) {
+            dialect = session().doReturningWork(SqlDialect::detect);
+        }
+        return dialect;
+    }
+
+    private static UserDto toDto(User user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .age(user.getAge())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface ArrayParameters {
+        Array[] create(Connection connection) throws SQLException;
+    }
+
+    private Session session() {
+        return entityManager.unwrap(Session.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.util.BulkProfile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+/**
+ * Потоковое чтение всей таблицы users на чистом JDBC.
+ * Строки читаются порциями по {@link BulkProfile#FETCH_SIZE} и передаются получателю по одной,
+ * не накапливаясь в памяти. PostgreSQL использует курсор только вне autocommit, поэтому чтение
+ * выполняется в транзакции. Транзакция намеренно не read-only: она направляется на primary,
+ * так как отстающая реплика может не содержать уже закоммиченных изменений.
+ */
+@Repository
+public class UserScanRepository {
+
+    private static final String SCAN_SQL = "SELECT " + UserDtoRowMapper.COLUMNS + " FROM users";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserScanRepository(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(BulkProfile.FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Передает получателю всех пользователей в порядке чтения таблицы.
+     *
+     * @param consumer получатель строк (вызывается последовательно в текущем потоке)
+     * @return число прочитанных строк
+     */
+    public long scan(Consumer<UserDto> consumer) {
+        long[] rows = new long[1];
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(SCAN_SQL, rs -> {
+            consumer.accept(UserDtoRowMapper.INSTANCE.mapRow(rs, (int) rows[0]));
+            rows[0]++;
+        }));
+        return rows[0];
+    }
+}
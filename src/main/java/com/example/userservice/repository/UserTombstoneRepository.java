@@ -0,0 +1,41 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.UserTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository для отметок об удалении пользователей.
+ */
+@Repository
+public interface UserTombstoneRepository extends JpaRepository<UserTombstone, Long> {
+
+    /**
+     * Отметки после водяного знака (deletedAt, userId) не позже верхней границы
+     * в порядке индекса (deleted_at, user_id).
+     */
+    @Query("SELECT t FROM UserTombstone t "
+            + "WHERE (t.deletedAt > :after OR (t.deletedAt = :after AND t.userId > :afterId)) "
+            + "AND t.deletedAt <= :upTo "
+            + "ORDER BY t.deletedAt, t.userId")
+    List<UserTombstone> findDeletedSince(@Param("after") LocalDateTime after,
+                                         @Param("afterId") long afterId,
+                                         @Param("upTo") LocalDateTime upTo,
+                                         Limit limit);
+
+    /**
+     * Удаляет отметки старше указанного момента.
+     *
+     * @return количество удаленных отметок
+     */
+    @Modifying
+    @Query("DELETE FROM UserTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,6 +1,8 @@
 package com.example.userservice.service;
 
+import com.example.userservice.dto.UserBatchEventDto;
 import com.example.userservice.dto.UserEventDto;
+import com.example.userservice.stream.UserEventStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,17 +13,35 @@ import org.springframework.stereotype.Service;
 public class EventPublisherService {
     private static final Logger logger = LoggerFactory.getLogger(EventPublisherService.class);
     private static final String TOPIC = "user-events";
+    private static final String BATCH_TOPIC = "user-batch-events";
     
     @Autowired
     private KafkaTemplate<String, UserEventDto> kafkaTemplate;
     
+    @Autowired
+    private KafkaTemplate<String, UserBatchEventDto> batchEventKafkaTemplate;
+    
+    @Autowired
+    private UserEventStream userEventStream;
+    
     public void publishUserEvent(String operation, String email, String username) {
         try {
             UserEventDto event = new UserEventDto(operation, email, username);
+            userEventStream.publishUserEvent(event);
             kafkaTemplate.send(TOPIC, event);
             logger.info("Published user event: {}", event);
         } catch (Exception e) {
             logger.error("Failed to publish user event for user: {}", email, e);
         }
     }
+    
+    public void publishBatchEvent(UserBatchEventDto event) {
+        try {
+            userEventStream.publishBatchEvent(event);
+            batchEventKafkaTemplate.send(BATCH_TOPIC, event);
+            logger.info("Published user batch event: {}", event);
+        } catch (Exception e) {
+            logger.error("Failed to publish user batch event for chunk: {}", event.getChunk(), e);
+        }
+    }
 }
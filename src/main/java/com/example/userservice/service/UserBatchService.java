@@ -0,0 +1,371 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.BatchOperationDto;
+import com.example.userservice.dto.BatchOperationDto.Type;
+import com.example.userservice.dto.BatchOperationResultDto;
+import com.example.userservice.dto.BatchResponseDto;
+import com.example.userservice.dto.CreateUserDto;
+import com.example.userservice.dto.UpdateUserDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.entity.UserTombstone;
+import com.example.userservice.event.UserChangedEvent;
+import com.example.userservice.util.BulkProfile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис пакетного выполнения разнотипных операций над пользователями.
+ * Все операции пакета выполняются в одной сессии Hibernate и, соответственно, на одном соединении.
+ * В атомарном режиме пакет выполняется одной транзакцией: подряд идущие операции одного типа
+ * попадают в общий JDBC batch, а сброс в БД выполняется на границе смены типа, чтобы сохранить порядок.
+ * В режиме "по операциям" каждая операция фиксируется отдельно и ошибка не влияет на остальные.
+ */
+@Slf4j
+@Service
+public class UserBatchService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EventPublisherService eventPublisherService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final Validator validator;
+    private final int maxOperations;
+
+    public UserBatchService(EntityManagerFactory entityManagerFactory,
+                            EventPublisherService eventPublisherService,
+                            ApplicationEventPublisher applicationEventPublisher,
+                            Validator validator,
+                            @Value("${app.batch.max-operations:1000}") int maxOperations) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisherService = eventPublisherService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.validator = validator;
+        this.maxOperations = maxOperations;
+    }
+
+    /**
+     * Выполняет пакет операций.
+     *
+     * @param operations операции в порядке выполнения
+     * @param atomic true - одной транзакцией (все или ничего), false - каждая операция отдельно
+     * @return результаты операций в порядке запроса
+     * @throws IllegalArgumentException если пакет пуст или превышает допустимый размер
+     */
+    public BatchResponseDto execute(List<BatchOperationDto> operations, boolean atomic) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Batch cannot be empty");
+        }
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("Batch exceeds the limit of " + maxOperations + " operations");
+        }
+        log.info("Executing batch of {} operations, atomic={}", operations.size(), atomic);
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(BulkProfile.BATCH_SIZE);
+            return atomic ? executeAtomic(entityManager, operations) : executeEach(entityManager, operations);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private BatchResponseDto executeAtomic(EntityManager entityManager, List<BatchOperationDto> operations) {
+        Outcome[] outcomes = new Outcome[operations.size()];
+        EntityTransaction transaction = entityManager.getTransaction();
+        transaction.begin();
+        try {
+            int failed = -1;
+            Type lastWrite = null;
+            for (int i = 0; i < operations.size() && failed < 0; i++) {
+                BatchOperationDto operation = operations.get(i);
+                try {
+                    Type type = typeOf(operation);
+                    if (type != Type.GET) {
+                        // Hibernate упорядочивает INSERT/UPDATE/DELETE при flush по типу,
+                        // поэтому при смене типа операции сбрасываем накопленный batch
+                        if (lastWrite != null && lastWrite != type) {
+                            entityManager.flush();
+                        }
+                        lastWrite = type;
+                    }
+                    outcomes[i] = apply(entityManager, operation);
+                } catch (OperationFailedException e) {
+                    outcomes[i] = Outcome.failure(e.status, e.getMessage());
+                    failed = i;
+                } catch (PersistenceException e) {
+                    outcomes[i] = Outcome.failure(HttpStatus.CONFLICT, "Conflicting change: " + rootMessage(e));
+                    failed = i;
+                }
+            }
+
+            List<BatchOperationResultDto> results;
+            if (failed < 0) {
+                try {
+                    entityManager.flush();
+                    results = toResults(operations, outcomes);
+                    transaction.commit();
+                } catch (PersistenceException e) {
+                    log.warn("Batch commit failed: {}", rootMessage(e));
+                    if (transaction.isActive()) {
+                        transaction.rollback();
+                    }
+                    return BatchResponseDto.builder()
+                            .atomic(true)
+                            .committed(false)
+                            .results(rolledBack(operations, outcomes, -1,
+                                    Outcome.failure(HttpStatus.CONFLICT, "Conflicting change: " + rootMessage(e))))
+                            .build();
+                }
+                publishEvents(outcomes);
+                return BatchResponseDto.builder().atomic(true).committed(true).results(results).build();
+            }
+
+            transaction.rollback();
+            return BatchResponseDto.builder()
+                    .atomic(true)
+                    .committed(false)
+                    .results(rolledBack(operations, outcomes, failed, outcomes[failed]))
+                    .build();
+        } catch (RuntimeException e) {
+            // Непредвиденная ошибка не должна оставлять транзакцию открытой
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private BatchResponseDto executeEach(EntityManager entityManager, List<BatchOperationDto> operations) {
+        List<BatchOperationResultDto> results = new ArrayList<>(operations.size());
+        boolean committed = false;
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperationDto operation = operations.get(i);
+            EntityTransaction transaction = entityManager.getTransaction();
+            transaction.begin();
+            Outcome outcome;
+            try {
+                outcome = apply(entityManager, operation);
+                entityManager.flush();
+                outcome.snapshot();
+                transaction.commit();
+                committed |= outcome.event != null;
+                publishEvents(outcome);
+            } catch (OperationFailedException e) {
+                outcome = Outcome.failure(e.status, e.getMessage());
+            } catch (PersistenceException e) {
+                outcome = Outcome.failure(HttpStatus.CONFLICT, "Conflicting change: " + rootMessage(e));
+            } finally {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                entityManager.clear();
+            }
+            results.add(outcome.toResult(i, operation.getOp()));
+        }
+        return BatchResponseDto.builder().atomic(false).committed(committed).results(results).build();
+    }
+
+    private Outcome apply(EntityManager entityManager, BatchOperationDto operation) {
+        Session session = entityManager.unwrap(Session.class);
+        switch (typeOf(operation)) {
+            case CREATE: {
+                CreateUserDto data = new CreateUserDto(operation.getName(), operation.getEmail(), operation.getAge());
+                validate(data);
+                if (session.bySimpleNaturalId(User.class).getReference(data.getEmail()) != null) {
+                    throw new OperationFailedException(HttpStatus.CONFLICT,
+                            "User with email " + data.getEmail() + " already exists");
+                }
+                User user = User.builder().name(data.getName()).email(data.getEmail()).age(data.getAge()).build();
+                entityManager.persist(user);
+                return new Outcome(HttpStatus.CREATED, user, "CREATE");
+            }
+            case GET: {
+                return new Outcome(HttpStatus.OK, find(entityManager, operation), null);
+            }
+            case UPDATE: {
+                User user = find(entityManager, operation);
+                UpdateUserDto data = new UpdateUserDto(operation.getName(), operation.getEmail(), operation.getAge());
+                validate(data);
+                if (data.getEmail() != null && !data.getEmail().equals(user.getEmail())) {
+                    User owner = session.bySimpleNaturalId(User.class).getReference(data.getEmail());
+                    if (owner != null && !owner.getId().equals(user.getId())) {
+                        throw new OperationFailedException(HttpStatus.CONFLICT,
+                                "User with email " + data.getEmail() + " already exists");
+                    }
+                    user.setEmail(data.getEmail());
+                }
+                if (data.getName() != null) {
+                    user.setName(data.getName());
+                }
+                if (data.getAge() != null) {
+                    user.setAge(data.getAge());
+                }
+                return new Outcome(HttpStatus.OK, user, "UPDATE");
+            }
+            case DELETE: {
+                User user = find(entityManager, operation);
+                Outcome outcome = new Outcome(HttpStatus.NO_CONTENT, user, "DELETE");
+                outcome.snapshot();
+                entityManager.remove(user);
+                entityManager.persist(UserTombstone.of(user.getId()));
+                return outcome;
+            }
+            default:
+                throw new OperationFailedException(HttpStatus.BAD_REQUEST, "Unsupported operation");
+        }
+    }
+
+    private static User find(EntityManager entityManager, BatchOperationDto operation) {
+        if (operation.getId() == null || operation.getId() <= 0) {
+            throw new OperationFailedException(HttpStatus.BAD_REQUEST, "Invalid user ID: " + operation.getId());
+        }
+        User user = entityManager.find(User.class, operation.getId());
+        if (user == null) {
+            throw new OperationFailedException(HttpStatus.NOT_FOUND, "User not found with ID: " + operation.getId());
+        }
+        return user;
+    }
+
+    private static Type typeOf(BatchOperationDto operation) {
+        if (operation == null || operation.getOp() == null) {
+            throw new OperationFailedException(HttpStatus.BAD_REQUEST, "Operation type is required");
+        }
+        return operation.getOp();
+    }
+
+    private <T> void validate(T data) {
+        Set<ConstraintViolation<T>> violations = validator.validate(data);
+        if (!violations.isEmpty()) {
+            throw new OperationFailedException(HttpStatus.BAD_REQUEST, violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static List<BatchOperationResultDto> toResults(List<BatchOperationDto> operations, Outcome[] outcomes) {
+        List<BatchOperationResultDto> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            outcomes[i].snapshot();
+            results.add(outcomes[i].toResult(i, operations.get(i).getOp()));
+        }
+        return results;
+    }
+
+    /**
+     * Формирует результаты отката атомарного пакета: операция failed получает свою ошибку,
+     * остальные - 424 Failed Dependency.
+     */
+    private static List<BatchOperationResultDto> rolledBack(List<BatchOperationDto> operations, Outcome[] outcomes,
+                                                            int failed, Outcome failure) {
+        List<BatchOperationResultDto> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            Type type = operations.get(i) == null ? null : operations.get(i).getOp();
+            if (i == failed || (failed < 0 && outcomes[i] != null && outcomes[i].event != null)) {
+                results.add(failure.toResult(i, type));
+            } else {
+                String message = failed < 0
+                        ? "Rolled back because the batch could not be committed"
+                        : (outcomes[i] != null ? "Rolled back" : "Not executed")
+                                + " because operation " + failed + " failed";
+                results.add(Outcome.failure(HttpStatus.FAILED_DEPENDENCY, message).toResult(i, type));
+            }
+        }
+        return results;
+    }
+
+    private void publishEvents(Outcome... outcomes) {
+        List<Long> changedIds = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.event != null) {
+                eventPublisherService.publishUserEvent(outcome.event, outcome.dto.getEmail(), outcome.dto.getName());
+                changedIds.add(outcome.dto.getId());
+            }
+        }
+        if (!changedIds.isEmpty()) {
+            applicationEventPublisher.publishEvent(UserChangedEvent.of(changedIds));
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    /**
+     * Промежуточный результат операции. DTO снимается с сущности после flush,
+     * чтобы в ответ попали значения, сгенерированные при записи (например updatedAt).
+     */
+    private static final class Outcome {
+        private final HttpStatus status;
+        private final User user;
+        private final String event;
+        private final String message;
+        private UserDto dto;
+
+        private Outcome(HttpStatus status, User user, String event) {
+            this(status, user, event, null);
+        }
+
+        private Outcome(HttpStatus status, User user, String event, String message) {
+            this.status = status;
+            this.user = user;
+            this.event = event;
+            this.message = message;
+        }
+
+        static Outcome failure(HttpStatus status, String message) {
+            return new Outcome(status, null, null, message);
+        }
+
+        void snapshot() {
+            if (user != null && dto == null) {
+                dto = UserDto.builder()
+                        .id(user.getId())
+                        .name(user.getName())
+                        .email(user.getEmail())
+                        .age(user.getAge())
+                        .createdAt(user.getCreatedAt())
+                        .updatedAt(user.getUpdatedAt())
+                        .build();
+            }
+        }
+
+        BatchOperationResultDto toResult(int index, Type type) {
+            return BatchOperationResultDto.builder()
+                    .index(index)
+                    .op(type)
+                    .status(status.value())
+                    .user(status == HttpStatus.NO_CONTENT ? null : dto)
+                    .message(message)
+                    .build();
+        }
+    }
+
+    private static final class OperationFailedException extends RuntimeException {
+        private final HttpStatus status;
+
+        OperationFailedException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
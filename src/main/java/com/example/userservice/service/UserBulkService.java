@@ -0,0 +1,287 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.BulkItemResultDto;
+import com.example.userservice.dto.BulkItemResultDto.Status;
+import com.example.userservice.dto.BulkOperationResultDto;
+import com.example.userservice.dto.BulkUpdateItemDto;
+import com.example.userservice.dto.UserBatchEventDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.entity.UserTombstone;
+import com.example.userservice.event.UserChangedEvent;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserTombstoneRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис массового обновления и удаления пользователей.
+ * Запрос делится на порции; каждая порция выполняется одним set-based запросом
+ * в собственной транзакции, после чего публикуется одно сводное событие на порцию.
+ * Для каждого элемента запроса возвращается свой исход.
+ */
+@Slf4j
+@Service
+public class UserBulkService {
+
+    private final UserRepository userRepository;
+    private final UserTombstoneRepository userTombstoneRepository;
+    private final EventPublisherService eventPublisherService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public UserBulkService(UserRepository userRepository,
+                           UserTombstoneRepository userTombstoneRepository,
+                           EventPublisherService eventPublisherService,
+                           ApplicationEventPublisher applicationEventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           Validator validator,
+                           @Value("${app.bulk.chunk-size:1000}") int chunkSize,
+                           @Value("${app.bulk.max-items:10000}") int maxItems) {
+        this.userRepository = userRepository;
+        this.userTombstoneRepository = userTombstoneRepository;
+        this.eventPublisherService = eventPublisherService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Массово обновляет пользователей.
+     * Элементы с некорректными данными, повторяющимся ID или email, занятым другим пользователем,
+     * отклоняются без влияния на остальные элементы.
+     *
+     * @param items элементы обновления
+     * @return исход по каждому элементу в порядке запроса
+     * @throws IllegalArgumentException если запрос пуст или превышает допустимый размер
+     */
+    public BulkOperationResultDto updateUsers(List<BulkUpdateItemDto> items) {
+        log.info("Bulk updating {} users", items == null ? 0 : items.size());
+        checkSize(items);
+        long start = System.nanoTime();
+        List<BulkItemResultDto> results = new ArrayList<>(items.size());
+        int chunkNumber = 0;
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<BulkUpdateItemDto> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            results.addAll(updateChunk(++chunkNumber, chunk));
+        }
+        return summarize(results, start);
+    }
+
+    /**
+     * Массово удаляет пользователей.
+     *
+     * @param ids ID пользователей
+     * @return исход по каждому ID в порядке запроса
+     * @throws IllegalArgumentException если запрос пуст или превышает допустимый размер
+     */
+    public BulkOperationResultDto deleteUsers(List<Long> ids) {
+        log.info("Bulk deleting {} users", ids == null ? 0 : ids.size());
+        checkSize(ids);
+        long start = System.nanoTime();
+        List<BulkItemResultDto> results = new ArrayList<>(ids.size());
+        int chunkNumber = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            results.addAll(deleteChunk(++chunkNumber, chunk));
+        }
+        return summarize(results, start);
+    }
+
+    private List<BulkItemResultDto> updateChunk(int chunkNumber, List<BulkUpdateItemDto> chunk) {
+        Map<Integer, BulkItemResultDto> outcomes = new HashMap<>();
+        Map<Integer, BulkUpdateItemDto> accepted = new LinkedHashMap<>();
+        Set<Long> seenIds = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkUpdateItemDto item = chunk.get(i);
+            String violation = validate(item);
+            if (violation != null) {
+                outcomes.put(i, new BulkItemResultDto(item == null ? null : item.getId(), Status.INVALID, violation));
+            } else if (!seenIds.add(item.getId())) {
+                outcomes.put(i, new BulkItemResultDto(item.getId(), Status.INVALID, "Duplicate id in request"));
+            } else {
+                accepted.put(i, item);
+            }
+        }
+
+        List<UserDto> updated = List.of();
+        try {
+            updated = transactionTemplate.execute(status -> {
+                rejectEmailConflicts(accepted, outcomes);
+                return userRepository.updateAllById(new ArrayList<>(accepted.values()));
+            });
+        } catch (DataAccessException e) {
+            log.error("Bulk update chunk {} failed", chunkNumber, e);
+            accepted.forEach((index, item) -> outcomes.put(index,
+                    new BulkItemResultDto(item.getId(), Status.FAILED, "Chunk failed: " + rootMessage(e))));
+            accepted.clear();
+        }
+
+        Set<Long> updatedIds = updated.stream().map(UserDto::getId).collect(Collectors.toSet());
+        accepted.forEach((index, item) -> outcomes.put(index, updatedIds.contains(item.getId())
+                ? BulkItemResultDto.of(item.getId(), Status.UPDATED)
+                : new BulkItemResultDto(item.getId(), Status.NOT_FOUND, "User not found")));
+
+        List<BulkItemResultDto> results = ordered(outcomes, chunk.size());
+        publish("BULK_UPDATE", chunkNumber, results, updated);
+        return results;
+    }
+
+    /**
+     * Отклоняет элементы, устанавливающие email, который уже принадлежит другому пользователю
+     * или повторяется в той же порции.
+     */
+    private void rejectEmailConflicts(Map<Integer, BulkUpdateItemDto> accepted,
+                                      Map<Integer, BulkItemResultDto> outcomes) {
+        Set<String> emails = accepted.values().stream()
+                .map(BulkUpdateItemDto::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (emails.isEmpty()) {
+            return;
+        }
+        Map<String, Long> owners = userRepository.findAllByEmailIn(emails).stream()
+                .collect(Collectors.toMap(User::getEmail, User::getId));
+        Set<String> claimed = new HashSet<>();
+        accepted.entrySet().removeIf(entry -> {
+            BulkUpdateItemDto item = entry.getValue();
+            if (item.getEmail() == null) {
+                return false;
+            }
+            Long owner = owners.get(item.getEmail());
+            if ((owner != null && !owner.equals(item.getId())) || !claimed.add(item.getEmail())) {
+                outcomes.put(entry.getKey(), new BulkItemResultDto(item.getId(), Status.CONFLICT,
+                        "Email " + item.getEmail() + " is already used by another user"));
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private List<BulkItemResultDto> deleteChunk(int chunkNumber, List<Long> chunk) {
+        Map<Integer, BulkItemResultDto> outcomes = new HashMap<>();
+        Map<Integer, Long> accepted = new LinkedHashMap<>();
+        Set<Long> seenIds = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Long id = chunk.get(i);
+            if (id == null || id <= 0) {
+                outcomes.put(i, new BulkItemResultDto(id, Status.INVALID, "Invalid user ID: " + id));
+            } else if (!seenIds.add(id)) {
+                outcomes.put(i, new BulkItemResultDto(id, Status.INVALID, "Duplicate id in request"));
+            } else {
+                accepted.put(i, id);
+            }
+        }
+
+        List<UserDto> deleted = List.of();
+        try {
+            deleted = transactionTemplate.execute(status -> {
+                List<UserDto> removed = userRepository.deleteAllByIdReturning(seenIds);
+                userTombstoneRepository.saveAll(removed.stream().map(user -> UserTombstone.of(user.getId())).toList());
+                return removed;
+            });
+        } catch (DataAccessException e) {
+            log.error("Bulk delete chunk {} failed", chunkNumber, e);
+            accepted.forEach((index, id) -> outcomes.put(index,
+                    new BulkItemResultDto(id, Status.FAILED, "Chunk failed: " + rootMessage(e))));
+            accepted.clear();
+        }
+
+        Set<Long> deletedIds = deleted.stream().map(UserDto::getId).collect(Collectors.toSet());
+        accepted.forEach((index, id) -> outcomes.put(index, deletedIds.contains(id)
+                ? BulkItemResultDto.of(id, Status.DELETED)
+                : new BulkItemResultDto(id, Status.NOT_FOUND, "User not found")));
+
+        List<BulkItemResultDto> results = ordered(outcomes, chunk.size());
+        publish("BULK_DELETE", chunkNumber, results, deleted);
+        return results;
+    }
+
+    private void publish(String operation, int chunkNumber, List<BulkItemResultDto> results, List<UserDto> affected) {
+        if (affected.isEmpty()) {
+            return;
+        }
+        boolean delete = "BULK_DELETE".equals(operation);
+        List<Long> userIds = affected.stream().map(UserDto::getId).toList();
+        applicationEventPublisher.publishEvent(UserChangedEvent.of(userIds));
+        eventPublisherService.publishBatchEvent(UserBatchEventDto.builder()
+                .operation(operation)
+                .chunk(chunkNumber)
+                .processed(results.size())
+                .updated(delete ? 0 : affected.size())
+                .deleted(delete ? affected.size() : 0)
+                .rejected(results.size() - affected.size())
+                .userIds(userIds)
+                .build());
+    }
+
+    private String validate(BulkUpdateItemDto item) {
+        if (item == null) {
+            return "Item cannot be null";
+        }
+        Set<ConstraintViolation<BulkUpdateItemDto>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Bulk request cannot be empty");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Bulk request exceeds the limit of " + maxItems + " items");
+        }
+    }
+
+    private static List<BulkItemResultDto> ordered(Map<Integer, BulkItemResultDto> outcomes, int size) {
+        List<BulkItemResultDto> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(outcomes.get(i));
+        }
+        return results;
+    }
+
+    private static BulkOperationResultDto summarize(List<BulkItemResultDto> results, long start) {
+        int succeeded = (int) results.stream()
+                .filter(r -> r.getStatus() == Status.UPDATED || r.getStatus() == Status.DELETED)
+                .count();
+        return BulkOperationResultDto.builder()
+                .requested(results.size())
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                .items(results)
+                .build();
+    }
+
+    private static String rootMessage(DataAccessException e) {
+        return e.getMostSpecificCause().getMessage();
+    }
+}
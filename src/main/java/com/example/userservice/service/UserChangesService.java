@@ -0,0 +1,194 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.ChangesPageDto;
+import com.example.userservice.dto.UserChangeDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.UserTombstone;
+import com.example.userservice.exception.ChangesTokenExpiredException;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Лента изменений пользователей для инкрементальной синхронизации.
+ *
+ * <p>Изменения упорядочены по водяному знаку (время изменения, id): созданные и измененные
+ * пользователи читаются по индексу (updated_at, id), удаленные - из таблицы отметок об удалении.
+ * Токен продолжения кодирует последний отданный водяной знак.
+ *
+ * <p>Верхняя граница выборки отстает от текущего времени на safety lag: время изменения
+ * назначается до коммита, и транзакция, закоммиченная позже, не должна оказаться
+ * позади уже выданного водяного знака.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class UserChangesService {
+
+    private static final String TOKEN_VERSION = "v1";
+    private static final Watermark START = new Watermark(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+    private final UserRepository userRepository;
+    private final UserTombstoneRepository userTombstoneRepository;
+    private final int maxPageSize;
+    private final Duration safetyLag;
+    private final Duration tombstoneRetention;
+
+    public UserChangesService(UserRepository userRepository,
+                              UserTombstoneRepository userTombstoneRepository,
+                              @Value("${app.changes.max-page-size:1000}") int maxPageSize,
+                              @Value("${app.changes.safety-lag-ms:5000}") long safetyLagMs,
+                              @Value("${app.changes.tombstone-retention-days:30}") int tombstoneRetentionDays) {
+        this.userRepository = userRepository;
+        this.userTombstoneRepository = userTombstoneRepository;
+        this.maxPageSize = maxPageSize;
+        this.safetyLag = Duration.ofMillis(safetyLagMs);
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+    }
+
+    /**
+     * Возвращает изменения после токена.
+     *
+     * @param since токен из предыдущего ответа, null для полной начальной выборки
+     * @param size максимальное количество изменений
+     * @return страница изменений и токен продолжения
+     * @throws IllegalArgumentException если токен некорректен или размер страницы вне допустимого диапазона
+     * @throws ChangesTokenExpiredException если токен старше срока хранения отметок об удалении
+     */
+    public ChangesPageDto getChanges(String since, int size) {
+        if (size <= 0 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        boolean initial = since == null || since.isBlank();
+        Watermark from = initial ? START : Watermark.decode(since);
+        // Часы БД, а не JVM: по ним назначается время всех изменений и удалений
+        LocalDateTime now = userRepository.currentTimestamp();
+        if (!initial && from.at().isBefore(now.minus(tombstoneRetention))) {
+            throw new ChangesTokenExpiredException("Changes token is older than " + tombstoneRetention.toDays()
+                    + " days, a full resync is required");
+        }
+
+        LocalDateTime upTo = now.minus(safetyLag);
+        if (!upTo.isAfter(from.at())) {
+            return ChangesPageDto.builder().changes(List.of()).nextToken(from.encode()).hasMore(false).build();
+        }
+
+        List<UserDto> upserts = userRepository.findChangedSince(from.at(), from.id(), upTo, Limit.of(size + 1));
+        List<UserTombstone> deletes = userTombstoneRepository.findDeletedSince(from.at(), from.id(), upTo,
+                Limit.of(size + 1));
+        List<UserChangeDto> changes = merge(upserts, deletes, size + 1);
+
+        boolean hasMore = changes.size() > size;
+        Watermark next;
+        if (hasMore) {
+            changes = changes.subList(0, size);
+            UserChangeDto last = changes.get(size - 1);
+            next = new Watermark(last.getChangedAt(), last.getId());
+        } else {
+            // Все изменения до upTo включительно отданы: следующий запрос начинается строго после upTo
+            next = new Watermark(upTo, Long.MAX_VALUE);
+        }
+        log.debug("Changes since {}: {} entries, hasMore={}", from, changes.size(), hasMore);
+        return ChangesPageDto.builder()
+                .changes(new ArrayList<>(changes))
+                .nextToken(next.encode())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Токен, после которого лента отдаст все изменения, закоммиченные начиная с текущего момента
+     * по часам БД. Нужен потребителям, загружающим начальное состояние полным чтением таблицы:
+     * изменения, уже вошедшие в это чтение, будут отданы повторно, но ни одно не будет пропущено.
+     *
+     * @return токен для {@link #getChanges(String, int)}
+     */
+    public String currentToken() {
+        return new Watermark(userRepository.currentTimestamp().minus(safetyLag), 0).encode();
+    }
+
+    /**
+     * Удаляет отметки об удалении старше срока хранения.
+     */
+    @Scheduled(fixedDelayString = "${app.changes.tombstone-purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeTombstones() {
+        LocalDateTime cutoff = userRepository.currentTimestamp().minus(tombstoneRetention);
+        int purged = userTombstoneRepository.deleteOlderThan(cutoff);
+        if (purged > 0) {
+            log.info("Purged {} user tombstones", purged);
+        }
+    }
+
+    private static List<UserChangeDto> merge(List<UserDto> upserts, List<UserTombstone> deletes, int limit) {
+        List<UserChangeDto> changes = new ArrayList<>(Math.min(limit, upserts.size() + deletes.size()));
+        int u = 0;
+        int d = 0;
+        while (changes.size() < limit && (u < upserts.size() || d < deletes.size())) {
+            boolean takeUpsert = d >= deletes.size() || (u < upserts.size()
+                    && compare(upserts.get(u).getUpdatedAt(), upserts.get(u).getId(),
+                            deletes.get(d).getDeletedAt(), deletes.get(d).getUserId()) < 0);
+            if (takeUpsert) {
+                UserDto user = upserts.get(u++);
+                changes.add(UserChangeDto.builder()
+                        .kind(UserChangeDto.Kind.UPSERT)
+                        .id(user.getId())
+                        .changedAt(user.getUpdatedAt())
+                        .user(user)
+                        .build());
+            } else {
+                UserTombstone tombstone = deletes.get(d++);
+                changes.add(UserChangeDto.builder()
+                        .kind(UserChangeDto.Kind.DELETE)
+                        .id(tombstone.getUserId())
+                        .changedAt(tombstone.getDeletedAt())
+                        .build());
+            }
+        }
+        return changes;
+    }
+
+    private static int compare(LocalDateTime leftAt, long leftId, LocalDateTime rightAt, long rightId) {
+        int byTime = leftAt.compareTo(rightAt);
+        return byTime != 0 ? byTime : Long.compare(leftId, rightId);
+    }
+
+    /**
+     * Позиция в ленте: время изменения и id последней отданной записи.
+     */
+    private record Watermark(LocalDateTime at, long id) {
+
+        String encode() {
+            String raw = TOKEN_VERSION + ":" + at.toEpochSecond(ZoneOffset.UTC) + ":" + at.getNano() + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        static Watermark decode(String token) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split(":");
+                if (parts.length != 4 || !TOKEN_VERSION.equals(parts[0])) {
+                    throw new IllegalArgumentException("Invalid changes token");
+                }
+                LocalDateTime at = LocalDateTime.ofEpochSecond(Long.parseLong(parts[1]), Integer.parseInt(parts[2]),
+                        ZoneOffset.UTC);
+                return new Watermark(at, Long.parseLong(parts[3]));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new IllegalArgumentException("Invalid changes token", e);
+            }
+        }
+    }
+}
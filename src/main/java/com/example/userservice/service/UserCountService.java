@@ -0,0 +1,92 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserCountDto;
+import com.example.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Подсчет пользователей для пагинации: точный COUNT(*) или оценка без чтения таблицы.
+ *
+ * <p>Оценка берется из статистики в памяти ({@link UserStatisticsService}): счетчики для общего числа,
+ * домена или диапазона возраста и пересечение скетчей HyperLogLog для домена вместе с возрастом.
+ * Пока статистика не построена, общее число оценивается по pg_class.reltuples.
+ * Фильтр по имени оценить нельзя, такой запрос выполняется точно; фактический режим указывается в ответе.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserCountService {
+
+    private final UserRepository userRepository;
+    private final UserStatisticsService userStatisticsService;
+
+    /**
+     * Считает пользователей по фильтрам.
+     *
+     * @param mode запрошенный режим
+     * @param name подстрока имени или null
+     * @param domain домен email или null
+     * @param minAge минимальный возраст или null
+     * @param maxAge максимальный возраст или null
+     * @return число пользователей и использованный способ подсчета
+     * @throws IllegalArgumentException если фильтры некорректны
+     */
+    @Transactional(readOnly = true)
+    public UserCountDto count(UserCountDto.Mode mode, String name, String domain, Integer minAge, Integer maxAge) {
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new IllegalArgumentException("Minimum age cannot be greater than maximum age");
+        }
+        String normalizedName = name != null && !name.isBlank() ? name.trim().toLowerCase(Locale.ROOT) : null;
+        String normalizedDomain = normalizeDomain(domain);
+
+        if (mode == UserCountDto.Mode.ESTIMATE && normalizedName == null) {
+            Optional<UserCountDto> estimate = userStatisticsService.estimateCount(normalizedDomain, minAge, maxAge);
+            if (estimate.isPresent()) {
+                return estimate.get();
+            }
+            if (normalizedDomain == null && minAge == null && maxAge == null) {
+                OptionalLong planned = userRepository.estimateRowCount();
+                if (planned.isPresent()) {
+                    return UserCountDto.builder()
+                            .count(planned.getAsLong())
+                            .mode(UserCountDto.Mode.ESTIMATE)
+                            .source(UserCountDto.Source.PLANNER)
+                            .build();
+                }
+            }
+            log.debug("No estimate available for domain={}, minAge={}, maxAge={}, counting exactly",
+                    normalizedDomain, minAge, maxAge);
+        }
+
+        long count = userRepository.countFiltered(
+                normalizedName != null ? "%" + normalizedName + "%" : null,
+                normalizedDomain != null ? "%@" + normalizedDomain : null,
+                minAge, maxAge);
+        return UserCountDto.builder()
+                .count(count)
+                .mode(UserCountDto.Mode.EXACT)
+                .source(UserCountDto.Source.QUERY)
+                .build();
+    }
+
+    private static String normalizeDomain(String domain) {
+        if (domain == null || domain.isBlank()) {
+            return null;
+        }
+        String normalized = domain.trim().toLowerCase(Locale.ROOT);
+        if (normalized.startsWith("@")) {
+            normalized = normalized.substring(1);
+        }
+        if (normalized.isEmpty() || normalized.indexOf('@') >= 0) {
+            throw new IllegalArgumentException("Invalid email domain: " + domain);
+        }
+        return normalized;
+    }
+}
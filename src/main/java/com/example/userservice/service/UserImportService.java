@@ -0,0 +1,354 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.ImportReportDto;
+import com.example.userservice.dto.UserBatchEventDto;
+import com.example.userservice.event.UserChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Сервис массового импорта пользователей в PostgreSQL.
+ * Входной поток (CSV или NDJSON) читается построчно и порциями передается
+ * через COPY во временную staging таблицу; каждая порция затем переносится в users
+ * одним set-based INSERT ... SELECT ... ON CONFLICT (email) в отдельной транзакции.
+ * После каждой порции публикуется сводное Kafka событие и отчет о прогрессе.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 50_000;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS users_import_staging (name TEXT, email TEXT, age TEXT) "
+                    + "ON COMMIT DELETE ROWS";
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "email", "age");
+
+    private static final String COPY_SQL =
+            "COPY users_import_staging (name, email, age) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_SQL_TEMPLATE = """
+            WITH valid AS (
+                SELECT DISTINCT ON (email) name, email, NULLIF(age, '')::int AS age
+                FROM (
+                    SELECT trim(name) AS name, trim(email) AS email, coalesce(trim(age), '') AS age
+                    FROM users_import_staging
+                ) s
+                WHERE name <> '' AND length(name) <= 100
+                  AND email ~ '^[^@[:space:]]+@[^@[:space:]]+$' AND length(email) <= 255
+                  AND CASE WHEN age = '' THEN true WHEN age ~ '^[0-9]{1,3}$' THEN age::int <= 150 ELSE false END
+                ORDER BY email
+            ), merged AS (
+                INSERT INTO users (id, name, email, age, created_at, updated_at)
+                SELECT nextval('users_id_seq'), name, email, age, now(), now() FROM valid
+                ON CONFLICT (email) %s
+                RETURNING (xmax = 0) AS inserted
+            )
+            SELECT (SELECT count(*) FROM valid) AS valid_rows,
+                   count(*) FILTER (WHERE inserted) AS inserted_rows,
+                   count(*) FILTER (WHERE NOT inserted) AS updated_rows
+            FROM merged
+            """;
+
+    private final DataSource dataSource;
+    private final EventPublisherService eventPublisherService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final int chunkSize;
+
+    /**
+     * Создает сервис импорта.
+     *
+     * @param dataSource источник соединений PostgreSQL
+     * @param eventPublisherService сервис публикации событий (может быть null, например в консоли)
+     * @param applicationEventPublisher публикатор событий приложения для инвалидации кэшей (может быть null)
+     * @param chunkSize размер порции в строках
+     */
+    @Autowired
+    public UserImportService(DataSource dataSource,
+                             EventPublisherService eventPublisherService,
+                             ApplicationEventPublisher applicationEventPublisher,
+                             @Value("${app.import.chunk-size:" + DEFAULT_CHUNK_SIZE + "}") int chunkSize) {
+        this.dataSource = dataSource;
+        this.eventPublisherService = eventPublisherService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Создает сервис импорта вне контекста Spring (консоль, тесты).
+     */
+    public UserImportService(DataSource dataSource, EventPublisherService eventPublisherService, int chunkSize) {
+        this(dataSource, eventPublisherService, null, chunkSize);
+    }
+
+    /**
+     * Формат входных данных.
+     */
+    public enum ImportFormat {
+        /** CSV с колонками name,email,age; одна запись на строку, заголовок необязателен. */
+        CSV,
+        /** Один JSON объект {"name","email","age"} на строку. */
+        NDJSON
+    }
+
+    /**
+     * Поведение при совпадении email с существующим пользователем.
+     */
+    public enum ConflictPolicy {
+        /** Существующий пользователь не изменяется. */
+        SKIP,
+        /** Имя и возраст существующего пользователя обновляются. */
+        UPDATE
+    }
+
+    /**
+     * Импортирует пользователей из потока.
+     *
+     * @param input входной поток в кодировке UTF-8
+     * @param format формат входных данных
+     * @param conflictPolicy поведение при конфликте email
+     * @param progressListener получатель отчета после каждой порции (может быть null)
+     * @return итоговый отчет
+     */
+    public ImportReportDto importUsers(InputStream input, ImportFormat format, ConflictPolicy conflictPolicy,
+                                       Consumer<ImportReportDto> progressListener) {
+        log.info("Starting user import: format={}, onConflict={}, chunkSize={}", format, conflictPolicy, chunkSize);
+        long start = System.nanoTime();
+        ImportReportDto report = new ImportReportDto();
+        String mergeSql = String.format(MERGE_SQL_TEMPLATE, conflictPolicy == ConflictPolicy.UPDATE
+                ? "DO UPDATE SET name = EXCLUDED.name, age = EXCLUDED.age, updated_at = now()"
+                : "DO NOTHING");
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+             Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+                connection.commit();
+
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                String line = reader.readLine();
+                if (line != null && format == ImportFormat.CSV && isCsvHeader(line)) {
+                    line = reader.readLine();
+                }
+                while (line != null) {
+                    long staged = 0;
+                    long malformed = 0;
+                    CopyIn copyIn = copyManager.copyIn(COPY_SQL);
+                    try {
+                        while (line != null && staged + malformed < chunkSize) {
+                            if (!line.isBlank()) {
+                                String csvLine = format == ImportFormat.NDJSON ? ndjsonToCsv(line) : normalizeCsv(line);
+                                if (csvLine == null) {
+                                    malformed++;
+                                } else {
+                                    byte[] bytes = (csvLine + "\n").getBytes(StandardCharsets.UTF_8);
+                                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                                    staged++;
+                                }
+                            }
+                            line = reader.readLine();
+                        }
+                        copyIn.endCopy();
+                    } finally {
+                        if (copyIn.isActive()) {
+                            copyIn.cancelCopy();
+                        }
+                    }
+
+                    UserBatchEventDto chunk = mergeChunk(statement, mergeSql, staged, malformed, report);
+                    connection.commit();
+                    report.updateTiming(System.nanoTime() - start);
+                    publishChunk(chunk);
+                    if (progressListener != null) {
+                        progressListener.accept(report.toBuilder().build());
+                    }
+                }
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | IOException e) {
+            log.error("User import failed after {} chunks", report.getChunks(), e);
+            throw new RuntimeException("Failed to import users", e);
+        }
+
+        report.updateTiming(System.nanoTime() - start);
+        log.info("User import finished: {}", report);
+        return report;
+    }
+
+    /**
+     * Переносит порцию из staging-таблицы в users и добавляет ее итоги к отчету.
+     *
+     * @return событие с итогами только этой порции
+     */
+    private UserBatchEventDto mergeChunk(Statement statement, String mergeSql, long staged, long malformed,
+                                         ImportReportDto report) throws SQLException {
+        long valid = 0;
+        long inserted = 0;
+        long updated = 0;
+        if (staged > 0) {
+            try (ResultSet rs = statement.executeQuery(mergeSql)) {
+                rs.next();
+                valid = rs.getLong("valid_rows");
+                inserted = rs.getLong("inserted_rows");
+                updated = rs.getLong("updated_rows");
+            }
+        }
+        long skipped = valid - inserted - updated;
+        long rejected = staged - valid + malformed;
+        report.addChunk(staged + malformed, inserted, updated, skipped, rejected);
+        return UserBatchEventDto.builder()
+                .operation("IMPORT")
+                .chunk(report.getChunks())
+                .processed(staged + malformed)
+                .inserted(inserted)
+                .updated(updated)
+                .skipped(skipped)
+                .rejected(rejected)
+                .build();
+    }
+
+    private void publishChunk(UserBatchEventDto chunk) {
+        // ID вставленных и обновленных пользователей импорт не возвращает, поэтому инвалидируются все
+        if (chunk.getInserted() + chunk.getUpdated() > 0 && applicationEventPublisher != null) {
+            applicationEventPublisher.publishEvent(UserChangedEvent.allUsers());
+        }
+        if (eventPublisherService != null) {
+            eventPublisherService.publishBatchEvent(chunk);
+        }
+    }
+
+    /**
+     * Строка считается заголовком, только если она целиком совпадает со списком колонок,
+     * иначе первая запись с именем "name" была бы потеряна.
+     */
+    private static boolean isCsvHeader(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != CSV_COLUMNS.size()) {
+            return false;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (!columns[i].replace("\"", "").trim().equalsIgnoreCase(CSV_COLUMNS.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Преобразует NDJSON строку в строку CSV для COPY.
+     *
+     * @return строка CSV или null если JSON некорректен
+     */
+    private static String ndjsonToCsv(String line) {
+        try {
+            JsonNode node = OBJECT_MAPPER.readTree(line);
+            if (node == null || !node.isObject()) {
+                return null;
+            }
+            JsonNode age = node.get("age");
+            return csvField(node.path("name").asText("")) + ","
+                    + csvField(node.path("email").asText("")) + ","
+                    + (age == null || age.isNull() ? "" : csvField(age.asText()));
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Разбирает строку CSV и кодирует ее заново для COPY.
+     * Некорректная запись (другое число колонок, незакрытая или лишняя кавычка, символ NUL)
+     * отклоняется здесь, иначе COPY прервал бы весь импорт после уже зафиксированных порций.
+     * Запись должна занимать одну строку: поля с переводом строки не поддерживаются.
+     *
+     * @return строка CSV или null если запись некорректна
+     */
+    static String normalizeCsv(String line) {
+        if (line.indexOf('\0') >= 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>(CSV_COLUMNS.size());
+        int length = line.length();
+        int pos = 0;
+        while (true) {
+            if (pos < length && line.charAt(pos) == '"') {
+                StringBuilder field = new StringBuilder();
+                pos++;
+                while (true) {
+                    if (pos >= length) {
+                        return null;
+                    }
+                    char c = line.charAt(pos++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (pos < length && line.charAt(pos) == '"') {
+                        field.append('"');
+                        pos++;
+                    } else {
+                        break;
+                    }
+                }
+                if (pos < length && line.charAt(pos) != ',') {
+                    return null;
+                }
+                fields.add(csvField(field.toString()));
+            } else {
+                int end = line.indexOf(',', pos);
+                String field = line.substring(pos, end < 0 ? length : end);
+                if (field.indexOf('"') >= 0) {
+                    return null;
+                }
+                // Пустое поле без кавычек COPY читает как NULL
+                fields.add(field.isEmpty() ? "" : csvField(field));
+                pos += field.length();
+            }
+            if (fields.size() > CSV_COLUMNS.size()) {
+                return null;
+            }
+            if (pos >= length) {
+                break;
+            }
+            pos++;
+            if (pos == length) {
+                fields.add("");
+                break;
+            }
+        }
+        return fields.size() == CSV_COLUMNS.size() ? String.join(",", fields) : null;
+    }
+
+    private static String csvField(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
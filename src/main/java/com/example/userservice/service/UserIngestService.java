@@ -0,0 +1,312 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.CreateUserDto;
+import com.example.userservice.dto.ImportReportDto;
+import com.example.userservice.dto.IngestChunkResultDto;
+import com.example.userservice.dto.IngestErrorDto;
+import com.example.userservice.dto.UserBatchEventDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.event.UserChangedEvent;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.util.BulkProfile;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис потокового приема пользователей из JSON массива.
+ * Элементы читаются по одному потоковым парсером Jackson, валидируются и собираются
+ * в порции фиксированного размера. Порции передаются отдельному потоку записи через
+ * ограниченную очередь: если запись в БД отстает, чтение тела запроса приостанавливается.
+ * В памяти одновременно находятся не более (queueCapacity + 2) порций независимо от размера запроса.
+ */
+@Slf4j
+@Service
+public class UserIngestService implements DisposableBean {
+
+    private static final Chunk END_OF_STREAM = new Chunk(0, List.of(), List.of());
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EventPublisherService eventPublisherService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor writerExecutor;
+
+    public UserIngestService(UserRepository userRepository,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             EventPublisherService eventPublisherService,
+                             ApplicationEventPublisher applicationEventPublisher,
+                             @Value("${app.ingest.chunk-size:1000}") int chunkSize,
+                             @Value("${app.ingest.queue-capacity:2}") int queueCapacity,
+                             @Value("${app.ingest.max-concurrent-streams:4}") int maxConcurrentStreams) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisherService = eventPublisherService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.writerExecutor = new ThreadPoolExecutor(maxConcurrentStreams, maxConcurrentStreams,
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "user-ingest-writer-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.writerExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Принимает пользователей из потока с JSON массивом {@link CreateUserDto}.
+     * Результат каждой порции передается в resultSink сразу после ее записи;
+     * ошибка разбора потока передается последним результатом с заполненным полем error.
+     *
+     * @param input поток тела запроса
+     * @param resultSink получатель результатов порций (вызывается последовательно)
+     * @return итоговая сводка
+     * @throws IllegalStateException если превышено число одновременных потоков приема
+     */
+    public ImportReportDto ingest(InputStream input, Consumer<IngestChunkResultDto> resultSink) {
+        long start = System.nanoTime();
+        ImportReportDto report = new ImportReportDto();
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Future<?> writer;
+        try {
+            writer = writerExecutor.submit(() -> drain(queue, report, resultSink));
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Too many concurrent ingest streams, retry later");
+        }
+
+        String streamError = null;
+        try {
+            streamError = parse(input, queue, writer);
+        } finally {
+            if (!writer.isDone()) {
+                enqueue(queue, END_OF_STREAM, writer);
+            }
+            awaitWriter(writer);
+        }
+
+        if (streamError != null) {
+            resultSink.accept(IngestChunkResultDto.builder().error(streamError).errors(List.of()).build());
+        }
+        report.updateTiming(System.nanoTime() - start);
+        log.info("User ingest finished: {}", report);
+        return report;
+    }
+
+    private String parse(InputStream input, BlockingQueue<Chunk> queue, Future<?> writer) {
+        int chunkNumber = 0;
+        long index = 0;
+        List<IndexedUser> users = new ArrayList<>(chunkSize);
+        List<IngestErrorDto> rejected = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return "Request body must be a JSON array of users";
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    return "Unexpected end of input at item " + index;
+                }
+                JsonNode node = parser.readValueAsTree();
+                validate(index, node, users, rejected);
+                index++;
+                if (users.size() + rejected.size() >= chunkSize) {
+                    enqueue(queue, new Chunk(++chunkNumber, users, rejected), writer);
+                    users = new ArrayList<>(chunkSize);
+                    rejected = new ArrayList<>();
+                }
+            }
+            return null;
+        } catch (JsonProcessingException e) {
+            log.warn("Ingest stream parsing stopped at item {}: {}", index, e.getOriginalMessage());
+            return "Malformed JSON at item " + index + ": " + e.getOriginalMessage();
+        } catch (IOException e) {
+            log.warn("Ingest stream reading stopped at item {}: {}", index, e.getMessage());
+            return "Failed to read input at item " + index + ": " + e.getMessage();
+        } finally {
+            if (!users.isEmpty() || !rejected.isEmpty()) {
+                enqueue(queue, new Chunk(++chunkNumber, users, rejected), writer);
+            }
+        }
+    }
+
+    private void validate(long index, JsonNode node, List<IndexedUser> users, List<IngestErrorDto> rejected) {
+        CreateUserDto dto;
+        try {
+            dto = objectMapper.treeToValue(node, CreateUserDto.class);
+        } catch (JsonProcessingException e) {
+            rejected.add(new IngestErrorDto(index, node.path("email").asText(null), e.getOriginalMessage()));
+            return;
+        }
+        Set<ConstraintViolation<CreateUserDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            users.add(new IndexedUser(index, dto));
+        } else {
+            String message = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            rejected.add(new IngestErrorDto(index, dto.getEmail(), message));
+        }
+    }
+
+    private void drain(BlockingQueue<Chunk> queue, ImportReportDto report,
+                       Consumer<IngestChunkResultDto> resultSink) {
+        try {
+            Chunk chunk;
+            while ((chunk = queue.take()) != END_OF_STREAM) {
+                IngestChunkResultDto result = write(chunk);
+                report.addChunk(result.getReceived(), result.getInserted(), 0, 0, result.getRejected());
+                publish(result);
+                resultSink.accept(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Записывает порцию одной транзакцией JDBC batch-ами.
+     * Уникальность email проверяется одной выборкой на порцию; при ошибке записи вся порция отклоняется.
+     */
+    private IngestChunkResultDto write(Chunk chunk) {
+        long start = System.nanoTime();
+        List<IngestErrorDto> errors = new ArrayList<>(chunk.rejected());
+        List<Long> insertedIds = List.of();
+        if (!chunk.users().isEmpty()) {
+            try {
+                insertedIds = transactionTemplate.execute(status -> {
+                    entityManager.unwrap(Session.class).setJdbcBatchSize(BulkProfile.BATCH_SIZE);
+                    Set<String> taken = new HashSet<>(userRepository.findExistingEmails(
+                            chunk.users().stream().map(u -> u.dto().getEmail()).toList()));
+                    List<User> users = new ArrayList<>(chunk.users().size());
+                    for (IndexedUser item : chunk.users()) {
+                        CreateUserDto dto = item.dto();
+                        if (!taken.add(dto.getEmail())) {
+                            errors.add(new IngestErrorDto(item.index(), dto.getEmail(),
+                                    "User with email " + dto.getEmail() + " already exists"));
+                            continue;
+                        }
+                        users.add(User.builder().name(dto.getName()).email(dto.getEmail()).age(dto.getAge()).build());
+                    }
+                    userRepository.saveAll(users);
+                    entityManager.flush();
+                    entityManager.clear();
+                    return users.stream().map(User::getId).toList();
+                });
+            } catch (RuntimeException e) {
+                log.error("Failed to write ingest chunk {}", chunk.number(), e);
+                errors.clear();
+                errors.addAll(chunk.rejected());
+                for (IndexedUser item : chunk.users()) {
+                    errors.add(new IngestErrorDto(item.index(), item.dto().getEmail(),
+                            "Chunk write failed: " + e.getMessage()));
+                }
+            }
+        }
+        if (!insertedIds.isEmpty()) {
+            applicationEventPublisher.publishEvent(UserChangedEvent.of(insertedIds));
+        }
+        return IngestChunkResultDto.builder()
+                .chunk(chunk.number())
+                .received(chunk.users().size() + chunk.rejected().size())
+                .inserted(insertedIds.size())
+                .rejected(errors.size())
+                .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                .errors(errors)
+                .build();
+    }
+
+    private void publish(IngestChunkResultDto result) {
+        eventPublisherService.publishBatchEvent(UserBatchEventDto.builder()
+                .operation("INGEST")
+                .chunk(result.getChunk())
+                .processed(result.getReceived())
+                .inserted(result.getInserted())
+                .rejected(result.getRejected())
+                .build());
+    }
+
+    /**
+     * Помещает порцию в очередь, блокируясь пока поток записи не освободит место.
+     */
+    private static void enqueue(BlockingQueue<Chunk> queue, Chunk chunk, Future<?> writer) {
+        try {
+            while (!queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+                if (writer.isDone()) {
+                    throw new IllegalStateException("Ingest writer stopped unexpectedly");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ingest writer", e);
+        }
+    }
+
+    private static void awaitWriter(Future<?> writer) {
+        try {
+            writer.get();
+        } catch (InterruptedException e) {
+            writer.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ingest writer", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ingest writer failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        writerExecutor.shutdownNow();
+    }
+
+    private record IndexedUser(long index, CreateUserDto dto) {
+    }
+
+    private record Chunk(int number, List<IndexedUser> users, List<IngestErrorDto> rejected) {
+    }
+}
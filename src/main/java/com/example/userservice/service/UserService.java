@@ -1,18 +1,39 @@
 package com.example.userservice.service;
 
+import com.example.userservice.cache.UserLookupCache;
+import com.example.userservice.cache.UserQueryCache;
+import com.example.userservice.datasource.ReplicaRoutingDataSource;
 import com.example.userservice.dto.CreateUserDto;
+import com.example.userservice.dto.SparseUserDto;
 import com.example.userservice.dto.UpdateUserDto;
+import com.example.userservice.dto.UpsertUserDto;
 import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserField;
 import com.example.userservice.entity.User;
+import com.example.userservice.entity.UserTombstone;
+import com.example.userservice.event.UserChangedEvent;
+import com.example.userservice.repository.UpsertResult;
+import com.example.userservice.repository.UserFieldsRepository;
+import com.example.userservice.repository.UserJdbcRepository;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserTombstoneRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Сервисный класс для бизнес-логики пользователей.
@@ -24,8 +45,33 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class UserService {
     
+    private static final int UPSERT_ATTEMPTS = 3;
+    private static final int MAX_PAGE_SIZE = 1000;
+    
     private final UserRepository userRepository;
     private final EventPublisherService eventPublisherService;
+    private final TransactionTemplate transactionTemplate;
+    private final UserJdbcRepository userJdbcRepository;
+    private final UserFieldsRepository userFieldsRepository;
+    private final UserTombstoneRepository userTombstoneRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final UserLookupCache userLookupCache;
+    private final UserQueryCache userQueryCache;
+    
+    // Переключатели JDBC fast path; точечные чтения объявлены с SUPPORTS, чтобы при включенном
+    // fast path не открывать JPA транзакцию и EntityManager ради одного запроса
+    
+    /** Включает JDBC fast path для поиска по ID. */
+    @Value("${app.jdbc-fast-path.find-by-id:false}")
+    private boolean jdbcFindById;
+    
+    /** Включает JDBC fast path для поиска по email. */
+    @Value("${app.jdbc-fast-path.find-by-email:false}")
+    private boolean jdbcFindByEmail;
+    
+    /** Включает JDBC fast path для проверки занятости email. */
+    @Value("${app.jdbc-fast-path.exists-by-email:false}")
+    private boolean jdbcExistsByEmail;
     
     /**
      * Создает нового пользователя.
@@ -40,7 +86,7 @@ public class UserService {
                 createUserDto.getName(), createUserDto.getEmail(), createUserDto.getAge());
         
         // Проверяем, существует ли пользователь с таким email
-        if (userRepository.existsByEmail(createUserDto.getEmail())) {
+        if (existsByEmail(createUserDto.getEmail())) {
             throw new IllegalArgumentException("User with email " + createUserDto.getEmail() + " already exists");
         }
         
@@ -51,6 +97,7 @@ public class UserService {
                 .build();
         
         User savedUser = userRepository.save(user);
+        applicationEventPublisher.publishEvent(UserChangedEvent.of(savedUser.getId()));
         
         // Отправляем событие о создании пользователя
         eventPublisherService.publishUserEvent("CREATE", savedUser.getEmail(), savedUser.getName());
@@ -64,13 +111,46 @@ public class UserService {
      * @param id ID пользователя
      * @return Optional содержащий пользователя в виде DTO если найден
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<UserDto> getUserById(Long id) {
         log.info("Getting user by ID: {}", id);
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("Invalid user ID: " + id);
         }
-        return userRepository.findById(id)
-                .map(this::convertToDto);
+        return userLookupCache.getById(id, this::loadUserById);
+    }
+    
+    private Optional<UserDto> loadUserById(Long id) {
+        return jdbcFindById ? userJdbcRepository.findById(id) : userRepository.findDtoById(id);
+    }
+    
+    /**
+     * Получает пользователя по ID с primary в обход кэша точечных чтений.
+     * Используется для заполнения кэшей, которые сбрасываются только записью: значение
+     * с отстающей реплики или из кэша с TTL хранилось бы в них до следующего изменения.
+     * 
+     * @param id ID пользователя
+     * @return Optional содержащий пользователя в виде DTO если найден
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<UserDto> getUserByIdFromPrimary(Long id) {
+        if (id == null || id <= 0) {
+            throw new IllegalArgumentException("Invalid user ID: " + id);
+        }
+        return ReplicaRoutingDataSource.onPrimary(() -> loadUserById(id));
+    }
+    
+    /**
+     * Возвращает время последнего изменения пользователя.
+     * Используется для дешевой проверки актуальности закэшированных данных.
+     * 
+     * @param id ID пользователя
+     * @return Optional со временем изменения если пользователь найден
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<LocalDateTime> getUserUpdatedAt(Long id) {
+        // Сверяется с версией в кэше: версия с отстающей реплики подтвердила бы устаревшую запись
+        return ReplicaRoutingDataSource.onPrimary(() -> userRepository.findUpdatedAtById(id));
     }
     
     /**
@@ -79,13 +159,17 @@ public class UserService {
      * @param email email пользователя
      * @return Optional содержащий пользователя в виде DTO если найден
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<UserDto> getUserByEmail(String email) {
         log.info("Getting user by email: {}", email);
         if (email == null || email.trim().isEmpty()) {
             throw new IllegalArgumentException("Email cannot be empty");
         }
-        return userRepository.findByEmail(email)
-                .map(this::convertToDto);
+        return userLookupCache.getByEmail(email, this::loadUserByEmail);
+    }
+    
+    private Optional<UserDto> loadUserByEmail(String email) {
+        return jdbcFindByEmail ? userJdbcRepository.findByEmail(email) : userRepository.findDtoByEmail(email);
     }
     
     /**
@@ -95,10 +179,83 @@ public class UserService {
      */
     public List<UserDto> getAllUsers() {
         log.info("Getting all users");
-        return userRepository.findAll()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return userQueryCache.get(UserQueryCache.allUsersKey(), userRepository::findAllDtos);
+    }
+    
+    /**
+     * Ищет пользователей по части имени и диапазону возраста.
+     * 
+     * @param name часть имени без учета регистра (null или пусто - без фильтра)
+     * @param minAge минимальный возраст (null - без ограничения)
+     * @param maxAge максимальный возраст (null - без ограничения)
+     * @param afterId ID последнего пользователя предыдущей страницы (null для первой)
+     * @param size размер страницы
+     * @return страница пользователей в порядке ID
+     * @throws IllegalArgumentException если размер страницы или диапазон возраста некорректны
+     */
+    public List<UserDto> searchUsers(String name, Integer minAge, Integer maxAge, Long afterId, int size) {
+        log.info("Searching users: name={}, minAge={}, maxAge={}, afterId={}, size={}",
+                name, minAge, maxAge, afterId, size);
+        validateSearch(minAge, maxAge, size);
+        return userQueryCache.get(UserQueryCache.searchKey(name, minAge, maxAge, afterId, size),
+                () -> userRepository.searchDtos(afterId != null ? afterId : 0L, namePattern(name), minAge, maxAge,
+                        Limit.of(size)));
+    }
+    
+    /**
+     * Получает пользователя по ID, выбирая из БД только указанные поля.
+     * 
+     * @param id ID пользователя
+     * @param fields выбираемые поля
+     * @return Optional содержащий пользователя если найден
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<SparseUserDto> getUserById(Long id, Set<UserField> fields) {
+        log.info("Getting user by ID: {}, fields: {}", id, fields);
+        if (id == null || id <= 0) {
+            throw new IllegalArgumentException("Invalid user ID: " + id);
+        }
+        return userFieldsRepository.findById(id, fields);
+    }
+    
+    /**
+     * Получает пользователя по email, выбирая из БД только указанные поля.
+     * 
+     * @param email email пользователя
+     * @param fields выбираемые поля
+     * @return Optional содержащий пользователя если найден
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<SparseUserDto> getUserByEmail(String email, Set<UserField> fields) {
+        log.info("Getting user by email: {}, fields: {}", email, fields);
+        if (email == null || email.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be empty");
+        }
+        return userFieldsRepository.findByEmail(email, fields);
+    }
+    
+    /**
+     * Получает всех пользователей, выбирая из БД только указанные поля.
+     * 
+     * @param fields выбираемые поля
+     * @return список пользователей в порядке ID
+     */
+    public List<SparseUserDto> getAllUsers(Set<UserField> fields) {
+        log.info("Getting all users, fields: {}", fields);
+        return userFieldsRepository.findAll(fields);
+    }
+    
+    /**
+     * Ищет пользователей как {@link #searchUsers(String, Integer, Integer, Long, int)},
+     * выбирая из БД только указанные поля.
+     */
+    public List<SparseUserDto> searchUsers(Set<UserField> fields, String name, Integer minAge, Integer maxAge,
+                                           Long afterId, int size) {
+        log.info("Searching users: name={}, minAge={}, maxAge={}, afterId={}, size={}, fields: {}",
+                name, minAge, maxAge, afterId, size, fields);
+        validateSearch(minAge, maxAge, size);
+        return userFieldsRepository.search(fields, namePattern(name), minAge, maxAge,
+                afterId != null ? afterId : 0L, size);
     }
     
     /**
@@ -140,9 +297,50 @@ public class UserService {
         }
         
         User updatedUser = userRepository.save(existingUser);
+        applicationEventPublisher.publishEvent(UserChangedEvent.of(updatedUser.getId()));
         return convertToDto(updatedUser);
     }
     
+    /**
+     * Создает пользователя с указанным email или обновляет существующего одной операцией.
+     * Каждая попытка выполняется в собственной транзакции; конфликт уникальности или блокировки
+     * при гонке с параллельной вставкой (возможен только в переносимом варианте) приводит к повтору.
+     * 
+     * @param email email пользователя
+     * @param upsertUserDto имя и возраст
+     * @return итоговое состояние пользователя и признак создания
+     * @throws IllegalArgumentException если email пустой или некорректный
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UpsertResult upsertUserByEmail(String email, UpsertUserDto upsertUserDto) {
+        log.info("Upserting user with email: {}, data: {}", email, upsertUserDto);
+        
+        if (email == null || email.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be empty");
+        }
+        if (email.indexOf('@') <= 0 || email.length() > 255) {
+            throw new IllegalArgumentException("Invalid email format: " + email);
+        }
+        
+        UpsertResult result = null;
+        for (int attempt = 1; result == null; attempt++) {
+            try {
+                result = transactionTemplate.execute(status -> userRepository.upsertByEmail(
+                        email, upsertUserDto.getName(), upsertUserDto.getAge()));
+            } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+                if (attempt >= UPSERT_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Upsert of {} lost a race with a concurrent insert, retrying", email);
+            }
+        }
+        
+        applicationEventPublisher.publishEvent(UserChangedEvent.of(result.getUser().getId()));
+        eventPublisherService.publishUserEvent(result.isCreated() ? "CREATE" : "UPDATE",
+                result.getUser().getEmail(), result.getUser().getName());
+        return result;
+    }
+    
     /**
      * Удаляет пользователя по ID.
      * 
@@ -162,6 +360,9 @@ public class UserService {
             User userToDelete = userRepository.findById(id).orElse(null);
             if (userToDelete != null) {
                 userRepository.deleteById(id);
+                // Отметка об удалении для ленты изменений
+                userTombstoneRepository.save(UserTombstone.of(id));
+                applicationEventPublisher.publishEvent(UserChangedEvent.of(id));
                 // Отправляем событие об удалении пользователя
                 eventPublisherService.publishUserEvent("DELETE", userToDelete.getEmail(), userToDelete.getName());
                 return true;
@@ -170,6 +371,23 @@ public class UserService {
         return false;
     }
     
+    private static void validateSearch(Integer minAge, Integer maxAge, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new IllegalArgumentException("Minimum age cannot be greater than maximum age");
+        }
+    }
+    
+    private static String namePattern(String name) {
+        return name != null && !name.isBlank() ? "%" + name.trim().toLowerCase(Locale.ROOT) + "%" : null;
+    }
+    
+    private boolean existsByEmail(String email) {
+        return jdbcExistsByEmail ? userJdbcRepository.existsByEmail(email) : userRepository.existsByEmail(email);
+    }
+    
     /**
      * Конвертирует User entity в UserDto.
      * 
@@ -0,0 +1,607 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserCountDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserStatisticsDto;
+import com.example.userservice.event.UserChangedEvent;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserScanRepository;
+import com.example.userservice.util.HyperLogLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика пользователей в памяти: число пользователей по доменам email, гистограмма возраста
+ * и регистрации по дням. Заменяет отчетные GROUP BY по всей таблице users.
+ *
+ * <p>Агрегаты строятся одним потоковым чтением таблицы и дальше поддерживаются инкрементально
+ * по {@link UserChangedEvent} после коммита: измененные пользователи перечитываются по ID,
+ * их прежний вклад вычитается, новый добавляется. Для этого хранится вклад каждого пользователя
+ * (домен, возраст, день регистрации) - порядка 100-150 байт на пользователя.
+ *
+ * <p>Для оценки числа пользователей по сочетанию домена и возраста хранятся скетчи HyperLogLog
+ * по каждому возрасту и по каждому крупному домену (у малого домена - точный набор ID).
+ * Скетчи не поддерживают удаление: удаленные и измененные пользователи остаются в них
+ * до следующего перестроения, что учитывается в границе ошибки.
+ *
+ * <p>Вся запись агрегатов выполняется одним фоновым потоком: события не ждут БД в потоке запроса,
+ * а перечитывание и полное перестроение не перемежаются. ID, изменившиеся во время перестроения,
+ * применяются к его результату перед публикацией. Периодическое перестроение сверяет агрегаты с БД
+ * и исправляет расхождения (например, после изменений мимо сервиса); их число пишется в лог и метрику.
+ */
+@Slf4j
+@Service
+public class UserStatisticsService implements InitializingBean, DisposableBean {
+
+    static final int AGE_BUCKET_WIDTH = 10;
+    static final int AGE_BUCKETS = 11;
+    static final int MAX_AGE = 150;
+
+    private static final int NO_AGE = -1;
+    private static final int SKETCH_PRECISION = 11;
+    private static final int SPARSE_DOMAIN_LIMIT = 256;
+    private static final long NO_DAY = Long.MIN_VALUE;
+    private static final int RELOAD_CHUNK_SIZE = 500;
+    private static final int MAX_TOP_DOMAINS = 1_000;
+    private static final int MAX_DAYS = 3_660;
+
+    private final UserScanRepository userScanRepository;
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final long rebuildDelayMs;
+    private final ScheduledThreadPoolExecutor worker;
+
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private final Object lock = new Object();
+    // Доступ под lock; null до завершения первого перестроения
+    private Aggregates aggregates;
+    private Instant reconciledAt;
+    private long lastDrift;
+
+    private final LongAdder appliedChanges = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder rebuildFailures = new LongAdder();
+
+    public UserStatisticsService(UserScanRepository userScanRepository,
+                                 UserRepository userRepository,
+                                 @Value("${app.stats.enabled:true}") boolean enabled,
+                                 @Value("${app.stats.rebuild-delay-ms:5000}") long rebuildDelayMs,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this.userScanRepository = userScanRepository;
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.rebuildDelayMs = rebuildDelayMs;
+        this.worker = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "user-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            scheduleRebuild(0);
+        }
+    }
+
+    /**
+     * Возвращает статистику или пустой Optional, если агрегаты еще не построены или статистика отключена.
+     *
+     * @param topDomains число самых частых доменов в ответе
+     * @param days число последних дней регистраций, включая текущий
+     * @return статистика
+     * @throws IllegalArgumentException если параметры вне допустимых границ
+     */
+    public Optional<UserStatisticsDto> getStatistics(int topDomains, int days) {
+        if (topDomains < 1 || topDomains > MAX_TOP_DOMAINS) {
+            throw new IllegalArgumentException("topDomains must be between 1 and " + MAX_TOP_DOMAINS);
+        }
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+        long firstDay = LocalDate.now().toEpochDay() - days + 1;
+        synchronized (lock) {
+            if (aggregates == null) {
+                return Optional.empty();
+            }
+            return Optional.of(UserStatisticsDto.builder()
+                    .total(aggregates.users.size())
+                    .distinctDomains(aggregates.domains.size())
+                    .topDomains(aggregates.topDomains(topDomains))
+                    .ageHistogram(aggregates.ageHistogram())
+                    .unknownAge(aggregates.unknownAge)
+                    .signupsPerDay(aggregates.signupsSince(firstDay))
+                    .reconciledAt(reconciledAt)
+                    .lastDrift(lastDrift)
+                    .build());
+        }
+    }
+
+    /**
+     * Оценивает число пользователей по домену email и диапазону возраста без обращения к БД.
+     * Без фильтров, только по домену или только по возрасту используются точные счетчики;
+     * сочетание крупного домена и возраста оценивается пересечением скетчей.
+     *
+     * @param domain домен email в нижнем регистре или null
+     * @param minAge минимальный возраст или null
+     * @param maxAge максимальный возраст или null
+     * @return оценка или пустой Optional, если агрегаты еще не построены
+     */
+    public Optional<UserCountDto> estimateCount(String domain, Integer minAge, Integer maxAge) {
+        synchronized (lock) {
+            if (aggregates == null) {
+                return Optional.empty();
+            }
+            return Optional.of(aggregates.count(domain, minAge, maxAge));
+        }
+    }
+
+    /**
+     * Ставит измененных пользователей в очередь на перечитывание; изменение неизвестного набора
+     * пользователей (импорт) приводит к отложенному полному перестроению.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.isAllUsers()) {
+            // Порции импорта приходят подряд: перестроение откладывается, чтобы покрыть несколько порций
+            scheduleRebuild(rebuildDelayMs);
+            return;
+        }
+        pendingIds.addAll(event.getUserIds());
+        if (drainScheduled.compareAndSet(false, true)) {
+            submit(this::drain);
+        }
+    }
+
+    /**
+     * Периодическая сверка с БД полным перестроением.
+     */
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-ms:3600000}",
+            initialDelayString = "${app.stats.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        if (enabled) {
+            scheduleRebuild(0);
+        }
+    }
+
+    public long getAppliedChanges() {
+        return appliedChanges.sum();
+    }
+
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    @Override
+    public void destroy() {
+        worker.shutdownNow();
+    }
+
+    private void scheduleRebuild(long delayMs) {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            worker.schedule(this::rebuild, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            rebuildScheduled.set(false);
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Statistics worker is shut down, change skipped");
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        Set<Long> ids = takePending();
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, UserDto> rows = load(ids);
+            synchronized (lock) {
+                // До первого перестроения применять некуда: оно выполняется этим же потоком позже
+                if (aggregates != null) {
+                    aggregates.apply(ids, rows);
+                }
+            }
+            appliedChanges.add(ids.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply {} user changes to statistics, retrying with the next change", ids.size(), e);
+            pendingIds.addAll(ids);
+        }
+    }
+
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        long started = System.nanoTime();
+        try {
+            Aggregates fresh = new Aggregates();
+            long rows = userScanRepository.scan(fresh::put);
+            // Изменения, закоммиченные во время чтения, могли не попасть в него
+            Set<Long> changed = takePending();
+            Map<Long, UserDto> changedRows = changed.isEmpty() ? Map.of() : load(changed);
+            long drift;
+            synchronized (lock) {
+                drift = 0;
+                if (aggregates != null) {
+                    aggregates.apply(changed, changedRows);
+                    drift = aggregates.diff(fresh);
+                }
+                fresh.apply(changed, changedRows);
+                aggregates = fresh;
+                reconciledAt = Instant.now();
+                lastDrift = drift;
+            }
+            rebuilds.increment();
+            if (drift > 0) {
+                log.warn("User statistics drifted from the database: {} counters corrected", drift);
+            }
+            log.info("User statistics rebuilt from {} rows in {} ms", rows, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            rebuildFailures.increment();
+            log.error("Failed to rebuild user statistics", e);
+        }
+    }
+
+    private Set<Long> takePending() {
+        Set<Long> ids = new HashSet<>();
+        for (Long id : pendingIds) {
+            if (pendingIds.remove(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private Map<Long, UserDto> load(Set<Long> ids) {
+        Map<Long, UserDto> rows = new HashMap<>();
+        List<Long> chunk = new ArrayList<>(Math.min(ids.size(), RELOAD_CHUNK_SIZE));
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == RELOAD_CHUNK_SIZE) {
+                userRepository.findDtosByIdIn(chunk).forEach(user -> rows.put(user.getId(), user));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            userRepository.findDtosByIdIn(chunk).forEach(user -> rows.put(user.getId(), user));
+        }
+        return rows;
+    }
+
+    private long totalUsers() {
+        synchronized (lock) {
+            return aggregates != null ? aggregates.users.size() : 0;
+        }
+    }
+
+    private long lastDrift() {
+        synchronized (lock) {
+            return lastDrift;
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("user.stats.users", this, UserStatisticsService::totalUsers).register(registry);
+        Gauge.builder("user.stats.drift", this, UserStatisticsService::lastDrift).register(registry);
+        registry.more().counter("user.stats.changes.applied", Tags.empty(), appliedChanges);
+        registry.more().counter("user.stats.rebuilds", Tags.empty(), rebuilds);
+        registry.more().counter("user.stats.rebuild.failures", Tags.empty(), rebuildFailures);
+    }
+
+    static String domainOf(String email) {
+        if (email == null) {
+            return "";
+        }
+        return email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    static int ageOf(Integer age) {
+        if (age == null) {
+            return NO_AGE;
+        }
+        return Math.min(Math.max(age, 0), MAX_AGE);
+    }
+
+    /**
+     * Агрегаты и вклад каждого пользователя в них. Не потокобезопасны.
+     */
+    static final class Aggregates {
+
+        private final Map<Long, Contribution> users = new HashMap<>();
+        private final Map<String, DomainCounter> domains = new HashMap<>();
+        private final long[] ageCounts = new long[MAX_AGE + 1];
+        private final HyperLogLog[] ageSketches = new HyperLogLog[MAX_AGE + 1];
+        private long unknownAge;
+        private final TreeMap<Long, Long> signupsByDay = new TreeMap<>();
+        // Число удалений ID, оставшихся в скетчах
+        private long sketchStaleness;
+
+        /**
+         * Приводит вклад пользователей с указанными ID к прочитанному состоянию; отсутствующие удаляются.
+         */
+        void apply(Set<Long> ids, Map<Long, UserDto> rows) {
+            for (Long id : ids) {
+                UserDto row = rows.get(id);
+                if (row != null) {
+                    put(row);
+                } else {
+                    remove(id);
+                }
+            }
+        }
+
+        void put(UserDto user) {
+            long id = user.getId();
+            String domain = domainOf(user.getEmail());
+            int age = ageOf(user.getAge());
+            long day = user.getCreatedAt() != null ? user.getCreatedAt().toLocalDate().toEpochDay() : NO_DAY;
+            Contribution previous = users.get(id);
+            if (previous != null) {
+                if (previous.domain().domain.equals(domain) && previous.age() == age && previous.epochDay() == day) {
+                    return;
+                }
+                remove(id);
+            }
+            DomainCounter counter = domains.computeIfAbsent(domain, DomainCounter::new);
+            Contribution contribution = new Contribution(counter, age, day);
+            users.put(id, contribution);
+            add(contribution, 1);
+            counter.addMember(id);
+            if (age != NO_AGE) {
+                if (ageSketches[age] == null) {
+                    ageSketches[age] = new HyperLogLog(SKETCH_PRECISION);
+                }
+                ageSketches[age].add(id);
+            }
+        }
+
+        void remove(long id) {
+            Contribution previous = users.remove(id);
+            if (previous != null) {
+                add(previous, -1);
+                if (previous.domain().removeMember(id)) {
+                    sketchStaleness++;
+                }
+                if (previous.age() != NO_AGE) {
+                    sketchStaleness++;
+                }
+            }
+        }
+
+        private void add(Contribution contribution, int delta) {
+            DomainCounter counter = contribution.domain();
+            counter.count += delta;
+            if (counter.count == 0) {
+                domains.remove(counter.domain);
+            }
+            if (contribution.age() == NO_AGE) {
+                unknownAge += delta;
+            } else {
+                ageCounts[contribution.age()] += delta;
+            }
+            if (contribution.epochDay() != NO_DAY) {
+                signupsByDay.merge(contribution.epochDay(), (long) delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+
+        List<UserStatisticsDto.DomainCount> topDomains(int limit) {
+            Comparator<DomainCounter> byCount = Comparator.<DomainCounter>comparingLong(counter -> counter.count)
+                    .thenComparing(counter -> counter.domain, Comparator.reverseOrder());
+            PriorityQueue<DomainCounter> top = new PriorityQueue<>(byCount);
+            for (DomainCounter counter : domains.values()) {
+                top.offer(counter);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<UserStatisticsDto.DomainCount> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                DomainCounter counter = top.poll();
+                result.add(0, new UserStatisticsDto.DomainCount(counter.domain, counter.count));
+            }
+            return result;
+        }
+
+        List<UserStatisticsDto.AgeBucket> ageHistogram() {
+            List<UserStatisticsDto.AgeBucket> histogram = new ArrayList<>(AGE_BUCKETS);
+            for (int i = 0; i < AGE_BUCKETS; i++) {
+                int from = i * AGE_BUCKET_WIDTH;
+                boolean last = i == AGE_BUCKETS - 1;
+                Integer to = last ? null : from + AGE_BUCKET_WIDTH - 1;
+                histogram.add(new UserStatisticsDto.AgeBucket(from, to, countAges(from, last ? MAX_AGE : to)));
+            }
+            return histogram;
+        }
+
+        UserCountDto count(String domain, Integer minAge, Integer maxAge) {
+            boolean byAge = minAge != null || maxAge != null;
+            int from = minAge != null ? Math.max(minAge, 0) : 0;
+            int to = maxAge != null ? Math.min(maxAge, MAX_AGE) : MAX_AGE;
+            long ageCount = countAges(from, to);
+            if (domain == null) {
+                return counted(byAge ? ageCount : users.size());
+            }
+            DomainCounter counter = domains.get(domain);
+            if (counter == null) {
+                return counted(0);
+            }
+            if (!byAge) {
+                return counted(counter.count);
+            }
+            if (counter.sketch == null) {
+                long matching = 0;
+                for (Long id : counter.members) {
+                    int age = users.get(id).age();
+                    if (age != NO_AGE && age >= from && age <= to) {
+                        matching++;
+                    }
+                }
+                return counted(matching);
+            }
+            // |D ∩ A| = |D| + |A| - |D ∪ A|: точные счетчики и оценка объединения скетчей
+            HyperLogLog union = counter.sketch.copy();
+            for (int age = from; age <= to; age++) {
+                if (ageSketches[age] != null) {
+                    union.merge(ageSketches[age]);
+                }
+            }
+            long unionEstimate = union.estimate();
+            long intersection = Math.max(0, Math.min(Math.min(counter.count, ageCount),
+                    counter.count + ageCount - unionEstimate));
+            long errorBound = Math.round(2 * union.relativeStandardError() * unionEstimate) + sketchStaleness;
+            return UserCountDto.builder()
+                    .count(intersection)
+                    .mode(UserCountDto.Mode.ESTIMATE)
+                    .source(UserCountDto.Source.SKETCH)
+                    .errorBound(errorBound)
+                    .build();
+        }
+
+        private long countAges(int from, int to) {
+            long count = 0;
+            for (int age = from; age <= to; age++) {
+                count += ageCounts[age];
+            }
+            return count;
+        }
+
+        private static UserCountDto counted(long count) {
+            return UserCountDto.builder()
+                    .count(count)
+                    .mode(UserCountDto.Mode.ESTIMATE)
+                    .source(UserCountDto.Source.COUNTER)
+                    .errorBound(0L)
+                    .build();
+        }
+
+        Map<LocalDate, Long> signupsSince(long firstDay) {
+            Map<LocalDate, Long> result = new LinkedHashMap<>();
+            signupsByDay.tailMap(firstDay, true)
+                    .forEach((day, count) -> result.put(LocalDate.ofEpochDay(day), count));
+            return result;
+        }
+
+        /**
+         * Число счетчиков (домены, возрасты, дни, общее число), отличающихся от other.
+         */
+        long diff(Aggregates other) {
+            long differences = users.size() != other.users.size() ? 1 : 0;
+            Set<String> allDomains = new HashSet<>(domains.keySet());
+            allDomains.addAll(other.domains.keySet());
+            for (String domain : allDomains) {
+                DomainCounter mine = domains.get(domain);
+                DomainCounter theirs = other.domains.get(domain);
+                if ((mine != null ? mine.count : 0) != (theirs != null ? theirs.count : 0)) {
+                    differences++;
+                }
+            }
+            for (int age = 0; age <= MAX_AGE; age++) {
+                if (ageCounts[age] != other.ageCounts[age]) {
+                    differences++;
+                }
+            }
+            if (unknownAge != other.unknownAge) {
+                differences++;
+            }
+            Set<Long> allDays = new HashSet<>(signupsByDay.keySet());
+            allDays.addAll(other.signupsByDay.keySet());
+            for (Long day : allDays) {
+                if (!Objects.equals(signupsByDay.get(day), other.signupsByDay.get(day))) {
+                    differences++;
+                }
+            }
+            return differences;
+        }
+    }
+
+    /**
+     * Вклад одного пользователя в агрегаты.
+     */
+    private record Contribution(DomainCounter domain, int age, long epochDay) {
+    }
+
+    /**
+     * Счетчик домена; вклад пользователя ссылается на него напрямую, без поиска по строке.
+     * Пока домен мал, хранит точный набор ID пользователей, затем переходит на скетч.
+     */
+    private static final class DomainCounter {
+        private final String domain;
+        private long count;
+        private Set<Long> members = new HashSet<>();
+        private HyperLogLog sketch;
+
+        private DomainCounter(String domain) {
+            this.domain = domain;
+        }
+
+        private void addMember(long id) {
+            if (sketch != null) {
+                sketch.add(id);
+                return;
+            }
+            members.add(id);
+            if (members.size() > SPARSE_DOMAIN_LIMIT) {
+                sketch = new HyperLogLog(SKETCH_PRECISION);
+                members.forEach(sketch::add);
+                members = null;
+            }
+        }
+
+        /**
+         * @return true, если ID остается в скетче
+         */
+        private boolean removeMember(long id) {
+            if (sketch != null) {
+                return true;
+            }
+            members.remove(id);
+            return false;
+        }
+    }
+}
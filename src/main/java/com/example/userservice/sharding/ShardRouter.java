@@ -0,0 +1,35 @@
+package com.example.userservice.sharding;
+
+/**
+ * Определяет шард пользователя по хэшу его ID.
+ * Хэш перемешивает биты ID, чтобы последовательные ID равномерно распределялись по шардам.
+ */
+public class ShardRouter {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Возвращает индекс шарда для ID пользователя.
+     *
+     * @param id ID пользователя
+     * @return индекс шарда от 0 до shardCount - 1
+     */
+    public int shardFor(long id) {
+        long hash = id * GOLDEN_RATIO;
+        hash ^= hash >>> 32;
+        return (int) Math.floorMod(hash, (long) shardCount);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.userservice.sharding;
+
+/**
+ * Генератор глобально уникальных ID для шардированной таблицы users.
+ * ID состоит из миллисекунд от эпохи сервиса (41 бит), номера узла (10 бит)
+ * и счетчика внутри миллисекунды (12 бит), поэтому шарды не нуждаются
+ * в общей последовательности, а ID монотонно растут во времени,
+ * что позволяет использовать их для keyset пагинации между шардами.
+ */
+public class ShardedIdGenerator {
+
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private long lastTimestamp = -1L;
+    private long sequence;
+
+    public ShardedIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Генерирует следующий ID.
+     *
+     * @return уникальный положительный ID
+     */
+    public synchronized long nextId() {
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                // Счетчик исчерпан - переходим к следующей миллисекунде, не дожидаясь часов
+                timestamp++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return ((timestamp - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS))
+                | (nodeId << SEQUENCE_BITS)
+                | sequence;
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.userservice.sharding;
+
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.repository.UserDtoRowMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Репозиторий пользователей, шардированный по хэшу ID между несколькими PostgreSQL.
+ * Уникальность email обеспечивается глобальным справочником email -> шард,
+ * который хранится в отдельной базе (по умолчанию на шарде 0).
+ * Списки и поиск выполняются scatter-gather запросами ко всем шардам
+ * с слиянием отсортированных по ID результатов (keyset пагинация).
+ */
+@Slf4j
+public class ShardedUserRepository implements AutoCloseable {
+
+    private static final String SELECT_USERS = "SELECT " + UserDtoRowMapper.COLUMNS + " FROM users";
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> shards;
+    private final JdbcTemplate directory;
+    private final ShardRouter router;
+    private final ShardedIdGenerator idGenerator;
+    private final ExecutorService scatterExecutor;
+
+    public ShardedUserRepository(List<DataSource> shardDataSources, DataSource directoryDataSource,
+                                 ShardedIdGenerator idGenerator) {
+        this.dataSources = new ArrayList<>(shardDataSources);
+        if (!this.dataSources.contains(directoryDataSource)) {
+            this.dataSources.add(directoryDataSource);
+        }
+        this.shards = shardDataSources.stream().map(JdbcTemplate::new).toList();
+        this.directory = new JdbcTemplate(directoryDataSource);
+        this.router = new ShardRouter(shardDataSources.size());
+        this.idGenerator = idGenerator;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.scatterExecutor = Executors.newFixedThreadPool(shardDataSources.size() * 2, runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Создает пользователя на шарде, определяемом хэшем нового ID.
+     *
+     * @return созданный пользователь
+     * @throws IllegalArgumentException если email уже занят на любом шарде
+     */
+    public UserDto create(String name, String email, Integer age) {
+        long id = idGenerator.nextId();
+        int shard = router.shardFor(id);
+
+        if (!reserveEmail(email, id, shard)) {
+            throw new IllegalArgumentException("User with email " + email + " already exists");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            shards.get(shard).update(
+                    "INSERT INTO users (id, name, email, age, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    id, name, email, age, Timestamp.valueOf(now), Timestamp.valueOf(now));
+        } catch (DataAccessException e) {
+            releaseEmail(email, id);
+            throw e;
+        }
+        return new UserDto(id, name, email, age, now, now);
+    }
+
+    /**
+     * Находит пользователя по ID на его шарде.
+     */
+    public Optional<UserDto> findById(long id) {
+        return shards.get(router.shardFor(id))
+                .query(SELECT_USERS + " WHERE id = ?", UserDtoRowMapper.INSTANCE, id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Находит пользователя по email через глобальный справочник.
+     */
+    public Optional<UserDto> findByEmail(String email) {
+        return lookupId(email)
+                .flatMap(this::findById)
+                .filter(user -> email.equals(user.getEmail()));
+    }
+
+    /**
+     * Проверяет существование пользователя по email только по справочнику.
+     */
+    public boolean existsByEmail(String email) {
+        return lookupId(email).isPresent();
+    }
+
+    /**
+     * Частично обновляет пользователя. При смене email запись в справочнике переносится.
+     *
+     * @return обновленный пользователь или пустой Optional если пользователь не найден
+     * @throws IllegalArgumentException если новый email уже занят
+     */
+    public Optional<UserDto> update(long id, String name, String email, Integer age) {
+        Optional<UserDto> existing = findById(id);
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        UserDto user = existing.get();
+        int shard = router.shardFor(id);
+        String oldEmail = user.getEmail();
+        boolean emailChanged = email != null && !email.equals(oldEmail);
+
+        if (emailChanged && !reserveEmail(email, id, shard)) {
+            throw new IllegalArgumentException("User with email " + email + " already exists");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String newName = name != null ? name : user.getName();
+        String newEmail = emailChanged ? email : oldEmail;
+        Integer newAge = age != null ? age : user.getAge();
+        try {
+            shards.get(shard).update("UPDATE users SET name = ?, email = ?, age = ?, updated_at = ? WHERE id = ?",
+                    newName, newEmail, newAge, Timestamp.valueOf(now), id);
+        } catch (DataAccessException e) {
+            if (emailChanged) {
+                releaseEmail(email, id);
+            }
+            throw e;
+        }
+        if (emailChanged) {
+            releaseEmail(oldEmail, id);
+        }
+        return Optional.of(new UserDto(id, newName, newEmail, newAge, user.getCreatedAt(), now));
+    }
+
+    /**
+     * Удаляет пользователя с его шарда и из справочника.
+     *
+     * @return удаленный пользователь или пустой Optional если пользователь не найден
+     */
+    public Optional<UserDto> delete(long id) {
+        Optional<UserDto> deleted = shards.get(router.shardFor(id))
+                .query("DELETE FROM users WHERE id = ? RETURNING " + UserDtoRowMapper.COLUMNS,
+                        UserDtoRowMapper.INSTANCE, id)
+                .stream()
+                .findFirst();
+        deleted.ifPresent(user -> releaseEmail(user.getEmail(), id));
+        return deleted;
+    }
+
+    /**
+     * Возвращает страницу пользователей, отсортированных по ID, со всех шардов.
+     *
+     * @param afterId ID последнего пользователя предыдущей страницы (null для первой страницы)
+     * @param limit размер страницы
+     */
+    public List<UserDto> findPage(Long afterId, int limit) {
+        return search(null, null, null, afterId, limit);
+    }
+
+    /**
+     * Ищет пользователей по части имени и диапазону возраста на всех шардах.
+     * Каждый шард возвращает не более limit строк после afterId, результаты сливаются по ID.
+     */
+    public List<UserDto> search(String nameFragment, Integer minAge, Integer maxAge, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_USERS).append(" WHERE id > ?");
+        List<Object> params = new ArrayList<>();
+        params.add(afterId != null ? afterId : Long.MIN_VALUE);
+        if (nameFragment != null && !nameFragment.isBlank()) {
+            sql.append(" AND LOWER(name) LIKE ?");
+            params.add("%" + nameFragment.toLowerCase(Locale.ROOT) + "%");
+        }
+        if (minAge != null) {
+            sql.append(" AND age >= ?");
+            params.add(minAge);
+        }
+        if (maxAge != null) {
+            sql.append(" AND age <= ?");
+            params.add(maxAge);
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        params.add(limit);
+
+        String query = sql.toString();
+        Object[] args = params.toArray();
+        List<CompletableFuture<List<UserDto>>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(
+                        () -> shard.query(query, UserDtoRowMapper.INSTANCE, args), scatterExecutor))
+                .toList();
+
+        List<List<UserDto>> perShard = futures.stream().map(CompletableFuture::join).toList();
+        return mergeSortedById(perShard, limit);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Останавливает пул scatter-gather запросов и закрывает пулы соединений шардов.
+     */
+    @Override
+    public void close() {
+        scatterExecutor.shutdownNow();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close shard data source", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Сливает отсортированные по ID списки шардов, оставляя первые limit элементов.
+     */
+    static List<UserDto> mergeSortedById(List<List<UserDto>> sortedLists, int limit) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Comparator.comparingLong(Cursor::currentId));
+        for (List<UserDto> list : sortedLists) {
+            if (!list.isEmpty()) {
+                heap.add(new Cursor(list));
+            }
+        }
+        List<UserDto> merged = new ArrayList<>(limit);
+        while (!heap.isEmpty() && merged.size() < limit) {
+            Cursor cursor = heap.poll();
+            merged.add(cursor.list.get(cursor.position++));
+            if (cursor.position < cursor.list.size()) {
+                heap.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private boolean reserveEmail(String email, long id, int shard) {
+        return directory.update(
+                "INSERT INTO user_email_directory (email, user_id, shard) VALUES (?, ?, ?) ON CONFLICT (email) DO NOTHING",
+                email, id, shard) == 1;
+    }
+
+    private void releaseEmail(String email, long id) {
+        directory.update("DELETE FROM user_email_directory WHERE email = ? AND user_id = ?", email, id);
+    }
+
+    private Optional<Long> lookupId(String email) {
+        return directory.queryForList("SELECT user_id FROM user_email_directory WHERE email = ?", Long.class, email)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Позиция в отсортированном списке одного шарда.
+     */
+    private static final class Cursor {
+
+        private final List<UserDto> list;
+        private int position;
+
+        private Cursor(List<UserDto> list) {
+            this.list = list;
+        }
+
+        private long currentId() {
+            return list.get(position).getId();
+        }
+    }
+}
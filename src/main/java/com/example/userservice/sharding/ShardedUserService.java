@@ -0,0 +1,90 @@
+package com.example.userservice.sharding;
+
+import com.example.userservice.dto.CreateUserDto;
+import com.example.userservice.dto.UpdateUserDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.service.EventPublisherService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Бизнес-операции над пользователями в шардированном режиме.
+ * Повторяет контракт UserService поверх ShardedUserRepository:
+ * валидацию аргументов и публикацию событий в Kafka.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ShardedUserService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ShardedUserRepository shardedUserRepository;
+    private final EventPublisherService eventPublisherService;
+
+    public UserDto createUser(CreateUserDto createUserDto) {
+        log.info("Creating sharded user with email: {}", createUserDto.getEmail());
+        UserDto created = shardedUserRepository.create(
+                createUserDto.getName(), createUserDto.getEmail(), createUserDto.getAge());
+        eventPublisherService.publishUserEvent("CREATE", created.getEmail(), created.getName());
+        return created;
+    }
+
+    public Optional<UserDto> getUserById(Long id) {
+        validateId(id);
+        return shardedUserRepository.findById(id);
+    }
+
+    public Optional<UserDto> getUserByEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be empty");
+        }
+        return shardedUserRepository.findByEmail(email);
+    }
+
+    /**
+     * Возвращает страницу пользователей со всех шардов в порядке ID.
+     *
+     * @param afterId ID последнего пользователя предыдущей страницы (null для первой)
+     * @param size размер страницы
+     */
+    public List<UserDto> getUsersPage(Long afterId, int size) {
+        return shardedUserRepository.findPage(afterId, validatePageSize(size));
+    }
+
+    public List<UserDto> searchUsers(String name, Integer minAge, Integer maxAge, Long afterId, int size) {
+        return shardedUserRepository.search(name, minAge, maxAge, afterId, validatePageSize(size));
+    }
+
+    public UserDto updateUser(Long id, UpdateUserDto updateUserDto) {
+        validateId(id);
+        String name = updateUserDto.getName() != null && !updateUserDto.getName().trim().isEmpty()
+                ? updateUserDto.getName().trim() : null;
+        String email = updateUserDto.getEmail() != null && !updateUserDto.getEmail().trim().isEmpty()
+                ? updateUserDto.getEmail().trim() : null;
+        return shardedUserRepository.update(id, name, email, updateUserDto.getAge())
+                .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + id));
+    }
+
+    public boolean deleteUser(Long id) {
+        validateId(id);
+        Optional<UserDto> deleted = shardedUserRepository.delete(id);
+        deleted.ifPresent(user -> eventPublisherService.publishUserEvent("DELETE", user.getEmail(), user.getName()));
+        return deleted.isPresent();
+    }
+
+    private static void validateId(Long id) {
+        if (id == null || id <= 0) {
+            throw new IllegalArgumentException("Invalid user ID: " + id);
+        }
+    }
+
+    private static int validatePageSize(int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+}
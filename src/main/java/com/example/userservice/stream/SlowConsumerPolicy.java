@@ -0,0 +1,13 @@
+package com.example.userservice.stream;
+
+/**
+ * Поведение при переполнении буфера подписчика потока событий.
+ */
+public enum SlowConsumerPolicy {
+    /** Отбрасываются самые старые события; клиент видит пропуск в offset. */
+    DROP,
+    /** Событие пользователя заменяет еще не отправленное событие того же пользователя; при переполнении - как DROP. */
+    COALESCE,
+    /** Подписчик отключается; клиент может переподключиться с Last-Event-ID. */
+    DISCONNECT
+}
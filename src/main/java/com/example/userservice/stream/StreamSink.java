@@ -0,0 +1,27 @@
+package com.example.userservice.stream;
+
+import com.example.userservice.dto.UserStreamEventDto;
+
+import java.io.IOException;
+
+/**
+ * Транспорт доставки событий одному подписчику (например, SSE соединение).
+ * Вызовы выполняются последовательно потоком рассылки.
+ */
+public interface StreamSink {
+
+    /**
+     * Отправляет событие; может блокироваться, пока клиент не примет данные.
+     */
+    void send(UserStreamEventDto event) throws IOException;
+
+    /**
+     * Отправляет служебный пакет для проверки соединения.
+     */
+    void heartbeat() throws IOException;
+
+    /**
+     * Закрывает соединение по инициативе сервера.
+     */
+    void close();
+}
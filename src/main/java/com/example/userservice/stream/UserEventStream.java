@@ -0,0 +1,418 @@
+package com.example.userservice.stream;
+
+import com.example.userservice.dto.UserBatchEventDto;
+import com.example.userservice.dto.UserEventDto;
+import com.example.userservice.dto.UserStreamEventDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Поток событий изменений пользователей для push подписчиков (SSE).
+ *
+ * <p>Каждое опубликованное событие получает offset и хранится в кольцевом буфере ограниченного размера
+ * для возобновления подписки с Last-Event-ID. У каждого подписчика свой ограниченный буфер;
+ * публикация только кладет событие в буферы и никогда не ждет подписчиков, а при переполнении
+ * буфера применяется {@link SlowConsumerPolicy}.
+ *
+ * <p>Доставку выполняет общий пул потоков: у подписчика не более одной задачи рассылки, и за один
+ * проход она отправляет не больше {@link #MAX_EVENTS_PER_TURN} событий, поэтому число потоков не зависит
+ * от числа подписчиков. Отправка в соединение блокирующая; чтобы медленный клиент не занимал поток
+ * пула и не задерживал остальных, сторожевой поток отключает подписчика, отправка которому длится
+ * дольше send timeout, и прерывает заблокированную отправку.
+ */
+@Slf4j
+@Component
+public class UserEventStream implements InitializingBean, DisposableBean {
+
+    static final int MAX_EVENTS_PER_TURN = 64;
+
+    private final int replayCapacity;
+    private final int subscriberBuffer;
+    private final int maxSubscribers;
+    private final SlowConsumerPolicy defaultPolicy;
+    private final long sendTimeoutNanos;
+    private final long heartbeatMs;
+    private final ThreadPoolExecutor dispatcher;
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final UserStreamEventDto[] replay;
+    private long lastOffset;
+    private volatile long publishedOffset;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    // Число принятых и еще не закрытых подписок: проверка лимита и регистрация атомарны
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public UserEventStream(@Value("${app.stream.replay-capacity:10000}") int replayCapacity,
+                           @Value("${app.stream.subscriber-buffer:256}") int subscriberBuffer,
+                           @Value("${app.stream.max-subscribers:10000}") int maxSubscribers,
+                           @Value("${app.stream.slow-consumer-policy:COALESCE}") SlowConsumerPolicy defaultPolicy,
+                           @Value("${app.stream.dispatch-threads:32}") int dispatchThreads,
+                           @Value("${app.stream.send-timeout-ms:10000}") long sendTimeoutMs,
+                           @Value("${app.stream.heartbeat-ms:15000}") long heartbeatMs,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        if (replayCapacity <= 0 || subscriberBuffer <= 0 || maxSubscribers <= 0 || dispatchThreads <= 0
+                || sendTimeoutMs <= 0 || heartbeatMs <= 0) {
+            throw new IllegalArgumentException("Stream capacities and intervals must be positive");
+        }
+        this.replayCapacity = replayCapacity;
+        this.subscriberBuffer = subscriberBuffer;
+        this.maxSubscribers = maxSubscribers;
+        this.defaultPolicy = defaultPolicy;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.heartbeatMs = heartbeatMs;
+        this.replay = new UserStreamEventDto[replayCapacity];
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "user-stream-dispatch-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Простаивающие потоки завершаются, пул растет до dispatchThreads только под нагрузкой
+        this.dispatcher.allowCoreThreadTimeOut(true);
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "user-stream-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long checkIntervalMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) / 4);
+        watchdog.scheduleWithFixedDelay(this::disconnectStalled, checkIntervalMs, checkIntervalMs,
+                TimeUnit.MILLISECONDS);
+        watchdog.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Публикует событие изменения одного пользователя.
+     */
+    public void publishUserEvent(UserEventDto event) {
+        publish(UserStreamEventDto.builder().kind(UserStreamEventDto.Kind.USER).user(event));
+    }
+
+    /**
+     * Публикует сводку массовой операции.
+     */
+    public void publishBatchEvent(UserBatchEventDto event) {
+        publish(UserStreamEventDto.builder().kind(UserStreamEventDto.Kind.BATCH).batch(event));
+    }
+
+    /**
+     * Подписывает получателя на поток.
+     *
+     * @param fromOffset первый offset для повторной доставки или null только для новых событий
+     * @param policy поведение при переполнении буфера или null для политики по умолчанию
+     * @param sink транспорт доставки
+     * @return подписка или null, если достигнуто максимальное число подписчиков
+     */
+    public Subscription subscribe(Long fromOffset, SlowConsumerPolicy policy, StreamSink sink) {
+        if (!admit()) {
+            return null;
+        }
+        Subscription subscription = new Subscription(sink, policy != null ? policy : defaultPolicy);
+        publishLock.lock();
+        try {
+            // Повтор и регистрация под одной блокировкой: между ними не теряется и не дублируется ни одно событие
+            if (fromOffset != null && fromOffset <= lastOffset) {
+                long oldest = Math.max(1, lastOffset - replayCapacity + 1);
+                if (fromOffset < oldest || lastOffset - fromOffset + 1 > subscriberBuffer) {
+                    subscription.offer(UserStreamEventDto.builder()
+                            .offset(lastOffset)
+                            .kind(UserStreamEventDto.Kind.RESYNC)
+                            .build());
+                } else {
+                    for (long offset = Math.max(fromOffset, 1); offset <= lastOffset; offset++) {
+                        subscription.offer(replay[(int) (offset % replayCapacity)]);
+                    }
+                }
+            }
+            subscriptions.add(subscription);
+        } finally {
+            publishLock.unlock();
+        }
+        log.debug("Stream subscriber added, policy={}, fromOffset={}, total={}",
+                subscription.policy, fromOffset, subscriptions.size());
+        return subscription;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public long getPublishedOffset() {
+        return publishedOffset;
+    }
+
+    /**
+     * Максимальное отставание подписчика: число опубликованных, но еще не доставленных ему событий.
+     */
+    public long getMaxLag() {
+        long published = publishedOffset;
+        long max = 0;
+        for (Subscription subscription : subscriptions) {
+            max = Math.max(max, published - subscription.deliveredOffset);
+        }
+        return max;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getDisconnected() {
+        return disconnected.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    /**
+     * Отправляет служебный пакет простаивающим подписчикам, чтобы обнаружить закрытые соединения.
+     */
+    public void heartbeat() {
+        subscriptions.forEach(Subscription::requestHeartbeat);
+    }
+
+    /**
+     * Отключает подписчиков, отправка которым длится дольше send timeout.
+     */
+    void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.abortIfStalled(now)) {
+                log.debug("Stream subscriber did not accept data within the send timeout, disconnected");
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+        subscriptions.forEach(Subscription::close);
+        dispatcher.shutdownNow();
+    }
+
+    private boolean admit() {
+        while (true) {
+            int current = admitted.get();
+            if (current >= maxSubscribers) {
+                return false;
+            }
+            if (admitted.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void publish(UserStreamEventDto.UserStreamEventDtoBuilder builder) {
+        publishLock.lock();
+        try {
+            UserStreamEventDto event = builder.offset(++lastOffset).build();
+            replay[(int) (event.getOffset() % replayCapacity)] = event;
+            publishedOffset = lastOffset;
+            for (Subscription subscription : subscriptions) {
+                if (!subscription.offer(event)) {
+                    disconnected.increment();
+                    subscription.close();
+                }
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("user.stream.subscribers", subscriptions, Set::size).register(registry);
+        Gauge.builder("user.stream.lag.max", this, UserEventStream::getMaxLag).register(registry);
+        registry.more().counter("user.stream.dropped", Tags.empty(), dropped);
+        registry.more().counter("user.stream.coalesced", Tags.empty(), coalesced);
+        registry.more().counter("user.stream.disconnected", Tags.empty(), disconnected);
+        registry.more().counter("user.stream.send.timeouts", Tags.empty(), timedOut);
+    }
+
+    /**
+     * Подписка одного получателя с собственным ограниченным буфером.
+     */
+    public final class Subscription {
+
+        private final StreamSink sink;
+        private final SlowConsumerPolicy policy;
+        // Ключ - offset, а при COALESCE для событий пользователя - его email
+        private final LinkedHashMap<Object, UserStreamEventDto> buffer = new LinkedHashMap<>();
+        private boolean scheduled;
+        private boolean heartbeatDue;
+        private boolean closed;
+        // Поток, выполняющий текущую отправку, и время ее начала; null вне отправки
+        private Thread sendingThread;
+        private long sendStartedNanos;
+        private volatile long deliveredOffset;
+
+        private Subscription(StreamSink sink, SlowConsumerPolicy policy) {
+            this.sink = sink;
+            this.policy = policy;
+            this.deliveredOffset = publishedOffset;
+        }
+
+        /**
+         * Закрывает подписку; вызывается и при закрытии соединения клиентом.
+         */
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+            }
+            subscriptions.remove(this);
+            admitted.decrementAndGet();
+            sink.close();
+        }
+
+        public SlowConsumerPolicy getPolicy() {
+            return policy;
+        }
+
+        /**
+         * Ставит событие в буфер.
+         *
+         * @return false, если подписчика нужно отключить
+         */
+        private synchronized boolean offer(UserStreamEventDto event) {
+            if (closed) {
+                return true;
+            }
+            String userKey = policy == SlowConsumerPolicy.COALESCE ? event.coalesceKey() : null;
+            Object key = userKey != null ? userKey : event.getOffset();
+            if (userKey != null && buffer.remove(key) != null) {
+                coalesced.increment();
+            } else if (buffer.size() >= subscriberBuffer) {
+                if (policy == SlowConsumerPolicy.DISCONNECT) {
+                    return false;
+                }
+                Iterator<UserStreamEventDto> oldest = buffer.values().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped.increment();
+            }
+            buffer.put(key, event);
+            schedule();
+            return true;
+        }
+
+        private synchronized void requestHeartbeat() {
+            if (!closed && buffer.isEmpty()) {
+                heartbeatDue = true;
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (!scheduled) {
+                scheduled = true;
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        /**
+         * Закрывает подписку и прерывает отправку, если она началась раньше now - send timeout.
+         *
+         * @return true, если подписка отключена
+         */
+        private boolean abortIfStalled(long now) {
+            synchronized (this) {
+                if (closed || sendingThread == null || now - sendStartedNanos < sendTimeoutNanos) {
+                    return false;
+                }
+                timedOut.increment();
+                disconnected.increment();
+                // Под монитором: поток еще выполняет отправку этому подписчику, а не следующую задачу пула
+                sendingThread.interrupt();
+            }
+            close();
+            return true;
+        }
+
+        private void drain() {
+            for (int sent = 0; ; sent++) {
+                UserStreamEventDto event = null;
+                boolean heartbeat;
+                synchronized (this) {
+                    if (!closed && sent >= MAX_EVENTS_PER_TURN && !buffer.isEmpty()) {
+                        // Уступаем поток остальным подписчикам: продолжение встает в конец очереди пула
+                        dispatcher.execute(this::drain);
+                        return;
+                    }
+                    Iterator<UserStreamEventDto> iterator = buffer.values().iterator();
+                    if (iterator.hasNext()) {
+                        event = iterator.next();
+                        iterator.remove();
+                    }
+                    heartbeat = event == null && heartbeatDue;
+                    heartbeatDue = false;
+                    if (closed || (event == null && !heartbeat)) {
+                        scheduled = false;
+                        return;
+                    }
+                    sendingThread = Thread.currentThread();
+                    sendStartedNanos = System.nanoTime();
+                }
+                try {
+                    if (event != null) {
+                        sink.send(event);
+                        deliveredOffset = event.getOffset();
+                    } else {
+                        sink.heartbeat();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Stream subscriber failed, closing: {}", e.getMessage());
+                    synchronized (this) {
+                        scheduled = false;
+                    }
+                    close();
+                    return;
+                } finally {
+                    synchronized (this) {
+                        sendingThread = null;
+                    }
+                }
+                // Сбрасываем прерывание от сторожа, пришедшее после завершения отправки
+                Thread.interrupted();
+            }
+        }
+    }
+}
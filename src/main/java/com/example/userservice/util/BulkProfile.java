@@ -0,0 +1,54 @@
+package com.example.userservice.util;
+
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Профиль производительности "bulk" для массовых операций.
+ * Включает JDBC batching, упорядочивание INSERT/UPDATE и размер выборки
+ * одинаково для Spring JPA (профиль Spring "bulk") и для HibernateUtil
+ * (тот же профиль в spring.profiles.active / SPRING_PROFILES_ACTIVE).
+ * Для PostgreSQL пул дополнительно включает reWriteBatchedInserts.
+ */
+public final class BulkProfile {
+
+    public static final String NAME = "bulk";
+
+    public static final int BATCH_SIZE = 50;
+
+    public static final int FETCH_SIZE = 500;
+
+    private BulkProfile() {
+        // Utility class
+    }
+
+    /**
+     * Возвращает настройки Hibernate профиля.
+     *
+     * @return изменяемая копия настроек
+     */
+    public static Map<String, Object> hibernateSettings() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(BATCH_SIZE));
+        settings.put(AvailableSettings.ORDER_INSERTS, "true");
+        settings.put(AvailableSettings.ORDER_UPDATES, "true");
+        settings.put(AvailableSettings.BATCH_VERSIONED_DATA, "true");
+        settings.put(AvailableSettings.STATEMENT_FETCH_SIZE, String.valueOf(FETCH_SIZE));
+        return settings;
+    }
+
+    /**
+     * Проверяет, активен ли профиль для приложений без Spring (HibernateUtil).
+     *
+     * @return true если профиль указан в spring.profiles.active или SPRING_PROFILES_ACTIVE
+     */
+    public static boolean isActiveOutsideSpring() {
+        String profiles = System.getProperty("spring.profiles.active", System.getenv("SPRING_PROFILES_ACTIVE"));
+        return profiles != null && Arrays.stream(profiles.split(","))
+                .map(String::trim)
+                .anyMatch(NAME::equals);
+    }
+}
@@ -1,39 +1,37 @@
 package com.example.userservice.util;
 
+import com.example.userservice.datasource.HikariPoolFactory;
+import com.example.userservice.datasource.PoolSettings;
+import com.zaxxer.hikari.HikariDataSource;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.service.ServiceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Properties;
+
 /**
  * Утилитный класс для управления Hibernate SessionFactory.
  * Реализует паттерн Singleton для обеспечения единственного экземпляра SessionFactory.
+ * Соединения предоставляет пул HikariCP, настраиваемый свойствами hibernate.hikari.*
+ * в hibernate.cfg.xml. Параметры подключения можно переопределить системными свойствами
+ * hibernate.connection.url, hibernate.connection.username и hibernate.connection.password.
+ * При активном профиле "bulk" применяются настройки {@link BulkProfile}.
  */
 public class HibernateUtil {
     
     private static final Logger logger = LoggerFactory.getLogger(HibernateUtil.class);
+    private static final String HIKARI_PREFIX = "hibernate.hikari.";
     private static SessionFactory sessionFactory;
+    private static HikariDataSource dataSource;
     
     static {
         try {
-            // Создаем экземпляр Configuration
-            Configuration configuration = new Configuration();
-            
-            // Загружаем hibernate.cfg.xml из classpath
-            configuration.configure("hibernate.cfg.xml");
-            
-            // Строим ServiceRegistry
-            ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
-                    .applySettings(configuration.getProperties())
-                    .build();
-            
-            // Строим SessionFactory
-            sessionFactory = configuration.buildSessionFactory(serviceRegistry);
-            
+            sessionFactory = buildSessionFactory();
             logger.info("Hibernate SessionFactory created successfully");
-            
         } catch (Exception e) {
             logger.error("Error creating Hibernate SessionFactory", e);
             throw new ExceptionInInitializerError(e);
@@ -49,6 +47,15 @@ public class HibernateUtil {
         return sessionFactory;
     }
     
+    /**
+     * Получает пул соединений, используемый SessionFactory.
+     * 
+     * @return пул соединений HikariCP
+     */
+    public static HikariDataSource getDataSource() {
+        return dataSource;
+    }
+    
     /**
      * Закрывает SessionFactory и освобождает ресурсы.
      */
@@ -57,6 +64,7 @@ public class HibernateUtil {
             sessionFactory.close();
             logger.info("Hibernate SessionFactory closed");
         }
+        closeDataSource();
     }
     
     /**
@@ -68,28 +76,101 @@ public class HibernateUtil {
             sessionFactory.close();
             logger.info("Hibernate SessionFactory closed for reset");
         }
+        closeDataSource();
         sessionFactory = null;
         
         try {
-            // Создаем экземпляр Configuration
-            Configuration configuration = new Configuration();
-            
-            // Загружаем hibernate.cfg.xml из classpath
-            configuration.configure("hibernate.cfg.xml");
-            
-            // Строим ServiceRegistry
-            ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
-                    .applySettings(configuration.getProperties())
-                    .build();
-            
-            // Строим SessionFactory
-            sessionFactory = configuration.buildSessionFactory(serviceRegistry);
-            
+            sessionFactory = buildSessionFactory();
             logger.info("Hibernate SessionFactory reset successfully");
-            
         } catch (Exception e) {
             logger.error("Error resetting Hibernate SessionFactory", e);
             throw new ExceptionInInitializerError(e);
         }
     }
+    
+    /**
+     * Строит SessionFactory поверх пула HikariCP.
+     * 
+     * @return новый экземпляр SessionFactory
+     */
+    private static SessionFactory buildSessionFactory() {
+        // Загружаем hibernate.cfg.xml из classpath
+        Configuration configuration = new Configuration();
+        configuration.configure("hibernate.cfg.xml");
+        
+        Properties properties = configuration.getProperties();
+        applySystemOverride(properties, AvailableSettings.URL);
+        applySystemOverride(properties, AvailableSettings.USER);
+        applySystemOverride(properties, AvailableSettings.PASS);
+        
+        PoolSettings poolSettings = poolSettings(properties);
+        if (BulkProfile.isActiveOutsideSpring()) {
+            properties.putAll(BulkProfile.hibernateSettings());
+            poolSettings.setRewriteBatchedInserts(true);
+            logger.info("Bulk performance profile is active");
+        }
+        
+        // Создаем пул соединений вместо встроенного пула Hibernate
+        dataSource = HikariPoolFactory.create(
+                properties.getProperty(AvailableSettings.URL),
+                properties.getProperty(AvailableSettings.USER),
+                properties.getProperty(AvailableSettings.PASS),
+                properties.getProperty(AvailableSettings.DRIVER),
+                poolSettings,
+                null);
+        
+        // Строим ServiceRegistry
+        ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+                .applySettings(properties)
+                .applySetting(AvailableSettings.DATASOURCE, dataSource)
+                .build();
+        
+        // Строим SessionFactory
+        return configuration.buildSessionFactory(serviceRegistry);
+    }
+    
+    /**
+     * Читает настройки пула из свойств hibernate.hikari.*.
+     */
+    private static PoolSettings poolSettings(Properties properties) {
+        PoolSettings defaults = PoolSettings.builder().poolName("user-service-hibernate").build();
+        return defaults.toBuilder()
+                .maximumPoolSize(intProperty(properties, "maximumPoolSize", defaults.getMaximumPoolSize()))
+                .minimumIdle(intProperty(properties, "minimumIdle", defaults.getMinimumIdle()))
+                .connectionTimeoutMs(longProperty(properties, "connectionTimeout", defaults.getConnectionTimeoutMs()))
+                .idleTimeoutMs(longProperty(properties, "idleTimeout", defaults.getIdleTimeoutMs()))
+                .maxLifetimeMs(longProperty(properties, "maxLifetime", defaults.getMaxLifetimeMs()))
+                .leakDetectionThresholdMs(longProperty(properties, "leakDetectionThreshold",
+                        defaults.getLeakDetectionThresholdMs()))
+                .prepareThreshold(intProperty(properties, "prepareThreshold", defaults.getPrepareThreshold()))
+                .preparedStatementCacheQueries(intProperty(properties, "preparedStatementCacheQueries",
+                        defaults.getPreparedStatementCacheQueries()))
+                .preparedStatementCacheSizeMiB(intProperty(properties, "preparedStatementCacheSizeMiB",
+                        defaults.getPreparedStatementCacheSizeMiB()))
+                .build();
+    }
+    
+    private static int intProperty(Properties properties, String name, int defaultValue) {
+        String value = properties.getProperty(HIKARI_PREFIX + name);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+    
+    private static long longProperty(Properties properties, String name, long defaultValue) {
+        String value = properties.getProperty(HIKARI_PREFIX + name);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+    
+    private static void applySystemOverride(Properties properties, String name) {
+        String value = System.getProperty(name);
+        if (value != null) {
+            properties.setProperty(name, value);
+        }
+    }
+    
+    private static void closeDataSource() {
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+        }
+        dataSource = null;
+    }
 }
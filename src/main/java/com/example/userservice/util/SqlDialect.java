@@ -0,0 +1,33 @@
+package com.example.userservice.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Диалект SQL используемой базы данных.
+ * Позволяет выбирать PostgreSQL-специфичные запросы (ON CONFLICT, UNNEST, RETURNING)
+ * и переносимый вариант для H2 в тестах.
+ */
+public enum SqlDialect {
+    POSTGRESQL,
+    H2,
+    OTHER;
+
+    /**
+     * Определяет диалект по метаданным соединения.
+     *
+     * @param connection открытое соединение
+     * @return диалект базы данных
+     */
+    public static SqlDialect detect(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (product.contains("postgresql")) {
+            return POSTGRESQL;
+        }
+        if (product.contains("h2")) {
+            return H2;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.userservice.analytics;
+
+import com.example.userservice.dto.UserDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Юнит-тесты колонок снимка и параллельного сканирования: фильтры, группировки, удаление и уплотнение.
+ */
+@DisplayName("Column Scan Unit Tests")
+class ColumnScanTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Фильтры по возрасту, домену, имени и окну создания комбинируются, NULL не проходит фильтр")
+    void combinesFilters() {
+        UserColumns columns = new UserColumns(16);
+        columns.upsert(user(1, "Ann", "ann@Example.com", 25, DAY));
+        columns.upsert(user(2, "Bob", "bob@example.com", 40, DAY.plusDays(1)));
+        columns.upsert(user(3, "Annie", "annie@test.org", 30, DAY.plusDays(2)));
+        columns.upsert(user(4, "Nobody", "nobody@example.com", null, null));
+
+        assertThat(count(columns, UserColumnFilter.all())).isEqualTo(4);
+        assertThat(count(columns, new UserColumnFilter(20, 35, null, null, null, null))).isEqualTo(2);
+        assertThat(count(columns, new UserColumnFilter(null, null, Set.of("@EXAMPLE.com"), null, null, null))).isEqualTo(3);
+        assertThat(count(columns, new UserColumnFilter(null, null, Set.of("missing.com"), null, null, null))).isZero();
+        assertThat(count(columns, new UserColumnFilter(null, null, null, "ANN", null, null))).isEqualTo(2);
+        assertThat(count(columns, new UserColumnFilter(null, null, null, null, DAY.plusDays(1), DAY.plusDays(2))))
+                .isEqualTo(1);
+        assertThat(count(columns, new UserColumnFilter(null, 35, Set.of("example.com", "test.org"), "an", null, null)))
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Группировки по домену, возрасту и дню создания с отдельной группой для NULL")
+    void groupsRows() {
+        UserColumns columns = new UserColumns(16);
+        columns.upsert(user(1, "Ann", "ann@example.com", 20, DAY));
+        columns.upsert(user(2, "Bob", "bob@example.com", 30, DAY.plusDays(2)));
+        columns.upsert(user(3, "Eve", "eve@test.org", 20, DAY.plusDays(2)));
+        columns.upsert(user(4, "Nul", "nul@test.org", null, null));
+
+        ColumnScan byDomain = new ColumnScan(columns, UserColumnFilter.all(), UserColumnGroupBy.DOMAIN, 4);
+        ColumnScan.Partial domains = byDomain.run(pool);
+        assertThat(domains.counts).containsExactly(2, 2);
+        assertThat(byDomain.groupKey(0)).isEqualTo("example.com");
+        assertThat(domains.ageSums[0] / (double) domains.ageCounts[0]).isEqualTo(25.0);
+        assertThat(domains.ageCounts[1]).isEqualTo(1);
+
+        ColumnScan byAge = new ColumnScan(columns, UserColumnFilter.all(), UserColumnGroupBy.AGE, 4);
+        ColumnScan.Partial ages = byAge.run(pool);
+        assertThat(ages.counts[20]).isEqualTo(2);
+        assertThat(ages.counts[30]).isEqualTo(1);
+        assertThat(ages.counts[ColumnScan.MAX_AGE + 1]).isEqualTo(1);
+        assertThat(byAge.groupKey(ColumnScan.MAX_AGE + 1)).isNull();
+
+        ColumnScan byDay = new ColumnScan(columns, UserColumnFilter.all(), UserColumnGroupBy.CREATED_DAY, 4);
+        ColumnScan.Partial days = byDay.run(pool);
+        assertThat(days.counts).containsExactly(1, 0, 2, 1);
+        assertThat(byDay.groupKey(0)).isEqualTo("2024-03-01");
+        assertThat(byDay.groupKey(2)).isEqualTo("2024-03-03");
+        assertThat(byDay.groupKey(3)).isNull();
+    }
+
+    @Test
+    @DisplayName("Удаление, повторное создание и уплотнение сохраняют результат")
+    void deletesAndCompacts() {
+        UserColumns columns = new UserColumns(16);
+        for (long id = 1; id <= 5_000; id++) {
+            columns.upsert(user(id, "User " + id, "user" + id + "@d" + (id % 7) + ".com", (int) (id % 90), DAY));
+        }
+        for (long id = 1; id <= 2_000; id++) {
+            columns.delete(id);
+        }
+        columns.delete(1);
+        columns.upsert(user(10, "Back", "back@d3.com", 10, DAY));
+        columns.upsert(user(4_000, "Moved", "moved@new.com", 50, DAY));
+
+        assertThat(columns.liveRows()).isEqualTo(3_001);
+        assertThat(columns.needsCompaction()).isTrue();
+        ColumnScan.Partial before = new ColumnScan(columns, UserColumnFilter.all(), UserColumnGroupBy.AGE, 4).run(pool);
+
+        UserColumns compacted = columns.compact();
+
+        assertThat(compacted.rows).isEqualTo(3_001);
+        assertThat(compacted.needsCompaction()).isFalse();
+        ColumnScan.Partial after = new ColumnScan(compacted, UserColumnFilter.all(), UserColumnGroupBy.AGE, 4).run(pool);
+        assertThat(after.counts).isEqualTo(before.counts);
+        assertThat(after.ageSums).isEqualTo(before.ageSums);
+        assertThat(count(compacted, new UserColumnFilter(null, null, Set.of("new.com"), null, null, null))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Параллельное сканирование дает тот же результат, что и последовательное")
+    void parallelScanMatchesSequential() {
+        UserColumns columns = new UserColumns(16);
+        for (long id = 1; id <= 200_000; id++) {
+            Integer age = id % 13 == 0 ? null : (int) (id % 100);
+            columns.upsert(user(id, "User " + (id % 500), "u" + id + "@d" + (id % 50) + ".com", age,
+                    DAY.plusHours(id % 1_000)));
+        }
+        UserColumnFilter filter = new UserColumnFilter(18, 65, null, "user 1", null, null);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            ColumnScan.Partial sequential = new ColumnScan(columns, filter, UserColumnGroupBy.DOMAIN, 1).run(single);
+            ColumnScan.Partial parallel = new ColumnScan(columns, filter, UserColumnGroupBy.DOMAIN, 4).run(pool);
+
+            assertThat(parallel.counts).isEqualTo(sequential.counts);
+            assertThat(parallel.ageSums).isEqualTo(sequential.ageSums);
+            assertThat(parallel.ageCounts).isEqualTo(sequential.ageCounts);
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Некорректные фильтры отклоняются")
+    void rejectsInvalidFilters() {
+        assertThatThrownBy(() -> new UserColumnFilter(50, 20, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new UserColumnFilter(null, null, null, null, DAY, DAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new UserColumnFilter(null, null, Set.of("a@b.com"), null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private long count(UserColumns columns, UserColumnFilter filter) {
+        return new ColumnScan(columns, filter, UserColumnGroupBy.NONE, 4).run(pool).counts[0];
+    }
+
+    private static UserDto user(long id, String name, String email, Integer age, LocalDateTime createdAt) {
+        return UserDto.builder()
+                .id(id)
+                .name(name)
+                .email(email)
+                .age(age)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+}
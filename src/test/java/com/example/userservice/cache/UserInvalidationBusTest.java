@@ -0,0 +1,136 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.UserInvalidationBatchDto;
+import com.example.userservice.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Юнит-тесты шины инвалидации: два узла с общим транспортом в памяти.
+ */
+@DisplayName("UserInvalidationBus Unit Tests")
+class UserInvalidationBusTest {
+
+    private static final String JSON = "application/json";
+
+    private final LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+    private final UserResponseCache cacheA = cache();
+    private final UserResponseCache cacheB = cache();
+    private final UserInvalidationBus busA = bus("node-a", cacheA, 100);
+    private final UserInvalidationBus busB = bus("node-b", cacheB, 100);
+
+    @Test
+    @DisplayName("Запись на одном узле инвалидирует кэш другого узла после отправки пакета")
+    void propagatesInvalidationToOtherNode() {
+        fill(cacheA, 1L, 2L);
+        fill(cacheB, 1L, 2L);
+
+        busA.onUserChanged(UserChangedEvent.of(1L));
+
+        assertThat(cacheA.get(1L, JSON)).isNull();
+        assertThat(cacheB.get(1L, JSON)).isNotNull();
+
+        busA.flush();
+
+        assertThat(cacheB.get(1L, JSON)).isNull();
+        assertThat(cacheB.get(2L, JSON)).isNotNull();
+        assertThat(busA.getBatchesSent()).isEqualTo(1);
+        assertThat(busB.getInvalidationsApplied()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Инвалидации копятся в пакет и отправляются при достижении его размера")
+    void sendsFullBatchWithoutWaitingForFlush() {
+        UserInvalidationBus batchingBus = bus("node-c", cache(), 3);
+        fill(cacheB, 1L, 2L, 3L);
+
+        batchingBus.onUserChanged(UserChangedEvent.of(List.of(1L, 2L)));
+        batchingBus.onUserChanged(UserChangedEvent.of(1L));
+        assertThat(batchingBus.getBatchesSent()).isZero();
+
+        batchingBus.onUserChanged(UserChangedEvent.of(3L));
+
+        assertThat(batchingBus.getBatchesSent()).isEqualTo(1);
+        assertThat(List.of(1L, 2L, 3L)).allSatisfy(id -> assertThat(cacheB.get(id, JSON)).isNull());
+    }
+
+    @Test
+    @DisplayName("Устаревшие и повторные доставки пропускаются")
+    void skipsOutOfOrderDelivery() {
+        busB.receive(batch("node-x", 0, new long[]{1L}, new long[]{10L}));
+        fill(cacheB, 1L);
+
+        busB.receive(batch("node-x", 0, new long[]{1L}, new long[]{5L}));
+        busB.receive(batch("node-x", 0, new long[]{1L}, new long[]{10L}));
+
+        assertThat(cacheB.get(1L, JSON)).isNotNull();
+        assertThat(busB.getInvalidationsSkipped()).isEqualTo(2);
+
+        busB.receive(batch("node-x", 0, new long[]{1L}, new long[]{11L}));
+        assertThat(cacheB.get(1L, JSON)).isNull();
+    }
+
+    @Test
+    @DisplayName("Полная инвалидация покрывает более ранние версии того же узла")
+    void allUsersInvalidationCoversEarlierVersions() {
+        fill(cacheB, 1L, 2L);
+
+        busB.receive(batch("node-x", 20L, new long[0], new long[0]));
+        assertThat(cacheB.getUsedBytes()).isZero();
+
+        fill(cacheB, 1L, 2L);
+        busB.receive(batch("node-x", 0, new long[]{1L, 2L}, new long[]{15L, 25L}));
+
+        assertThat(cacheB.get(1L, JSON)).isNotNull();
+        assertThat(cacheB.get(2L, JSON)).isNull();
+    }
+
+    @Test
+    @DisplayName("Собственные пакеты узла не применяются повторно")
+    void ignoresOwnBatches() {
+        busA.onUserChanged(UserChangedEvent.allUsers());
+        busA.flush();
+
+        assertThat(busA.getBatchesReceived()).isZero();
+        assertThat(busB.getBatchesReceived()).isEqualTo(1);
+    }
+
+    private UserInvalidationBus bus(String nodeId, UserResponseCache cache, int maxBatchSize) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("userResponseCache", cache);
+        return new UserInvalidationBus(transport, beans.getBeanProvider(InvalidatableCache.class), nodeId,
+                maxBatchSize, Duration.ofMinutes(10), Duration.ofMillis(20), Duration.ofMinutes(1), noMetrics());
+    }
+
+    private static UserInvalidationBatchDto batch(String nodeId, long allUsersVersion, long[] userIds, long[] versions) {
+        return UserInvalidationBatchDto.builder()
+                .nodeId(nodeId)
+                .allUsersVersion(allUsersVersion)
+                .userIds(userIds)
+                .versions(versions)
+                .build();
+    }
+
+    private static void fill(UserResponseCache cache, Long... userIds) {
+        for (Long id : userIds) {
+            cache.put(id, JSON, cache.version(id), JSON, ("user-" + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static UserResponseCache cache() {
+        return new UserResponseCache(true, 1024, 256, false, noMetrics());
+    }
+
+    private static ObjectProvider<MeterRegistry> noMetrics() {
+        return new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.UserDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Юнит-тесты кэша точечных чтений: refresh-ahead, stale-while-revalidate и граница устаревания.
+ */
+@DisplayName("UserLookupCache Unit Tests")
+class UserLookupCacheTest {
+
+    private static final Duration TTL = Duration.ofSeconds(10);
+    private static final Duration MAX_STALE = Duration.ofSeconds(30);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private UserLookupCache cache;
+
+    @AfterEach
+    void tearDown() {
+        cache.destroy();
+    }
+
+    @Test
+    @DisplayName("Свежая запись отдается без обращения к БД")
+    void servesFreshEntryFromCache() {
+        cache = cache(true);
+
+        cache.getById(1L, loader("Ann"));
+        Optional<UserDto> second = cache.getById(1L, loader("Changed"));
+
+        assertThat(second).map(UserDto::getName).contains("Ann");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Запись около истечения TTL обновляется в фоне")
+    void refreshesAheadOfExpiry() throws InterruptedException {
+        cache = cache(true);
+        cache.getById(1L, loader("Ann"));
+
+        advance(Duration.ofSeconds(9));
+        assertThat(cache.getById(1L, loader("Refreshed"))).map(UserDto::getName).contains("Ann");
+        awaitRefreshes(1);
+
+        advance(Duration.ofSeconds(9));
+        assertThat(cache.getById(1L, loader("Other"))).map(UserDto::getName).contains("Refreshed");
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Истекшая запись в пределах границы отдается сразу и обновляется в фоне")
+    void servesStaleWhileRevalidating() throws InterruptedException {
+        cache = cache(true);
+        cache.getByEmail("ann@example.com", email -> load("Ann"));
+
+        advance(Duration.ofSeconds(15));
+        assertThat(cache.getByEmail("ann@example.com", email -> load("Fresh"))).map(UserDto::getName).contains("Ann");
+        awaitRefreshes(1);
+
+        assertThat(cache.getStaleHits()).isEqualTo(1);
+        assertThat(cache.getByEmail("ann@example.com", email -> load("Other"))).map(UserDto::getName).contains("Fresh");
+    }
+
+    @Test
+    @DisplayName("При ошибке БД отдается устаревшее значение в пределах границы")
+    void servesStaleOnLoaderFailure() {
+        cache = cache(false);
+        cache.getById(1L, loader("Ann"));
+
+        advance(Duration.ofSeconds(20));
+        Optional<UserDto> result = cache.getById(1L, id -> {
+            throw new DataAccessResourceFailureException("database is down");
+        });
+
+        assertThat(result).map(UserDto::getName).contains("Ann");
+        assertThat(cache.getStaleOnError()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("За границей устаревания ошибка БД пробрасывается")
+    void failsBeyondMaxStaleness() {
+        cache = cache(true);
+        cache.getById(1L, loader("Ann"));
+
+        advance(TTL.plus(MAX_STALE).plusSeconds(1));
+
+        assertThatThrownBy(() -> cache.getById(1L, id -> {
+            throw new DataAccessResourceFailureException("database is down");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    @DisplayName("Инвалидация во время загрузки не дает сохранить прочитанные до нее данные")
+    void invalidationDuringLoadIsNotOverwritten() {
+        cache = cache(true);
+
+        cache.getById(1L, id -> {
+            cache.invalidate(1L);
+            return load("Before write");
+        });
+        Optional<UserDto> result = cache.getById(1L, loader("After write"));
+
+        assertThat(result).map(UserDto::getName).contains("After write");
+    }
+
+    @Test
+    @DisplayName("Инвалидация по ID удаляет и запись по email")
+    void invalidationRemovesEmailEntry() {
+        cache = cache(true);
+        cache.getByEmail("ann@example.com", email -> load("Ann"));
+
+        cache.invalidate(1L);
+
+        assertThat(cache.getByEmail("ann@example.com", email -> load("Renamed"))).map(UserDto::getName).contains("Renamed");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Обратные ссылки ID -> email вытесняются вместе с записями по email")
+    void trimsEmailLinksWithEmailEntries() {
+        cache = new UserLookupCache(true, TTL, 0.8, MAX_STALE, true, 10, 1, 10, clock::get, noMetrics());
+
+        for (long id = 1; id <= 100; id++) {
+            String email = "user-" + id + "@example.com";
+            long userId = id;
+            cache.getByEmail(email, key -> Optional.of(UserDto.builder().id(userId).name("User").email(key).build()));
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.emailLinks()).isLessThanOrEqualTo(10);
+    }
+
+    private UserLookupCache cache(boolean staleWhileRevalidate) {
+        return new UserLookupCache(true, TTL, 0.8, MAX_STALE, staleWhileRevalidate, 1_000, 1, 10,
+                clock::get, noMetrics());
+    }
+
+    private Function<Long, Optional<UserDto>> loader(String name) {
+        return id -> load(name);
+    }
+
+    private Optional<UserDto> load(String name) {
+        loads.incrementAndGet();
+        return Optional.of(UserDto.builder().id(1L).name(name).email("ann@example.com").age(30).build());
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    private void awaitRefreshes(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.getRefreshes() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(cache.getRefreshes()).isEqualTo(expected);
+    }
+
+    private static ObjectProvider<MeterRegistry> noMetrics() {
+        return new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.UserDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Юнит-тесты кэша результатов списковых запросов: версия записей, нормализация ключей и вытеснение по памяти.
+ */
+@DisplayName("UserQueryCache Unit Tests")
+class UserQueryCacheTest {
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    @DisplayName("Повторный запрос отдается из кэша")
+    void servesRepeatedQueryFromCache() {
+        UserQueryCache cache = cache(1 << 20, 1 << 16);
+
+        cache.get(UserQueryCache.allUsersKey(), query(3));
+        List<UserDto> second = cache.get(UserQueryCache.allUsersKey(), query(5));
+
+        assertThat(second).hasSize(3);
+        assertThat(queries).hasValue(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Эквивалентные параметры поиска дают один ключ")
+    void normalizesSearchParameters() {
+        assertThat(UserQueryCache.searchKey("  Ann ", 18, null, null, 20))
+                .isEqualTo(UserQueryCache.searchKey("ann", 18, null, 0L, 20));
+        assertThat(UserQueryCache.searchKey("", null, null, null, 20))
+                .isEqualTo(UserQueryCache.searchKey(null, null, null, null, 20));
+        assertThat(UserQueryCache.searchKey("ann", 18, null, null, 20))
+                .isNotEqualTo(UserQueryCache.searchKey("ann", null, 18, null, 20));
+    }
+
+    @Test
+    @DisplayName("Запись делает все сохраненные результаты недействительными")
+    void writeInvalidatesAllResults() {
+        UserQueryCache cache = cache(1 << 20, 1 << 16);
+        cache.get("a", query(1));
+        cache.get("b", query(1));
+
+        cache.invalidate(42L);
+
+        assertThat(cache.get("a", query(2))).hasSize(2);
+        assertThat(cache.getUsedBytes()).isEqualTo(UserQueryCache.weigh(users(2)) + 2);
+    }
+
+    @Test
+    @DisplayName("Результат, прочитанный до записи, не сохраняется")
+    void doesNotStoreResultReadBeforeWrite() {
+        UserQueryCache cache = cache(1 << 20, 1 << 16);
+
+        cache.get("a", () -> {
+            cache.invalidateAll();
+            return users(1);
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Слишком большие результаты не кэшируются")
+    void skipsOversizedResults() {
+        UserQueryCache cache = cache(1 << 20, UserQueryCache.weigh(users(10)));
+
+        cache.get("big", query(100));
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getRejectedTooLarge()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Вытесняются большие и редко читаемые результаты, бюджет соблюдается")
+    void evictsLargeColdResultsFirst() {
+        long budget = UserQueryCache.weigh(users(50)) + UserQueryCache.weigh(users(2)) * 3;
+        UserQueryCache cache = cache(budget, budget);
+        cache.get("small-hot", query(2));
+        for (int i = 0; i < 20; i++) {
+            cache.get("small-hot", query(2));
+        }
+        cache.get("large-cold", query(50));
+
+        cache.get("small-new", query(2));
+        cache.get("another-large", query(50));
+
+        assertThat(cache.getUsedBytes()).isLessThanOrEqualTo(budget);
+        assertThat(cache.getEvictions()).isPositive();
+        int before = queries.get();
+        cache.get("small-hot", query(2));
+        assertThat(queries).hasValue(before);
+    }
+
+    private UserQueryCache cache(long maxBytes, long maxEntryBytes) {
+        return new UserQueryCache(true, maxBytes, maxEntryBytes, noMetrics());
+    }
+
+    private Supplier<List<UserDto>> query(int count) {
+        return () -> {
+            queries.incrementAndGet();
+            return users(count);
+        };
+    }
+
+    private static List<UserDto> users(int count) {
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            users.add(UserDto.builder().id((long) i).name("User " + i).email("user" + i + "@example.com").age(30).build());
+        }
+        return users;
+    }
+
+    private static ObjectProvider<MeterRegistry> noMetrics() {
+        return new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Юнит-тесты кэша закодированных ответов: версии, инвалидация и бюджет памяти.
+ */
+@DisplayName("UserResponseCache Unit Tests")
+class UserResponseCacheTest {
+
+    private static final String JSON = "application/json";
+
+    @Test
+    @DisplayName("Сохраненный ответ возвращается для той же версии и варианта")
+    void returnsStoredResponse() {
+        UserResponseCache cache = cache(1024, 256, false);
+        byte[] body = bytes("{\"id\":1}");
+
+        cache.put(1L, JSON, cache.version(1L), JSON, body);
+
+        assertThat(cache.get(1L, JSON).body()).isEqualTo(body);
+        assertThat(cache.get(1L, "application/cbor")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Инвалидация удаляет ответ и не дает сохранить прочитанный до нее")
+    void invalidationRejectsStaleWrites() {
+        UserResponseCache cache = cache(1024, 256, false);
+        long staleVersion = cache.version(1L);
+        cache.put(1L, JSON, staleVersion, JSON, bytes("old"));
+
+        cache.onUserChanged(UserChangedEvent.of(1L));
+        cache.put(1L, JSON, staleVersion, JSON, bytes("old"));
+
+        assertThat(cache.get(1L, JSON)).isNull();
+        assertThat(cache.getUsedBytes()).isZero();
+
+        cache.put(1L, JSON, cache.version(1L), JSON, bytes("new"));
+        assertThat(cache.get(1L, JSON).body()).isEqualTo(bytes("new"));
+    }
+
+    @Test
+    @DisplayName("Инвалидация всех пользователей очищает кэш")
+    void invalidatesAllUsers() {
+        UserResponseCache cache = cache(1024, 256, false);
+        for (long id = 1; id <= 5; id++) {
+            cache.put(id, JSON, cache.version(id), JSON, bytes("user-" + id));
+        }
+
+        cache.onUserChanged(UserChangedEvent.allUsers());
+
+        assertThat(cache.getUsedBytes()).isZero();
+        assertThat(cache.get(3L, JSON)).isNull();
+    }
+
+    @Test
+    @DisplayName("Бюджет соблюдается, а недавно прочитанные записи вытесняются последними")
+    void evictsWithinBudget() {
+        UserResponseCache cache = cache(100, 50, false);
+        cache.put(1L, JSON, cache.version(1L), JSON, new byte[40]);
+        cache.put(2L, JSON, cache.version(2L), JSON, new byte[40]);
+        cache.get(1L, JSON);
+
+        cache.put(3L, JSON, cache.version(3L), JSON, new byte[40]);
+
+        assertThat(cache.getUsedBytes()).isLessThanOrEqualTo(100);
+        assertThat(cache.getEvictions()).isPositive();
+        assertThat(cache.get(1L, JSON)).isNotNull();
+        assertThat(cache.get(2L, JSON)).isNull();
+    }
+
+    @Test
+    @DisplayName("Слишком большие ответы не кэшируются")
+    void skipsOversizedEntries() {
+        UserResponseCache cache = cache(1024, 16, false);
+
+        cache.put(1L, JSON, cache.version(1L), JSON, new byte[17]);
+
+        assertThat(cache.get(1L, JSON)).isNull();
+        assertThat(cache.getUsedBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ответы вне кучи возвращаются без изменений")
+    void storesOffHeap() {
+        UserResponseCache cache = cache(1024, 256, true);
+        byte[] body = bytes("{\"id\":7,\"name\":\"Off Heap\"}");
+
+        cache.put(7L, JSON, cache.version(7L), JSON, body);
+
+        assertThat(cache.get(7L, JSON).body()).isEqualTo(body).isNotSameAs(body);
+        assertThat(cache.getUsedBytes()).isEqualTo(body.length);
+    }
+
+    @Test
+    @DisplayName("Выключенный кэш ничего не хранит")
+    void disabledCacheStoresNothing() {
+        UserResponseCache cache = new UserResponseCache(false, 1024, 256, false, noMetrics());
+
+        cache.put(1L, JSON, cache.version(1L), JSON, bytes("x"));
+
+        assertThat(cache.get(1L, JSON)).isNull();
+        assertThat(List.of(cache.getUsedBytes(), cache.getHits())).containsOnly(0L);
+    }
+
+    private static UserResponseCache cache(long maxBytes, int maxEntryBytes, boolean offHeap) {
+        return new UserResponseCache(true, maxBytes, maxEntryBytes, offHeap, noMetrics());
+    }
+
+    private static ObjectProvider<MeterRegistry> noMetrics() {
+        return new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.cache.UserResponseCache;
 import com.example.userservice.dto.CreateUserDto;
 import com.example.userservice.dto.UpdateUserDto;
 import com.example.userservice.dto.UserDto;
+import com.example.userservice.service.HateoasService;
+import com.example.userservice.service.UserChangesService;
 import com.example.userservice.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -26,6 +30,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Тесты для UserController с использованием MockMvc.
  */
 @WebMvcTest(UserController.class)
+@Import({HateoasService.class, UserResponseRenderer.class, UserResponseCache.class})
 class UserControllerTest {
 
     @Autowired
@@ -34,6 +39,9 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserChangesService userChangesService;
+
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -105,7 +113,7 @@ class UserControllerTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(userService.getUserById(1L)).thenReturn(Optional.of(userDto));
+        when(userService.getUserByIdFromPrimary(1L)).thenReturn(Optional.of(userDto));
 
         // When & Then
         mockMvc.perform(get("/api/users/1"))
@@ -115,19 +123,19 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("test@example.com"))
                 .andExpect(jsonPath("$.age").value(25));
 
-        verify(userService).getUserById(1L);
+        verify(userService).getUserByIdFromPrimary(1L);
     }
 
     @Test
     void getUserById_WhenUserNotExists_ShouldReturnNotFound() throws Exception {
         // Given
-        when(userService.getUserById(1L)).thenReturn(Optional.empty());
+        when(userService.getUserByIdFromPrimary(1L)).thenReturn(Optional.empty());
 
         // When & Then
         mockMvc.perform(get("/api/users/1"))
                 .andExpect(status().isNotFound());
 
-        verify(userService).getUserById(1L);
+        verify(userService).getUserByIdFromPrimary(1L);
     }
 
     @Test
@@ -0,0 +1,84 @@
+package com.example.userservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Юнит-тесты решений AdaptivePoolSizer о размере пула.
+ */
+@DisplayName("AdaptivePoolSizer Unit Tests")
+class AdaptivePoolSizerTest {
+
+    private static final double NONE = Double.NaN;
+
+    private HikariDataSource dataSource;
+    private AdaptivePoolSizer sizer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        sizer = new AdaptivePoolSizer(dataSource, null, 4, 20, 10, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sizer.close();
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("Пул растет, когда потоки ждут соединения")
+    void growsWhenThreadsWait() {
+        assertThat(sizer.computeTargetSize(10, 6, 10, NONE, NONE, NONE, false)).isEqualTo(13);
+        assertThat(sizer.computeTargetSize(10, 1, 10, NONE, NONE, NONE, false)).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("Пул растет, когда среднее ожидание соединения выше порога")
+    void growsWhenAcquireWaitIsHigh() {
+        assertThat(sizer.computeTargetSize(10, 0, 10, 25.0, 5.0, 5.0, false)).isEqualTo(11);
+        assertThat(sizer.computeTargetSize(10, 0, 10, 2.0, 5.0, 5.0, false)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Пул продолжает расти, пока время работы с БД не растет")
+    void keepsGrowingWhileUsageLatencyIsStable() {
+        assertThat(sizer.computeTargetSize(13, 4, 13, 30.0, 5.5, 5.0, true)).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Последнее увеличение откатывается, если выросло время работы с БД")
+    void shrinksWhenGrowthRaisedUsageLatency() {
+        assertThat(sizer.computeTargetSize(13, 6, 13, 30.0, 8.0, 5.0, true)).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("Рост останавливается, если время работы с БД растет без увеличения пула")
+    void holdsWhenUsageLatencyRises() {
+        assertThat(sizer.computeTargetSize(13, 6, 13, 30.0, 8.0, 5.0, false)).isEqualTo(13);
+    }
+
+    @Test
+    @DisplayName("Простаивающий пул постепенно уменьшается")
+    void shrinksWhenMostlyIdle() {
+        assertThat(sizer.computeTargetSize(10, 0, 2, 0.1, 3.0, 3.0, false)).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Размер пула остается в заданных границах")
+    void staysWithinBounds() {
+        assertThat(sizer.computeTargetSize(20, 30, 20, NONE, NONE, NONE, false)).isEqualTo(20);
+        assertThat(sizer.computeTargetSize(4, 0, 0, NONE, NONE, NONE, false)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Загруженный, но не перегруженный пул не меняется")
+    void keepsSizeUnderSteadyLoad() {
+        assertThat(sizer.computeTargetSize(10, 0, 8, 1.0, 4.0, 4.0, false)).isEqualTo(10);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.util.BulkProfile;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Интеграционные тесты профиля "bulk".
+ * Проверяет, что массовые INSERT/UPDATE/DELETE выполняются JDBC batch-ами:
+ * число подготовленных statement-ов растет с числом batch-ей, а не строк.
+ */
+@DisplayName("Bulk Profile Integration Tests")
+@SpringBootTest
+@ActiveProfiles({"test", BulkProfile.NAME})
+@Transactional
+class BulkProfileIntegrationTest {
+
+    private static final int USER_COUNT = 200;
+    private static final int EXPECTED_BATCHES = USER_COUNT / BulkProfile.BATCH_SIZE;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        entityManager.flush();
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Массовое создание выполняется batch-ами")
+    void bulkCreateIsBatched() {
+        userRepository.saveAll(newUsers(USER_COUNT));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(USER_COUNT);
+        // batch-и INSERT плюс выборки блоков последовательности
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L * EXPECTED_BATCHES + 2);
+    }
+
+    @Test
+    @DisplayName("Массовое обновление выполняется batch-ами")
+    void bulkUpdateIsBatched() {
+        List<User> users = userRepository.saveAll(newUsers(USER_COUNT));
+        entityManager.flush();
+        statistics.clear();
+
+        users.forEach(user -> user.setAge(user.getAge() + 1));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(USER_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(EXPECTED_BATCHES);
+    }
+
+    @Test
+    @DisplayName("Массовое удаление выполняется batch-ами")
+    void bulkDeleteIsBatched() {
+        List<User> users = userRepository.saveAll(newUsers(USER_COUNT));
+        entityManager.flush();
+        statistics.clear();
+
+        userRepository.deleteAll(users);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(USER_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(EXPECTED_BATCHES);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: пропускная способность массовой вставки")
+    void bulkInsertThroughput() {
+        int total = 20_000;
+        long start = System.nanoTime();
+        for (int offset = 0; offset < total; offset += BulkProfile.BATCH_SIZE * 10) {
+            List<User> chunk = new ArrayList<>();
+            for (int i = 0; i < BulkProfile.BATCH_SIZE * 10; i++) {
+                chunk.add(new User("Bench " + (offset + i), "bench" + (offset + i) + "@example.com", 30));
+            }
+            userRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("bulk inserts/sec=%.0f, statements=%d%n", total / seconds,
+                statistics.getPrepareStatementCount());
+    }
+
+    private static List<User> newUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User("Bulk User " + i, "bulk" + i + "@example.com", 20 + i % 50));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.datasource.ReadYourWritesTracker;
+import com.example.userservice.datasource.ReplicaRoutingDataSource;
+import com.example.userservice.datasource.ReplicaSelectionStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Интеграционные тесты маршрутизации read-only транзакций на реплики.
+ * Primary и реплика - два независимых контейнера PostgreSQL с разными именами баз,
+ * по которым определяется, куда ушел запрос.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Read Replica Routing Integration Tests")
+class ReadReplicaRoutingIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("primary_db");
+
+    @Container
+    private static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("replica_db");
+
+    private static final String CURRENT_DATABASE = "SELECT current_database()";
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (routingDataSource != null) {
+            routingDataSource.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Read-only транзакции направляются на реплику")
+    void readOnlyTransactionsGoToReplica() {
+        setUpRouting(Map.of("replica-0", dataSource(REPLICA)), Duration.ZERO);
+
+        String database = readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class));
+        assertThat(database).isEqualTo("replica_db");
+    }
+
+    @Test
+    @DisplayName("Пишущие транзакции направляются на primary")
+    void writeTransactionsGoToPrimary() {
+        setUpRouting(Map.of("replica-0", dataSource(REPLICA)), Duration.ZERO);
+
+        String database = writeTransaction.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class));
+        assertThat(database).isEqualTo("primary_db");
+    }
+
+    @Test
+    @DisplayName("Чтения после собственной записи идут на primary в пределах окна")
+    void readsAfterOwnWriteStayOnPrimaryWithinWindow() throws InterruptedException {
+        setUpRouting(Map.of("replica-0", dataSource(REPLICA)), Duration.ofMillis(300));
+
+        writeTransaction.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class));
+        String database = readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class));
+        assertThat(database).isEqualTo("primary_db");
+
+        Thread.sleep(400);
+        database = readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class));
+        assertThat(database).isEqualTo("replica_db");
+    }
+
+    @Test
+    @DisplayName("Чтения для заполнения кэшей идут на primary")
+    void cacheFillReadsGoToPrimary() {
+        setUpRouting(Map.of("replica-0", dataSource(REPLICA)), Duration.ZERO);
+
+        String database = ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(
+                status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class)));
+        assertThat(database).isEqualTo("primary_db");
+
+        database = readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class));
+        assertThat(database).isEqualTo("replica_db");
+    }
+
+    @Test
+    @DisplayName("Недоступная реплика исключается из маршрутизации")
+    void unhealthyReplicaFallsBackToPrimary() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", new DriverManagerDataSource("jdbc:postgresql://localhost:1/unreachable", "user", "password"));
+        setUpRouting(replicas, Duration.ZERO);
+
+        routingDataSource.checkReplicas();
+
+        assertThat(routingDataSource.getReplicaHealth()).containsEntry("replica-0", false);
+        String database = readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class));
+        assertThat(database).isEqualTo("primary_db");
+    }
+
+    private void setUpRouting(Map<String, DataSource> replicas, Duration readYourWritesWindow) {
+        routingDataSource = new ReplicaRoutingDataSource(dataSource(PRIMARY), replicas,
+                ReplicaSelectionStrategy.ROUND_ROBIN, new ReadYourWritesTracker(readYourWritesWindow), Duration.ZERO);
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    private static DataSource dataSource(PostgreSQLContainer<?> container) {
+        return new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.sharding.ShardRouter;
+import com.example.userservice.sharding.ShardedIdGenerator;
+import com.example.userservice.sharding.ShardedUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Интеграционные тесты шардированного хранилища пользователей на трех контейнерах PostgreSQL.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Sharded UserRepository Integration Tests")
+class ShardedUserRepositoryIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> SHARD_0 = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    private static final PostgreSQLContainer<?> SHARD_1 = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    private static final PostgreSQLContainer<?> SHARD_2 = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static List<DataSource> shardDataSources;
+
+    private ShardedUserRepository repository;
+
+    @BeforeAll
+    static void createSchema() {
+        shardDataSources = List.of(dataSource(SHARD_0), dataSource(SHARD_1), dataSource(SHARD_2));
+        ResourceDatabasePopulator populator =
+                new ResourceDatabasePopulator(new FileSystemResource("database/sharding-schema.sql"));
+        shardDataSources.forEach(populator::execute);
+    }
+
+    @BeforeEach
+    void setUp() {
+        truncateAll();
+        repository = new ShardedUserRepository(shardDataSources, shardDataSources.get(0), new ShardedIdGenerator(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Пользователь сохраняется на шарде, определяемом хэшем ID")
+    void createdUserIsStoredOnHashedShard() {
+        UserDto created = repository.create("Sharded User", "sharded@example.com", 33);
+
+        int expectedShard = new ShardRouter(3).shardFor(created.getId());
+        for (int shard = 0; shard < 3; shard++) {
+            Integer count = new JdbcTemplate(shardDataSources.get(shard))
+                    .queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, created.getId());
+            assertThat(count).isEqualTo(shard == expectedShard ? 1 : 0);
+        }
+        assertThat(repository.findById(created.getId())).contains(created);
+    }
+
+    @Test
+    @DisplayName("Поиск по email использует глобальный справочник")
+    void findByEmailUsesDirectory() {
+        UserDto created = repository.create("Directory User", "directory@example.com", 41);
+
+        assertThat(repository.findByEmail("directory@example.com")).map(UserDto::getId).contains(created.getId());
+        assertThat(repository.existsByEmail("directory@example.com")).isTrue();
+        assertThat(repository.existsByEmail("missing@example.com")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Email уникален между шардами")
+    void duplicateEmailIsRejectedAcrossShards() {
+        repository.create("First", "duplicate@example.com", 20);
+
+        assertThatThrownBy(() -> repository.create("Second", "duplicate@example.com", 21))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("already exists");
+    }
+
+    @Test
+    @DisplayName("Смена email переносит запись справочника")
+    void updateEmailMovesDirectoryEntry() {
+        UserDto created = repository.create("Mover", "old@example.com", 30);
+
+        repository.update(created.getId(), null, "new@example.com", 31);
+
+        assertThat(repository.existsByEmail("old@example.com")).isFalse();
+        assertThat(repository.findByEmail("new@example.com")).map(UserDto::getAge).contains(31);
+    }
+
+    @Test
+    @DisplayName("Удаление освобождает email")
+    void deleteReleasesEmail() {
+        UserDto created = repository.create("Deleted", "deleted@example.com", 50);
+
+        assertThat(repository.delete(created.getId())).isPresent();
+        assertThat(repository.findById(created.getId())).isEmpty();
+        assertThat(repository.existsByEmail("deleted@example.com")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Scatter-gather пагинация возвращает глобально отсортированные страницы")
+    void keysetPaginationMergesShardsInIdOrder() {
+        List<Long> createdIds = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            createdIds.add(repository.create("Page User " + i, "page" + i + "@example.com", 20 + i).getId());
+        }
+
+        List<Long> pagedIds = new ArrayList<>();
+        Long afterId = null;
+        List<UserDto> page;
+        do {
+            page = repository.findPage(afterId, 7);
+            page.forEach(user -> pagedIds.add(user.getId()));
+            afterId = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+        } while (page.size() == 7);
+
+        assertThat(pagedIds).isSorted().containsExactlyElementsOf(createdIds.stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Поиск фильтрует по имени и возрасту на всех шардах")
+    void searchFiltersAcrossShards() {
+        for (int i = 0; i < 10; i++) {
+            repository.create((i % 2 == 0 ? "Alice " : "Bob ") + i, "search" + i + "@example.com", 20 + i);
+        }
+
+        List<UserDto> result = repository.search("alice", 22, 26, null, 100);
+
+        assertThat(result).extracting(UserDto::getAge).containsExactlyInAnyOrder(22, 24, 26);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: пропускная способность записи в зависимости от числа шардов")
+    void writeThroughputScalesWithShards() throws Exception {
+        int writers = 8;
+        int usersPerWriter = 2000;
+        for (int shardCount = 1; shardCount <= shardDataSources.size(); shardCount++) {
+            truncateAll();
+            ShardedUserRepository sharded = new ShardedUserRepository(
+                    shardDataSources.subList(0, shardCount), shardDataSources.get(0), new ShardedIdGenerator(2));
+            ExecutorService executor = Executors.newFixedThreadPool(writers);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < usersPerWriter; i++) {
+                        sharded.create("Bench " + i, "bench-" + writer + "-" + i + "@example.com", 30);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            executor.shutdown();
+            sharded.close();
+            System.out.printf("shards=%d writes/sec=%.0f%n", shardCount, writers * usersPerWriter / seconds);
+        }
+    }
+
+    private static void truncateAll() {
+        shardDataSources.forEach(dataSource ->
+                new JdbcTemplate(dataSource).execute("TRUNCATE users, user_email_directory"));
+    }
+
+    private static DataSource dataSource(PostgreSQLContainer<?> container) {
+        return new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dto.UpsertUserDto;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Интеграционные тесты PUT /api/users/by-email/{email}.
+ * Параллельные upsert-ы одного email не должны приводить к 500 и дубликатам.
+ * На H2 проверяется переносимый вариант, в {@link PostgresUpsertByEmailConcurrencyTest} - ON CONFLICT.
+ */
+@DisplayName("Upsert By Email Concurrency Tests")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UpsertByEmailConcurrencyTest {
+
+    private static final String URL = "/api/users/by-email/{email}";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Первый upsert создает пользователя, повторный обновляет")
+    void upsertCreatesThenUpdates() {
+        ResponseEntity<Map> created = upsert("upsert@example.com", "First", 20);
+        ResponseEntity<Map> updated = upsert("upsert@example.com", "Second", 21);
+
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(updated.getBody()).containsEntry("id", created.getBody().get("id"))
+                .containsEntry("name", "Second")
+                .containsEntry("age", 21);
+        verify(eventPublisherService).publishUserEvent("CREATE", "upsert@example.com", "First");
+        verify(eventPublisherService).publishUserEvent("UPDATE", "upsert@example.com", "Second");
+    }
+
+    @Test
+    @DisplayName("Параллельные upsert-ы одного email создают ровно одного пользователя без ошибок")
+    void concurrentUpsertsDoNotFail() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<Map>>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int age = i;
+            Callable<ResponseEntity<Map>> task = () -> {
+                start.await();
+                return upsert("race@example.com", "Racer " + age, age);
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+
+        List<HttpStatus> statuses = new ArrayList<>();
+        for (Future<ResponseEntity<Map>> future : futures) {
+            statuses.add(HttpStatus.valueOf(future.get().getStatusCode().value()));
+        }
+        executor.shutdown();
+
+        assertThat(statuses).containsOnly(HttpStatus.CREATED, HttpStatus.OK);
+        assertThat(statuses).filteredOn(HttpStatus.CREATED::equals).hasSize(1);
+        assertThat(userRepository.count()).isEqualTo(1);
+        verify(eventPublisherService, times(1)).publishUserEvent(eq("CREATE"), eq("race@example.com"), anyString());
+        verify(eventPublisherService, times(threads - 1)).publishUserEvent(eq("UPDATE"), eq("race@example.com"), anyString());
+    }
+
+    private ResponseEntity<Map> upsert(String email, String name, int age) {
+        UpsertUserDto body = UpsertUserDto.builder().name(name).age(age).build();
+        return restTemplate.exchange(URL, HttpMethod.PUT, new HttpEntity<>(body), Map.class, email);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dto.BatchOperationDto;
+import com.example.userservice.dto.BatchOperationDto.Type;
+import com.example.userservice.dto.BatchOperationResultDto;
+import com.example.userservice.dto.BatchResponseDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.example.userservice.service.UserBatchService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Интеграционные тесты пакетного выполнения операций POST /api/users/_batch.
+ */
+@DisplayName("User Batch Integration Tests")
+@SpringBootTest
+@ActiveProfiles("test")
+class UserBatchIntegrationTest {
+
+    @Autowired
+    private UserBatchService userBatchService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    private User existing;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        existing = userRepository.save(User.builder().name("Existing").email("existing@example.com").age(40).build());
+    }
+
+    @Test
+    @DisplayName("Атомарный пакет выполняет операции по порядку и фиксирует их вместе")
+    void atomicBatchCommitsAllOperations() {
+        List<BatchOperationDto> operations = List.of(
+                create("First", "first@example.com"),
+                create("Second", "second@example.com"),
+                BatchOperationDto.builder().op(Type.UPDATE).id(existing.getId()).age(41).build(),
+                BatchOperationDto.builder().op(Type.GET).id(existing.getId()).build(),
+                BatchOperationDto.builder().op(Type.DELETE).id(existing.getId()).build(),
+                create("Reused", "existing@example.com"));
+
+        BatchResponseDto response = userBatchService.execute(operations, true);
+
+        assertThat(response.isCommitted()).isTrue();
+        assertThat(response.getResults()).extracting(BatchOperationResultDto::getStatus)
+                .containsExactly(201, 201, 200, 200, 204, 201);
+        assertThat(response.getResults().get(3).getUser().getAge()).isEqualTo(41);
+        assertThat(userRepository.findAll()).extracting(User::getEmail)
+                .containsExactlyInAnyOrder("first@example.com", "second@example.com", "existing@example.com");
+        verify(eventPublisherService, times(3)).publishUserEvent(eq("CREATE"), anyString(), anyString());
+        verify(eventPublisherService).publishUserEvent("DELETE", "existing@example.com", "Existing");
+    }
+
+    @Test
+    @DisplayName("Ошибка в атомарном пакете откатывает все операции")
+    void atomicBatchRollsBackOnFailure() {
+        List<BatchOperationDto> operations = List.of(
+                create("First", "first@example.com"),
+                BatchOperationDto.builder().op(Type.DELETE).id(999_999L).build(),
+                create("Third", "third@example.com"));
+
+        BatchResponseDto response = userBatchService.execute(operations, true);
+
+        assertThat(response.isCommitted()).isFalse();
+        assertThat(response.getResults()).extracting(BatchOperationResultDto::getStatus)
+                .containsExactly(424, 404, 424);
+        assertThat(userRepository.count()).isEqualTo(1);
+        verify(eventPublisherService, never()).publishUserEvent(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("В режиме по операциям ошибка не влияет на остальные операции")
+    void perOperationModeIsolatesFailures() {
+        List<BatchOperationDto> operations = List.of(
+                create("First", "first@example.com"),
+                create("Duplicate", "existing@example.com"),
+                create("Invalid", "not-an-email"),
+                create("Fourth", "fourth@example.com"));
+
+        BatchResponseDto response = userBatchService.execute(operations, false);
+
+        assertThat(response.isCommitted()).isTrue();
+        assertThat(response.getResults()).extracting(BatchOperationResultDto::getStatus)
+                .containsExactly(201, 409, 400, 201);
+        assertThat(userRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Подряд идущие создания выполняются одним JDBC batch")
+    void consecutiveCreatesAreBatched() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        List<BatchOperationDto> operations = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            operations.add(create("User " + i, "user-" + i + "@example.com"));
+        }
+
+        userBatchService.execute(operations, true);
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(40);
+        // проверки email по natural id + выборка блока последовательности + один batch INSERT
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(40 + 2 + 1);
+    }
+
+    private static BatchOperationDto create(String name, String email) {
+        return BatchOperationDto.builder().op(Type.CREATE).name(name).email(email).age(30).build();
+    }
+}
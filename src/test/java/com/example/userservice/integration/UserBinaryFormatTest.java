@@ -0,0 +1,178 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.controller.ApiMediaTypes;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тесты бинарных представлений пользователя (Smile, CBOR):
+ * ответ, полученный по Accept, декодируется обратно в те же данные, что и JSON.
+ */
+@DisplayName("User Binary Format Tests")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class UserBinaryFormatTest {
+
+    private static final int USER_COUNT = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        users = new ArrayList<>();
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(User.builder().name("Binary " + i).email("binary-" + i + "@example.com").age(18 + i % 60).build());
+        }
+        users = userRepository.saveAllAndFlush(users);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.SMILE_VALUE, ApiMediaTypes.CBOR_VALUE})
+    @DisplayName("Пользователь и список проходят round-trip через формат")
+    void roundTrip(String format) throws Exception {
+        MediaType mediaType = MediaType.parseMediaType(format);
+        ObjectMapper mapper = mapperFor(mediaType);
+        User user = users.get(0);
+
+        byte[] single = mockMvc.perform(get("/api/users/{id}", user.getId()).accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+        UserDto decoded = mapper.readValue(single, UserDto.class);
+        assertThat(decoded.getId()).isEqualTo(user.getId());
+        assertThat(decoded.getEmail()).isEqualTo(user.getEmail());
+        assertThat(decoded.getAge()).isEqualTo(user.getAge());
+        assertThat(decoded.getCreatedAt()).isNotNull();
+
+        byte[] list = mockMvc.perform(get("/api/users").accept(mediaType))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        List<UserDto> decodedList = mapper.readValue(list, new TypeReference<>() { });
+        assertThat(decodedList).hasSize(USER_COUNT);
+        assertThat(decodedList).extracting(UserDto::getEmail)
+                .containsExactlyElementsOf(users.stream().map(User::getEmail).toList());
+    }
+
+    @Test
+    @DisplayName("Без Accept ответ остается HAL JSON")
+    void defaultStaysJson() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", users.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.parseMediaType("application/*+json")));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: байты и наносекунды на пользователя по форматам")
+    void formatBenchmark() throws Exception {
+        List<UserDto> dtos = users.stream().map(UserBinaryFormatTest::toDto).toList();
+        for (MediaType mediaType : List.of(MediaType.APPLICATION_JSON, ApiMediaTypes.SMILE, ApiMediaTypes.CBOR)) {
+            HttpMessageConverter<Object> converter = converterFor(mediaType);
+            ObjectMapper mapper = mapperFor(mediaType);
+            byte[] payload = write(converter, dtos, mediaType);
+            for (int i = 0; i < 500; i++) {
+                write(converter, dtos, mediaType);
+                mapper.readValue(payload, new TypeReference<List<UserDto>>() { });
+            }
+            int iterations = 2_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                write(converter, dtos, mediaType);
+            }
+            long encode = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                mapper.readValue(payload, new TypeReference<List<UserDto>>() { });
+            }
+            long decode = System.nanoTime() - start;
+            long perUser = (long) iterations * USER_COUNT;
+            System.out.printf("%-30s %6.1f B/user encode=%7.1f ns/user decode=%7.1f ns/user%n",
+                    mediaType, (double) payload.length / USER_COUNT,
+                    (double) encode / perUser, (double) decode / perUser);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<Object> converterFor(MediaType mediaType) {
+        return (HttpMessageConverter<Object>) handlerAdapter.getMessageConverters().stream()
+                .filter(converter -> converter.canWrite(ArrayList.class, mediaType))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No converter for " + mediaType));
+    }
+
+    private static byte[] write(HttpMessageConverter<Object> converter, Object body, MediaType mediaType) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(body, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+
+    private static ObjectMapper mapperFor(MediaType mediaType) {
+        JsonFactory factory;
+        if (ApiMediaTypes.SMILE.isCompatibleWith(mediaType)) {
+            factory = new SmileFactory();
+        } else if (ApiMediaTypes.CBOR.isCompatibleWith(mediaType)) {
+            factory = new CBORFactory();
+        } else {
+            factory = new JsonFactory();
+        }
+        return new ObjectMapper(factory).findAndRegisterModules();
+    }
+
+    private static UserDto toDto(User user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .age(user.getAge())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+}
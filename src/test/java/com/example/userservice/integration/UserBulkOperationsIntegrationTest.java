@@ -0,0 +1,115 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dto.BulkItemResultDto;
+import com.example.userservice.dto.BulkItemResultDto.Status;
+import com.example.userservice.dto.BulkOperationResultDto;
+import com.example.userservice.dto.BulkUpdateItemDto;
+import com.example.userservice.dto.UserBatchEventDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.example.userservice.service.UserBulkService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Интеграционные тесты массового обновления и удаления пользователей.
+ * Размер порции уменьшен до 2, чтобы проверить разбиение и события по порциям.
+ * На H2 проверяется переносимый вариант, в {@link PostgresUserBulkOperationsIntegrationTest} - UNNEST/ANY.
+ */
+@DisplayName("User Bulk Operations Integration Tests")
+@SpringBootTest(properties = "app.bulk.chunk-size=2")
+@ActiveProfiles("test")
+class UserBulkOperationsIntegrationTest {
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    private User alice;
+    private User bob;
+    private User carol;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        alice = userRepository.save(User.builder().name("Alice").email("alice@example.com").age(30).build());
+        bob = userRepository.save(User.builder().name("Bob").email("bob@example.com").age(40).build());
+        carol = userRepository.save(User.builder().name("Carol").email("carol@example.com").age(50).build());
+    }
+
+    @Test
+    @DisplayName("Массовое обновление возвращает исход по каждому элементу")
+    void bulkUpdateReportsPerItemOutcome() {
+        List<BulkUpdateItemDto> items = List.of(
+                BulkUpdateItemDto.builder().id(alice.getId()).age(31).build(),
+                BulkUpdateItemDto.builder().id(bob.getId()).email("carol@example.com").build(),
+                BulkUpdateItemDto.builder().id(carol.getId()).name("Caroline").build(),
+                BulkUpdateItemDto.builder().id(999_999L).age(20).build(),
+                BulkUpdateItemDto.builder().id(alice.getId()).age(200).build());
+
+        BulkOperationResultDto result = userBulkService.updateUsers(items);
+
+        assertThat(result.getItems()).extracting(BulkItemResultDto::getStatus)
+                .containsExactly(Status.UPDATED, Status.CONFLICT, Status.UPDATED, Status.NOT_FOUND, Status.INVALID);
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(userRepository.findById(alice.getId())).map(User::getAge).contains(31);
+        assertThat(userRepository.findById(bob.getId())).map(User::getEmail).contains("bob@example.com");
+        assertThat(userRepository.findById(carol.getId())).map(User::getName).contains("Caroline");
+        assertThat(userRepository.findById(carol.getId())).map(User::getAge).contains(50);
+
+        // три порции, в третьей ничего не обновлено
+        ArgumentCaptor<UserBatchEventDto> events = ArgumentCaptor.forClass(UserBatchEventDto.class);
+        verify(eventPublisherService, times(2)).publishBatchEvent(events.capture());
+        assertThat(events.getAllValues()).flatExtracting(UserBatchEventDto::getUserIds)
+                .containsExactlyInAnyOrder(alice.getId(), carol.getId());
+    }
+
+    @Test
+    @DisplayName("После массовой смены email поиск по email видит новое значение")
+    void bulkUpdateRefreshesEmailLookup() {
+        userBulkService.updateUsers(List.of(
+                BulkUpdateItemDto.builder().id(alice.getId()).email("alice.new@example.com").build()));
+
+        assertThat(userRepository.findByEmail("alice.new@example.com")).map(User::getId).contains(alice.getId());
+        assertThat(userRepository.findByEmail("alice@example.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Массовое удаление возвращает исход по каждому ID")
+    void bulkDeleteReportsPerItemOutcome() {
+        BulkOperationResultDto result = userBulkService.deleteUsers(
+                Arrays.asList(alice.getId(), 999_999L, bob.getId(), bob.getId(), null));
+
+        assertThat(result.getItems()).extracting(BulkItemResultDto::getStatus)
+                .containsExactly(Status.DELETED, Status.NOT_FOUND, Status.DELETED, Status.INVALID, Status.INVALID);
+        assertThat(userRepository.findAll()).extracting(User::getEmail).containsExactly("carol@example.com");
+    }
+
+    @Test
+    @DisplayName("Пустой запрос отклоняется")
+    void emptyRequestIsRejected() {
+        assertThatThrownBy(() -> userBulkService.deleteUsers(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
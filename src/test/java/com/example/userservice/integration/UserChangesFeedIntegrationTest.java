@@ -0,0 +1,153 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dto.UpdateUserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.entity.UserTombstone;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserTombstoneRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Интеграционные тесты ленты изменений GET /api/users/changes.
+ * Safety lag отключен, чтобы изменения были видны сразу после коммита.
+ */
+@DisplayName("User Changes Feed Integration Tests")
+@SpringBootTest(properties = "app.changes.safety-lag-ms=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserChangesFeedIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTombstoneRepository userTombstoneRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        // deleteAll() пропускает сущности с isNew() == true, поэтому удаляем запросом
+        userTombstoneRepository.deleteAllInBatch();
+        users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(User.builder().name("Feed " + i).email("feed-" + i + "@example.com").age(30 + i).build());
+        }
+        users = userRepository.saveAll(users);
+    }
+
+    @Test
+    @DisplayName("Начальная выборка постранично возвращает всех пользователей, затем только изменения")
+    void pagesThroughInitialSyncAndThenReturnsDeltas() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String token = null;
+        JsonNode page;
+        do {
+            page = changes(token, 2);
+            page.get("changes").forEach(change -> {
+                assertThat(change.get("kind").asText()).isEqualTo("UPSERT");
+                seen.add(change.get("id").asLong());
+            });
+            token = page.get("nextToken").asText();
+        } while (page.get("hasMore").asBoolean());
+
+        assertThat(seen).containsExactlyInAnyOrderElementsOf(users.stream().map(User::getId).toList());
+        assertThat(changes(token, 10).get("changes")).isEmpty();
+
+        User updated = users.get(1);
+        User deleted = users.get(3);
+        mockMvc.perform(put("/api/users/{id}", updated.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UpdateUserDto.builder().name("Feed renamed").build())))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/users/{id}", deleted.getId()))
+                .andExpect(status().isNoContent());
+
+        JsonNode delta = changes(token, 10);
+        assertThat(delta.get("hasMore").asBoolean()).isFalse();
+        assertThat(delta.get("changes")).hasSize(2);
+        JsonNode upsert = delta.get("changes").get(0);
+        assertThat(upsert.get("kind").asText()).isEqualTo("UPSERT");
+        assertThat(upsert.get("id").asLong()).isEqualTo(updated.getId());
+        assertThat(upsert.get("user").get("name").asText()).isEqualTo("Feed renamed");
+        JsonNode tombstone = delta.get("changes").get(1);
+        assertThat(tombstone.get("kind").asText()).isEqualTo("DELETE");
+        assertThat(tombstone.get("id").asLong()).isEqualTo(deleted.getId());
+        assertThat(tombstone.has("user")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Некорректный токен и размер страницы отклоняются, устаревший токен - 410")
+    void rejectsInvalidAndExpiredTokens() throws Exception {
+        mockMvc.perform(get("/api/users/changes").param("since", "not-a-token"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/changes").param("size", "100000"))
+                .andExpect(status().isBadRequest());
+
+        String expired = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("v1:946684800:0:0".getBytes(StandardCharsets.US_ASCII));
+        mockMvc.perform(get("/api/users/changes").param("since", expired))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @DisplayName("Время создания, изменения и удаления назначается по часам БД")
+    void stampsChangesWithDatabaseClock() throws Exception {
+        LocalDateTime before = userRepository.currentTimestamp();
+        User created = userRepository.save(User.builder().name("Clock").email("clock@example.com").age(20).build());
+        mockMvc.perform(delete("/api/users/{id}", users.get(0).getId()))
+                .andExpect(status().isNoContent());
+        LocalDateTime after = userRepository.currentTimestamp();
+
+        assertThat(created.getCreatedAt()).isBetween(before, after);
+        assertThat(created.getUpdatedAt()).isEqualTo(created.getCreatedAt());
+        assertThat(userTombstoneRepository.findById(users.get(0).getId()))
+                .map(UserTombstone::getDeletedAt)
+                .hasValueSatisfying(deletedAt -> assertThat(deletedAt).isBetween(before, after));
+    }
+
+    private JsonNode changes(String token, int size) throws Exception {
+        var request = get("/api/users/changes").param("size", String.valueOf(size));
+        if (token != null) {
+            request.param("since", token);
+        }
+        byte[] body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        return objectMapper.readTree(body);
+    }
+}
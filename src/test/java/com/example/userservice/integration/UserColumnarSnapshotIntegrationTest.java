@@ -0,0 +1,200 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.analytics.UserColumnFilter;
+import com.example.userservice.analytics.UserColumnGroupBy;
+import com.example.userservice.analytics.UserColumnStore;
+import com.example.userservice.dto.CreateUserDto;
+import com.example.userservice.dto.UpdateUserDto;
+import com.example.userservice.dto.UserAnalyticsDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.example.userservice.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Интеграционные тесты колоночного снимка: загрузка, инкрементальное обновление по ленте изменений,
+ * REST API и сравнение пропускной способности сканирования с эквивалентным SQL.
+ */
+@DisplayName("User Columnar Snapshot Integration Tests")
+@SpringBootTest(properties = {
+        "app.columnar.enabled=true",
+        "app.columnar.refresh-interval-ms=3600000",
+        "app.changes.safety-lag-ms=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserColumnarSnapshotIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserColumnStore userColumnStore;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        // deleteAll не оставляет отметок об удалении, поэтому снимок загружается заново
+        userColumnStore.reload();
+    }
+
+    @Test
+    @DisplayName("Создание, изменение и удаление применяются к снимку по ленте изменений")
+    void appliesChangesIncrementally() throws Exception {
+        UserDto ann = userService.createUser(create("Ann", "ann@example.com", 25));
+        userService.createUser(create("Bob", "bob@example.com", 34));
+        UserDto eve = userService.createUser(create("Eve", "eve@test.org", 41));
+        long fullLoads = userColumnStore.getFullLoads();
+
+        userColumnStore.refresh();
+
+        assertThat(query(UserColumnFilter.all(), UserColumnGroupBy.NONE).getMatched()).isEqualTo(3);
+
+        userService.updateUser(ann.getId(), UpdateUserDto.builder().email("ann@test.org").age(29).build());
+        userService.deleteUser(eve.getId());
+        userColumnStore.refresh();
+
+        UserAnalyticsDto byDomain = query(UserColumnFilter.all(), UserColumnGroupBy.DOMAIN);
+        assertThat(byDomain.getMatched()).isEqualTo(2);
+        assertThat(byDomain.getGroups()).extracting(UserAnalyticsDto.Group::getKey, UserAnalyticsDto.Group::getCount)
+                .containsExactly(tuple("example.com", 1L),
+                        tuple("test.org", 1L));
+        assertThat(userColumnStore.getFullLoads()).isEqualTo(fullLoads);
+
+        mockMvc.perform(get("/api/users/analytics")
+                        .param("groupBy", "AGE")
+                        .param("domain", "test.org")
+                        .param("minAge", "18"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(1))
+                .andExpect(jsonPath("$.groups[0].key").value("29"))
+                .andExpect(jsonPath("$.groups[0].averageAge").value(29.0));
+    }
+
+    @Test
+    @DisplayName("Результаты снимка совпадают с SQL; некорректные параметры - 400")
+    void matchesSqlAndValidatesParameters() throws Exception {
+        saveUsers(2_000);
+        userColumnStore.refresh();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Long expected = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE age BETWEEN 20 AND 40 AND LOWER(name) LIKE '%1%'", Long.class);
+        assertThat(query(new UserColumnFilter(20, 40, null, "1", null, null), UserColumnGroupBy.NONE).getMatched())
+                .isEqualTo(expected);
+        Long perDomain = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email LIKE '%@d3.com'", Long.class);
+        assertThat(query(new UserColumnFilter(null, null, Set.of("D3.com"), null, null, null), UserColumnGroupBy.NONE)
+                .getMatched()).isEqualTo(perDomain);
+
+        mockMvc.perform(get("/api/users/analytics").param("groupBy", "DOMAIN").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groups.length()").value(3))
+                .andExpect(jsonPath("$.truncated").value(true));
+        mockMvc.perform(get("/api/users/analytics").param("minAge", "50").param("maxAge", "10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/analytics").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: пропускная способность сканирования снимка и эквивалентного SQL (строк/с на ядро)")
+    void scanThroughputBenchmark() {
+        int users = 200_000;
+        saveUsers(users);
+        userColumnStore.reload();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        int iterations = 50;
+        int cores = userColumnStore.getParallelism();
+
+        // Граница фильтра меняется на каждой итерации, чтобы H2 не отвечал из кэша результатов запросов
+        measure("columnar count", users, iterations, cores,
+                i -> query(new UserColumnFilter(18, 40 + i, null, null, null, null), UserColumnGroupBy.NONE));
+        measure("sql count", users, iterations, 1, i -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*), AVG(age) FROM users WHERE age BETWEEN 18 AND ?", (rs, rowNum) -> rs.getLong(1), 40 + i));
+        measure("columnar group by domain", users, iterations, cores,
+                i -> query(new UserColumnFilter(18, 40 + i, null, null, null, null), UserColumnGroupBy.DOMAIN));
+        measure("sql group by domain", users, iterations, 1, i -> jdbcTemplate.queryForList(
+                "SELECT SUBSTRING(email, POSITION('@' IN email) + 1) AS domain, COUNT(*), AVG(age) FROM users "
+                        + "WHERE age BETWEEN 18 AND ? GROUP BY domain", 40 + i));
+        measure("columnar name contains", users, iterations, cores,
+                i -> query(new UserColumnFilter(null, null, null, "user " + (10 + i), null, null), UserColumnGroupBy.NONE));
+        measure("sql name contains", users, iterations, 1, i -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE LOWER(name) LIKE ?", Long.class, "%user " + (10 + i) + "%"));
+    }
+
+    private UserAnalyticsDto query(UserColumnFilter filter, UserColumnGroupBy groupBy) {
+        return userColumnStore.query(filter, groupBy, 10_000).orElseThrow();
+    }
+
+    private void saveUsers(int count) {
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batch.add(User.builder()
+                    .name("User " + i)
+                    .email("user-" + i + "@d" + (i % 20) + ".com")
+                    .age(i % 10 == 0 ? null : i % 90)
+                    .build());
+            if (batch.size() == 10_000) {
+                userRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        userRepository.saveAll(batch);
+    }
+
+    private static void measure(String label, int rows, int iterations, int cores, IntFunction<?> query) {
+        for (int i = 0; i < iterations; i++) {
+            query.apply(iterations + i);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            query.apply(i);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        double rowsPerSecond = (double) rows * iterations / seconds;
+        System.out.printf("%-26s %8.2f ms/query %14.0f rows/s %14.0f rows/s/core (%d cores)%n",
+                label, seconds * 1_000 / iterations, rowsPerSecond, rowsPerSecond / cores, cores);
+    }
+
+    private static CreateUserDto create(String name, String email, int age) {
+        return CreateUserDto.builder().name(name).email(email).age(age).build();
+    }
+}
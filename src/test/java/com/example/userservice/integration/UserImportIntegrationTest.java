@@ -0,0 +1,191 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dto.ImportReportDto;
+import com.example.userservice.dto.UserBatchEventDto;
+import com.example.userservice.service.EventPublisherService;
+import com.example.userservice.service.UserImportService;
+import com.example.userservice.service.UserImportService.ConflictPolicy;
+import com.example.userservice.service.UserImportService.ImportFormat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Интеграционные тесты массового импорта пользователей через COPY.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("User Import Integration Tests")
+class UserImportIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createSchema() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(new FileSystemResource("database/schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE users");
+    }
+
+    @Test
+    @DisplayName("CSV импортируется порциями, некорректные строки отклоняются")
+    void importsCsvInChunks() {
+        String csv = """
+                name,email,age
+                Alice,alice@example.com,30
+                Bob,bob@example.com,
+                "Smith, John",john@example.com,41
+                Broken,not-an-email,20
+                TooOld,old@example.com,200
+                Alice Again,alice@example.com,31
+                """;
+
+        List<ImportReportDto> progress = new ArrayList<>();
+        ImportReportDto report = new UserImportService(dataSource, null, 2)
+                .importUsers(stream(csv), ImportFormat.CSV, ConflictPolicy.SKIP, progress::add);
+
+        assertThat(report.getTotalRows()).isEqualTo(6);
+        assertThat(report.getInserted()).isEqualTo(3);
+        assertThat(report.getSkipped()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(report.getChunks()).isEqualTo(3);
+        assertThat(progress).hasSize(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM users WHERE email = 'john@example.com'", String.class))
+                .isEqualTo("Smith, John");
+        assertThat(jdbcTemplate.queryForObject("SELECT age FROM users WHERE email = 'bob@example.com'", Integer.class))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("NDJSON с политикой UPDATE обновляет существующих пользователей")
+    void importsNdjsonWithUpdate() {
+        jdbcTemplate.update("INSERT INTO users (name, email, age) VALUES ('Old Name', 'existing@example.com', 20)");
+        String ndjson = """
+                {"name":"New Name","email":"existing@example.com","age":21}
+                {"name":"Fresh","email":"fresh@example.com"}
+                {not json}
+                """;
+
+        ImportReportDto report = new UserImportService(dataSource, null, UserImportService.DEFAULT_CHUNK_SIZE)
+                .importUsers(stream(ndjson), ImportFormat.NDJSON, ConflictPolicy.UPDATE, null);
+
+        assertThat(report.getInserted()).isEqualTo(1);
+        assertThat(report.getUpdated()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM users WHERE email = 'existing@example.com'", String.class))
+                .isEqualTo("New Name");
+    }
+
+    @Test
+    @DisplayName("Каждая порция публикует только собственные итоги")
+    void publishesPerChunkTotals() {
+        String csv = """
+                Alice,alice@example.com,30
+                Bob,bob@example.com,40
+                Carol,carol@example.com,50
+                Broken,not-an-email,20
+                """;
+        EventPublisherService eventPublisherService = mock(EventPublisherService.class);
+
+        new UserImportService(dataSource, eventPublisherService, 2)
+                .importUsers(stream(csv), ImportFormat.CSV, ConflictPolicy.SKIP, null);
+
+        ArgumentCaptor<UserBatchEventDto> events = ArgumentCaptor.forClass(UserBatchEventDto.class);
+        verify(eventPublisherService, times(2)).publishBatchEvent(events.capture());
+        assertThat(events.getAllValues())
+                .extracting(UserBatchEventDto::getChunk, UserBatchEventDto::getProcessed,
+                        UserBatchEventDto::getInserted, UserBatchEventDto::getRejected)
+                .containsExactly(tuple(1, 2L, 2L, 0L), tuple(2, 2L, 1L, 1L));
+    }
+
+    @Test
+    @DisplayName("Записи CSV с неверным числом колонок или кавычками отклоняются до COPY")
+    void rejectsMalformedCsvRecords() {
+        String csv = """
+                Alice,alice@example.com,30
+                Short,short@example.com
+                Long,long@example.com,30,extra
+                "Unclosed,unclosed@example.com,30
+                Stray"Quote,stray@example.com,30
+                "Quote ""Q"" Name",quote@example.com,41
+                Bob,bob@example.com,40
+                """;
+
+        ImportReportDto report = new UserImportService(dataSource, null, 2)
+                .importUsers(stream(csv), ImportFormat.CSV, ConflictPolicy.SKIP, null);
+
+        assertThat(report.getTotalRows()).isEqualTo(7);
+        assertThat(report.getInserted()).isEqualTo(3);
+        assertThat(report.getRejected()).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM users WHERE email = 'quote@example.com'", String.class))
+                .isEqualTo("Quote \"Q\" Name");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM users", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Первая строка без полного заголовка импортируется как данные")
+    void keepsFirstRowThatOnlyLooksLikeHeader() {
+        String csv = """
+                name,name@example.com,30
+                Alice,alice@example.com,31
+                """;
+
+        ImportReportDto report = new UserImportService(dataSource, null, UserImportService.DEFAULT_CHUNK_SIZE)
+                .importUsers(stream(csv), ImportFormat.CSV, ConflictPolicy.SKIP, null);
+
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT age FROM users WHERE email = 'name@example.com'", Integer.class))
+                .isEqualTo(30);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: пропускная способность импорта через COPY")
+    void importThroughput() {
+        int rows = 1_000_000;
+        StringBuilder csv = new StringBuilder(rows * 40);
+        for (int i = 0; i < rows; i++) {
+            csv.append("User ").append(i).append(",user").append(i).append("@example.com,").append(i % 100).append('\n');
+        }
+
+        ImportReportDto report = new UserImportService(dataSource, null, UserImportService.DEFAULT_CHUNK_SIZE)
+                .importUsers(stream(csv.toString()), ImportFormat.CSV, ConflictPolicy.SKIP, null);
+
+        assertThat(report.getInserted()).isEqualTo(rows);
+        System.out.printf("rows=%d elapsedMs=%d rows/sec=%d%n", rows, report.getElapsedMs(), report.getRowsPerSecond());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dto.ImportReportDto;
+import com.example.userservice.dto.IngestChunkResultDto;
+import com.example.userservice.dto.IngestErrorDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.example.userservice.service.UserIngestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Интеграционные тесты потокового приема пользователей.
+ * Запись выполняется в отдельном потоке и отдельных транзакциях, поэтому тест не транзакционный.
+ */
+@DisplayName("User Ingest Integration Tests")
+@SpringBootTest(properties = "app.ingest.chunk-size=100")
+@ActiveProfiles("test")
+class UserIngestIntegrationTest {
+
+    @Autowired
+    private UserIngestService userIngestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Элементы записываются порциями, результаты приходят по каждой порции")
+    void ingestsInChunks() {
+        userRepository.save(User.builder().name("Existing").email("user-7@example.com").age(20).build());
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 250; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"name\":\"User ").append(i).append("\",\"email\":\"user-").append(i)
+                    .append("@example.com\",\"age\":").append(i == 13 ? 200 : 30).append('}');
+        }
+        json.append(']');
+
+        List<IngestChunkResultDto> results = new ArrayList<>();
+        ImportReportDto report = userIngestService.ingest(stream(json.toString()), results::add);
+
+        assertThat(results).extracting(IngestChunkResultDto::getChunk).containsExactly(1, 2, 3);
+        assertThat(results).extracting(IngestChunkResultDto::getReceived).containsExactly(100, 100, 50);
+        assertThat(results.get(0).getErrors()).extracting(IngestErrorDto::getIndex).containsExactlyInAnyOrder(7L, 13L);
+        assertThat(report.getInserted()).isEqualTo(248);
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(userRepository.count()).isEqualTo(249);
+        verify(eventPublisherService, times(3)).publishBatchEvent(any());
+    }
+
+    @Test
+    @DisplayName("Ошибка разбора останавливает прием, уже прочитанные элементы записываются")
+    void malformedTailStopsIngest() {
+        String json = "[{\"name\":\"Good\",\"email\":\"good@example.com\",\"age\":30},"
+                + "{\"name\":\"Dup\",\"email\":\"good@example.com\",\"age\":31},"
+                + "{\"name\":\"Broken\",";
+
+        List<IngestChunkResultDto> results = new ArrayList<>();
+        userIngestService.ingest(stream(json), results::add);
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getInserted()).isEqualTo(1);
+        assertThat(results.get(0).getRejected()).isEqualTo(1);
+        assertThat(results.get(1).getError()).contains("item 2");
+        assertThat(userRepository.findByEmail("good@example.com")).map(User::getName).contains("Good");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dao.UserDao;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserJdbcRepository;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.util.HibernateUtil;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение путей точечного чтения на одном контейнере PostgreSQL:
+ * JDBC fast path, Spring Data (проекция и сущность) и legacy UserDao.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("User Lookup Path Benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class UserLookupPathBenchmarkTest {
+
+    private static final int USER_COUNT = 1_000;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private UserJdbcRepository userJdbcRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        users = new ArrayList<>();
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(User.builder().name("Lookup " + i).email("lookup-" + i + "@example.com").age(i % 90).build());
+        }
+        users = userRepository.saveAll(users);
+    }
+
+    @AfterAll
+    static void closeLegacySessionFactory() {
+        if (System.getProperty(AvailableSettings.URL) != null) {
+            HibernateUtil.closeSessionFactory();
+            System.clearProperty(AvailableSettings.URL);
+            System.clearProperty(AvailableSettings.USER);
+            System.clearProperty(AvailableSettings.PASS);
+        }
+    }
+
+    @Test
+    @DisplayName("JDBC fast path возвращает те же данные, что и Spring Data")
+    void jdbcPathMatchesRepository() {
+        User user = users.get(7);
+
+        assertThat(userJdbcRepository.findById(user.getId())).isEqualTo(userRepository.findDtoById(user.getId()));
+        assertThat(userJdbcRepository.findByEmail(user.getEmail())).isEqualTo(userRepository.findDtoByEmail(user.getEmail()));
+        assertThat(userJdbcRepository.existsByEmail(user.getEmail())).isTrue();
+        assertThat(userJdbcRepository.existsByEmail("missing@example.com")).isFalse();
+        assertThat(userJdbcRepository.findById(-1L)).isEmpty();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: латентность findById/findByEmail/existsByEmail по путям доступа")
+    void lookupLatencyBenchmark() {
+        UserDao userDao = legacyDao();
+        int iterations = 20_000;
+
+        measure("jdbc findById", iterations, i -> userJdbcRepository.findById(id(i)));
+        measure("repository findDtoById", iterations, i -> userRepository.findDtoById(id(i)));
+        measure("repository findById", iterations, i -> userRepository.findById(id(i)));
+        measure("dao findById", iterations, i -> userDao.findById(id(i)));
+
+        measure("jdbc findByEmail", iterations, i -> userJdbcRepository.findByEmail(email(i)));
+        measure("repository findDtoByEmail", iterations, i -> userRepository.findDtoByEmail(email(i)));
+        measure("repository findByEmail", iterations, i -> userRepository.findByEmail(email(i)));
+        measure("dao findByEmail", iterations, i -> userDao.findByEmail(email(i)));
+
+        measure("jdbc existsByEmail", iterations, i -> userJdbcRepository.existsByEmail(email(i)));
+        measure("repository existsByEmail", iterations, i -> userRepository.existsByEmail(email(i)));
+        measure("dao existsByEmail", iterations, i -> userDao.existsByEmail(email(i)));
+    }
+
+    private Long id(int i) {
+        return users.get(i % USER_COUNT).getId();
+    }
+
+    private String email(int i) {
+        return users.get(i % USER_COUNT).getEmail();
+    }
+
+    private static UserDao legacyDao() {
+        System.setProperty(AvailableSettings.URL, POSTGRES.getJdbcUrl());
+        System.setProperty(AvailableSettings.USER, POSTGRES.getUsername());
+        System.setProperty(AvailableSettings.PASS, POSTGRES.getPassword());
+        HibernateUtil.reset();
+        return new UserDao();
+    }
+
+    private static void measure(String name, int iterations, IntFunction<Object> lookup) {
+        for (int i = 0; i < iterations / 5; i++) {
+            lookup.apply(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            lookup.apply(i);
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / iterations;
+        System.out.printf("%-28s %8.1f us/op%n", name, micros);
+    }
+}
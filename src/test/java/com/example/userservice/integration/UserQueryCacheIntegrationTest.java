@@ -0,0 +1,91 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.cache.UserQueryCache;
+import com.example.userservice.dto.CreateUserDto;
+import com.example.userservice.dto.UpsertUserDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Интеграционные тесты кэша списков и результатов поиска: создание пользователя
+ * инвалидирует закэшированные страницы после коммита.
+ */
+@DisplayName("User Query Cache Integration Tests")
+@SpringBootTest(properties = "app.query-cache.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserQueryCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserQueryCache userQueryCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userQueryCache.invalidateAll();
+        userRepository.save(User.builder().name("Listed User").email("listed@example.com").age(30).build());
+    }
+
+    @Test
+    @DisplayName("Список и поиск отдаются из кэша до создания пользователя и обновляются после него")
+    void createInvalidatesCachedPages() throws Exception {
+        assertThat(userService.getAllUsers()).hasSize(1);
+        assertThat(userService.searchUsers("listed", null, null, null, 20)).hasSize(1);
+        long hits = userQueryCache.getHits();
+        assertThat(userService.getAllUsers()).hasSize(1);
+        assertThat(userQueryCache.getHits()).isEqualTo(hits + 1);
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                CreateUserDto.builder().name("Listed Again").email("again@example.com").age(31).build())))
+                .andExpect(status().isCreated());
+
+        assertThat(userService.getAllUsers()).extracting(UserDto::getEmail)
+                .containsExactlyInAnyOrder("listed@example.com", "again@example.com");
+        assertThat(userService.searchUsers("listed", null, null, null, 20)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Создание через upsert по email тоже инвалидирует кэш")
+    void upsertCreateInvalidatesCachedPages() {
+        assertThat(userService.getAllUsers()).hasSize(1);
+
+        userService.upsertUserByEmail("upserted@example.com", UpsertUserDto.builder().name("Upserted").age(22).build());
+
+        assertThat(userService.getAllUsers()).hasSize(2);
+    }
+}
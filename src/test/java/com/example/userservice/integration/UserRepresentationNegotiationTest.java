@@ -0,0 +1,191 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.controller.ApiMediaTypes;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserResourceDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.example.userservice.service.HateoasService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ResolvableType;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Тесты выбора представления пользователя по заголовку Accept:
+ * HAL по умолчанию и плоский JSON без ссылок для application/json и vendor типа.
+ */
+@DisplayName("User Representation Negotiation Tests")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class UserRepresentationNegotiationTest {
+
+    private static final int USER_COUNT = 100;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HateoasService hateoasService;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        users = new ArrayList<>();
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(User.builder().name("Lean " + i).email("lean-" + i + "@example.com").age(20 + i % 50).build());
+        }
+        users = userRepository.saveAllAndFlush(users);
+    }
+
+    @Test
+    @DisplayName("Без Accept и с application/hal+json возвращается HAL со ссылками")
+    void halIsDefault() throws Exception {
+        Long id = users.get(0).getId();
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.self.href").exists());
+
+        mockMvc.perform(get("/api/users").accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaTypes.HAL_JSON))
+                .andExpect(jsonPath("$._embedded").exists())
+                .andExpect(jsonPath("$._links").exists());
+    }
+
+    @Test
+    @DisplayName("application/json возвращает плоское представление без ссылок")
+    void plainJsonIsLean() throws Exception {
+        User user = users.get(0);
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.email").value(user.getEmail()))
+                .andExpect(jsonPath("$._links").doesNotExist());
+
+        mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(USER_COUNT))
+                .andExpect(jsonPath("$[0]._links").doesNotExist());
+
+        mockMvc.perform(get("/api/users/{id}", Long.MAX_VALUE).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Vendor тип возвращает плоское представление с тем же Content-Type")
+    void vendorTypeIsLean() throws Exception {
+        mockMvc.perform(get("/api/users/email/{email}", users.get(1).getEmail()).accept(ApiMediaTypes.LEAN_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ApiMediaTypes.LEAN_JSON))
+                .andExpect(jsonPath("$.name").value(users.get(1).getName()))
+                .andExpect(jsonPath("$._links").doesNotExist());
+
+        mockMvc.perform(get("/api/users/search").param("name", "lean").param("size", "10")
+                        .accept(ApiMediaTypes.LEAN_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$[0]._links").doesNotExist());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: сериализация HAL против плоского представления")
+    void serializationBenchmark() throws Exception {
+        List<UserDto> dtos = users.stream().map(UserRepresentationNegotiationTest::toDto).toList();
+        CollectionModel<UserResourceDto> hal = CollectionModel.of(dtos.stream().map(hateoasService::toUserResource).toList());
+
+        UserResourceDto halSingle = hateoasService.toUserResource(dtos.get(0));
+
+        measure("HAL collection", () -> hal, MediaTypes.HAL_JSON, 2_000);
+        measure("lean collection", () -> dtos, MediaType.APPLICATION_JSON, 2_000);
+        measure("HAL single", () -> halSingle, MediaTypes.HAL_JSON, 100_000);
+        measure("lean single", () -> dtos.get(0), MediaType.APPLICATION_JSON, 100_000);
+        measure("HAL build+write", () -> CollectionModel.of(dtos.stream().map(hateoasService::toUserResource).toList()),
+                MediaTypes.HAL_JSON, 2_000);
+    }
+
+    private void measure(String name, Supplier<Object> body, MediaType mediaType, int iterations) throws Exception {
+        Object sample = body.get();
+        HttpMessageConverter<Object> converter = converterFor(sample.getClass(), mediaType);
+        long bytes = write(converter, sample, mediaType);
+        for (int i = 0; i < iterations / 10; i++) {
+            write(converter, body.get(), mediaType);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            write(converter, body.get(), mediaType);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-20s payload=%8d B latency=%9.2f us/op%n", name, bytes, elapsed / 1_000.0 / iterations);
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<Object> converterFor(Class<?> type, MediaType mediaType) {
+        return (HttpMessageConverter<Object>) handlerAdapter.getMessageConverters().stream()
+                .filter(converter -> converter.canWrite(type, mediaType))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No converter for " + type + " as " + mediaType));
+    }
+
+    private static long write(HttpMessageConverter<Object> converter, Object body, MediaType mediaType) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        if (converter instanceof GenericHttpMessageConverter<Object> generic) {
+            Type type = ResolvableType.forInstance(body).getType();
+            generic.write(body, type, mediaType, output);
+        } else {
+            converter.write(body, mediaType, output);
+        }
+        return output.getBodyAsBytes().length;
+    }
+
+    private static UserDto toDto(User user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .age(user.getAge())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.cache.UserResponseCache;
+import com.example.userservice.controller.ApiMediaTypes;
+import com.example.userservice.dto.UpdateUserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты кэша закодированных ответов GET /api/users/{id}.
+ * Без транзакции теста: инвалидация выполняется после реального коммита записи.
+ */
+@DisplayName("User Response Cache Integration Tests")
+@SpringBootTest(properties = "app.response-cache.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserResponseCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserResponseCache userResponseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userResponseCache.invalidateAll();
+        user = userRepository.save(User.builder().name("Cached User").email("cached@example.com").age(41).build());
+    }
+
+    @Test
+    @DisplayName("Повторный запрос отдается из кэша с тем же телом")
+    void repeatedReadIsServedFromCache() throws Exception {
+        byte[] first = body(get("/api/users/{id}", user.getId()));
+        long hits = userResponseCache.getHits();
+        byte[] second = body(get("/api/users/{id}", user.getId()));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(userResponseCache.getHits()).isEqualTo(hits + 1);
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(content().contentTypeCompatibleWith(MediaTypes.HAL_JSON))
+                .andExpect(jsonPath("$._links.self.href").exists());
+    }
+
+    @Test
+    @DisplayName("Форматы кэшируются раздельно")
+    void variantsAreCachedSeparately() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", user.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links").doesNotExist());
+        mockMvc.perform(get("/api/users/{id}", user.getId()).accept(ApiMediaTypes.CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ApiMediaTypes.CBOR));
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links").exists());
+        mockMvc.perform(get("/api/users/{id}", user.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$._links").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Обновление и удаление через API инвалидируют ответ")
+    void writesInvalidateCachedResponse() throws Exception {
+        body(get("/api/users/{id}", user.getId()));
+
+        UpdateUserDto update = UpdateUserDto.builder().name("Renamed User").build();
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed User"));
+
+        mockMvc.perform(delete("/api/users/{id}", user.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: GET по ID с кэшем и без")
+    void cachedVersusUncachedBenchmark() throws Exception {
+        Long id = user.getId();
+        measure("uncached", 5_000, () -> {
+            userResponseCache.invalidate(id);
+            return get("/api/users/{id}", id);
+        });
+        measure("cached", 5_000, () -> get("/api/users/{id}", id));
+        measure("uncached lean", 5_000, () -> {
+            userResponseCache.invalidate(id);
+            return get("/api/users/{id}", id).accept(MediaType.APPLICATION_JSON);
+        });
+        measure("cached lean", 5_000, () -> get("/api/users/{id}", id).accept(MediaType.APPLICATION_JSON));
+    }
+
+    private void measure(String name, int iterations, Supplier<RequestBuilder> request) throws Exception {
+        for (int i = 0; i < iterations / 10; i++) {
+            mockMvc.perform(request.get());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mockMvc.perform(request.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-16s latency=%8.1f us/op%n", name, elapsed / 1_000.0 / iterations);
+    }
+
+    private byte[] body(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
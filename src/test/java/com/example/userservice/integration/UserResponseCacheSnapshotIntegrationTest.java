@@ -0,0 +1,164 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.cache.UserResponseCache;
+import com.example.userservice.cache.UserResponseCacheSnapshot;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Интеграционные тесты снимка кэша ответов: сохранение, загрузка через отображение в память
+ * и ленивая проверка восстановленных записей по updated_at.
+ */
+@DisplayName("User Response Cache Snapshot Integration Tests")
+@SpringBootTest(properties = "app.response-cache.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserResponseCacheSnapshotIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserResponseCache userResponseCache;
+
+    @Autowired
+    private UserResponseCacheSnapshot userResponseCacheSnapshot;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    @TempDir
+    Path tempDir;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userResponseCache.invalidateAll();
+        user = userRepository.save(User.builder().name("Snapshot User").email("snapshot@example.com").age(35).build());
+    }
+
+    @Test
+    @DisplayName("Восстановленный ответ отдается после проверки версии без повторной сериализации")
+    void restoresAndServesValidatedEntries() throws Exception {
+        byte[] original = body(user.getId());
+        Path file = tempDir.resolve("cache.snapshot");
+        assertThat(userResponseCacheSnapshot.save(file)).isEqualTo(1);
+
+        userResponseCache.invalidateAll();
+        assertThat(userResponseCacheSnapshot.load(file)).isEqualTo(1);
+        long hits = userResponseCache.getHits();
+        long validations = userResponseCache.getValidations();
+
+        assertThat(body(user.getId())).isEqualTo(original);
+        assertThat(body(user.getId())).isEqualTo(original);
+        assertThat(userResponseCache.getHits()).isEqualTo(hits + 2);
+        assertThat(userResponseCache.getValidations()).isEqualTo(validations + 1);
+    }
+
+    @Test
+    @DisplayName("Запись, измененная пока узел был остановлен, отбрасывается при проверке")
+    void dropsEntriesChangedWhileStopped() throws Exception {
+        body(user.getId());
+        Path file = tempDir.resolve("cache.snapshot");
+        userResponseCacheSnapshot.save(file);
+        userResponseCache.invalidateAll();
+
+        // Изменение мимо сервиса: ни одна инвалидация до кэша не доходит
+        user.setName("Changed Offline");
+        userRepository.save(user);
+        userResponseCacheSnapshot.load(file);
+        long failures = userResponseCache.getValidationFailures();
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Changed Offline"));
+        assertThat(userResponseCache.getValidationFailures()).isEqualTo(failures + 1);
+    }
+
+    @Test
+    @DisplayName("Поврежденный снимок игнорируется")
+    void ignoresCorruptSnapshot() throws Exception {
+        Path file = tempDir.resolve("corrupt.snapshot");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7});
+
+        assertThat(userResponseCacheSnapshot.load(file)).isZero();
+        assertThat(userResponseCache.getUsedBytes()).isZero();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: холодный и теплый старт кэша")
+    void coldVersusWarmStartBenchmark() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            ids.add(userRepository.save(User.builder().name("Bench " + i).email("bench" + i + "@example.com")
+                    .age(20 + i % 50).build()).getId());
+        }
+        for (Long id : ids) {
+            body(id);
+        }
+        Path file = tempDir.resolve("bench.snapshot");
+        userResponseCacheSnapshot.save(file);
+
+        userResponseCache.invalidateAll();
+        runPasses("cold", ids);
+
+        userResponseCache.invalidateAll();
+        long started = System.nanoTime();
+        int restored = userResponseCacheSnapshot.load(file);
+        System.out.printf("snapshot load: %d users in %.1f ms%n", restored, (System.nanoTime() - started) / 1e6);
+        runPasses("warm", ids);
+    }
+
+    private void runPasses(String name, List<Long> ids) throws Exception {
+        for (int pass = 1; pass <= 3; pass++) {
+            long misses = userResponseCache.getMisses();
+            long validations = userResponseCache.getValidations();
+            long[] latencies = new long[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                long start = System.nanoTime();
+                body(ids.get(i));
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            // Промах - полная загрузка пользователя, проверка - чтение одного столбца updated_at
+            System.out.printf("%s pass %d: full loads=%5d validations=%5d p50=%7.1f us p99=%7.1f us%n",
+                    name, pass, userResponseCache.getMisses() - misses, userResponseCache.getValidations() - validations,
+                    latencies[latencies.length / 2] / 1_000.0, latencies[latencies.length * 99 / 100] / 1_000.0);
+        }
+    }
+
+    private byte[] body(Long id) throws Exception {
+        return mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -204,4 +204,32 @@ class UserServiceIntegrationTest {
                 .andExpect(jsonPath("$[0].name").value("User 1"))
                 .andExpect(jsonPath("$[1].name").value("User 2"));
     }
+
+    @Test
+    void getUserById_WithFields_ShouldReturnOnlyRequestedFields() throws Exception {
+        // Given
+        User savedUser = userRepository.saveAndFlush(User.builder()
+                .name("Sparse User")
+                .email("sparse@example.com")
+                .age(33)
+                .build());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/{id}", savedUser.getId()).param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(savedUser.getId()))
+                .andExpect(jsonPath("$.email").value("sparse@example.com"))
+                .andExpect(jsonPath("$.name").doesNotExist())
+                .andExpect(jsonPath("$.age").doesNotExist())
+                .andExpect(jsonPath("$._links").doesNotExist());
+
+        mockMvc.perform(get("/api/users").param("fields", "name,age"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Sparse User"))
+                .andExpect(jsonPath("$[0].age").value(33))
+                .andExpect(jsonPath("$[0].email").doesNotExist());
+
+        mockMvc.perform(get("/api/users/{id}", savedUser.getId()).param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,187 @@
+package com.example.userservice.integration;
+
+import com.example.userservice.dto.CreateUserDto;
+import com.example.userservice.dto.UserCountDto;
+import com.example.userservice.dto.UpdateUserDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.EventPublisherService;
+import com.example.userservice.service.UserService;
+import com.example.userservice.service.UserStatisticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Интеграционные тесты статистики и подсчета пользователей: инкрементальное обновление при записи,
+ * исправление расхождений при сверке с БД, точный подсчет и оценка.
+ */
+@DisplayName("User Statistics Integration Tests")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserStatisticsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        userRepository.deleteAll();
+        long rebuilds = userStatisticsService.getRebuilds();
+        userStatisticsService.reconcile();
+        await(userStatisticsService::getRebuilds, rebuilds + 1);
+    }
+
+    @Test
+    @DisplayName("Создание, изменение и удаление сразу отражаются в статистике")
+    void appliesWritesIncrementally() throws Exception {
+        UserDto ann = userService.createUser(create("Ann", "ann@Example.com", 25));
+        userService.createUser(create("Bob", "bob@example.com", 34));
+        UserDto eve = userService.createUser(create("Eve", "eve@test.org", 105));
+        userService.updateUser(ann.getId(), UpdateUserDto.builder().email("ann@test.org").age(31).build());
+        userService.deleteUser(eve.getId());
+        // Изменения применяются фоновым потоком после коммита
+        awaitCondition(() -> userStatisticsService.getStatistics(1, 1)
+                .map(stats -> stats.getTotal() == 2 && stats.getAgeHistogram().get(3).getCount() == 2)
+                .orElse(false));
+
+        mockMvc.perform(get("/api/users/stats").param("topDomains", "5").param("days", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.distinctDomains").value(2))
+                .andExpect(jsonPath("$.topDomains[0].count").value(1))
+                .andExpect(jsonPath("$.ageHistogram[2].count").value(0))
+                .andExpect(jsonPath("$.ageHistogram[3].fromAge").value(30))
+                .andExpect(jsonPath("$.ageHistogram[3].count").value(2))
+                .andExpect(jsonPath("$.ageHistogram[10].count").value(0))
+                .andExpect(jsonPath("$.signupsPerDay['" + LocalDate.now() + "']").value(2))
+                .andExpect(jsonPath("$.lastDrift").value(0));
+    }
+
+    @Test
+    @DisplayName("Сверка исправляет изменения, сделанные мимо сервиса")
+    void reconciliationCorrectsOutOfBandWrites() throws Exception {
+        userService.createUser(create("Ann", "ann@example.com", 25));
+        userRepository.save(User.builder().name("Direct").email("direct@example.com").age(42).build());
+
+        long rebuilds = userStatisticsService.getRebuilds();
+        userStatisticsService.reconcile();
+        await(userStatisticsService::getRebuilds, rebuilds + 1);
+
+        mockMvc.perform(get("/api/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.topDomains[0].domain").value("example.com"))
+                .andExpect(jsonPath("$.topDomains[0].count").value(2))
+                .andExpect(jsonPath("$.ageHistogram[4].count").value(1));
+        assertThat(userStatisticsService.getStatistics(1, 1)).get()
+                .satisfies(stats -> assertThat(stats.getLastDrift()).isPositive());
+    }
+
+    @Test
+    @DisplayName("Недопустимые параметры дают 400")
+    void rejectsInvalidParameters() throws Exception {
+        mockMvc.perform(get("/api/users/stats").param("topDomains", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/stats").param("days", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Подсчет: точный режим, оценка по счетчикам и откат к точному для фильтра по имени")
+    void countsExactlyOrEstimates() throws Exception {
+        userService.createUser(create("Ann", "ann@example.com", 25));
+        userService.createUser(create("Bob", "bob@test.org", 34));
+        awaitCondition(() -> userStatisticsService.estimateCount(null, null, null)
+                .map(count -> count.getCount() == 2)
+                .orElse(false));
+
+        mockMvc.perform(get("/api/users/count").param("mode", "EXACT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.mode").value("EXACT"))
+                .andExpect(jsonPath("$.source").value("QUERY"));
+        mockMvc.perform(get("/api/users/count").param("domain", "@Example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.mode").value("ESTIMATE"))
+                .andExpect(jsonPath("$.source").value("COUNTER"));
+        mockMvc.perform(get("/api/users/count").param("name", "bo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.mode").value("EXACT"));
+        mockMvc.perform(get("/api/users/count").param("minAge", "40").param("maxAge", "30"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Домен вместе с возрастом оценивается скетчами в пределах границы ошибки")
+    void estimatesDomainAndAgeWithSketches() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            String domain = i < 600 ? "big.com" : "other.com";
+            users.add(User.builder().name("User " + i).email("user" + i + "@" + domain).age(20 + i % 60).build());
+        }
+        userRepository.saveAll(users);
+        long rebuilds = userStatisticsService.getRebuilds();
+        userStatisticsService.reconcile();
+        await(userStatisticsService::getRebuilds, rebuilds + 1);
+
+        UserCountDto estimate = userStatisticsService.estimateCount("big.com", 30, 39).orElseThrow();
+        assertThat(estimate.getSource()).isEqualTo(UserCountDto.Source.SKETCH);
+        assertThat(estimate.getCount()).isCloseTo(100L, within(estimate.getErrorBound()));
+
+        mockMvc.perform(get("/api/users/count").param("mode", "EXACT")
+                        .param("domain", "big.com").param("minAge", "30").param("maxAge", "39"))
+                .andExpect(jsonPath("$.count").value(100));
+    }
+
+    private static CreateUserDto create(String name, String email, int age) {
+        return CreateUserDto.builder().name(name).email(email).age(age).build();
+    }
+
+    private static void await(LongSupplier counter, long expected) throws InterruptedException {
+        awaitCondition(() -> counter.getAsLong() >= expected);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        // Отложенное перестроение после импорта в другом тесте того же контекста может занять до rebuild-delay-ms
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты поиска пользователей по email через natural id.
+ * Количество SQL запросов проверяется через статистику Hibernate.
+ */
+@DisplayName("UserRepository Natural Id Tests")
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class UserRepositoryNaturalIdTest {
+
+    private static final String TEST_EMAIL = "natural.id@example.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.saveAndFlush(User.builder()
+                .name("Natural Id User")
+                .email(TEST_EMAIL)
+                .age(40)
+                .build());
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Повторный поиск по email не выполняет SQL запрос")
+    void repeatedFindByEmailResolvesFromPersistenceContext() {
+        Optional<User> first = userRepository.findByEmail(TEST_EMAIL);
+        long statementsAfterFirstLookup = statistics.getPrepareStatementCount();
+
+        Optional<User> second = userRepository.findByEmail(TEST_EMAIL);
+        boolean exists = userRepository.existsByEmail(TEST_EMAIL);
+
+        assertThat(first).isPresent();
+        assertThat(second).containsSame(first.get());
+        assertThat(exists).isTrue();
+        assertThat(statementsAfterFirstLookup).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstLookup);
+    }
+
+    @Test
+    @DisplayName("JPQL поиск по email выполняет запрос при каждом вызове")
+    void jpqlLookupHitsDatabaseEveryTime() {
+        for (int i = 0; i < 3; i++) {
+            entityManager.createQuery("FROM User WHERE email = :email", User.class)
+                    .setParameter("email", TEST_EMAIL)
+                    .getSingleResult();
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Проверка несуществующего email возвращает false")
+    void existsByEmailReturnsFalseForUnknownEmail() {
+        assertThat(userRepository.existsByEmail("unknown@example.com")).isFalse();
+        assertThat(userRepository.findByEmail("unknown@example.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Изменение email синхронизирует natural id в сессии")
+    void changedEmailIsResolvedWithinSession() {
+        User user = userRepository.findByEmail(TEST_EMAIL).orElseThrow();
+        user.setEmail("changed.natural.id@example.com");
+
+        assertThat(userRepository.findByEmail("changed.natural.id@example.com")).containsSame(user);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты чтения пользователей через DTO проекции.
+ * Проекции не должны создавать управляемые сущности в контексте персистентности.
+ */
+@DisplayName("UserRepository Projection Tests")
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class UserRepositoryProjectionTest {
+
+    private static final int USER_COUNT = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        users = new ArrayList<>();
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(User.builder().name("Projected " + i).email("projected-" + i + "@example.com").age(i % 100).build());
+        }
+        users = userRepository.saveAllAndFlush(users);
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Проекции возвращают DTO без сущностей в контексте персистентности")
+    void projectionsDoNotHydrateEntities() {
+        User first = users.get(0);
+
+        assertThat(userRepository.findDtoById(first.getId())).map(UserDto::getEmail).contains(first.getEmail());
+        assertThat(userRepository.findDtoByEmail(first.getEmail())).map(UserDto::getId).contains(first.getId());
+        assertThat(userRepository.findAllDtos()).hasSize(USER_COUNT);
+
+        assertThat(persistenceContextSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Поиск фильтрует по имени и возрасту с keyset пагинацией")
+    void searchFiltersAndPages() {
+        List<UserDto> firstPage = userRepository.searchDtos(0L, "%projected 1%", 10, 19, Limit.of(5));
+        List<UserDto> secondPage = userRepository.searchDtos(firstPage.get(4).getId(), "%projected 1%", 10, 19,
+                Limit.of(5));
+
+        assertThat(firstPage).hasSize(5).allMatch(u -> u.getName().startsWith("Projected 1") && u.getAge() >= 10);
+        assertThat(secondPage).hasSize(5).allMatch(u -> u.getId() > firstPage.get(4).getId());
+        assertThat(userRepository.searchDtos(0L, null, null, null, Limit.of(1000))).hasSize(USER_COUNT);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    @DisplayName("Бенчмарк: аллокации и латентность проекций против сущностей")
+    void projectionVersusEntityBenchmark() {
+        Long id = users.get(USER_COUNT / 2).getId();
+        measure("entity findById", 20_000, () -> {
+            UserDto dto = userRepository.findById(id).map(UserRepositoryProjectionTest::toDto).orElseThrow();
+            entityManager.clear();
+            return dto;
+        });
+        measure("projection findDtoById", 20_000, () -> userRepository.findDtoById(id).orElseThrow());
+        measure("entity findAll", 200, () -> {
+            List<UserDto> dtos = userRepository.findAll().stream().map(UserRepositoryProjectionTest::toDto).toList();
+            entityManager.clear();
+            return dtos;
+        });
+        measure("projection findAllDtos", 200, () -> userRepository.findAllDtos());
+    }
+
+    private static void measure(String name, int iterations, Supplier<Object> operation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < iterations / 10; i++) {
+            operation.get();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-24s latency=%8.1f us/op allocated=%10d B/op%n",
+                name, elapsed / 1_000.0 / iterations, allocated / iterations);
+    }
+
+    private long persistenceContextSize() {
+        return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+    }
+
+    private static UserDto toDto(User user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .age(user.getAge())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.userservice.stream;
+
+import com.example.userservice.dto.UserEventDto;
+import com.example.userservice.dto.UserStreamEventDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Юнит-тесты потока изменений: буфер подписчика, политики отставания и возобновление по offset.
+ */
+@DisplayName("UserEventStream Unit Tests")
+class UserEventStreamTest {
+
+    private UserEventStream stream;
+
+    @AfterEach
+    void tearDown() {
+        stream.destroy();
+    }
+
+    @Test
+    @DisplayName("Подписчик получает новые события по порядку")
+    void deliversEventsInOrder() throws InterruptedException {
+        stream = stream(100, 16, 10);
+        RecordingSink sink = new RecordingSink(true);
+        stream.subscribe(null, SlowConsumerPolicy.DROP, sink);
+
+        publish("a@example.com", "b@example.com", "c@example.com");
+
+        assertThat(sink.take(3)).containsExactly(1L, 2L, 3L);
+        assertThat(stream.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("DROP отбрасывает самые старые события при переполнении буфера")
+    void dropPolicyDiscardsOldest() throws InterruptedException {
+        stream = stream(100, 2, 10);
+        RecordingSink sink = new RecordingSink(false);
+        stream.subscribe(null, SlowConsumerPolicy.DROP, sink);
+
+        publish("a@example.com");
+        sink.awaitBlocked();
+        publish("b@example.com", "c@example.com", "d@example.com", "e@example.com");
+        sink.open();
+
+        assertThat(sink.take(3)).containsExactly(1L, 4L, 5L);
+        assertThat(stream.getDropped()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("COALESCE оставляет только последнее событие пользователя")
+    void coalescePolicyKeepsLatestPerUser() throws InterruptedException {
+        stream = stream(100, 4, 10);
+        RecordingSink sink = new RecordingSink(false);
+        stream.subscribe(null, SlowConsumerPolicy.COALESCE, sink);
+
+        publish("a@example.com");
+        sink.awaitBlocked();
+        publish("b@example.com", "a@example.com", "a@example.com");
+        sink.open();
+
+        assertThat(sink.take(3)).containsExactly(1L, 2L, 4L);
+        assertThat(stream.getCoalesced()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("DISCONNECT отключает подписчика при переполнении буфера")
+    void disconnectPolicyClosesSlowSubscriber() throws InterruptedException {
+        stream = stream(100, 1, 10);
+        RecordingSink sink = new RecordingSink(false);
+        stream.subscribe(null, SlowConsumerPolicy.DISCONNECT, sink);
+
+        publish("a@example.com");
+        sink.awaitBlocked();
+        publish("b@example.com", "c@example.com");
+
+        assertThat(sink.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stream.getSubscriberCount()).isZero();
+        assertThat(stream.getDisconnected()).isEqualTo(1);
+        sink.open();
+    }
+
+    @Test
+    @DisplayName("Подписка с offset повторяет сохраненные события и продолжает живым потоком")
+    void resumesFromOffset() throws InterruptedException {
+        stream = stream(100, 16, 10);
+        publish("a@example.com", "b@example.com", "c@example.com", "d@example.com", "e@example.com");
+        RecordingSink sink = new RecordingSink(true);
+
+        stream.subscribe(3L, SlowConsumerPolicy.DROP, sink);
+        publish("f@example.com");
+
+        assertThat(sink.take(4)).containsExactly(3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    @DisplayName("Недоступный offset приводит к событию RESYNC")
+    void sendsResyncForExpiredOffset() throws InterruptedException {
+        stream = stream(4, 16, 10);
+        for (int i = 0; i < 10; i++) {
+            publish("user" + i + "@example.com");
+        }
+        RecordingSink sink = new RecordingSink(true);
+
+        stream.subscribe(2L, SlowConsumerPolicy.DROP, sink);
+
+        UserStreamEventDto event = sink.events.poll(5, TimeUnit.SECONDS);
+        assertThat(event).isNotNull();
+        assertThat(event.getKind()).isEqualTo(UserStreamEventDto.Kind.RESYNC);
+        assertThat(event.getOffset()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Сверх лимита подписчики не принимаются")
+    void rejectsSubscribersOverLimit() {
+        stream = stream(100, 16, 1);
+
+        assertThat(stream.subscribe(null, null, new RecordingSink(true))).isNotNull();
+        assertThat(stream.subscribe(null, null, new RecordingSink(true))).isNull();
+    }
+
+    @Test
+    @DisplayName("Зависшая отправка отключается по таймауту и не задерживает остальных подписчиков")
+    void stalledSubscriberDoesNotBlockOthers() throws InterruptedException {
+        stream = new UserEventStream(100, 16, 10, SlowConsumerPolicy.DROP, 1, 100, 15_000, noMetrics());
+        stream.afterPropertiesSet();
+        RecordingSink stalled = new RecordingSink(false);
+        RecordingSink healthy = new RecordingSink(true);
+        stream.subscribe(null, SlowConsumerPolicy.DROP, stalled);
+        stream.subscribe(null, SlowConsumerPolicy.DROP, healthy);
+
+        publish("a@example.com", "b@example.com");
+
+        // Единственный поток рассылки освобождается только после отключения зависшего подписчика
+        assertThat(healthy.take(2)).containsExactly(1L, 2L);
+        assertThat(stalled.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stream.getTimedOut()).isEqualTo(1);
+        assertThat(stream.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Лимит подписчиков соблюдается при одновременных подписках и освобождается при закрытии")
+    void admitsSubscribersAtomically() throws InterruptedException {
+        stream = stream(100, 16, 5);
+        List<UserEventStream.Subscription> accepted = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                UserEventStream.Subscription subscription = stream.subscribe(null, null, new RecordingSink(true));
+                if (subscription != null) {
+                    accepted.add(subscription);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(accepted).hasSize(5);
+        accepted.get(0).close();
+        accepted.get(0).close();
+        assertThat(stream.subscribe(null, null, new RecordingSink(true))).isNotNull();
+        assertThat(stream.subscribe(null, null, new RecordingSink(true))).isNull();
+    }
+
+    private void publish(String... emails) {
+        for (String email : emails) {
+            stream.publishUserEvent(new UserEventDto("UPDATE", email, "User"));
+        }
+    }
+
+    private static UserEventStream stream(int replayCapacity, int subscriberBuffer, int maxSubscribers) {
+        return new UserEventStream(replayCapacity, subscriberBuffer, maxSubscribers, SlowConsumerPolicy.DROP, 2,
+                10_000, 15_000, noMetrics());
+    }
+
+    private static ObjectProvider<MeterRegistry> noMetrics() {
+        return new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+    }
+
+    /**
+     * Получатель, который может удерживать поток рассылки, имитируя медленного клиента.
+     */
+    private static final class RecordingSink implements StreamSink {
+
+        private final BlockingQueue<UserStreamEventDto> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch gate;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        private RecordingSink(boolean open) {
+            this.gate = new CountDownLatch(open ? 0 : 1);
+        }
+
+        @Override
+        public void send(UserStreamEventDto event) throws IOException {
+            blocked.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        void open() {
+            gate.countDown();
+        }
+
+        List<Long> take(int count) throws InterruptedException {
+            List<Long> offsets = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                UserStreamEventDto event = events.poll(5, TimeUnit.SECONDS);
+                if (event == null) {
+                    break;
+                }
+                offsets.add(event.getOffset());
+            }
+            return offsets;
+        }
+    }
+}
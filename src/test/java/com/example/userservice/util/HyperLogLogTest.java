@@ -0,0 +1,65 @@
+package com.example.userservice.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Юнит-тесты скетча HyperLogLog: точность оценки, объединение и повторные значения.
+ */
+@DisplayName("HyperLogLog Unit Tests")
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Оценка большого множества в пределах трех стандартных ошибок")
+    void estimatesLargeCardinality() {
+        HyperLogLog sketch = new HyperLogLog(11);
+        for (long id = 1; id <= 200_000; id++) {
+            sketch.add(id);
+        }
+
+        double error = 3 * sketch.relativeStandardError() * 200_000;
+        assertThat((double) sketch.estimate()).isCloseTo(200_000, within(error));
+    }
+
+    @Test
+    @DisplayName("Малые множества оцениваются линейным подсчетом почти точно")
+    void estimatesSmallCardinality() {
+        HyperLogLog sketch = new HyperLogLog(11);
+        for (long id = 1; id <= 300; id++) {
+            sketch.add(id);
+            sketch.add(id);
+        }
+
+        assertThat((double) sketch.estimate()).isCloseTo(300, within(15.0));
+    }
+
+    @Test
+    @DisplayName("Объединение оценивает мощность объединения множеств")
+    void mergesSketches() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (long id = 1; id <= 60_000; id++) {
+            first.add(id);
+            second.add(id + 30_000);
+        }
+
+        HyperLogLog union = first.copy();
+        union.merge(second);
+
+        double error = 3 * union.relativeStandardError() * 90_000;
+        assertThat((double) union.estimate()).isCloseTo(90_000, within(error));
+        assertThat((double) first.estimate()).isCloseTo(60_000, within(error));
+    }
+
+    @Test
+    @DisplayName("Скетчи разной точности не объединяются")
+    void rejectsDifferentPrecision() {
+        assertThatThrownBy(() -> new HyperLogLog(10).merge(new HyperLogLog(11)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}